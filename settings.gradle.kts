@@ -4,6 +4,7 @@ include("taxonomy-manager-common")
 include("taxonomy-manager-engine")
 include("taxonomy-manager-rest")
 include("taxonomy-manager-rest-server")
+include("taxonomy-manager-benchmarks")
 
 // @TODO: Update this when the Quarkus gradle plugin is available on the Gradle Plugin Portal.
 pluginManagement {
@@ -0,0 +1,26 @@
+plugins {
+    java
+    id("me.champeau.gradle.jmh") version "0.5.0-rc-2"
+}
+
+dependencies {
+    jmh(project(":taxonomy-manager-engine"))
+    jmh(project(":taxonomy-manager-rest-server"))
+    jmh("org.openjdk.jol", "jol-core", "0.10")
+}
+
+// Results are written as JSON so runs can be compared between commits, e.g.:
+//   ./gradlew :taxonomy-manager-benchmarks:jmh -PbenchmarkLabel=$(git rev-parse --short HEAD)
+val benchmarkLabel = findProperty("benchmarkLabel")?.toString() ?: "latest"
+val benchmarkIncludes = findProperty("benchmarkIncludes")?.toString()
+
+jmh {
+    duplicateClassesStrategy = DuplicatesStrategy.WARN
+    resultFormat = "JSON"
+    resultsFile = file("$buildDir/reports/jmh/results-$benchmarkLabel.json")
+    humanOutputFile = file("$buildDir/reports/jmh/human-$benchmarkLabel.txt")
+
+    if (benchmarkIncludes != null) {
+        include = listOf(benchmarkIncludes)
+    }
+}
@@ -0,0 +1,156 @@
+package com.digirati.taxman.analysis.index;
+
+import com.digirati.taxman.analysis.LexemeDictionary;
+import com.digirati.taxman.analysis.TermMatch;
+import com.digirati.taxman.analysis.WordTokenSearchStrategy;
+import com.digirati.taxman.analysis.WordTokenizer;
+import com.digirati.taxman.analysis.search.InvertedIndexSearchStrategy;
+import com.digirati.taxman.analysis.search.PhraseAutomatonSearchStrategy;
+import com.digirati.taxman.benchmarks.SyntheticCorpus;
+import com.digirati.taxman.benchmarks.Tokenizers;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.Multimap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Measures building a {@link TermIndex} in bulk, and matching a document against one scope or every scope of an
+ * index whose labels are spread evenly over several scopes.
+ */
+public class TermIndexBenchmarks {
+
+    private static Supplier<WordTokenSearchStrategy<Integer>> searchStrategyFactory(String name) {
+        var dictionary = new LexemeDictionary();
+
+        switch (name) {
+            case "inverted-index":
+                return () -> new InvertedIndexSearchStrategy<>(dictionary);
+            case "phrase-automaton":
+                return () -> new PhraseAutomatonSearchStrategy<>(dictionary);
+            default:
+                throw new IllegalArgumentException("Unknown search strategy: " + name);
+        }
+    }
+
+    private static Multimap<Integer, String> terms(List<String> labels, int scope, int scopeCount) {
+        Multimap<Integer, String> terms = ArrayListMultimap.create();
+
+        for (int index = scope; index < labels.size(); index += scopeCount) {
+            terms.put(index, labels.get(index));
+        }
+
+        return terms;
+    }
+
+    @State(Scope.Benchmark)
+    public static class BuildState {
+
+        @Param({"42"})
+        long seed;
+
+        @Param({"1000", "10000"})
+        int labelCount;
+
+        @Param({"corenlp", "rule-based"})
+        String tokenizerName;
+
+        @Param({"inverted-index", "phrase-automaton"})
+        String searchStrategy;
+
+        WordTokenizer tokenizer;
+
+        Multimap<Integer, String> terms;
+
+        @Setup
+        public void setup() {
+            tokenizer = Tokenizers.create(tokenizerName);
+            terms = terms(new SyntheticCorpus(seed).labels(labelCount), 0, 1);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class MatchState {
+
+        @Param({"42"})
+        long seed;
+
+        @Param({"10000", "100000"})
+        int labelCount;
+
+        @Param({"10"})
+        int scopeCount;
+
+        @Param({"1000"})
+        int documentWords;
+
+        @Param({"rule-based"})
+        String tokenizerName;
+
+        @Param({"inverted-index", "phrase-automaton"})
+        String searchStrategy;
+
+        TermIndex<String, Integer> index;
+
+        String document;
+
+        @Setup
+        public void setup() {
+            var corpus = new SyntheticCorpus(seed);
+            var labels = corpus.labels(labelCount);
+
+            index = new TermIndex<>(Tokenizers.create(tokenizerName), searchStrategyFactory(searchStrategy));
+            for (int scope = 0; scope < scopeCount; scope++) {
+                index.addAll("scope-" + scope, terms(labels, scope, scopeCount));
+            }
+
+            document = corpus.document(documentWords, labels);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 5)
+    @Fork(2)
+    public TermIndex<String, Integer> addAll(BuildState state) {
+        var index = new TermIndex<String, Integer>(state.tokenizer, searchStrategyFactory(state.searchStrategy));
+        index.addAll("scope", state.terms);
+
+        return index;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(time = 5, iterations = 3)
+    @Measurement(time = 5, iterations = 2)
+    @Fork(2)
+    public Set<TermMatch<Integer>> matchScoped(MatchState state) {
+        return state.index.match("scope-0", state.document);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(time = 5, iterations = 3)
+    @Measurement(time = 5, iterations = 2)
+    @Fork(2)
+    public Set<TermMatch<Integer>> matchUnscoped(MatchState state) {
+        return state.index.match(state.document);
+    }
+}
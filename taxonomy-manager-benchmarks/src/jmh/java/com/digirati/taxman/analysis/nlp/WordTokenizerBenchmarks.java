@@ -0,0 +1,58 @@
+package com.digirati.taxman.analysis.nlp;
+
+import com.digirati.taxman.analysis.WordToken;
+import com.digirati.taxman.analysis.WordTokenizer;
+import com.digirati.taxman.benchmarks.SyntheticCorpus;
+import com.digirati.taxman.benchmarks.Tokenizers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link WordTokenizer#tokenize(String)} on synthetic documents of increasing size.
+ */
+@State(Scope.Benchmark)
+public class WordTokenizerBenchmarks {
+
+    @Param({"42"})
+    private long seed;
+
+    @Param({"corenlp", "rule-based"})
+    private String tokenizerName;
+
+    @Param({"100", "1000", "10000"})
+    private int documentWords;
+
+    private String document;
+
+    private WordTokenizer tokenizer;
+
+    @Setup
+    public void setup() {
+        var corpus = new SyntheticCorpus(seed);
+
+        tokenizer = Tokenizers.create(tokenizerName);
+        document = corpus.document(documentWords, corpus.labels(1000));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(time = 5, iterations = 3)
+    @Measurement(time = 5, iterations = 2)
+    @Fork(2)
+    public List<WordToken> tokenize() {
+        return tokenizer.tokenize(document);
+    }
+}
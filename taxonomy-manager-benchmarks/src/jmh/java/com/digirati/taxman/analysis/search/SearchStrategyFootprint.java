@@ -0,0 +1,59 @@
+package com.digirati.taxman.analysis.search;
+
+import com.digirati.taxman.analysis.WordTokenSearchEntry;
+import com.digirati.taxman.analysis.WordTokenSearchStrategy;
+import com.digirati.taxman.analysis.nlp.corenlp.CoreNlpWordTokenizer;
+import com.digirati.taxman.benchmarks.SyntheticCorpus;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reports the retained heap size of each search strategy after indexing synthetic labels tokenized by
+ * {@link CoreNlpWordTokenizer}.
+ *
+ * <p>Usage: {@code SearchStrategyFootprint [label count] [strategy class...]}
+ */
+public class SearchStrategyFootprint {
+
+    private static final int DEFAULT_LABEL_COUNT = 10_000;
+    private static final long SEED = 42;
+
+    private static final List<String> DEFAULT_STRATEGIES = List.of(
+            NaiveSearchStrategy.class.getName(),
+            InvertedIndexSearchStrategy.class.getName(),
+            PhraseAutomatonSearchStrategy.class.getName());
+
+    @SuppressWarnings("unchecked")
+    public static void main(String[] args) throws Exception {
+        var labelCount = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_LABEL_COUNT;
+        var strategyClasses = args.length > 1 ? List.of(args).subList(1, args.length) : DEFAULT_STRATEGIES;
+        var labels = new SyntheticCorpus(SEED).labels(labelCount);
+
+        var tokenizer = CoreNlpWordTokenizer.create("en");
+        var entries = new ArrayList<WordTokenSearchEntry<Integer>>(labels.size());
+
+        for (int index = 0; index < labels.size(); index++) {
+            var tokens = tokenizer.tokenize(labels.get(index));
+            if (!tokens.isEmpty()) {
+                entries.add(new WordTokenSearchEntry<>(index, tokens));
+            }
+        }
+
+        for (var strategyClass : strategyClasses) {
+            var strategy = (WordTokenSearchStrategy<Integer>) Class.forName(strategyClass)
+                    .getDeclaredConstructor()
+                    .newInstance();
+
+            strategy.indexAll(entries);
+
+            var layout = GraphLayout.parseInstance(strategy);
+            System.out.printf("%s: %d labels, %d bytes, %.1f bytes/label%n",
+                    strategyClass,
+                    entries.size(),
+                    layout.totalSize(),
+                    (double) layout.totalSize() / entries.size());
+        }
+    }
+}
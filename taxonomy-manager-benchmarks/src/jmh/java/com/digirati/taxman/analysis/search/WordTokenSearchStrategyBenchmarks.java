@@ -0,0 +1,102 @@
+package com.digirati.taxman.analysis.search;
+
+
+import com.digirati.taxman.analysis.TermMatch;
+import com.digirati.taxman.analysis.WordToken;
+import com.digirati.taxman.analysis.WordTokenSearchEntry;
+import com.digirati.taxman.analysis.WordTokenSearchStrategy;
+import com.digirati.taxman.analysis.nlp.AnnotationType;
+import com.digirati.taxman.benchmarks.SyntheticCorpus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Measures {@link WordTokenSearchStrategy#match(List)} of a synthetic document against indexes of increasing size.
+ * Labels and input are split on whitespace only, so tokenization cost is left out.
+ */
+@State(Scope.Benchmark)
+public class WordTokenSearchStrategyBenchmarks {
+
+    @Param({"42"})
+    private long seed;
+
+    @Param({"1000", "10000", "100000"})
+    private int labelCount;
+
+    @Param({"1000"})
+    private int documentWords;
+
+    @Param({
+            "com.digirati.taxman.analysis.search.NaiveSearchStrategy",
+            "com.digirati.taxman.analysis.search.InvertedIndexSearchStrategy",
+            "com.digirati.taxman.analysis.search.PhraseAutomatonSearchStrategy"
+    })
+    private String strategyClass;
+
+    private List<WordToken> inputTokens;
+
+    private WordTokenSearchStrategy<Integer> strategy;
+
+    static List<WordToken> naiveTokenize(String line) {
+        var tokens = new ArrayList<WordToken>();
+        int position = 0;
+
+        for (String word : line.split(" ")) {
+            var token = word.replace(".", "").toLowerCase();
+            tokens.add(new WordToken(Map.of(AnnotationType.TOKEN, token), position, position + word.length()));
+            position += word.length() + 1;
+        }
+
+        return tokens;
+    }
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() throws Exception {
+        var corpus = new SyntheticCorpus(seed);
+        var labels = corpus.labels(labelCount);
+
+        this.strategy = (WordTokenSearchStrategy<Integer>) Class.forName(strategyClass)
+                .getDeclaredConstructor()
+                .newInstance();
+        this.inputTokens = naiveTokenize(corpus.document(documentWords, labels));
+
+        var entries = new ArrayList<WordTokenSearchEntry<Integer>>(labels.size());
+        for (int index = 0; index < labels.size(); index++) {
+            entries.add(new WordTokenSearchEntry<>(index, naiveTokenize(labels.get(index))));
+        }
+
+        strategy.indexAll(entries);
+
+        if (strategy instanceof PhraseAutomatonSearchStrategy) {
+            ((PhraseAutomatonSearchStrategy<Integer>) strategy).compile();
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(time = 5, iterations = 3)
+    @Measurement(time = 5, iterations = 2)
+    @Fork(2)
+    public Set<TermMatch<Integer>> search() {
+        return strategy.match(inputTokens);
+    }
+
+}
@@ -0,0 +1,122 @@
+package com.digirati.taxman.benchmarks;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Generates taxonomy labels and documents from a vocabulary of ~9k English words, shuffled with a seed, so
+ * benchmarks run against the same data on every machine and every commit.
+ *
+ * <p>Words are drawn with a skewed distribution, so a few words are very common, as in natural text, and
+ * documents mention a fraction of the generated labels verbatim so that matching has something to find. Documents
+ * mix in English function words, as part of speech taggers are much slower on sentences made of content words only.
+ * Even so, tagging this text is slower than tagging natural prose: use the results to compare commits, not to size
+ * deployments.
+ */
+public final class SyntheticCorpus {
+
+    private static final String VOCABULARY_PATH = "/com/digirati/taxman/benchmarks/corpus--10k-words.txt";
+    private static final double LABEL_MENTION_RATE = 0.05;
+    private static final double FUNCTION_WORD_RATE = 0.4;
+    private static final String[] FUNCTION_WORDS = {
+        "the", "of", "and", "a", "to", "in", "is", "was", "for", "with", "that", "on", "by", "as", "at", "from", "it",
+        "which", "were", "an", "this", "be", "are", "has", "not"
+    };
+
+    private final long seed;
+    private final List<String> vocabulary;
+
+    public SyntheticCorpus(long seed) {
+        this.seed = seed;
+        this.vocabulary = loadVocabulary(new Random(seed));
+    }
+
+    private static List<String> loadVocabulary(Random random) {
+        List<String> words;
+
+        try (var input = SyntheticCorpus.class.getResourceAsStream(VOCABULARY_PATH);
+             var reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            words = reader.lines().distinct().collect(Collectors.toCollection(ArrayList::new));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read benchmark vocabulary", e);
+        }
+
+        Collections.shuffle(words, random);
+        return List.copyOf(words);
+    }
+
+    /**
+     * Draw a word, favouring the start of the vocabulary.
+     */
+    private String word(Random random) {
+        double skewed = Math.pow(random.nextDouble(), 2);
+        return vocabulary.get((int) (skewed * vocabulary.size()));
+    }
+
+    /**
+     * Generate {@code count} distinct labels of one to four words.
+     */
+    public List<String> labels(int count) {
+        var random = new Random(seed * 31 + count);
+        Set<String> labels = new LinkedHashSet<>(count);
+
+        while (labels.size() < count) {
+            int roll = random.nextInt(20);
+            int words = roll < 8 ? 1 : roll < 15 ? 2 : roll < 19 ? 3 : 4;
+
+            var label = new StringBuilder(word(random));
+            for (int index = 1; index < words; index++) {
+                label.append(' ').append(word(random));
+            }
+
+            labels.add(label.toString());
+        }
+
+        return List.copyOf(labels);
+    }
+
+    /**
+     * Generate a document of roughly {@code wordCount} words in sentences of 8 to 20 words, mentioning some of the
+     * given labels.
+     */
+    public String document(int wordCount, List<String> labels) {
+        var random = new Random(seed * 31 + wordCount + 1);
+        var document = new StringBuilder(wordCount * 8);
+        int written = 0;
+
+        while (written < wordCount) {
+            int sentenceLength = 8 + random.nextInt(13);
+            var sentence = new ArrayList<String>(sentenceLength);
+
+            while (sentence.size() < sentenceLength) {
+                double roll = random.nextDouble();
+                if (!labels.isEmpty() && roll < LABEL_MENTION_RATE) {
+                    sentence.add(labels.get(random.nextInt(labels.size())));
+                } else if (roll < LABEL_MENTION_RATE + FUNCTION_WORD_RATE) {
+                    sentence.add(FUNCTION_WORDS[random.nextInt(FUNCTION_WORDS.length)]);
+                } else {
+                    sentence.add(word(random));
+                }
+            }
+
+            var text = String.join(" ", sentence);
+            document.append(Character.toUpperCase(text.charAt(0)))
+                    .append(text, 1, text.length())
+                    .append(". ");
+
+            written += sentence.size();
+        }
+
+        return document.toString().trim();
+    }
+}
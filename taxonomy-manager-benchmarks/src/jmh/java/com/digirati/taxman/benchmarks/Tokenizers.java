@@ -0,0 +1,26 @@
+package com.digirati.taxman.benchmarks;
+
+import com.digirati.taxman.analysis.WordTokenizer;
+import com.digirati.taxman.analysis.nlp.corenlp.CoreNlpWordTokenizer;
+import com.digirati.taxman.analysis.nlp.rulebased.RuleBasedWordTokenizer;
+
+/**
+ * Creates the {@link WordTokenizer} named by a benchmark parameter, using the same names as the
+ * {@code taxman.analysis.tokenizer} setting of the server.
+ */
+public final class Tokenizers {
+
+    private Tokenizers() {
+    }
+
+    public static WordTokenizer create(String name) {
+        switch (name) {
+            case "corenlp":
+                return CoreNlpWordTokenizer.create("en");
+            case "rule-based":
+                return RuleBasedWordTokenizer.create("en");
+            default:
+                throw new IllegalArgumentException("Unknown tokenizer: " + name);
+        }
+    }
+}
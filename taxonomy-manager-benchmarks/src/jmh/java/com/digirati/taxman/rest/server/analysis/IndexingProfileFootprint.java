@@ -0,0 +1,88 @@
+package com.digirati.taxman.rest.server.analysis;
+
+import com.digirati.taxman.analysis.LexemeDictionary;
+import com.digirati.taxman.analysis.index.Term;
+import com.digirati.taxman.analysis.index.TermIndex;
+import com.digirati.taxman.analysis.search.PhraseAutomatonSearchStrategy;
+import com.digirati.taxman.benchmarks.SyntheticCorpus;
+import com.digirati.taxman.benchmarks.Tokenizers;
+import com.digirati.taxman.rest.server.taxonomy.storage.record.ConceptRecord;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.Multimap;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reports the retained heap size and build time of a term index of synthetic concepts that have labels, a scope note
+ * and a definition, when indexing only the labels and when indexing every property.
+ *
+ * <p>Usage: {@code IndexingProfileFootprint [concept count] [tokenizer]}
+ */
+public class IndexingProfileFootprint {
+
+    private static final int DEFAULT_CONCEPT_COUNT = 10_000;
+    private static final long SEED = 42;
+
+    private static final int SCOPE_NOTE_WORDS = 15;
+    private static final int DEFINITION_WORDS = 40;
+
+    public static void main(String[] args) {
+        var conceptCount = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_CONCEPT_COUNT;
+        var tokenizer = args.length > 1 ? args[1] : "rule-based";
+        var records = records(new SyntheticCorpus(SEED), conceptCount);
+
+        report("labels", ConceptIndexLabels.LABEL_PROPERTIES, records, tokenizer);
+        report("all", ConceptIndexLabels.KNOWN_PROPERTIES, records, tokenizer);
+    }
+
+    private static List<ConceptRecord> records(SyntheticCorpus corpus, int count) {
+        var labels = corpus.labels(count * 2);
+        var records = new ArrayList<ConceptRecord>(count);
+
+        for (int index = 0; index < count; index++) {
+            var record = new ConceptRecord(new UUID(SEED, index), "project");
+            record.setPreferredLabel(literal(labels.get(index * 2)));
+            record.setAltLabel(literal(labels.get(index * 2 + 1)));
+            record.setScopeNote(literal(corpus.document(SCOPE_NOTE_WORDS, labels)));
+            record.setDefinition(literal(corpus.document(DEFINITION_WORDS, labels)));
+
+            records.add(record);
+        }
+
+        return records;
+    }
+
+    private static Multimap<String, String> literal(String value) {
+        return ImmutableListMultimap.of("en", value);
+    }
+
+    private static void report(String name, Set<String> profile, List<ConceptRecord> records, String tokenizer) {
+        var index = new TermIndex<String, UUID>(Tokenizers.create(tokenizer), () ->
+                new PhraseAutomatonSearchStrategy<>(new LexemeDictionary()));
+        var empty = GraphLayout.parseInstance(index).totalSize();
+
+        Multimap<UUID, Term> terms = ArrayListMultimap.create();
+        for (var record : records) {
+            terms.putAll(record.getUuid(), ConceptIndexLabels.extract(record, profile, "en").get("en"));
+        }
+
+        long start = System.nanoTime();
+        index.addAllTokenized("project", index.tokenizeTerms("project", terms));
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        var size = GraphLayout.parseInstance(index).totalSize() - empty;
+        System.out.printf("%s: %d concepts, %d labels, %d bytes, %.1f bytes/concept, built in %d ms%n",
+                name,
+                records.size(),
+                terms.size(),
+                size,
+                (double) size / records.size(),
+                elapsed);
+    }
+}
@@ -0,0 +1,74 @@
+package com.digirati.taxman.rest.server.infrastructure.event;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Measures the time to encode and decode concept change messages per event, sending every event in a message of
+ * its own or in batches. Run {@link ConceptChangeMessageFootprint} for the size of the messages.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(time = 2, iterations = 3)
+@Measurement(time = 2, iterations = 5)
+@Fork(2)
+public class ConceptChangeCodecBenchmarks {
+
+    private static final int EVENT_COUNT = 1000;
+
+    @State(Scope.Benchmark)
+    public static class MessageState {
+
+        @Param({"42"})
+        long seed;
+
+        @Param({"java-serialization", "binary"})
+        String format;
+
+        @Param({"1", "1000"})
+        int eventsPerMessage;
+
+        List<List<ConceptChangeEvent>> groups;
+
+        List<byte[]> messages;
+
+        @Setup
+        public void setup() {
+            groups = ConceptChangeMessages.groups(ConceptChangeMessages.events(seed, EVENT_COUNT), eventsPerMessage);
+            messages = groups.stream()
+                    .map(group -> ConceptChangeMessages.encode(format, group))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENT_COUNT)
+    public void encode(MessageState state, Blackhole blackhole) {
+        for (var group : state.groups) {
+            blackhole.consume(ConceptChangeMessages.encode(state.format, group));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENT_COUNT)
+    public void decode(MessageState state, Blackhole blackhole) {
+        for (var message : state.messages) {
+            blackhole.consume(ConceptChangeMessages.decode(state.format, message));
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.digirati.taxman.rest.server.infrastructure.event;
+
+import java.util.List;
+
+/**
+ * Reports the number of bytes per event of concept change messages, for each message format, with every event sent
+ * in a message of its own or in batches.
+ *
+ * <p>Usage: {@code ConceptChangeMessageFootprint [event count]}
+ */
+public class ConceptChangeMessageFootprint {
+
+    private static final int DEFAULT_EVENT_COUNT = 10_000;
+    private static final long SEED = 42;
+
+    private static final List<String> FORMATS = List.of("java-serialization", "binary");
+    private static final List<Integer> EVENTS_PER_MESSAGE = List.of(1, 100, ConceptEventRelay.BATCH_SIZE);
+
+    public static void main(String[] args) {
+        var eventCount = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_EVENT_COUNT;
+        var events = ConceptChangeMessages.events(SEED, eventCount);
+
+        for (var format : FORMATS) {
+            for (var eventsPerMessage : EVENTS_PER_MESSAGE) {
+                long bytes = 0;
+                for (var group : ConceptChangeMessages.groups(events, eventsPerMessage)) {
+                    bytes += ConceptChangeMessages.encode(format, group).length;
+                }
+
+                System.out.printf("%s, %d events/message: %d events, %d bytes, %.1f bytes/event%n",
+                        format,
+                        eventsPerMessage,
+                        events.size(),
+                        bytes,
+                        (double) bytes / events.size());
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.digirati.taxman.rest.server.infrastructure.event;
+
+import com.digirati.taxman.analysis.index.Term;
+import com.digirati.taxman.benchmarks.SyntheticCorpus;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Generates concept change events and encodes them in groups, either with Java serialization, as the cluster
+ * messages were before {@link ConceptChangeCodec}, or with the codec.
+ */
+final class ConceptChangeMessages {
+
+    private static final int LABELS_PER_CONCEPT = 3;
+    private static final int PROJECT_COUNT = 10;
+
+    private ConceptChangeMessages() {
+    }
+
+    static List<ConceptChangeEvent> events(long seed, int count) {
+        var labels = new SyntheticCorpus(seed).labels(count * LABELS_PER_CONCEPT);
+        var events = new ArrayList<ConceptChangeEvent>(count);
+
+        for (int index = 0; index < count; index++) {
+            var conceptLabels = new ArrayList<Term>(LABELS_PER_CONCEPT);
+            for (int label = 0; label < LABELS_PER_CONCEPT; label++) {
+                conceptLabels.add(new Term(labels.get(index * LABELS_PER_CONCEPT + label), label == 0 ? 3 : 2));
+            }
+
+            events.add(new ConceptChangeEvent(new UUID(seed, index), "project-" + (index % PROJECT_COUNT),
+                    Map.of("en", conceptLabels)));
+        }
+
+        return events;
+    }
+
+    static List<List<ConceptChangeEvent>> groups(List<ConceptChangeEvent> events, int eventsPerMessage) {
+        var groups = new ArrayList<List<ConceptChangeEvent>>();
+        for (int start = 0; start < events.size(); start += eventsPerMessage) {
+            groups.add(events.subList(start, Math.min(start + eventsPerMessage, events.size())));
+        }
+
+        return groups;
+    }
+
+    static byte[] encode(String format, List<ConceptChangeEvent> events) {
+        switch (format) {
+            case "java-serialization":
+                return serialize(events.size() == 1 ? events.get(0) : new ArrayList<>(events));
+            case "binary":
+                return ConceptChangeCodec.encode(new ConceptChangeBatch(events));
+            default:
+                throw new IllegalArgumentException("Unknown format: " + format);
+        }
+    }
+
+    static Object decode(String format, byte[] message) {
+        switch (format) {
+            case "java-serialization":
+                return deserialize(message);
+            case "binary":
+                return ConceptChangeCodec.decode(message, 0, message.length);
+            default:
+                throw new IllegalArgumentException("Unknown format: " + format);
+        }
+    }
+
+    private static byte[] serialize(Object value) {
+        var bytes = new ByteArrayOutputStream();
+        try (var output = new ObjectOutputStream(bytes)) {
+            output.writeObject(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    private static Object deserialize(byte[] message) {
+        try (var input = new ObjectInputStream(new ByteArrayInputStream(message))) {
+            return input.readObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -1,6 +1,5 @@
 plugins {
     `java-library`
-    id("me.champeau.gradle.jmh") version "0.5.0-rc-2"
 }
 
 dependencies {
@@ -13,10 +12,6 @@ dependencies {
     testImplementation("org.junit.jupiter", "junit-jupiter", "5.4.2")
 }
 
-jmh {
-    duplicateClassesStrategy = DuplicatesStrategy.WARN
-}
-
 tasks.withType<Test> {
     minHeapSize = "128m"
     maxHeapSize = "4g"
@@ -0,0 +1,111 @@
+package com.digirati.taxman.analysis;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Objects;
+
+import java.util.Arrays;
+
+/**
+ * A {@link WordTokenSearchEntry} whose tokens are encoded against a {@link LexemeDictionary}. This is the form
+ * search strategies keep in memory for every indexed term.
+ */
+public final class EncodedSearchEntry<IdT> extends EncodedTokens {
+
+    private final IdT identity;
+    private final int weight;
+
+    private EncodedSearchEntry(IdT identity, int weight, int[] candidates, int[] offsets) {
+        super(candidates, offsets);
+        this.identity = identity;
+        this.weight = weight;
+    }
+
+    /**
+     * Encode an entry, adding any lexemes that are not yet known to the dictionary.
+     */
+    public static <IdT> EncodedSearchEntry<IdT> intern(WordTokenSearchEntry<IdT> entry, LexemeDictionary dictionary) {
+        return new Encoder(entry.getTokens(), dictionary, true)
+                .encode((candidates, offsets) -> create(entry, candidates, offsets));
+    }
+
+    /**
+     * Encode an entry without modifying the dictionary, e.g. to find a previously interned entry.
+     */
+    public static <IdT> EncodedSearchEntry<IdT> lookup(WordTokenSearchEntry<IdT> entry, LexemeDictionary dictionary) {
+        return new Encoder(entry.getTokens(), dictionary, false)
+                .encode((candidates, offsets) -> create(entry, candidates, offsets));
+    }
+
+    /**
+     * Create an entry from tokens that are already encoded against a dictionary, e.g. when restoring a persisted
+     * index. The candidates of each token may be in any order and are sorted and de-duplicated.
+     */
+    public static <IdT> EncodedSearchEntry<IdT> of(IdT identity, int weight, int[] candidates, int[] offsets) {
+        if (offsets.length < 2 || offsets[0] != 0 || offsets[offsets.length - 1] != candidates.length) {
+            throw new IllegalArgumentException("Offsets do not describe the candidate array");
+        }
+
+        var packed = new int[candidates.length];
+        var packedOffsets = new int[offsets.length];
+        int size = 0;
+
+        for (int token = 0; token < offsets.length - 1; token++) {
+            int start = size;
+            int length = offsets[token + 1] - offsets[token];
+            if (length < 0) {
+                throw new IllegalArgumentException("Offsets must not decrease");
+            }
+
+            System.arraycopy(candidates, offsets[token], packed, start, length);
+            size += length;
+
+            Arrays.sort(packed, start, size);
+            size = Encoder.distinct(packed, start, size);
+            packedOffsets[token + 1] = size;
+        }
+
+        return new EncodedSearchEntry<>(identity, weight, size == packed.length ? packed : Arrays.copyOf(packed, size),
+                packedOffsets);
+    }
+
+    private static <IdT> EncodedSearchEntry<IdT> create(WordTokenSearchEntry<IdT> entry, int[] candidates,
+                                                        int[] offsets) {
+        return new EncodedSearchEntry<>(entry.getIdentity(), entry.getWeight(), candidates, offsets);
+    }
+
+    public IdT getIdentity() {
+        return identity;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (!super.equals(o)) {
+            return false;
+        }
+
+        EncodedSearchEntry<?> that = (EncodedSearchEntry) o;
+        return weight == that.weight && Objects.equal(identity, that.identity);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * super.hashCode() + Objects.hashCode(identity)) + weight;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("identity", identity)
+                .add("tokens", size())
+                .add("weight", weight)
+                .toString();
+    }
+}
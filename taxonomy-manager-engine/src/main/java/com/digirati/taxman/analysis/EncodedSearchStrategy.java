@@ -0,0 +1,27 @@
+package com.digirati.taxman.analysis;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A {@link WordTokenSearchStrategy} that keeps its entries encoded against a {@link LexemeDictionary}, and can hand
+ * them out and take them back in that form, so an index can be saved and restored without tokenizing its terms
+ * again.
+ */
+public interface EncodedSearchStrategy<IdT> extends WordTokenSearchStrategy<IdT> {
+
+    /**
+     * Get the dictionary that the entries of this strategy are encoded against.
+     */
+    LexemeDictionary getDictionary();
+
+    /**
+     * Get a copy of every indexed entry.
+     */
+    List<EncodedSearchEntry<IdT>> getEntries();
+
+    /**
+     * Index many entries that are already encoded against {@link #getDictionary()}.
+     */
+    void indexAllEncoded(Collection<EncodedSearchEntry<IdT>> entries);
+}
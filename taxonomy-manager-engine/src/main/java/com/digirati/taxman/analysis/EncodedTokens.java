@@ -0,0 +1,186 @@
+package com.digirati.taxman.analysis;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A list of {@link WordToken}s encoded against a {@link LexemeDictionary}.
+ *
+ * <p>The candidates of every token are packed into a single array: the candidates of token {@code i} are the sorted,
+ * distinct lexeme identifiers at indexes {@code offsets[i]} (inclusive) to {@code offsets[i + 1]} (exclusive) of
+ * {@code candidates}. Comparing two tokens is a merge of two short sorted runs and allocates nothing.
+ */
+public class EncodedTokens {
+
+    private final int[] candidates;
+    private final int[] offsets;
+
+    EncodedTokens(int[] candidates, int[] offsets) {
+        this.candidates = candidates;
+        this.offsets = offsets;
+    }
+
+    /**
+     * Encode tokens, adding any lexemes that are not yet known to the dictionary.
+     */
+    public static EncodedTokens intern(List<WordToken> tokens, LexemeDictionary dictionary) {
+        return new Encoder(tokens, dictionary, true).encode(EncodedTokens::new);
+    }
+
+    /**
+     * Encode tokens without modifying the dictionary. Lexemes that are not in the dictionary can never match an
+     * encoded term, so they are left out.
+     */
+    public static EncodedTokens lookup(List<WordToken> tokens, LexemeDictionary dictionary) {
+        return new Encoder(tokens, dictionary, false).encode(EncodedTokens::new);
+    }
+
+    /**
+     * Get the number of tokens.
+     */
+    public final int size() {
+        return offsets.length - 1;
+    }
+
+    /**
+     * Get the index in {@link #candidateAt(int)} of the first candidate of a token.
+     */
+    public final int candidatesStart(int token) {
+        return offsets[token];
+    }
+
+    /**
+     * Get the index in {@link #candidateAt(int)} after the last candidate of a token.
+     */
+    public final int candidatesEnd(int token) {
+        return offsets[token + 1];
+    }
+
+    /**
+     * Get a candidate lexeme identifier by its index in the packed candidate array.
+     */
+    public final int candidateAt(int index) {
+        return candidates[index];
+    }
+
+    /**
+     * Check if a token shares one or more candidates with a token of another list.
+     */
+    public final boolean sharesCandidates(int token, EncodedTokens other, int otherToken) {
+        int index = offsets[token];
+        int end = offsets[token + 1];
+        int otherIndex = other.offsets[otherToken];
+        int otherEnd = other.offsets[otherToken + 1];
+
+        while (index < end && otherIndex < otherEnd) {
+            int candidate = candidates[index];
+            int otherCandidate = other.candidates[otherIndex];
+
+            if (candidate == otherCandidate) {
+                return true;
+            } else if (candidate < otherCandidate) {
+                index++;
+            } else {
+                otherIndex++;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Check if every token shares a candidate with the tokens of {@code other} starting at {@code otherStart}.
+     */
+    public final boolean sharesCandidates(EncodedTokens other, int otherStart) {
+        if (otherStart + size() > other.size()) {
+            return false;
+        }
+
+        for (int token = 0; token < size(); token++) {
+            if (!sharesCandidates(token, other, otherStart + token)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        EncodedTokens that = (EncodedTokens) o;
+        return Arrays.equals(candidates, that.candidates) && Arrays.equals(offsets, that.offsets);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(candidates) + Arrays.hashCode(offsets);
+    }
+
+    interface Factory<T> {
+        T create(int[] candidates, int[] offsets);
+    }
+
+    static final class Encoder {
+        private final List<WordToken> tokens;
+        private final LexemeDictionary dictionary;
+        private final boolean intern;
+
+        Encoder(List<WordToken> tokens, LexemeDictionary dictionary, boolean intern) {
+            this.tokens = tokens;
+            this.dictionary = dictionary;
+            this.intern = intern;
+        }
+
+        <T> T encode(Factory<T> factory) {
+            var candidates = new int[tokens.size() * 2];
+            var offsets = new int[tokens.size() + 1];
+            int size = 0;
+
+            for (int token = 0; token < tokens.size(); token++) {
+                int start = size;
+
+                for (String lexeme : tokens.get(token).candidates()) {
+                    int identifier = intern ? dictionary.intern(lexeme) : dictionary.lookup(lexeme);
+                    if (identifier == LexemeDictionary.ABSENT) {
+                        continue;
+                    }
+
+                    if (size == candidates.length) {
+                        candidates = Arrays.copyOf(candidates, size * 2 + 1);
+                    }
+
+                    candidates[size++] = identifier;
+                }
+
+                Arrays.sort(candidates, start, size);
+                size = distinct(candidates, start, size);
+                offsets[token + 1] = size;
+            }
+
+            return factory.create(size == candidates.length ? candidates : Arrays.copyOf(candidates, size), offsets);
+        }
+
+        static int distinct(int[] values, int from, int to) {
+            if (to - from < 2) {
+                return to;
+            }
+
+            int size = from + 1;
+            for (int index = from + 1; index < to; index++) {
+                if (values[index] != values[size - 1]) {
+                    values[size++] = values[index];
+                }
+            }
+
+            return size;
+        }
+    }
+}
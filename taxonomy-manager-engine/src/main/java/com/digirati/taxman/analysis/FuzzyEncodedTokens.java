@@ -0,0 +1,186 @@
+package com.digirati.taxman.analysis;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Input tokens encoded against a {@link LexemeDictionary} with the candidates of every token extended by the
+ * lexemes within an edit distance of them, so that any search strategy that matches on shared candidates also finds
+ * terms with misspelt or misrecognised words.
+ *
+ * <p>Short words have so many neighbours that correcting them finds more noise than typos, so the edit distance
+ * allowed for a lexeme depends on its length: lexemes of fewer than {@value #MIN_FUZZY_LENGTH} characters must match
+ * exactly, and lexemes of fewer than {@value #MIN_DOUBLE_EDIT_LENGTH} characters by at most one edit.
+ */
+public final class FuzzyEncodedTokens extends EncodedTokens {
+
+    /**
+     * The largest edit distance supported per token.
+     */
+    public static final int MAX_DISTANCE = 2;
+
+    static final int MIN_FUZZY_LENGTH = 4;
+
+    static final int MIN_DOUBLE_EDIT_LENGTH = 8;
+
+    /**
+     * The edit distance of every candidate, aligned with the packed candidate array.
+     */
+    private final int[] distances;
+
+    private FuzzyEncodedTokens(int[] candidates, int[] offsets, int[] distances) {
+        super(candidates, offsets);
+        this.distances = distances;
+    }
+
+    /**
+     * Encode tokens without modifying the dictionary, adding every lexeme within {@code maxDistance} edits of a
+     * candidate to the candidates of its token.
+     */
+    public static FuzzyEncodedTokens lookup(List<WordToken> tokens, LexemeDictionary dictionary, int maxDistance) {
+        if (maxDistance < 0 || maxDistance > MAX_DISTANCE) {
+            throw new IllegalArgumentException("Edit distance must be between 0 and " + MAX_DISTANCE + ": "
+                    + maxDistance);
+        }
+
+        // Every candidate is packed with its distance in the low bits, so sorting orders the candidates of a token
+        // by identifier and then by distance.
+        var neighboursByLexeme = new HashMap<String, long[]>();
+        var packed = new long[tokens.size() * 2];
+        var offsets = new int[tokens.size() + 1];
+        int size = 0;
+
+        for (int token = 0; token < tokens.size(); token++) {
+            int start = size;
+
+            for (String lexeme : tokens.get(token).candidates()) {
+                var neighbours = neighbours(neighboursByLexeme, lexeme, dictionary, maxDistance);
+                if (size + neighbours.length > packed.length) {
+                    packed = Arrays.copyOf(packed, Math.max(size + neighbours.length, packed.length * 2));
+                }
+
+                System.arraycopy(neighbours, 0, packed, size, neighbours.length);
+                size += neighbours.length;
+            }
+
+            Arrays.sort(packed, start, size);
+            size = closest(packed, start, size);
+            offsets[token + 1] = size;
+        }
+
+        var candidates = new int[size];
+        var distances = new int[size];
+        for (int index = 0; index < size; index++) {
+            candidates[index] = (int) (packed[index] >>> Integer.SIZE);
+            distances[index] = (int) packed[index];
+        }
+
+        return new FuzzyEncodedTokens(candidates, offsets, distances);
+    }
+
+    /**
+     * Get the largest edit distance allowed for a lexeme of the given length.
+     */
+    static int allowedDistance(int length, int maxDistance) {
+        if (length < MIN_FUZZY_LENGTH) {
+            return 0;
+        }
+
+        return length < MIN_DOUBLE_EDIT_LENGTH ? Math.min(1, maxDistance) : maxDistance;
+    }
+
+    /**
+     * Get the total edit distance between the tokens of a matched term and the input tokens starting at
+     * {@code start}: the sum over every token of the smallest distance of a candidate it shares with the input.
+     */
+    public int distance(EncodedTokens term, int start) {
+        int total = 0;
+
+        for (int token = 0; token < term.size(); token++) {
+            total += distance(term, token, start + token);
+        }
+
+        return total;
+    }
+
+    private int distance(EncodedTokens term, int termToken, int token) {
+        int index = candidatesStart(token);
+        int end = candidatesEnd(token);
+        int termIndex = term.candidatesStart(termToken);
+        int termEnd = term.candidatesEnd(termToken);
+        int distance = MAX_DISTANCE + 1;
+
+        while (index < end && termIndex < termEnd) {
+            int candidate = candidateAt(index);
+            int termCandidate = term.candidateAt(termIndex);
+
+            if (candidate == termCandidate) {
+                distance = Math.min(distance, distances[index]);
+                index++;
+                termIndex++;
+            } else if (candidate < termCandidate) {
+                index++;
+            } else {
+                termIndex++;
+            }
+        }
+
+        return distance;
+    }
+
+    private static long[] neighbours(Map<String, long[]> cache, String lexeme, LexemeDictionary dictionary,
+                                     int maxDistance) {
+        var cached = cache.get(lexeme);
+        if (cached != null) {
+            return cached;
+        }
+
+        long[] neighbours;
+        int distance = allowedDistance(lexeme.length(), maxDistance);
+
+        if (distance == 0) {
+            int identifier = dictionary.lookup(lexeme);
+            neighbours = identifier == LexemeDictionary.ABSENT ? new long[0] : new long[] {pack(identifier, 0)};
+        } else {
+            var found = new long[][] {new long[8]};
+            var count = new int[1];
+
+            dictionary.fuzzyLookup(lexeme, distance, (identifier, editDistance) -> {
+                if (count[0] == found[0].length) {
+                    found[0] = Arrays.copyOf(found[0], count[0] * 2);
+                }
+
+                found[0][count[0]++] = pack(identifier, editDistance);
+            });
+
+            neighbours = Arrays.copyOf(found[0], count[0]);
+        }
+
+        cache.put(lexeme, neighbours);
+        return neighbours;
+    }
+
+    private static long pack(int identifier, int distance) {
+        return ((long) identifier << Integer.SIZE) | distance;
+    }
+
+    /**
+     * Remove all but the closest occurrence of every candidate from a sorted range of packed candidates.
+     */
+    private static int closest(long[] packed, int from, int to) {
+        if (to - from < 2) {
+            return to;
+        }
+
+        int size = from + 1;
+        for (int index = from + 1; index < to; index++) {
+            if (packed[index] >>> Integer.SIZE != packed[size - 1] >>> Integer.SIZE) {
+                packed[size++] = packed[index];
+            }
+        }
+
+        return size;
+    }
+}
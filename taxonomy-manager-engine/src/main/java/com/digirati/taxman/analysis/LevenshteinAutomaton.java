@@ -0,0 +1,85 @@
+package com.digirati.taxman.analysis;
+
+/**
+ * A Levenshtein automaton that accepts every string within an edit distance of a word.
+ *
+ * <p>The automaton is simulated rather than compiled to a DFA: a state is the row of the edit distance matrix after
+ * reading some prefix, i.e. the distance from that prefix to every prefix of the word, capped at
+ * {@code maxDistance + 1}. Once no entry of a row is within the distance, no string with that prefix can be accepted,
+ * which is what lets {@link LexemeDictionary#fuzzyLookup} skip whole ranges of a sorted dictionary.
+ */
+final class LevenshteinAutomaton {
+
+    private final String word;
+    private final int maxDistance;
+
+    LevenshteinAutomaton(String word, int maxDistance) {
+        if (maxDistance < 0) {
+            throw new IllegalArgumentException("Edit distance must not be negative: " + maxDistance);
+        }
+
+        this.word = word;
+        this.maxDistance = maxDistance;
+    }
+
+    /**
+     * Get the state before any character has been read.
+     */
+    int[] start() {
+        var row = new int[word.length() + 1];
+        for (int index = 0; index < row.length; index++) {
+            row[index] = Math.min(index, maxDistance + 1);
+        }
+
+        return row;
+    }
+
+    /**
+     * Read a character, writing the next state to {@code next}, which may be {@code null} or too short to reuse.
+     *
+     * @return The next state.
+     */
+    int[] step(int[] row, char character, int[] next) {
+        if (next == null || next.length != row.length) {
+            next = new int[row.length];
+        }
+
+        int limit = maxDistance + 1;
+        next[0] = Math.min(row[0] + 1, limit);
+
+        for (int index = 1; index < row.length; index++) {
+            int substitution = row[index - 1] + (word.charAt(index - 1) == character ? 0 : 1);
+            int deletion = row[index] + 1;
+            int insertion = next[index - 1] + 1;
+
+            next[index] = Math.min(Math.min(substitution, deletion), Math.min(insertion, limit));
+        }
+
+        return next;
+    }
+
+    /**
+     * Check whether any string starting with the prefix read so far can still be accepted.
+     */
+    boolean canMatch(int[] row) {
+        for (int distance : row) {
+            if (distance <= maxDistance) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Get the edit distance between the word and the prefix read so far, or {@code maxDistance + 1} if it is
+     * further than that.
+     */
+    int distance(int[] row) {
+        return row[row.length - 1];
+    }
+
+    int getMaxDistance() {
+        return maxDistance;
+    }
+}
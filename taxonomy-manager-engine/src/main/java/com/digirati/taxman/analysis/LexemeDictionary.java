@@ -0,0 +1,263 @@
+package com.digirati.taxman.analysis;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A thread-safe dictionary that assigns a dense {@code int} identifier to every distinct lexeme, so that indexed
+ * terms can be stored and compared as arrays of integers instead of strings.
+ *
+ * <p>Identifiers are never reclaimed: a lexeme keeps its identifier after every term using it has been removed.
+ *
+ * <p>Lexemes within an edit distance of another can be found with {@link #fuzzyLookup}, which walks a sorted copy of
+ * the dictionary. The copy is only updated on the first fuzzy lookup after the dictionary has grown, so dictionaries
+ * that are never searched fuzzily never pay for it. An update sorts only the lexemes added since the previous copy
+ * and merges them into it, outside the lock {@link #intern} takes, so interning is never blocked by a sort.
+ */
+public final class LexemeDictionary {
+
+    /**
+     * The identifier returned by {@link #lookup(String)} for lexemes that are not in the dictionary.
+     */
+    public static final int ABSENT = -1;
+
+    private final ConcurrentMap<String, Integer> identifiers = new ConcurrentHashMap<>();
+
+    private final Object sortLock = new Object();
+
+    private volatile String[] lexemes = new String[64];
+
+    private int size;
+
+    /**
+     * The sorted copy of the dictionary, replaced while holding {@code sortLock}.
+     */
+    private volatile SortedLexemes sorted = new SortedLexemes(new String[0], new int[0]);
+
+    /**
+     * Get the identifier of a lexeme, assigning a new one if it is not yet in the dictionary.
+     */
+    public int intern(String lexeme) {
+        var identifier = identifiers.get(lexeme);
+        if (identifier != null) {
+            return identifier;
+        }
+
+        synchronized (this) {
+            identifier = identifiers.get(lexeme);
+            if (identifier != null) {
+                return identifier;
+            }
+
+            if (size == lexemes.length) {
+                lexemes = Arrays.copyOf(lexemes, size * 2);
+            }
+
+            // Store the reverse mapping first, so any thread that can see the identifier can also resolve it.
+            lexemes[size] = lexeme;
+            identifiers.put(lexeme, size);
+
+            return size++;
+        }
+    }
+
+    /**
+     * Get the identifier of a lexeme, or {@link #ABSENT} if it is not in the dictionary.
+     */
+    public int lookup(String lexeme) {
+        return identifiers.getOrDefault(lexeme, ABSENT);
+    }
+
+    /**
+     * Get the lexeme with the given identifier.
+     */
+    public String lexeme(int identifier) {
+        var snapshot = lexemes;
+
+        if (identifier < 0 || identifier >= snapshot.length || snapshot[identifier] == null) {
+            throw new IllegalArgumentException("Unknown lexeme identifier: " + identifier);
+        }
+
+        return snapshot[identifier];
+    }
+
+    /**
+     * Get the number of lexemes in the dictionary.
+     */
+    public int size() {
+        return identifiers.size();
+    }
+
+    /**
+     * Find every lexeme within an edit distance of the given one, including the lexeme itself if it is in the
+     * dictionary.
+     *
+     * <p>The lexemes are traversed in sorted order with a {@link LevenshteinAutomaton}, sharing the automaton states
+     * of common prefixes between neighbouring lexemes and skipping every lexeme that starts with a prefix the
+     * automaton has rejected, so only a small part of a large dictionary is ever visited.
+     *
+     * @param lexeme The lexeme to look up.
+     * @param maxDistance The maximum number of single character insertions, deletions and substitutions.
+     * @param consumer Receives the identifier and edit distance of every lexeme found.
+     */
+    public void fuzzyLookup(String lexeme, int maxDistance, FuzzyMatchConsumer consumer) {
+        sorted().find(new LevenshteinAutomaton(lexeme, maxDistance), consumer);
+    }
+
+    private SortedLexemes sorted() {
+        var current = sorted;
+        if (current.size() == size()) {
+            return current;
+        }
+
+        synchronized (sortLock) {
+            String[] lexemesById;
+            int count;
+
+            synchronized (this) {
+                lexemesById = lexemes;
+                count = size;
+            }
+
+            // The first count lexemes are never modified, even if intern replaces the array meanwhile.
+            if (sorted.size() < count) {
+                sorted = sorted.merge(lexemesById, count);
+            }
+
+            return sorted;
+        }
+    }
+
+    /**
+     * A consumer of the lexemes found by {@link #fuzzyLookup}.
+     */
+    @FunctionalInterface
+    public interface FuzzyMatchConsumer {
+        void accept(int identifier, int distance);
+    }
+
+    /**
+     * An immutable copy of the dictionary, sorted by lexeme.
+     */
+    private static final class SortedLexemes {
+        private final String[] lexemes;
+        private final int[] identifiers;
+
+        SortedLexemes(String[] lexemes, int[] identifiers) {
+            this.lexemes = lexemes;
+            this.identifiers = identifiers;
+        }
+
+        /**
+         * Create a copy that also holds the lexemes with identifiers from {@link #size()} up to {@code size}, which
+         * are sorted and merged into this copy's lexemes.
+         */
+        SortedLexemes merge(String[] lexemesById, int size) {
+            var added = new Integer[size - lexemes.length];
+            for (int index = 0; index < added.length; index++) {
+                added[index] = lexemes.length + index;
+            }
+
+            Arrays.sort(added, Comparator.comparing(identifier -> lexemesById[identifier]));
+
+            var mergedLexemes = new String[size];
+            var mergedIdentifiers = new int[size];
+            int existing = 0;
+            int next = 0;
+
+            for (int index = 0; index < size; index++) {
+                if (next < added.length && (existing == lexemes.length
+                        || lexemesById[added[next]].compareTo(lexemes[existing]) < 0)) {
+                    mergedIdentifiers[index] = added[next];
+                    mergedLexemes[index] = lexemesById[added[next++]];
+                } else {
+                    mergedLexemes[index] = lexemes[existing];
+                    mergedIdentifiers[index] = identifiers[existing++];
+                }
+            }
+
+            return new SortedLexemes(mergedLexemes, mergedIdentifiers);
+        }
+
+        int size() {
+            return lexemes.length;
+        }
+
+        void find(LevenshteinAutomaton automaton, FuzzyMatchConsumer consumer) {
+            // rows[i] is the state of the automaton after reading the first i characters of the previous lexeme,
+            // and is valid for i <= depth.
+            var rows = new int[16][];
+            rows[0] = automaton.start();
+            String previous = "";
+            int depth = 0;
+            int index = 0;
+
+            while (index < lexemes.length) {
+                var lexeme = lexemes[index];
+                int position = commonPrefix(previous, lexeme, depth);
+                boolean rejected = false;
+
+                while (position < lexeme.length()) {
+                    if (position + 1 == rows.length) {
+                        rows = Arrays.copyOf(rows, rows.length * 2);
+                    }
+
+                    rows[position + 1] = automaton.step(rows[position], lexeme.charAt(position), rows[position + 1]);
+                    position++;
+
+                    if (!automaton.canMatch(rows[position])) {
+                        rejected = true;
+                        break;
+                    }
+                }
+
+                previous = lexeme;
+                depth = position;
+
+                if (rejected) {
+                    index = skipPrefix(index, lexeme.substring(0, position));
+                    continue;
+                }
+
+                int distance = automaton.distance(rows[position]);
+                if (distance <= automaton.getMaxDistance()) {
+                    consumer.accept(identifiers[index], distance);
+                }
+
+                index++;
+            }
+        }
+
+        /**
+         * Find the index of the first lexeme after {@code from} that does not start with a prefix of the lexeme at
+         * {@code from}. The lexemes that do are contiguous, so this is a binary search.
+         */
+        private int skipPrefix(int from, String prefix) {
+            int low = from + 1;
+            int high = lexemes.length;
+
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (lexemes[middle].startsWith(prefix)) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+
+            return low;
+        }
+
+        private static int commonPrefix(String first, String second, int limit) {
+            int length = Math.min(limit, Math.min(first.length(), second.length()));
+            int index = 0;
+            while (index < length && first.charAt(index) == second.charAt(index)) {
+                index++;
+            }
+
+            return index;
+        }
+    }
+}
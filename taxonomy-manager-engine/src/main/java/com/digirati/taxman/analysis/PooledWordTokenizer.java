@@ -0,0 +1,138 @@
+package com.digirati.taxman.analysis;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * A {@link WordTokenizer} that leases a tokenizer from a bounded pool for every call to {@link #tokenize(String)}, so
+ * concurrent callers never share the mutable state of a tokenizer.
+ *
+ * <p>Tokenizers are created on demand, up to the size of the pool. Once every tokenizer is leased, callers wait for
+ * one to be returned. The time spent waiting is recorded, so an undersized pool shows up as a growing wait time.
+ */
+public final class PooledWordTokenizer implements WordTokenizer {
+
+    private final Supplier<WordTokenizer> factory;
+    private final BlockingQueue<WordTokenizer> available;
+    private final int size;
+    private final AtomicInteger created = new AtomicInteger();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final LongAdder leases = new LongAdder();
+    private final LongAdder waits = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+
+    private PooledWordTokenizer(int size, Supplier<WordTokenizer> factory) {
+        this.size = size;
+        this.factory = factory;
+        this.available = new ArrayBlockingQueue<>(size);
+    }
+
+    /**
+     * Create a pool of at most {@code size} tokenizers, created by {@code factory} as they are needed.
+     */
+    public static PooledWordTokenizer create(int size, Supplier<WordTokenizer> factory) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Tokenizer pool size must be positive, got: " + size);
+        }
+
+        return new PooledWordTokenizer(size, factory);
+    }
+
+    @Override
+    public List<WordToken> tokenize(String input) {
+        var tokenizer = lease();
+
+        try {
+            return tokenizer.tokenize(input);
+        } finally {
+            available.add(tokenizer);
+        }
+    }
+
+    private WordTokenizer lease() {
+        leases.increment();
+
+        var tokenizer = available.poll();
+        if (tokenizer != null) {
+            return tokenizer;
+        }
+
+        for (int count = created.get(); count < size; count = created.get()) {
+            if (created.compareAndSet(count, count + 1)) {
+                try {
+                    return factory.get();
+                } catch (RuntimeException e) {
+                    created.decrementAndGet();
+                    throw e;
+                }
+            }
+        }
+
+        waits.increment();
+        waiting.incrementAndGet();
+        long start = System.nanoTime();
+
+        try {
+            return available.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a tokenizer", e);
+        } finally {
+            waitNanos.add(System.nanoTime() - start);
+            waiting.decrementAndGet();
+        }
+    }
+
+    /**
+     * Get the maximum number of tokenizers in this pool.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Get the number of tokenizers that have been created so far.
+     */
+    public int getCreated() {
+        return created.get();
+    }
+
+    /**
+     * Get the number of tokenizers that are currently leased.
+     */
+    public int getLeased() {
+        return Math.max(0, getCreated() - available.size());
+    }
+
+    /**
+     * Get the number of callers currently waiting for a tokenizer to be returned.
+     */
+    public int getWaiting() {
+        return waiting.get();
+    }
+
+    /**
+     * Get the total number of leases.
+     */
+    public long getLeaseCount() {
+        return leases.sum();
+    }
+
+    /**
+     * Get the number of leases that had to wait for a tokenizer to be returned.
+     */
+    public long getWaitCount() {
+        return waits.sum();
+    }
+
+    /**
+     * Get the total time spent waiting for a tokenizer, in nanoseconds.
+     */
+    public long getWaitNanos() {
+        return waitNanos.sum();
+    }
+}
@@ -8,10 +8,22 @@ import java.util.List;
 public class TermMatch<IdT> {
     private final IdT id;
     private final List<WordToken> tokens;
+    private final int weight;
+    private final int distance;
 
     public TermMatch(IdT id, List<WordToken> tokens) {
+        this(id, tokens, 0);
+    }
+
+    public TermMatch(IdT id, List<WordToken> tokens, int weight) {
+        this(id, tokens, weight, 0);
+    }
+
+    public TermMatch(IdT id, List<WordToken> tokens, int weight, int distance) {
         this.id = id;
         this.tokens = tokens;
+        this.weight = weight;
+        this.distance = distance;
     }
 
     public IdT getId() {
@@ -26,6 +38,27 @@ public class TermMatch<IdT> {
         return Iterables.getLast(tokens).getEndPosition();
     }
 
+    /**
+     * The weight of the term that matched.
+     */
+    public int getWeight() {
+        return weight;
+    }
+
+    /**
+     * The total edit distance between the term and the text it matched, which is 0 for exact matches.
+     */
+    public int getDistance() {
+        return distance;
+    }
+
+    /**
+     * The number of tokens the term spans.
+     */
+    public int getTokenCount() {
+        return tokens.size();
+    }
+
     public List<WordToken> getTokens() {
         return new ArrayList<>(tokens);
     }
@@ -9,10 +9,16 @@ public class WordTokenSearchEntry<IdT> {
 
     private final IdT identity;
     private final List<WordToken> tokens;
+    private final int weight;
 
     public WordTokenSearchEntry(IdT identity, List<WordToken> tokens) {
+        this(identity, tokens, 0);
+    }
+
+    public WordTokenSearchEntry(IdT identity, List<WordToken> tokens, int weight) {
         this.identity = identity;
         this.tokens = tokens;
+        this.weight = weight;
     }
 
     public IdT getIdentity() {
@@ -23,6 +29,13 @@ public class WordTokenSearchEntry<IdT> {
         return tokens;
     }
 
+    /**
+     * The weight of the term, reported with every match of it.
+     */
+    public int getWeight() {
+        return weight;
+    }
+
     public WordToken getRootToken() {
         if (tokens.isEmpty()) {
             throw new IllegalStateException("A term index entry cannot exist without a root token (term with identity: " + identity + ")");
@@ -42,13 +55,14 @@ public class WordTokenSearchEntry<IdT> {
         }
 
         WordTokenSearchEntry<?> that = (WordTokenSearchEntry) o;
-        return Objects.equal(identity, that.identity)
+        return weight == that.weight
+                && Objects.equal(identity, that.identity)
                 && Objects.equal(tokens, that.tokens);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hashCode(identity, tokens);
+        return Objects.hashCode(identity, tokens, weight);
     }
 
     @Override
@@ -56,6 +70,7 @@ public class WordTokenSearchEntry<IdT> {
         return MoreObjects.toStringHelper(this)
                 .add("identity", identity)
                 .add("tokens", tokens)
+                .add("weight", weight)
                 .toString();
     }
 }
@@ -1,5 +1,6 @@
 package com.digirati.taxman.analysis;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 
@@ -10,7 +11,49 @@ import java.util.Set;
 public interface WordTokenSearchStrategy<IdT> {
     void index(WordTokenSearchEntry<IdT> entry);
 
+    /**
+     * Index many entries at once. Implementations should build their structures once for the whole batch instead
+     * of once per entry.
+     */
+    default void indexAll(Collection<WordTokenSearchEntry<IdT>> entries) {
+        entries.forEach(this::index);
+    }
+
     void unindex(WordTokenSearchEntry<IdT> entry);
 
+    /**
+     * Remove every entry with one of the given identities.
+     */
+    void unindexAll(Collection<IdT> identities);
+
+    /**
+     * Replace every entry with one of the given identities by a new set of entries.
+     */
+    default void replaceAll(Collection<IdT> identities, Collection<WordTokenSearchEntry<IdT>> entries) {
+        unindexAll(identities);
+        indexAll(entries);
+    }
+
     Set<TermMatch<IdT>> match(List<WordToken> input);
+
+    /**
+     * Check whether {@link #match(List, int)} accepts an edit distance other than 0.
+     */
+    default boolean supportsFuzzyMatching() {
+        return false;
+    }
+
+    /**
+     * Match the input, allowing up to {@code maxDistance} edits in every token of a term.
+     *
+     * @throws UnsupportedOperationException if {@code maxDistance} is not 0 and the strategy does not
+     *     {@linkplain #supportsFuzzyMatching() support fuzzy matching}.
+     */
+    default Set<TermMatch<IdT>> match(List<WordToken> input, int maxDistance) {
+        if (maxDistance != 0) {
+            throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support fuzzy matching");
+        }
+
+        return match(input);
+    }
 }
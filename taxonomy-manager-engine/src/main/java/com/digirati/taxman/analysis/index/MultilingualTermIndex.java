@@ -0,0 +1,146 @@
+package com.digirati.taxman.analysis.index;
+
+import com.digirati.taxman.analysis.TermMatch;
+import com.digirati.taxman.analysis.WordTokenSearchEntry;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.Multimap;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * A {@link TermIndex} per language, each with a tokenizer for its language.
+ *
+ * <p>The index of a language, and with it its tokenizer, is created the first time a term in that language is
+ * indexed, so the models of languages that no term is written in are never loaded. Input is only matched against
+ * the index of its language.
+ */
+public class MultilingualTermIndex<ScopeT, IdT> {
+
+    private final Function<String, TermIndex<ScopeT, IdT>> indexFactory;
+    private final ConcurrentMap<String, TermIndex<ScopeT, IdT>> indexes = new ConcurrentHashMap<>();
+
+    /**
+     * Create an index whose per-language indexes are created by {@code indexFactory}, given a language code.
+     */
+    public MultilingualTermIndex(Function<String, TermIndex<ScopeT, IdT>> indexFactory) {
+        this.indexFactory = indexFactory;
+    }
+
+    /**
+     * Get the index of a language, creating it if no term in that language has been indexed yet.
+     */
+    public TermIndex<ScopeT, IdT> forLanguage(String language) {
+        return indexes.computeIfAbsent(language, indexFactory);
+    }
+
+    /**
+     * Get the index of a language, if any term in that language has been indexed.
+     */
+    public Optional<TermIndex<ScopeT, IdT>> get(String language) {
+        return Optional.ofNullable(indexes.get(language));
+    }
+
+    /**
+     * Get the languages that have an index.
+     */
+    public Set<String> languages() {
+        return Set.copyOf(indexes.keySet());
+    }
+
+    /**
+     * Remove the index of every language.
+     */
+    public synchronized void clear() {
+        indexes.clear();
+    }
+
+    /**
+     * Replace the terms of many identifiers at once, in every language. Each identifier's existing terms are removed
+     * from every language and scope, and its new terms, given by language, are indexed in the given scope. An
+     * identifier with no terms is removed from the index.
+     */
+    public void replaceAll(ScopeT scope, Map<IdT, ? extends Map<String, ? extends Collection<Term>>> terms) {
+        replaceAllTokenized(scope, terms.keySet(), tokenizeAll(scope, terms));
+    }
+
+    /**
+     * Tokenize the terms of many identifiers, given by language, without indexing them.
+     *
+     * @return The entries of every language that has any terms, for {@link #replaceAllTokenized}.
+     */
+    public Map<String, List<WordTokenSearchEntry<IdT>>> tokenizeAll(
+            ScopeT scope, Map<IdT, ? extends Map<String, ? extends Collection<Term>>> terms) {
+        var termsByLanguage = new HashMap<String, Multimap<IdT, Term>>();
+        terms.forEach((id, languages) -> languages.forEach((language, texts) ->
+                termsByLanguage.computeIfAbsent(language, key -> ArrayListMultimap.create()).putAll(id, texts)));
+
+        var entries = new HashMap<String, List<WordTokenSearchEntry<IdT>>>();
+        termsByLanguage.forEach((language, languageTerms) ->
+                entries.put(language, forLanguage(language).tokenizeTerms(scope, languageTerms)));
+
+        return entries;
+    }
+
+    /**
+     * Replace the terms of many identifiers at once with entries tokenized by {@link #tokenizeAll} or
+     * {@link TermIndex#tokenizeTerms}. Each identifier's existing terms are removed from every language and scope,
+     * and its new entries are indexed in the given scope.
+     *
+     * @param ids The identifiers whose terms are replaced.
+     * @param entries The new entries of the identifiers by language, which need not include every language.
+     */
+    public synchronized void replaceAllTokenized(ScopeT scope,
+                                                 Set<IdT> ids,
+                                                 Map<String, ? extends Collection<WordTokenSearchEntry<IdT>>> entries) {
+        var languages = new HashSet<>(indexes.keySet());
+        languages.addAll(entries.keySet());
+
+        for (var language : languages) {
+            Collection<WordTokenSearchEntry<IdT>> languageEntries = entries.get(language);
+            if (languageEntries == null) {
+                languageEntries = List.of();
+            }
+
+            forLanguage(language).replaceAllTokenized(scope, ids, languageEntries);
+        }
+    }
+
+    /**
+     * Match input in the given language against the terms of a scope.
+     */
+    public Set<TermMatch<IdT>> match(String language, ScopeT scope, String input) {
+        return match(language, scope, input, 0);
+    }
+
+    /**
+     * Match input in the given language against the terms of a scope, allowing up to {@code maxDistance} edits in
+     * every word of a term.
+     */
+    public Set<TermMatch<IdT>> match(String language, ScopeT scope, String input, int maxDistance) {
+        return get(language).map(index -> index.match(scope, input, maxDistance)).orElseGet(Set::of);
+    }
+
+    /**
+     * Match input in the given language against the terms of every scope.
+     */
+    public Set<TermMatch<IdT>> match(String language, String input) {
+        return match(language, input, 0);
+    }
+
+    /**
+     * Match input in the given language against the terms of every scope, allowing up to {@code maxDistance} edits
+     * in every word of a term.
+     */
+    public Set<TermMatch<IdT>> match(String language, String input, int maxDistance) {
+        return get(language).map(index -> index.match(input, maxDistance)).orElseGet(Set::of);
+    }
+}
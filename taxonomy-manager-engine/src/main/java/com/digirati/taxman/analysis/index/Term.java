@@ -0,0 +1,62 @@
+package com.digirati.taxman.analysis.index;
+
+import com.google.common.base.MoreObjects;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * A term to index, with a weight that is reported with every match of the term, e.g. to rank matches by the kind of
+ * label they matched.
+ */
+public final class Term implements Serializable {
+    private final String text;
+    private final int weight;
+
+    public Term(String text, int weight) {
+        this.text = text;
+        this.weight = weight;
+    }
+
+    /**
+     * Create a term with no weight.
+     */
+    public static Term of(String text) {
+        return new Term(text, 0);
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        Term that = (Term) o;
+        return weight == that.weight && text.equals(that.text);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(text, weight);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("text", text)
+                .add("weight", weight)
+                .toString();
+    }
+}
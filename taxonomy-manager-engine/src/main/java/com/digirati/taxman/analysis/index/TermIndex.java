@@ -1,74 +1,237 @@
 package com.digirati.taxman.analysis.index;
 
+import com.digirati.taxman.analysis.FuzzyEncodedTokens;
 import com.digirati.taxman.analysis.TermMatch;
 import com.digirati.taxman.analysis.WordTokenSearchEntry;
 import com.digirati.taxman.analysis.WordTokenSearchStrategy;
 import com.digirati.taxman.analysis.WordTokenizer;
-import com.google.common.collect.HashMultiset;
 import com.google.common.collect.Multimap;
-import com.google.common.collect.MultimapBuilder;
 import com.google.common.collect.Multimaps;
-import com.google.common.collect.Multiset;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
 /**
- * A naive {@code O(N * M * 3)} string search algorithm that performs text normalization on stored terms
- * and input queries.
+ * An index of terms that performs text normalization on stored terms and input queries.
+ *
+ * <p>Terms are partitioned by scope: every scope has its own search strategy, created on first use, so matching
+ * within a scope only pays for the terms of that scope.
  */
 public class TermIndex<ScopeT, IdT>  {
 
     private static final Logger logger = Logger.getLogger(TermIndex.class.getName());
 
     private final WordTokenizer tokenizer;
-    private final WordTokenSearchStrategy<IdT> searchStrategy;
-    private final Multimap<ScopeT, IdT> scopedIds = MultimapBuilder.hashKeys().hashSetValues().build();
+    private final Supplier<WordTokenSearchStrategy<IdT>> searchStrategyFactory;
+    private final ConcurrentMap<ScopeT, WordTokenSearchStrategy<IdT>> partitions = new ConcurrentHashMap<>();
 
-    public TermIndex(WordTokenizer tokenizer, WordTokenSearchStrategy<IdT> searchStrategy) {
+    public TermIndex(WordTokenizer tokenizer, Supplier<WordTokenSearchStrategy<IdT>> searchStrategyFactory) {
         this.tokenizer = tokenizer;
-        this.searchStrategy = searchStrategy;
+        this.searchStrategyFactory = searchStrategyFactory;
     }
 
     public void addAll(ScopeT scope, Map<IdT, String> terms) {
-        terms.forEach((id, term) -> add(scope, id, term));
-        scopedIds.putAll(scope, terms.keySet());
+        addAll(scope, Multimaps.forMap(terms));
     }
 
-    public void add(ScopeT scope, IdT id, String text) {
-        var tokens = tokenizer.tokenize(text);
+    /**
+     * Tokenize and index many terms at once, letting the search strategy build its structures once for the whole
+     * batch.
+     */
+    public void addAll(ScopeT scope, Multimap<IdT, String> terms) {
+        addAllTokenized(scope, tokenize(scope, terms));
+    }
 
-        if (tokens.isEmpty()) {
-            logger.warning(String.format("Token in scope %s with id %s has no tokens for text: %s", scope, id, text));
+    /**
+     * Tokenize terms without indexing them. Tokenizing is by far the most expensive part of building an index, so
+     * callers loading many terms can split them over several threads and index the results in a single batch with
+     * {@link #addAllTokenized(Object, Collection)}.
+     */
+    public List<WordTokenSearchEntry<IdT>> tokenize(ScopeT scope, Multimap<IdT, String> terms) {
+        return tokenizeTerms(scope, Multimaps.transformValues(terms, Term::of));
+    }
+
+    /**
+     * Tokenize weighted terms without indexing them.
+     *
+     * @see #tokenize(Object, Multimap)
+     */
+    public List<WordTokenSearchEntry<IdT>> tokenizeTerms(ScopeT scope, Multimap<IdT, Term> terms) {
+        var entries = new ArrayList<WordTokenSearchEntry<IdT>>(terms.size());
+
+        terms.forEach((id, term) -> {
+            var entry = createEntry(scope, id, term);
+            if (entry != null) {
+                entries.add(entry);
+            }
+        });
+
+        return entries;
+    }
+
+    /**
+     * Index entries created by {@link #tokenize(Object, Multimap)}, letting the search strategy build its
+     * structures once for the whole batch.
+     */
+    public void addAllTokenized(ScopeT scope, Collection<WordTokenSearchEntry<IdT>> entries) {
+        partition(scope).indexAll(entries);
+    }
+
+    public void add(ScopeT scope, IdT id, String text) {
+        var entry = createEntry(scope, id, Term.of(text));
+        if (entry == null) {
             return;
         }
 
-        var entry = new WordTokenSearchEntry<>(id, tokens);
+        partition(scope).index(entry);
+    }
+
+    /**
+     * Remove every term of the given identifier, in any scope.
+     */
+    public void remove(IdT id) {
+        var ids = Set.of(id);
+
+        for (var partition : partitions.values()) {
+            partition.unindexAll(ids);
+        }
+    }
+
+    /**
+     * Replace every term of the given identifier with new terms in the given scope. An empty collection of terms
+     * removes the identifier from the index.
+     */
+    public void replace(ScopeT scope, IdT id, Collection<String> terms) {
+        replaceAll(scope, Map.of(id, terms));
+    }
+
+    /**
+     * Replace the terms of many identifiers at once. Each identifier's existing terms are removed from every scope
+     * and its new terms, if any, are indexed in the given scope.
+     */
+    public void replaceAll(ScopeT scope, Map<IdT, ? extends Collection<String>> terms) {
+        var weighted = new HashMap<IdT, List<Term>>();
+        terms.forEach((id, texts) -> weighted.put(id, texts.stream().map(Term::of).collect(Collectors.toList())));
+
+        replaceAllTerms(scope, weighted);
+    }
 
-        scopedIds.put(scope, id);
-        searchStrategy.index(entry);
+    /**
+     * Replace the weighted terms of many identifiers at once.
+     *
+     * @see #replaceAll(Object, Map)
+     */
+    public void replaceAllTerms(ScopeT scope, Map<IdT, ? extends Collection<Term>> terms) {
+        var entries = new ArrayList<WordTokenSearchEntry<IdT>>(terms.size());
+
+        terms.forEach((id, idTerms) -> {
+            for (var term : idTerms) {
+                var entry = createEntry(scope, id, term);
+                if (entry != null) {
+                    entries.add(entry);
+                }
+            }
+        });
+
+        replaceAllTokenized(scope, terms.keySet(), entries);
     }
 
-    public void remove(IdT id, String text) {
-        var tokens = tokenizer.tokenize(text);
-        var entry = new WordTokenSearchEntry<>(id, tokens);
+    /**
+     * Replace the terms of many identifiers at once with entries created by {@link #tokenize(Object, Multimap)}, so
+     * the terms can be tokenized by the caller, on any thread.
+     *
+     * @param ids The identifiers whose existing terms are removed from every scope.
+     * @param entries The new terms of the identifiers, indexed in the given scope.
+     */
+    public void replaceAllTokenized(ScopeT scope, Set<IdT> ids, Collection<WordTokenSearchEntry<IdT>> entries) {
+        for (var partition : partitions.entrySet()) {
+            if (!partition.getKey().equals(scope)) {
+                partition.getValue().unindexAll(ids);
+            }
+        }
 
-        searchStrategy.unindex(entry);
+        if (entries.isEmpty()) {
+            var partition = partitions.get(scope);
+            if (partition != null) {
+                partition.unindexAll(ids);
+            }
+        } else {
+            partition(scope).replaceAll(ids, entries);
+        }
     }
 
     public Set<TermMatch<IdT>> match(ScopeT scope, String input) {
-        return match(input)
-                .stream()
-                .filter(term -> scopedIds.containsEntry(scope, term.getId()))
-                .collect(Collectors.toSet());
+        return match(scope, input, 0);
+    }
+
+    /**
+     * Match the input against the terms of a scope, allowing up to {@code maxDistance} single character edits in
+     * every word of a term. Fuzzy matches carry their edit distance, see {@link TermMatch#getDistance()}.
+     *
+     * @param maxDistance The maximum edit distance per word, from 0 (exact matches only) to
+     *     {@link FuzzyEncodedTokens#MAX_DISTANCE}.
+     */
+    public Set<TermMatch<IdT>> match(ScopeT scope, String input, int maxDistance) {
+        var partition = partitions.get(scope);
+        if (partition == null) {
+            return Set.of();
+        }
+
+        return partition.match(tokenizer.tokenize(input), maxDistance);
     }
 
+    /**
+     * Match the input against the terms of every scope.
+     */
     public Set<TermMatch<IdT>> match(String input) {
+        return match(input, 0);
+    }
+
+    /**
+     * Match the input against the terms of every scope, allowing up to {@code maxDistance} edits in every word of a
+     * term.
+     */
+    public Set<TermMatch<IdT>> match(String input, int maxDistance) {
         var tokens = tokenizer.tokenize(input);
-        var matches = searchStrategy.match(tokens);
+        var matches = new HashSet<TermMatch<IdT>>();
+
+        for (var partition : partitions.values()) {
+            matches.addAll(partition.match(tokens, maxDistance));
+        }
 
         return matches;
     }
+
+    /**
+     * Get the search strategy of every scope that has one.
+     */
+    Map<ScopeT, WordTokenSearchStrategy<IdT>> partitions() {
+        return Map.copyOf(partitions);
+    }
+
+    WordTokenSearchStrategy<IdT> partition(ScopeT scope) {
+        return partitions.computeIfAbsent(scope, key -> searchStrategyFactory.get());
+    }
+
+    private WordTokenSearchEntry<IdT> createEntry(ScopeT scope, IdT id, Term term) {
+        var tokens = tokenizer.tokenize(term.getText());
+
+        if (tokens.isEmpty()) {
+            logger.warning(String.format("Token in scope %s with id %s has no tokens for text: %s", scope, id,
+                    term.getText()));
+            return null;
+        }
+
+        return new WordTokenSearchEntry<>(id, tokens, term.getWeight());
+    }
 }
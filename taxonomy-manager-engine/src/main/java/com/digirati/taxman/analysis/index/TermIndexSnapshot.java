@@ -0,0 +1,367 @@
+package com.digirati.taxman.analysis.index;
+
+import com.digirati.taxman.analysis.EncodedSearchEntry;
+import com.digirati.taxman.analysis.EncodedSearchStrategy;
+import com.digirati.taxman.analysis.LexemeDictionary;
+import com.digirati.taxman.analysis.WordTokenSearchStrategy;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Saves a {@link TermIndex} to a file and restores it, so that a restarted process does not have to tokenize every
+ * term again. Only the encoded entries are saved: restoring an index re-interns their lexemes and rebuilds the
+ * search structures from them, which is far cheaper than tokenizing.
+ *
+ * <p>A snapshot records a revision chosen by the caller, e.g. a database high-water mark, so that changes made after
+ * the snapshot was taken can be applied on top of it. It also records a description of the configuration the
+ * index was built with, e.g. a hash of its tokenizer settings, and is only restored into an index built with the
+ * same configuration, as its entries would otherwise differ from the ones a rebuild would produce. The file layout
+ * is:
+ *
+ * <pre>
+ * int     magic ("TMIX")
+ * int     format version
+ * long    revision
+ * int     configuration length, then its UTF-8 bytes
+ * int     lexeme count, then for every lexeme: its UTF-8 bytes
+ * int     scope count, then for every scope:
+ *           scope bytes
+ *           int entry count, then for every entry:
+ *             identity bytes
+ *             int weight
+ *             int token count, then for every token: int candidate count, then the candidates' lexeme indexes
+ * int     CRC-32 of everything above
+ * </pre>
+ *
+ * <p>Byte strings are written as an {@code int} length followed by the bytes. Snapshots are only supported for
+ * indexes whose search strategies implement {@link EncodedSearchStrategy}.
+ */
+public final class TermIndexSnapshot<ScopeT, IdT> {
+
+    private static final int MAGIC = 0x544d4958;
+
+    private static final int VERSION = 3;
+
+    private final Codec<ScopeT> scopeCodec;
+    private final Codec<IdT> idCodec;
+
+    public TermIndexSnapshot(Codec<ScopeT> scopeCodec, Codec<IdT> idCodec) {
+        this.scopeCodec = scopeCodec;
+        this.idCodec = idCodec;
+    }
+
+    /**
+     * Write every entry of an index to a file without a configuration, replacing the file atomically once the
+     * snapshot is complete.
+     *
+     * @param index The index to save.
+     * @param revision The revision of the data the index was built from.
+     * @param path The file to write.
+     */
+    public void write(TermIndex<ScopeT, IdT> index, long revision, Path path) throws IOException {
+        write(index, revision, "", path);
+    }
+
+    /**
+     * Write every entry of an index to a file, replacing the file atomically once the snapshot is complete.
+     *
+     * @param index The index to save.
+     * @param revision The revision of the data the index was built from.
+     * @param configuration The configuration the index was built with.
+     * @param path The file to write.
+     */
+    public void write(TermIndex<ScopeT, IdT> index, long revision, String configuration, Path path)
+            throws IOException {
+        var lexemes = new LinkedHashMap<String, Integer>();
+        var scopes = new LinkedHashMap<ScopeT, List<EncodedSearchEntry<IdT>>>();
+        var dictionaries = new HashMap<ScopeT, LexemeDictionary>();
+
+        index.partitions().forEach((scope, partition) -> {
+            var strategy = encoded(partition);
+            var entries = strategy.getEntries();
+            var dictionary = strategy.getDictionary();
+
+            for (var entry : entries) {
+                for (int candidate = 0; candidate < entry.candidatesEnd(entry.size() - 1); candidate++) {
+                    lexemes.putIfAbsent(dictionary.lexeme(entry.candidateAt(candidate)), lexemes.size());
+                }
+            }
+
+            scopes.put(scope, entries);
+            dictionaries.put(scope, dictionary);
+        });
+
+        var directory = path.toAbsolutePath().getParent();
+        if (directory != null) {
+            Files.createDirectories(directory);
+        }
+
+        var temporary = path.resolveSibling(path.getFileName() + ".tmp");
+
+        try {
+            var stream = new BufferedOutputStream(Files.newOutputStream(temporary));
+            var checked = new CheckedOutputStream(stream, new CRC32());
+
+            try (var output = new DataOutputStream(checked)) {
+                output.writeInt(MAGIC);
+                output.writeInt(VERSION);
+                output.writeLong(revision);
+                writeBytes(output, configuration.getBytes(StandardCharsets.UTF_8));
+
+                output.writeInt(lexemes.size());
+                for (String lexeme : lexemes.keySet()) {
+                    writeBytes(output, lexeme.getBytes(StandardCharsets.UTF_8));
+                }
+
+                output.writeInt(scopes.size());
+                for (var scope : scopes.entrySet()) {
+                    var dictionary = dictionaries.get(scope.getKey());
+
+                    writeBytes(output, scopeCodec.encode(scope.getKey()));
+                    output.writeInt(scope.getValue().size());
+
+                    for (var entry : scope.getValue()) {
+                        writeBytes(output, idCodec.encode(entry.getIdentity()));
+                        output.writeInt(entry.getWeight());
+                        output.writeInt(entry.size());
+
+                        for (int token = 0; token < entry.size(); token++) {
+                            output.writeInt(entry.candidatesEnd(token) - entry.candidatesStart(token));
+
+                            int end = entry.candidatesEnd(token);
+                            for (int candidate = entry.candidatesStart(token); candidate < end; candidate++) {
+                                output.writeInt(lexemes.get(dictionary.lexeme(entry.candidateAt(candidate))));
+                            }
+                        }
+                    }
+                }
+
+                output.flush();
+                output.writeInt((int) checked.getChecksum().getValue());
+            }
+
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            // A partly written snapshot is of no use, and would otherwise be left beside the last complete one.
+            try {
+                Files.deleteIfExists(temporary);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+
+            throw e;
+        }
+    }
+
+    /**
+     * Read a snapshot written without a configuration into an index, which should be empty.
+     *
+     * @param path The file to read.
+     * @param index The index to restore the entries into.
+     * @return The revision the snapshot was written with.
+     * @throws IOException if the file can't be read, is not a valid snapshot, or was written with a configuration.
+     */
+    public long read(Path path, TermIndex<ScopeT, IdT> index) throws IOException {
+        return read(path, "", index);
+    }
+
+    /**
+     * Read a snapshot into an index, which should be empty, if it was written with the given configuration.
+     *
+     * @param path The file to read.
+     * @param configuration The configuration the index is built with.
+     * @param index The index to restore the entries into.
+     * @return The revision the snapshot was written with.
+     * @throws IOException if the file can't be read, is not a valid snapshot, or was written with another
+     *     configuration.
+     */
+    public long read(Path path, String configuration, TermIndex<ScopeT, IdT> index) throws IOException {
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            var buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            return read(buffer, configuration, index);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | NegativeArraySizeException
+                | IllegalArgumentException e) {
+            throw new IOException("Corrupt term index snapshot: " + path, e);
+        }
+    }
+
+    private long read(ByteBuffer buffer, String configuration, TermIndex<ScopeT, IdT> index) throws IOException {
+        if (buffer.remaining() < Integer.BYTES * 2 + Long.BYTES + Integer.BYTES || buffer.getInt() != MAGIC) {
+            throw new IOException("Not a term index snapshot");
+        }
+
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported term index snapshot version: " + version);
+        }
+
+        var crc = new CRC32();
+        crc.update(buffer.duplicate().position(0).limit(buffer.limit() - Integer.BYTES));
+        if ((int) crc.getValue() != buffer.getInt(buffer.limit() - Integer.BYTES)) {
+            throw new IOException("Term index snapshot checksum mismatch");
+        }
+
+        long revision = buffer.getLong();
+
+        var written = new String(readBytes(buffer), StandardCharsets.UTF_8);
+        if (!written.equals(configuration)) {
+            throw new IOException("Term index snapshot was written with another configuration: " + written);
+        }
+
+        var lexemes = new String[buffer.getInt()];
+        for (int lexeme = 0; lexeme < lexemes.length; lexeme++) {
+            lexemes[lexeme] = new String(readBytes(buffer), StandardCharsets.UTF_8);
+        }
+
+        // Lexeme identifiers are local to a dictionary, so the snapshot's lexeme indexes are translated for every
+        // dictionary the restored partitions use. A lexeme is only interned into a dictionary once an entry restored
+        // into it refers to the lexeme, so no dictionary takes the lexemes of other partitions.
+        var identifiers = new IdentityHashMap<LexemeDictionary, int[]>();
+
+        int scopeCount = buffer.getInt();
+        for (int scopeIndex = 0; scopeIndex < scopeCount; scopeIndex++) {
+            var scope = scopeCodec.decode(readBytes(buffer));
+            var strategy = encoded(index.partition(scope));
+            var dictionary = strategy.getDictionary();
+            var translation = identifiers.computeIfAbsent(dictionary, key -> untranslated(lexemes.length));
+
+            int entryCount = buffer.getInt();
+            var entries = new ArrayList<EncodedSearchEntry<IdT>>(entryCount);
+
+            for (int entryIndex = 0; entryIndex < entryCount; entryIndex++) {
+                var identity = idCodec.decode(readBytes(buffer));
+                var weight = buffer.getInt();
+                var offsets = new int[buffer.getInt() + 1];
+                var candidates = new int[8];
+
+                for (int token = 1; token < offsets.length; token++) {
+                    int size = buffer.getInt();
+                    int start = offsets[token - 1];
+
+                    if (start + size > candidates.length) {
+                        candidates = Arrays.copyOf(candidates, Math.max(candidates.length * 2, start + size));
+                    }
+
+                    for (int candidate = 0; candidate < size; candidate++) {
+                        candidates[start + candidate] = translate(lexemes, buffer.getInt(), dictionary, translation);
+                    }
+
+                    offsets[token] = start + size;
+                }
+
+                var length = offsets[offsets.length - 1];
+                entries.add(EncodedSearchEntry.of(identity, weight, Arrays.copyOf(candidates, length), offsets));
+            }
+
+            strategy.indexAllEncoded(entries);
+        }
+
+        if (buffer.remaining() != Integer.BYTES) {
+            throw new IOException("Unexpected data at the end of the term index snapshot");
+        }
+
+        return revision;
+    }
+
+    private static int[] untranslated(int lexemeCount) {
+        var identifiers = new int[lexemeCount];
+        Arrays.fill(identifiers, -1);
+
+        return identifiers;
+    }
+
+    /**
+     * Get the identifier of a snapshot lexeme in a dictionary, interning it the first time it is referred to.
+     */
+    private static int translate(String[] lexemes, int lexeme, LexemeDictionary dictionary, int[] identifiers) {
+        int identifier = identifiers[lexeme];
+        if (identifier < 0) {
+            identifier = dictionary.intern(lexemes[lexeme]);
+            identifiers[lexeme] = identifier;
+        }
+
+        return identifier;
+    }
+
+    private static <IdT> EncodedSearchStrategy<IdT> encoded(WordTokenSearchStrategy<IdT> strategy) {
+        if (!(strategy instanceof EncodedSearchStrategy)) {
+            throw new UnsupportedOperationException(
+                    "Snapshots are not supported by " + strategy.getClass().getSimpleName());
+        }
+
+        return (EncodedSearchStrategy<IdT>) strategy;
+    }
+
+    private static void writeBytes(DataOutputStream output, byte[] bytes) throws IOException {
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static byte[] readBytes(ByteBuffer buffer) {
+        var bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+
+        return bytes;
+    }
+
+    /**
+     * Converts scopes or identifiers to bytes and back.
+     */
+    public interface Codec<T> {
+        byte[] encode(T value);
+
+        T decode(byte[] bytes);
+
+        static Codec<String> strings() {
+            return new Codec<>() {
+                @Override
+                public byte[] encode(String value) {
+                    return value.getBytes(StandardCharsets.UTF_8);
+                }
+
+                @Override
+                public String decode(byte[] bytes) {
+                    return new String(bytes, StandardCharsets.UTF_8);
+                }
+            };
+        }
+
+        static Codec<UUID> uuids() {
+            return new Codec<>() {
+                @Override
+                public byte[] encode(UUID value) {
+                    return ByteBuffer.allocate(Long.BYTES * 2)
+                            .putLong(value.getMostSignificantBits())
+                            .putLong(value.getLeastSignificantBits())
+                            .array();
+                }
+
+                @Override
+                public UUID decode(byte[] bytes) {
+                    var buffer = ByteBuffer.wrap(bytes);
+                    return new UUID(buffer.getLong(), buffer.getLong());
+                }
+            };
+        }
+    }
+}
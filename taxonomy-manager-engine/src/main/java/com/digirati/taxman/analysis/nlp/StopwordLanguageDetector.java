@@ -0,0 +1,84 @@
+package com.digirati.taxman.analysis.nlp;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Guesses the language of a text by counting the function words of each language it contains. Function words make up
+ * a large part of any text, and the most common ones rarely occur in other languages, so a few hundred characters are
+ * usually enough to tell the languages apart. There are no models to load, and a text is read once.
+ */
+public final class StopwordLanguageDetector {
+
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}']+");
+
+    /**
+     * The most frequent function words of every language, leaving out those shared with another language in the map,
+     * e.g. "de", "en" and "la".
+     */
+    private static final Map<String, Set<String>> STOPWORDS = Map.of(
+            "en", Set.of("the", "and", "of", "to", "that", "with", "for", "it", "this", "are", "be", "by", "from",
+                    "which", "have", "has", "were", "not", "or", "at", "on", "its", "their", "been", "would"),
+            "fr", Set.of("le", "les", "et", "est", "une", "dans", "qui", "pour", "pas", "sur", "au", "aux", "avec",
+                    "ce", "cette", "sont", "nous", "vous", "ils", "été", "être", "leur", "elle", "mais", "très"),
+            "de", Set.of("der", "die", "und", "ist", "den", "dem", "ein", "eine", "nicht", "mit", "sich", "auf",
+                    "für", "von", "zu", "im", "auch", "wird", "sind", "wurde", "oder", "aus", "bei", "nach", "werden"),
+            "es", Set.of("el", "los", "las", "y", "ya", "otros", "más", "pero", "sus", "fue", "está", "muy",
+                    "también", "hay", "puede", "ser", "sino", "según", "hasta", "mucho", "han", "cuando", "porque"),
+            "it", Set.of("di", "che", "della", "delle", "dei", "gli", "sono", "nel", "nella", "anche", "alla",
+                    "questo", "questa", "ed", "è", "degli", "tra", "più", "stato", "essere", "hanno", "sulla"),
+            "nl", Set.of("het", "een", "van", "niet", "zijn", "op", "dat", "voor", "met", "ook", "aan", "om", "bij",
+                    "naar", "worden", "wordt", "deze", "dit", "heeft", "werd", "maar", "nog", "uit", "tot", "kan"),
+            "pt", Set.of("os", "não", "uma", "em", "pelos", "dos", "com", "foi", "pelo", "pela", "são", "também",
+                    "ao", "seu", "sua", "quando", "muito", "nas", "às", "já", "ainda", "mesmo", "isso", "pode"));
+
+    /**
+     * The languages with a list of function words.
+     */
+    public static Set<String> supportedLanguages() {
+        return STOPWORDS.keySet();
+    }
+
+    /**
+     * Detect the language of a text among some candidates.
+     *
+     * @param text The text to detect the language of.
+     * @param candidates The codes of the languages the text may be in. Languages this detector knows nothing about
+     *     are never detected.
+     * @return The candidate language with the most function words in the text, or nothing if no function words of
+     *     any candidate were found, or two languages have as many.
+     */
+    public Optional<String> detect(String text, Collection<String> candidates) {
+        var counts = new HashMap<String, Integer>();
+
+        for (var word : WORD_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            for (var language : candidates) {
+                var stopwords = STOPWORDS.get(language);
+                if (stopwords != null && stopwords.contains(word)) {
+                    counts.merge(language, 1, Integer::sum);
+                }
+            }
+        }
+
+        String best = null;
+        int bestCount = 0;
+        boolean tied = false;
+
+        for (var count : counts.entrySet()) {
+            if (count.getValue() > bestCount) {
+                best = count.getKey();
+                bestCount = count.getValue();
+                tied = false;
+            } else if (count.getValue() == bestCount) {
+                tied = true;
+            }
+        }
+
+        return tied ? Optional.empty() : Optional.ofNullable(best);
+    }
+}
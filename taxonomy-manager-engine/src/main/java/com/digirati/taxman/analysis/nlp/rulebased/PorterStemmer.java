@@ -0,0 +1,426 @@
+package com.digirati.taxman.analysis.nlp.rulebased;
+
+/**
+ * An implementation of the Porter stemming algorithm for English, as described in M.F. Porter, "An algorithm for
+ * suffix stripping", Program 14(3), 1980.
+ *
+ * <p>The stemmer only handles lowercase ASCII words. Words containing any other character, and words of two letters
+ * or less, are returned as-is.
+ */
+public final class PorterStemmer {
+
+    private char[] word;
+    private int end;
+    private int stemEnd;
+
+    private PorterStemmer(String word) {
+        this.word = word.toCharArray();
+        this.end = this.word.length - 1;
+    }
+
+    /**
+     * Get the stem of a lowercase English word.
+     */
+    public static String stem(String word) {
+        if (word.length() <= 2 || !isLowercaseAscii(word)) {
+            return word;
+        }
+
+        var stemmer = new PorterStemmer(word);
+        stemmer.step1ab();
+        if (stemmer.end > 0) {
+            stemmer.step1c();
+            stemmer.step2();
+            stemmer.step3();
+            stemmer.step4();
+            stemmer.step5();
+        }
+
+        return new String(stemmer.word, 0, stemmer.end + 1);
+    }
+
+    private static boolean isLowercaseAscii(String word) {
+        for (int index = 0; index < word.length(); index++) {
+            char ch = word.charAt(index);
+            if (ch < 'a' || ch > 'z') {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Check if the character at {@code index} is a consonant. 'y' is a consonant at the start of a word or after a
+     * vowel.
+     */
+    private boolean isConsonant(int index) {
+        switch (word[index]) {
+            case 'a':
+            case 'e':
+            case 'i':
+            case 'o':
+            case 'u':
+                return false;
+            case 'y':
+                return index == 0 || !isConsonant(index - 1);
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * Count the number of vowel-consonant sequences in the stem, i.e. {@code m} in {@code [C](VC){m}[V]}.
+     */
+    private int measure() {
+        int count = 0;
+        int index = 0;
+
+        while (true) {
+            if (index > stemEnd) {
+                return count;
+            }
+            if (!isConsonant(index)) {
+                break;
+            }
+            index++;
+        }
+        index++;
+
+        while (true) {
+            while (true) {
+                if (index > stemEnd) {
+                    return count;
+                }
+                if (isConsonant(index)) {
+                    break;
+                }
+                index++;
+            }
+            index++;
+            count++;
+
+            while (true) {
+                if (index > stemEnd) {
+                    return count;
+                }
+                if (!isConsonant(index)) {
+                    break;
+                }
+                index++;
+            }
+            index++;
+        }
+    }
+
+    private boolean stemHasVowel() {
+        for (int index = 0; index <= stemEnd; index++) {
+            if (!isConsonant(index)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private boolean endsWithDoubleConsonant(int index) {
+        return index >= 1 && word[index] == word[index - 1] && isConsonant(index);
+    }
+
+    /**
+     * Check if the characters ending at {@code index} are consonant-vowel-consonant, where the last consonant is
+     * not 'w', 'x' or 'y'. Used to restore an 'e' in short words, e.g. "hop(e)", "fil(e)".
+     */
+    private boolean endsWithCvc(int index) {
+        if (index < 2 || !isConsonant(index) || isConsonant(index - 1) || !isConsonant(index - 2)) {
+            return false;
+        }
+
+        char ch = word[index];
+        return ch != 'w' && ch != 'x' && ch != 'y';
+    }
+
+    /**
+     * Check if the word ends with a suffix, and if so mark the end of the stem preceding it.
+     */
+    private boolean endsWith(String suffix) {
+        int length = suffix.length();
+        int start = end - length + 1;
+
+        if (start < 0) {
+            return false;
+        }
+
+        for (int index = 0; index < length; index++) {
+            if (word[start + index] != suffix.charAt(index)) {
+                return false;
+            }
+        }
+
+        stemEnd = end - length;
+        return true;
+    }
+
+    /**
+     * Replace the characters after the stem with {@code replacement}.
+     */
+    private void setTo(String replacement) {
+        int length = replacement.length();
+        int start = stemEnd + 1;
+
+        if (start + length > word.length) {
+            var grown = new char[start + length];
+            System.arraycopy(word, 0, grown, 0, start);
+            word = grown;
+        }
+
+        replacement.getChars(0, length, word, start);
+        end = stemEnd + length;
+    }
+
+    private void replaceIfMeasured(String replacement) {
+        if (measure() > 0) {
+            setTo(replacement);
+        }
+    }
+
+    /**
+     * Remove plurals and -ed or -ing, e.g. "caresses" to "caress", "ponies" to "poni", "meetings" to "meet".
+     */
+    private void step1ab() {
+        if (word[end] == 's') {
+            if (endsWith("sses")) {
+                end -= 2;
+            } else if (endsWith("ies")) {
+                setTo("i");
+            } else if (word[end - 1] != 's') {
+                end--;
+            }
+        }
+
+        if (endsWith("eed")) {
+            if (measure() > 0) {
+                end--;
+            }
+        } else if ((endsWith("ed") || endsWith("ing")) && stemHasVowel()) {
+            end = stemEnd;
+
+            if (endsWith("at")) {
+                setTo("ate");
+            } else if (endsWith("bl")) {
+                setTo("ble");
+            } else if (endsWith("iz")) {
+                setTo("ize");
+            } else if (endsWithDoubleConsonant(end)) {
+                // Undouble the consonant, e.g. "hopp(ing)" to "hop", but keep "fall", "hiss" and "fizz".
+                char ch = word[end];
+                if (ch != 'l' && ch != 's' && ch != 'z') {
+                    end--;
+                }
+            } else if (measure() == 1 && endsWithCvc(end)) {
+                setTo("e");
+            }
+        }
+    }
+
+    /**
+     * Turn a terminal 'y' into 'i' when there is another vowel in the stem.
+     */
+    private void step1c() {
+        if (endsWith("y") && stemHasVowel()) {
+            word[end] = 'i';
+        }
+    }
+
+    /**
+     * Map double suffixes to single ones, e.g. "-ization" to "-ize".
+     */
+    private void step2() {
+        if (end == 0) {
+            return;
+        }
+
+        switch (word[end - 1]) {
+            case 'a':
+                if (endsWith("ational")) {
+                    replaceIfMeasured("ate");
+                } else if (endsWith("tional")) {
+                    replaceIfMeasured("tion");
+                }
+                break;
+            case 'c':
+                if (endsWith("enci")) {
+                    replaceIfMeasured("ence");
+                } else if (endsWith("anci")) {
+                    replaceIfMeasured("ance");
+                }
+                break;
+            case 'e':
+                if (endsWith("izer")) {
+                    replaceIfMeasured("ize");
+                }
+                break;
+            case 'l':
+                if (endsWith("bli")) {
+                    replaceIfMeasured("ble");
+                } else if (endsWith("alli")) {
+                    replaceIfMeasured("al");
+                } else if (endsWith("entli")) {
+                    replaceIfMeasured("ent");
+                } else if (endsWith("eli")) {
+                    replaceIfMeasured("e");
+                } else if (endsWith("ousli")) {
+                    replaceIfMeasured("ous");
+                }
+                break;
+            case 'o':
+                if (endsWith("ization")) {
+                    replaceIfMeasured("ize");
+                } else if (endsWith("ation")) {
+                    replaceIfMeasured("ate");
+                } else if (endsWith("ator")) {
+                    replaceIfMeasured("ate");
+                }
+                break;
+            case 's':
+                if (endsWith("alism")) {
+                    replaceIfMeasured("al");
+                } else if (endsWith("iveness")) {
+                    replaceIfMeasured("ive");
+                } else if (endsWith("fulness")) {
+                    replaceIfMeasured("ful");
+                } else if (endsWith("ousness")) {
+                    replaceIfMeasured("ous");
+                }
+                break;
+            case 't':
+                if (endsWith("aliti")) {
+                    replaceIfMeasured("al");
+                } else if (endsWith("iviti")) {
+                    replaceIfMeasured("ive");
+                } else if (endsWith("biliti")) {
+                    replaceIfMeasured("ble");
+                }
+                break;
+            case 'g':
+                if (endsWith("logi")) {
+                    replaceIfMeasured("log");
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Remove or simplify -ic-, -full, -ness etc. suffixes.
+     */
+    private void step3() {
+        switch (word[end]) {
+            case 'e':
+                if (endsWith("icate")) {
+                    replaceIfMeasured("ic");
+                } else if (endsWith("ative")) {
+                    replaceIfMeasured("");
+                } else if (endsWith("alize")) {
+                    replaceIfMeasured("al");
+                }
+                break;
+            case 'i':
+                if (endsWith("iciti")) {
+                    replaceIfMeasured("ic");
+                }
+                break;
+            case 'l':
+                if (endsWith("ical")) {
+                    replaceIfMeasured("ic");
+                } else if (endsWith("ful")) {
+                    replaceIfMeasured("");
+                }
+                break;
+            case 's':
+                if (endsWith("ness")) {
+                    replaceIfMeasured("");
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Remove -ant, -ence etc. in words with a measure greater than 1.
+     */
+    private void step4() {
+        if (end == 0) {
+            return;
+        }
+
+        boolean matched;
+        switch (word[end - 1]) {
+            case 'a':
+                matched = endsWith("al");
+                break;
+            case 'c':
+                matched = endsWith("ance") || endsWith("ence");
+                break;
+            case 'e':
+                matched = endsWith("er");
+                break;
+            case 'i':
+                matched = endsWith("ic");
+                break;
+            case 'l':
+                matched = endsWith("able") || endsWith("ible");
+                break;
+            case 'n':
+                matched = endsWith("ant") || endsWith("ement") || endsWith("ment") || endsWith("ent");
+                break;
+            case 'o':
+                matched = (endsWith("ion") && stemEnd >= 0 && (word[stemEnd] == 's' || word[stemEnd] == 't'))
+                        || endsWith("ou");
+                break;
+            case 's':
+                matched = endsWith("ism");
+                break;
+            case 't':
+                matched = endsWith("ate") || endsWith("iti");
+                break;
+            case 'u':
+                matched = endsWith("ous");
+                break;
+            case 'v':
+                matched = endsWith("ive");
+                break;
+            case 'z':
+                matched = endsWith("ize");
+                break;
+            default:
+                matched = false;
+                break;
+        }
+
+        if (matched && measure() > 1) {
+            end = stemEnd;
+        }
+    }
+
+    /**
+     * Remove a final -e and reduce a final -ll in longer words.
+     */
+    private void step5() {
+        stemEnd = end;
+
+        if (word[end] == 'e') {
+            int measure = measure();
+
+            if (measure > 1 || (measure == 1 && !endsWithCvc(end - 1))) {
+                end--;
+            }
+        }
+
+        if (word[end] == 'l' && endsWithDoubleConsonant(end) && measure() > 1) {
+            end--;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.digirati.taxman.analysis.nlp.rulebased;
+
+import com.digirati.taxman.analysis.WordToken;
+import com.digirati.taxman.analysis.WordTokenizer;
+import com.digirati.taxman.analysis.nlp.AnnotationType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+import java.util.regex.Pattern;
+
+/**
+ * A {@link WordTokenizer} that splits text into words with a character scanner and stems every word with a
+ * rule-based stemmer, instead of running a part of speech tagger and lemmatizer. There are no models to load, so this
+ * is much faster than the {@link com.digirati.taxman.analysis.nlp.corenlp.CoreNlpWordTokenizer}, at the cost of
+ * lemma precision: irregular forms like "was" and "be" don't share a stem.
+ *
+ * <p>Words are maximal runs of letters, digits and combining marks, so hyphens, slashes, apostrophes and other
+ * punctuation all separate words. Produces the same kinds of token as the CoreNLP tokenizer:
+ * <ul>
+ *     <li>numbers are emitted without a sign, as a {@link AnnotationType#TOKEN} only.</li>
+ *     <li>words of two or more uppercase letters are treated as acronyms, and emitted as a case-preserving
+ *     {@link AnnotationType#TOKEN} only.</li>
+ *     <li>any other word is emitted as a lowercase {@link AnnotationType#TOKEN} and {@link AnnotationType#STEM}.</li>
+ * </ul>
+ *
+ * <p>Without part of speech tags the modal "can" is indistinguishable from the noun, so unlike the CoreNLP tokenizer
+ * no words are elided as stopwords.
+ */
+public final class RuleBasedWordTokenizer implements WordTokenizer {
+
+    private static final Pattern XML_TAG_REGEX = Pattern.compile("\\<\\s*\\/?\\s*\\w+\\s*\\>");
+
+    private final UnaryOperator<String> stemmer;
+
+    RuleBasedWordTokenizer(UnaryOperator<String> stemmer) {
+        this.stemmer = stemmer;
+    }
+
+    /**
+     * Create a tokenizer for the given language. Only English words are stemmed: in any other language a word's
+     * stem is its lowercase form, so labels only match the exact forms of their words.
+     */
+    public static WordTokenizer create(String language) {
+        if ("en".equals(language)) {
+            return new RuleBasedWordTokenizer(PorterStemmer::stem);
+        }
+
+        return new RuleBasedWordTokenizer(UnaryOperator.identity());
+    }
+
+    @Override
+    public List<WordToken> tokenize(String input) {
+        // Blank out HTML tags, keeping the positions of the remaining text intact.
+        input = XML_TAG_REGEX.matcher(input).replaceAll(
+                matchResult -> " ".repeat(matchResult.end() - matchResult.start()));
+
+        List<WordToken> tokens = new ArrayList<>();
+        int length = input.length();
+        int index = 0;
+
+        while (index < length) {
+            int codePoint = input.codePointAt(index);
+            if (!isWordCharacter(codePoint)) {
+                index += Character.charCount(codePoint);
+                continue;
+            }
+
+            int begin = index;
+            while (index < length && isWordCharacter(codePoint = input.codePointAt(index))) {
+                index += Character.charCount(codePoint);
+            }
+
+            tokens.add(createToken(input.substring(begin, index), begin, index));
+        }
+
+        return tokens;
+    }
+
+    private WordToken createToken(String text, int begin, int end) {
+        if (isNumber(text) || isAcronym(text)) {
+            return new WordToken(Map.of(AnnotationType.TOKEN, text), begin, end);
+        }
+
+        var token = text.toLowerCase(Locale.ROOT);
+        return new WordToken(Map.of(
+                AnnotationType.STEM, stemmer.apply(token),
+                AnnotationType.TOKEN, token
+        ), begin, end);
+    }
+
+    private static boolean isWordCharacter(int codePoint) {
+        if (Character.isLetterOrDigit(codePoint)) {
+            return true;
+        }
+
+        int type = Character.getType(codePoint);
+        return type == Character.NON_SPACING_MARK || type == Character.COMBINING_SPACING_MARK;
+    }
+
+    private static boolean isNumber(String text) {
+        return text.chars().allMatch(ch -> ch >= '0' && ch <= '9');
+    }
+
+    private static boolean isAcronym(String text) {
+        return text.length() > 1 && text.chars().allMatch(ch -> ch >= 'A' && ch <= 'Z');
+    }
+}
@@ -0,0 +1,325 @@
+package com.digirati.taxman.analysis.search;
+
+import com.digirati.taxman.analysis.EncodedSearchEntry;
+import com.digirati.taxman.analysis.EncodedSearchStrategy;
+import com.digirati.taxman.analysis.EncodedTokens;
+import com.digirati.taxman.analysis.FuzzyEncodedTokens;
+import com.digirati.taxman.analysis.LexemeDictionary;
+import com.digirati.taxman.analysis.TermMatch;
+import com.digirati.taxman.analysis.WordToken;
+import com.digirati.taxman.analysis.WordTokenSearchEntry;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A search strategy that keys every entry by the candidate lexemes of its root token, so that finding the terms
+ * that may start at an input token is a hash lookup instead of a scan over every indexed entry. Entries are stored
+ * as {@link EncodedSearchEntry}, and their buckets are keyed by lexeme identifier. Only the lexemes that start an
+ * indexed term have a bucket, as a dictionary may be shared with other indexes that use many more lexemes.
+ *
+ * <p>Each bucket is an immutable list, sorted longest term first, that is replaced wholesale on update. Readers
+ * never observe a partially updated bucket and never need to sort. Bulk loads and replacements build a complete copy
+ * of the index and publish it in one write.
+ */
+public class InvertedIndexSearchStrategy<IdT> implements EncodedSearchStrategy<IdT> {
+
+    private static final Comparator<EncodedSearchEntry<?>> LONGEST_FIRST =
+            Comparator.<EncodedSearchEntry<?>>comparingInt(EncodedSearchEntry::size).reversed();
+
+    private final Object writeLock = new Object();
+
+    private final LexemeDictionary dictionary;
+
+    private volatile ConcurrentMap<Integer, List<EncodedSearchEntry<IdT>>> entriesByCandidate =
+            new ConcurrentHashMap<>();
+
+    /**
+     * The indexed entries of every identity, guarded by {@code writeLock}.
+     */
+    private final Map<IdT, List<EncodedSearchEntry<IdT>>> entriesByIdentity = new HashMap<>();
+
+    public InvertedIndexSearchStrategy() {
+        this(new LexemeDictionary());
+    }
+
+    public InvertedIndexSearchStrategy(LexemeDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    @Override
+    public void index(WordTokenSearchEntry<IdT> entry) {
+        var encoded = EncodedSearchEntry.intern(entry, dictionary);
+
+        synchronized (writeLock) {
+            track(encoded);
+            addToBuckets(entriesByCandidate, encoded);
+        }
+    }
+
+    @Override
+    public void indexAll(Collection<WordTokenSearchEntry<IdT>> entries) {
+        var encodedEntries = new ArrayList<EncodedSearchEntry<IdT>>(entries.size());
+        for (var entry : entries) {
+            encodedEntries.add(EncodedSearchEntry.intern(entry, dictionary));
+        }
+
+        indexAllEncoded(encodedEntries);
+    }
+
+    @Override
+    public void indexAllEncoded(Collection<EncodedSearchEntry<IdT>> encodedEntries) {
+        var batch = new HashMap<Integer, List<EncodedSearchEntry<IdT>>>();
+
+        for (var encoded : encodedEntries) {
+            for (int index = encoded.candidatesStart(0); index < encoded.candidatesEnd(0); index++) {
+                batch.computeIfAbsent(encoded.candidateAt(index), key -> new ArrayList<>()).add(encoded);
+            }
+        }
+
+        for (var added : batch.values()) {
+            added.sort(LONGEST_FIRST);
+        }
+
+        synchronized (writeLock) {
+            var updated = new ConcurrentHashMap<>(entriesByCandidate);
+            batch.forEach((candidate, added) -> {
+                var entries = updated.get(candidate);
+                var sorted = Collections.unmodifiableList(added);
+                updated.put(candidate, entries == null ? sorted : insert(entries, sorted));
+            });
+
+            entriesByCandidate = updated;
+            encodedEntries.forEach(this::track);
+        }
+    }
+
+    @Override
+    public void unindex(WordTokenSearchEntry<IdT> entry) {
+        var encoded = EncodedSearchEntry.lookup(entry, dictionary);
+
+        synchronized (writeLock) {
+            if (untrack(encoded)) {
+                removeFromBuckets(entriesByCandidate, encoded);
+            }
+        }
+    }
+
+    @Override
+    public void unindexAll(Collection<IdT> identities) {
+        replaceAll(identities, List.of());
+    }
+
+    @Override
+    public void replaceAll(Collection<IdT> identities, Collection<WordTokenSearchEntry<IdT>> entries) {
+        var encoded = new ArrayList<EncodedSearchEntry<IdT>>(entries.size());
+        for (var entry : entries) {
+            encoded.add(EncodedSearchEntry.intern(entry, dictionary));
+        }
+
+        // Like a bulk load, the replacement is made on a copy of the buckets and published in one write, so readers
+        // never see an identity with only some of its entries replaced.
+        synchronized (writeLock) {
+            var updated = new ConcurrentHashMap<>(entriesByCandidate);
+
+            for (IdT identity : identities) {
+                var removed = entriesByIdentity.remove(identity);
+                if (removed != null) {
+                    removed.forEach(entry -> removeFromBuckets(updated, entry));
+                }
+            }
+
+            for (var entry : encoded) {
+                track(entry);
+                addToBuckets(updated, entry);
+            }
+
+            entriesByCandidate = updated;
+        }
+    }
+
+    @Override
+    public LexemeDictionary getDictionary() {
+        return dictionary;
+    }
+
+    @Override
+    public List<EncodedSearchEntry<IdT>> getEntries() {
+        var entries = new ArrayList<EncodedSearchEntry<IdT>>();
+
+        synchronized (writeLock) {
+            entriesByIdentity.values().forEach(entries::addAll);
+        }
+
+        return entries;
+    }
+
+    @Override
+    public Set<TermMatch<IdT>> match(List<WordToken> tokens) {
+        return match(tokens, 0);
+    }
+
+    @Override
+    public boolean supportsFuzzyMatching() {
+        return true;
+    }
+
+    @Override
+    public Set<TermMatch<IdT>> match(List<WordToken> tokens, int maxDistance) {
+        var matches = new HashSet<TermMatch<IdT>>();
+        var buckets = entriesByCandidate;
+        var fuzzyInput = maxDistance == 0 ? null : FuzzyEncodedTokens.lookup(tokens, dictionary, maxDistance);
+        var input = fuzzyInput == null ? EncodedTokens.lookup(tokens, dictionary) : fuzzyInput;
+
+        for (int tokenIndex = 0; tokenIndex < input.size(); tokenIndex++) {
+            var candidateEntries = lookup(buckets, input, tokenIndex);
+
+            for (var candidate : candidateEntries) {
+                if (candidate.sharesCandidates(input, tokenIndex)) {
+                    var currentTokens = tokens.subList(tokenIndex, tokenIndex + candidate.size());
+                    var distance = fuzzyInput == null ? 0 : fuzzyInput.distance(candidate, tokenIndex);
+
+                    matches.add(new TermMatch<>(candidate.getIdentity(), currentTokens, candidate.getWeight(),
+                            distance));
+                }
+            }
+        }
+
+        return matches;
+    }
+
+    /**
+     * Find all entries whose root token shares a candidate with the given input token, longest term first.
+     */
+    private static <IdT> List<EncodedSearchEntry<IdT>> lookup(
+            Map<Integer, List<EncodedSearchEntry<IdT>>> buckets, EncodedTokens input, int token) {
+        List<EncodedSearchEntry<IdT>> result = null;
+        Set<EncodedSearchEntry<IdT>> seen = null;
+
+        for (int index = input.candidatesStart(token); index < input.candidatesEnd(token); index++) {
+            int candidate = input.candidateAt(index);
+            var entries = buckets.get(candidate);
+            if (entries == null) {
+                continue;
+            }
+
+            if (result == null) {
+                result = entries;
+                continue;
+            }
+
+            // The token has more than one candidate with indexed entries (e.g. both its lemma and its original
+            // text), so the buckets must be merged. An entry is filed under each of its own root candidates and
+            // may appear in more than one of them.
+            if (seen == null) {
+                seen = Collections.newSetFromMap(new IdentityHashMap<>());
+                seen.addAll(result);
+                result = new ArrayList<>(result);
+            }
+
+            for (var entry : entries) {
+                if (seen.add(entry)) {
+                    result.add(entry);
+                }
+            }
+        }
+
+        if (result == null) {
+            return List.of();
+        }
+
+        if (seen != null) {
+            result.sort(LONGEST_FIRST);
+        }
+
+        return result;
+    }
+
+    private static <IdT> void addToBuckets(Map<Integer, List<EncodedSearchEntry<IdT>>> buckets,
+                                           EncodedSearchEntry<IdT> entry) {
+        for (int index = entry.candidatesStart(0); index < entry.candidatesEnd(0); index++) {
+            int candidate = entry.candidateAt(index);
+            var entries = buckets.get(candidate);
+            buckets.put(candidate, entries == null ? List.of(entry) : insert(entries, List.of(entry)));
+        }
+    }
+
+    private static <IdT> void removeFromBuckets(Map<Integer, List<EncodedSearchEntry<IdT>>> buckets,
+                                                EncodedSearchEntry<IdT> entry) {
+        for (int index = entry.candidatesStart(0); index < entry.candidatesEnd(0); index++) {
+            // An emptied bucket is removed along with its key.
+            buckets.computeIfPresent(entry.candidateAt(index), (candidate, entries) -> remove(entries, entry));
+        }
+    }
+
+    private void track(EncodedSearchEntry<IdT> entry) {
+        entriesByIdentity.computeIfAbsent(entry.getIdentity(), identity -> new ArrayList<>(1)).add(entry);
+    }
+
+    private boolean untrack(EncodedSearchEntry<IdT> entry) {
+        var entries = entriesByIdentity.get(entry.getIdentity());
+        if (entries == null || !entries.remove(entry)) {
+            return false;
+        }
+
+        if (entries.isEmpty()) {
+            entriesByIdentity.remove(entry.getIdentity());
+        }
+
+        return true;
+    }
+
+    private static <IdT> List<EncodedSearchEntry<IdT>> insert(List<EncodedSearchEntry<IdT>> entries,
+                                                             List<EncodedSearchEntry<IdT>> added) {
+        if (added.size() > 1) {
+            var updated = new ArrayList<EncodedSearchEntry<IdT>>(entries.size() + added.size());
+            updated.addAll(entries);
+            updated.addAll(added);
+            updated.sort(LONGEST_FIRST);
+
+            return Collections.unmodifiableList(updated);
+        }
+
+        var entry = added.get(0);
+        var updated = new ArrayList<EncodedSearchEntry<IdT>>(entries.size() + 1);
+        var size = entry.size();
+        var index = 0;
+
+        while (index < entries.size() && entries.get(index).size() >= size) {
+            index++;
+        }
+
+        updated.addAll(entries.subList(0, index));
+        updated.add(entry);
+        updated.addAll(entries.subList(index, entries.size()));
+
+        return Collections.unmodifiableList(updated);
+    }
+
+    private static <IdT> List<EncodedSearchEntry<IdT>> remove(List<EncodedSearchEntry<IdT>> entries,
+                                                             EncodedSearchEntry<IdT> entry) {
+        var index = entries.indexOf(entry);
+        if (index < 0) {
+            return entries;
+        }
+
+        if (entries.size() == 1) {
+            return null;
+        }
+
+        var updated = new ArrayList<>(entries);
+        updated.remove(index);
+
+        return Collections.unmodifiableList(updated);
+    }
+}
@@ -5,6 +5,7 @@ import com.digirati.taxman.analysis.WordToken;
 import com.digirati.taxman.analysis.WordTokenSearchEntry;
 import com.digirati.taxman.analysis.WordTokenSearchStrategy;
 
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
@@ -23,11 +24,22 @@ public class NaiveSearchStrategy<IdT> implements WordTokenSearchStrategy<IdT> {
         entries.add(entry);
     }
 
+    @Override
+    public void indexAll(Collection<WordTokenSearchEntry<IdT>> entries) {
+        this.entries.addAll(entries);
+    }
+
     @Override
     public void unindex(WordTokenSearchEntry<IdT> entry) {
         entries.remove(entry);
     }
 
+    @Override
+    public void unindexAll(Collection<IdT> identities) {
+        var removed = Set.copyOf(identities);
+        entries.removeIf(entry -> removed.contains(entry.getIdentity()));
+    }
+
     @Override
     public Set<TermMatch<IdT>> match(List<WordToken> tokens) {
         var matches = new HashSet<TermMatch<IdT>>();
@@ -45,7 +57,7 @@ public class NaiveSearchStrategy<IdT> implements WordTokenSearchStrategy<IdT> {
                 var currentTokens = tokens.subList(tokenIndex, currentTokenEndIndex);
 
                 if (WordToken.sharesCandidates(candidateTokens, currentTokens)) {
-                    matches.add(new TermMatch<>(candidate.getIdentity(), currentTokens));
+                    matches.add(new TermMatch<>(candidate.getIdentity(), currentTokens, candidate.getWeight()));
                 }
             }
         }
@@ -0,0 +1,307 @@
+package com.digirati.taxman.analysis.search;
+
+import com.digirati.taxman.analysis.EncodedSearchEntry;
+import com.digirati.taxman.analysis.EncodedTokens;
+import com.digirati.taxman.analysis.LexemeDictionary;
+import com.google.common.collect.ImmutableMultiset;
+import com.google.common.collect.Multiset;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable multi-pattern automaton that finds every occurrence of a set of multi-token terms in a single
+ * left-to-right pass over a list of {@link EncodedTokens}.
+ *
+ * <p>The alphabet of the automaton is the set of lexeme identifiers of a {@link LexemeDictionary}. Each term is
+ * compiled into a path of the goto trie, where every candidate of a term token labels an edge to the same child.
+ * Since input tokens also carry more than one candidate, the trie is nondeterministic and matching tracks the set
+ * of live partial matches instead of following failure links: at every input position each live state (and the
+ * root) is advanced along the edges labelled with the token's candidates. The cost of a match is proportional to
+ * the document length times the number of partial matches alive at a position, and independent of the number of
+ * indexed terms.
+ *
+ * <p>The trie is stored in flat arrays: the outgoing edges of node {@code n} are at indexes
+ * {@code edgeOffsets[n]} (inclusive) to {@code edgeOffsets[n + 1]} (exclusive) of {@code edgeSymbols} and
+ * {@code edgeTargets}, sorted by symbol. Terms ending at a node are stored the same way in {@code outputs}.
+ */
+public final class PhraseAutomaton<IdT> {
+
+    private static final int ROOT = 0;
+
+    private final ImmutableMultiset<EncodedSearchEntry<IdT>> entries;
+
+    private final int[] edgeOffsets;
+    private final int[] edgeSymbols;
+    private final int[] edgeTargets;
+    private final int[] outputOffsets;
+    private final Object[] outputs;
+
+    private PhraseAutomaton(ImmutableMultiset<EncodedSearchEntry<IdT>> entries,
+                            int[] edgeOffsets,
+                            int[] edgeSymbols,
+                            int[] edgeTargets,
+                            int[] outputOffsets,
+                            Object[] outputs) {
+        this.entries = entries;
+        this.edgeOffsets = edgeOffsets;
+        this.edgeSymbols = edgeSymbols;
+        this.edgeTargets = edgeTargets;
+        this.outputOffsets = outputOffsets;
+        this.outputs = outputs;
+    }
+
+    /**
+     * Compile an automaton that recognizes all of the given entries. Duplicate entries are compiled once, so each
+     * distinct entry is reported once per occurrence in the input; their counts are kept in {@link #getEntries()}.
+     *
+     * @param entries The terms to recognize, encoded against a single dictionary.
+     * @param <IdT> The type of identifier that terms are associated with.
+     * @return A new automaton.
+     */
+    public static <IdT> PhraseAutomaton<IdT> compile(Multiset<EncodedSearchEntry<IdT>> entries) {
+        var trie = new ArrayList<Node>();
+        trie.add(new Node());
+
+        for (var entry : entries.elementSet()) {
+            int node = ROOT;
+
+            for (int token = 0; token < entry.size(); token++) {
+                var labels = new int[entry.candidatesEnd(token) - entry.candidatesStart(token)];
+
+                for (int index = 0; index < labels.length; index++) {
+                    labels[index] = entry.candidateAt(entry.candidatesStart(token) + index);
+                }
+
+                node = trie.get(node).child(labels, trie);
+            }
+
+            trie.get(node).outputs.add(entry);
+        }
+
+        int edgeCount = 0;
+        int outputCount = 0;
+        for (var node : trie) {
+            edgeCount += node.edgeCount();
+            outputCount += node.outputs.size();
+        }
+
+        var edgeOffsets = new int[trie.size() + 1];
+        var edgeSymbols = new int[edgeCount];
+        var edgeTargets = new int[edgeCount];
+        var outputOffsets = new int[trie.size() + 1];
+        var outputs = new Object[outputCount];
+
+        int edge = 0;
+        int output = 0;
+        for (int index = 0; index < trie.size(); index++) {
+            var node = trie.get(index);
+            edgeOffsets[index] = edge;
+            outputOffsets[index] = output;
+
+            edge = node.writeEdges(edgeSymbols, edgeTargets, edge);
+            for (var entry : node.outputs) {
+                outputs[output++] = entry;
+            }
+        }
+
+        edgeOffsets[trie.size()] = edge;
+        outputOffsets[trie.size()] = output;
+
+        return new PhraseAutomaton<>(ImmutableMultiset.copyOf(entries), edgeOffsets, edgeSymbols,
+                edgeTargets, outputOffsets, outputs);
+    }
+
+    /**
+     * Get the entries this automaton was compiled from.
+     */
+    public ImmutableMultiset<EncodedSearchEntry<IdT>> getEntries() {
+        return entries;
+    }
+
+    /**
+     * Find every occurrence of an indexed term in the input. Each distinct entry is reported once per occurrence,
+     * regardless of how many times it was compiled.
+     *
+     * @param input The input tokens, encoded against the same dictionary as the compiled entries.
+     * @param consumer A consumer that receives each matching entry along with the range of tokens it matched.
+     */
+    @SuppressWarnings("unchecked")
+    public void match(EncodedTokens input, MatchConsumer<IdT> consumer) {
+        var states = new IntBuffer();
+        var next = new IntBuffer();
+
+        for (int position = 0; position < input.size(); position++) {
+            next.clear();
+            states.addDistinct(ROOT);
+            for (int state = 0; state < states.size(); state++) {
+                advance(states.get(state), input, position, next);
+            }
+
+            for (int state = 0; state < next.size(); state++) {
+                var node = next.get(state);
+
+                for (int output = outputOffsets[node]; output < outputOffsets[node + 1]; output++) {
+                    var entry = (EncodedSearchEntry<IdT>) outputs[output];
+
+                    consumer.accept(entry, position + 1 - entry.size(), position + 1);
+                }
+            }
+
+            var swap = states;
+            states = next;
+            next = swap;
+        }
+    }
+
+    private void advance(int node, EncodedTokens input, int position, IntBuffer next) {
+        var from = edgeOffsets[node];
+        var to = edgeOffsets[node + 1];
+
+        if (from == to) {
+            return;
+        }
+
+        for (int label = input.candidatesStart(position); label < input.candidatesEnd(position); label++) {
+            var symbol = input.candidateAt(label);
+            var edge = Arrays.binarySearch(edgeSymbols, from, to, symbol);
+
+            if (edge < 0) {
+                continue;
+            }
+
+            // The trie is nondeterministic, so rewind to the first edge with this label.
+            while (edge > from && edgeSymbols[edge - 1] == symbol) {
+                edge--;
+            }
+
+            for (; edge < to && edgeSymbols[edge] == symbol; edge++) {
+                next.addDistinct(edgeTargets[edge]);
+            }
+        }
+    }
+
+    /**
+     * Receives entries found by {@link PhraseAutomaton#match(EncodedTokens, MatchConsumer)}.
+     */
+    @FunctionalInterface
+    public interface MatchConsumer<IdT> {
+        /**
+         * Accept a matching entry.
+         *
+         * @param entry The entry that matched.
+         * @param begin The index of the first matched input token.
+         * @param end The index after the last matched input token.
+         */
+        void accept(EncodedSearchEntry<IdT> entry, int begin, int end);
+    }
+
+    /**
+     * A mutable trie node used during compilation. Children are keyed by the sorted set of symbols of the
+     * term token that leads to them.
+     */
+    private static final class Node {
+        private final Map<Labels, Integer> children = new HashMap<>();
+        private final List<Object> outputs = new ArrayList<>(0);
+
+        int child(int[] labels, List<Node> trie) {
+            return children.computeIfAbsent(new Labels(labels), key -> {
+                trie.add(new Node());
+                return trie.size() - 1;
+            });
+        }
+
+        int edgeCount() {
+            int count = 0;
+            for (var labels : children.keySet()) {
+                count += labels.symbols.length;
+            }
+            return count;
+        }
+
+        int writeEdges(int[] symbols, int[] targets, int offset) {
+            var start = offset;
+
+            for (var child : children.entrySet()) {
+                for (int symbol : child.getKey().symbols) {
+                    symbols[offset] = symbol;
+                    targets[offset] = child.getValue();
+                    offset++;
+                }
+            }
+
+            sortEdges(symbols, targets, start, offset);
+            return offset;
+        }
+
+        private static void sortEdges(int[] symbols, int[] targets, int from, int to) {
+            var packed = new long[to - from];
+            for (int index = from; index < to; index++) {
+                packed[index - from] = ((long) symbols[index] << 32) | targets[index];
+            }
+
+            Arrays.sort(packed);
+
+            for (int index = from; index < to; index++) {
+                symbols[index] = (int) (packed[index - from] >>> 32);
+                targets[index] = (int) packed[index - from];
+            }
+        }
+    }
+
+    private static final class Labels {
+        private final int[] symbols;
+
+        Labels(int[] symbols) {
+            this.symbols = symbols;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Labels && Arrays.equals(symbols, ((Labels) o).symbols);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(symbols);
+        }
+    }
+
+    /**
+     * A small growable list of distinct {@code int}s. Sets of live states rarely hold more than a handful of values,
+     * so a linear scan is cheaper than hashing.
+     */
+    private static final class IntBuffer {
+        private int[] values = new int[8];
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        int get(int index) {
+            return values[index];
+        }
+
+        void clear() {
+            size = 0;
+        }
+
+        void addDistinct(int value) {
+            for (int index = 0; index < size; index++) {
+                if (values[index] == value) {
+                    return;
+                }
+            }
+
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+
+            values[size++] = value;
+        }
+    }
+}
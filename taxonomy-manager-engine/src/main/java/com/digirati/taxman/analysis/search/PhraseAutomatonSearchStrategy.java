@@ -0,0 +1,445 @@
+package com.digirati.taxman.analysis.search;
+
+import com.digirati.taxman.analysis.EncodedSearchEntry;
+import com.digirati.taxman.analysis.EncodedSearchStrategy;
+import com.digirati.taxman.analysis.EncodedTokens;
+import com.digirati.taxman.analysis.FuzzyEncodedTokens;
+import com.digirati.taxman.analysis.LexemeDictionary;
+import com.digirati.taxman.analysis.TermMatch;
+import com.digirati.taxman.analysis.WordToken;
+import com.digirati.taxman.analysis.WordTokenSearchEntry;
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.ImmutableMultiset;
+import com.google.common.collect.Multiset;
+import com.google.common.collect.Multisets;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A search strategy backed by a compiled {@link PhraseAutomaton}, which finds all terms in a single pass over the
+ * input.
+ *
+ * <p>Compiling the automaton is expensive, so updates are appended to a log, and the delta of added and removed
+ * entries they amount to is consulted alongside the automaton when matching. The updates are folded into a new
+ * automaton on a background thread once writes have been idle for {@code compileDelay}, or immediately once there
+ * are {@code compileThreshold} of them.
+ *
+ * <p>The automaton and the size of its log are published together as a snapshot through a volatile field,
+ * so readers never block and always see a consistent view of the index.
+ */
+public class PhraseAutomatonSearchStrategy<IdT> implements EncodedSearchStrategy<IdT> {
+
+    private static final Logger logger = Logger.getLogger(PhraseAutomatonSearchStrategy.class.getName());
+
+    private static final Duration DEFAULT_COMPILE_DELAY = Duration.ofSeconds(1);
+
+    private static final int DEFAULT_COMPILE_THRESHOLD = 1024;
+
+    private static final ScheduledExecutorService compiler = createCompiler();
+
+    private final Object writeLock = new Object();
+
+    private final Object compileLock = new Object();
+
+    private final LexemeDictionary dictionary;
+
+    private final Duration compileDelay;
+
+    private final int compileThreshold;
+
+    private volatile State<IdT> state = State.empty();
+
+    /**
+     * The indexed entries of every identity, guarded by {@code writeLock}.
+     */
+    private final Map<IdT, List<EncodedSearchEntry<IdT>>> entriesByIdentity = new HashMap<>();
+
+    private ScheduledFuture<?> pendingCompile;
+
+    public PhraseAutomatonSearchStrategy() {
+        this(new LexemeDictionary());
+    }
+
+    public PhraseAutomatonSearchStrategy(LexemeDictionary dictionary) {
+        this(dictionary, DEFAULT_COMPILE_DELAY, DEFAULT_COMPILE_THRESHOLD);
+    }
+
+    public PhraseAutomatonSearchStrategy(LexemeDictionary dictionary, Duration compileDelay, int compileThreshold) {
+        this.dictionary = dictionary;
+        this.compileDelay = compileDelay;
+        this.compileThreshold = compileThreshold;
+    }
+
+    @Override
+    public void index(WordTokenSearchEntry<IdT> entry) {
+        var encoded = EncodedSearchEntry.intern(entry, dictionary);
+
+        synchronized (writeLock) {
+            track(encoded);
+            update(List.of(new Update<>(true, encoded)));
+        }
+    }
+
+    /**
+     * Compile the given entries into a new automaton along with any pending updates, without passing them through
+     * the delta. Neither readers nor writers are blocked while the automaton is compiled.
+     */
+    @Override
+    public void indexAll(Collection<WordTokenSearchEntry<IdT>> entries) {
+        indexAllEncoded(encode(entries));
+    }
+
+    @Override
+    public void indexAllEncoded(Collection<EncodedSearchEntry<IdT>> encoded) {
+        synchronized (compileLock) {
+            State<IdT> snapshot;
+
+            // Track the batch along with the snapshot, so a removal made while compiling finds it and is replayed
+            // onto the new automaton when it is published.
+            synchronized (writeLock) {
+                cancelPendingCompile();
+                encoded.forEach(this::track);
+                snapshot = state;
+            }
+
+            var automaton = PhraseAutomaton.compile(merge(snapshot, encoded));
+
+            synchronized (writeLock) {
+                publish(automaton, snapshot);
+            }
+        }
+    }
+
+    @Override
+    public void unindex(WordTokenSearchEntry<IdT> entry) {
+        var encoded = EncodedSearchEntry.lookup(entry, dictionary);
+
+        synchronized (writeLock) {
+            if (untrack(encoded)) {
+                update(List.of(new Update<>(false, encoded)));
+            }
+        }
+    }
+
+    @Override
+    public void unindexAll(Collection<IdT> identities) {
+        replaceAll(identities, List.of());
+    }
+
+    @Override
+    public void replaceAll(Collection<IdT> identities, Collection<WordTokenSearchEntry<IdT>> entries) {
+        var encoded = encode(entries);
+
+        synchronized (writeLock) {
+            var updates = new ArrayList<Update<IdT>>();
+
+            for (IdT identity : identities) {
+                var removed = entriesByIdentity.remove(identity);
+                if (removed != null) {
+                    removed.forEach(entry -> updates.add(new Update<>(false, entry)));
+                }
+            }
+
+            for (var entry : encoded) {
+                track(entry);
+                updates.add(new Update<>(true, entry));
+            }
+
+            if (!updates.isEmpty()) {
+                update(updates);
+            }
+        }
+    }
+
+    @Override
+    public LexemeDictionary getDictionary() {
+        return dictionary;
+    }
+
+    @Override
+    public List<EncodedSearchEntry<IdT>> getEntries() {
+        var entries = new ArrayList<EncodedSearchEntry<IdT>>();
+
+        synchronized (writeLock) {
+            entriesByIdentity.values().forEach(entries::addAll);
+        }
+
+        return entries;
+    }
+
+    @Override
+    public Set<TermMatch<IdT>> match(List<WordToken> tokens) {
+        return match(tokens, 0);
+    }
+
+    @Override
+    public boolean supportsFuzzyMatching() {
+        return true;
+    }
+
+    @Override
+    public Set<TermMatch<IdT>> match(List<WordToken> tokens, int maxDistance) {
+        var current = state;
+        var matches = new HashSet<TermMatch<IdT>>();
+        var fuzzyInput = maxDistance == 0 ? null : FuzzyEncodedTokens.lookup(tokens, dictionary, maxDistance);
+        var input = fuzzyInput == null ? EncodedTokens.lookup(tokens, dictionary) : fuzzyInput;
+
+        var delta = current.delta();
+
+        current.automaton.match(input, (entry, begin, end) -> {
+            var count = current.automaton.getEntries().count(entry) - delta.removed.count(entry);
+            var distance = fuzzyInput == null ? 0 : fuzzyInput.distance(entry, begin);
+
+            if (count > 0) {
+                matches.add(new TermMatch<>(entry.getIdentity(), tokens.subList(begin, end), entry.getWeight(),
+                        distance));
+            }
+        });
+
+        for (int tokenIndex = 0; tokenIndex < input.size(); tokenIndex++) {
+            for (var entry : delta.added.elementSet()) {
+                if (entry.sharesCandidates(input, tokenIndex)) {
+                    var matched = tokens.subList(tokenIndex, tokenIndex + entry.size());
+                    var distance = fuzzyInput == null ? 0 : fuzzyInput.distance(entry, tokenIndex);
+
+                    matches.add(new TermMatch<>(entry.getIdentity(), matched, entry.getWeight(), distance));
+                }
+            }
+        }
+
+        return matches;
+    }
+
+    /**
+     * Check whether every update has been compiled into the automaton.
+     */
+    public boolean isCompiled() {
+        return state.size == 0;
+    }
+
+    /**
+     * Fold all pending updates into a new automaton on the calling thread.
+     */
+    public void compile() {
+        synchronized (compileLock) {
+            State<IdT> snapshot;
+
+            synchronized (writeLock) {
+                cancelPendingCompile();
+                snapshot = state;
+            }
+
+            if (snapshot.size == 0) {
+                return;
+            }
+
+            var automaton = PhraseAutomaton.compile(merge(snapshot, List.of()));
+
+            synchronized (writeLock) {
+                publish(automaton, snapshot);
+            }
+        }
+    }
+
+    /**
+     * Publish an automaton compiled from {@code snapshot}, replaying anything that was written while it was being
+     * compiled. Must be called with {@code writeLock} held.
+     */
+    private void publish(PhraseAutomaton<IdT> automaton, State<IdT> snapshot) {
+        state = State.compiled(automaton).apply(state.updatesSince(snapshot));
+    }
+
+    private List<EncodedSearchEntry<IdT>> encode(Collection<WordTokenSearchEntry<IdT>> entries) {
+        var encoded = new ArrayList<EncodedSearchEntry<IdT>>(entries.size());
+        for (var entry : entries) {
+            encoded.add(EncodedSearchEntry.intern(entry, dictionary));
+        }
+
+        return encoded;
+    }
+
+    private static <IdT> Multiset<EncodedSearchEntry<IdT>> merge(State<IdT> state,
+                                                                 Collection<EncodedSearchEntry<IdT>> batch) {
+        var delta = state.delta();
+        var entries = HashMultiset.create(state.automaton.getEntries());
+        Multisets.removeOccurrences(entries, delta.removed);
+        entries.addAll(delta.added);
+        entries.addAll(batch);
+
+        return entries;
+    }
+
+    private void track(EncodedSearchEntry<IdT> entry) {
+        entriesByIdentity.computeIfAbsent(entry.getIdentity(), identity -> new ArrayList<>(1)).add(entry);
+    }
+
+    private boolean untrack(EncodedSearchEntry<IdT> entry) {
+        var entries = entriesByIdentity.get(entry.getIdentity());
+        if (entries == null || !entries.remove(entry)) {
+            return false;
+        }
+
+        if (entries.isEmpty()) {
+            entriesByIdentity.remove(entry.getIdentity());
+        }
+
+        return true;
+    }
+
+    private void update(List<Update<IdT>> updates) {
+        state = state.apply(updates);
+        scheduleCompile(state.size >= compileThreshold);
+    }
+
+    private void cancelPendingCompile() {
+        if (pendingCompile != null) {
+            pendingCompile.cancel(false);
+            pendingCompile = null;
+        }
+    }
+
+    /**
+     * Schedule a compile, restarting the delay of any pending one so that it only runs once writes have been idle
+     * for {@code compileDelay}. Must be called with {@code writeLock} held.
+     */
+    private void scheduleCompile(boolean immediate) {
+        // A compile that has started but not yet taken its snapshot is waiting for writeLock, and will compile this
+        // write along with the rest.
+        if (pendingCompile != null && !pendingCompile.cancel(false)) {
+            return;
+        }
+
+        var delay = immediate ? 0 : compileDelay.toNanos();
+        pendingCompile = compiler.schedule(this::compileInBackground, delay, TimeUnit.NANOSECONDS);
+    }
+
+    private static ScheduledExecutorService createCompiler() {
+        var executor = new ScheduledThreadPoolExecutor(1, new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("phrase-automaton-compiler-%d")
+                .build());
+
+        // Every write cancels the pending compile, which would otherwise stay queued until its delay runs out.
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+
+    private void compileInBackground() {
+        try {
+            compile();
+        } catch (RuntimeException e) {
+            logger.log(Level.SEVERE, "Failed to compile phrase automaton", e);
+        }
+    }
+
+    private static final class Update<IdT> {
+        private final boolean added;
+        private final EncodedSearchEntry<IdT> entry;
+
+        Update(boolean added, EncodedSearchEntry<IdT> entry) {
+            this.added = added;
+            this.entry = entry;
+        }
+    }
+
+    /**
+     * A compiled automaton and the updates made since it was compiled.
+     *
+     * <p>Updates are appended to a log shared with every later state, each of which only reads the updates below its
+     * own size, so a write never copies the updates made before it. The delta of added and removed entries that the
+     * updates amount to is derived when a state is first matched against.
+     */
+    private static final class State<IdT> {
+        private final PhraseAutomaton<IdT> automaton;
+        private final Update<IdT>[] log;
+        private final int size;
+        private volatile Delta<IdT> delta;
+
+        private State(PhraseAutomaton<IdT> automaton, Update<IdT>[] log, int size) {
+            this.automaton = automaton;
+            this.log = log;
+            this.size = size;
+        }
+
+        static <IdT> State<IdT> empty() {
+            return compiled(PhraseAutomaton.compile(ImmutableMultiset.of()));
+        }
+
+        @SuppressWarnings("unchecked")
+        static <IdT> State<IdT> compiled(PhraseAutomaton<IdT> automaton) {
+            return new State<>(automaton, (Update<IdT>[]) new Update<?>[0], 0);
+        }
+
+        /**
+         * Append updates to the log. Must only be called on the latest state, whose log no other state writes past.
+         */
+        State<IdT> apply(List<Update<IdT>> batch) {
+            var log = this.log;
+            if (log.length - size < batch.size()) {
+                log = Arrays.copyOf(log, Math.max(log.length * 2, size + batch.size()));
+            }
+
+            for (int index = 0; index < batch.size(); index++) {
+                log[size + index] = batch.get(index);
+            }
+
+            return new State<>(automaton, log, size + batch.size());
+        }
+
+        /**
+         * Get the updates made since an earlier state that this one was applied from.
+         */
+        List<Update<IdT>> updatesSince(State<IdT> earlier) {
+            return Arrays.asList(log).subList(earlier.size, size);
+        }
+
+        Delta<IdT> delta() {
+            var delta = this.delta;
+            if (delta == null) {
+                // Racing readers may both derive it, but derive the same delta.
+                delta = new Delta<>(automaton, Arrays.asList(log).subList(0, size));
+                this.delta = delta;
+            }
+
+            return delta;
+        }
+    }
+
+    /**
+     * The entries added to and removed from an automaton by a sequence of updates.
+     */
+    private static final class Delta<IdT> {
+        private final Multiset<EncodedSearchEntry<IdT>> added = HashMultiset.create();
+        private final Multiset<EncodedSearchEntry<IdT>> removed = HashMultiset.create();
+
+        Delta(PhraseAutomaton<IdT> automaton, List<Update<IdT>> updates) {
+            for (var update : updates) {
+                var entry = update.entry;
+
+                if (update.added) {
+                    // Re-adding an entry that was removed from the automaton restores it.
+                    if (!removed.remove(entry)) {
+                        added.add(entry);
+                    }
+                } else if (!added.remove(entry) && automaton.getEntries().count(entry) > removed.count(entry)) {
+                    removed.add(entry);
+                }
+            }
+        }
+    }
+}
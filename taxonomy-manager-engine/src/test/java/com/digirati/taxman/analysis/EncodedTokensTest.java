@@ -0,0 +1,54 @@
+package com.digirati.taxman.analysis;
+
+import com.digirati.taxman.analysis.nlp.AnnotationType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EncodedTokensTest {
+
+    private static WordToken token(String text, String lemma) {
+        return new WordToken(Map.of(AnnotationType.TOKEN, text, AnnotationType.LEMMA, lemma), 0, text.length());
+    }
+
+    @Test
+    public void intern_StoresDistinctCandidatesPerToken() {
+        var dictionary = new LexemeDictionary();
+        var encoded = EncodedTokens.intern(List.of(token("steel", "steel"), token("girders", "girder")), dictionary);
+
+        assertEquals(2, encoded.size());
+        assertEquals(1, encoded.candidatesEnd(0) - encoded.candidatesStart(0));
+        assertEquals(2, encoded.candidatesEnd(1) - encoded.candidatesStart(1));
+        assertEquals(3, dictionary.size());
+        assertEquals("steel", dictionary.lexeme(encoded.candidateAt(encoded.candidatesStart(0))));
+    }
+
+    @Test
+    public void lookup_LeavesOutUnknownLexemes() {
+        var dictionary = new LexemeDictionary();
+        dictionary.intern("steel");
+
+        var encoded = EncodedTokens.lookup(List.of(token("steel", "steel"), token("beams", "beam")), dictionary);
+
+        assertEquals(2, encoded.size());
+        assertEquals(0, encoded.candidatesEnd(1) - encoded.candidatesStart(1));
+        assertEquals(1, dictionary.size());
+    }
+
+    @Test
+    public void sharesCandidates_MatchesOnAnyCandidate() {
+        var dictionary = new LexemeDictionary();
+        var term = EncodedTokens.intern(List.of(token("be", "be"), token("good", "good")), dictionary);
+        var input = EncodedTokens.lookup(List.of(token("it", "it"), token("was", "be"), token("good", "good")),
+                dictionary);
+
+        assertTrue(term.sharesCandidates(input, 1));
+        assertFalse(term.sharesCandidates(input, 0));
+        assertFalse(term.sharesCandidates(input, 2));
+    }
+}
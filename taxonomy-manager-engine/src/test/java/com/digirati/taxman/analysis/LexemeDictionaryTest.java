@@ -0,0 +1,118 @@
+package com.digirati.taxman.analysis;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class LexemeDictionaryTest {
+
+    private static Map<String, Integer> fuzzyLookup(LexemeDictionary dictionary, String lexeme, int maxDistance) {
+        var found = new HashMap<String, Integer>();
+        dictionary.fuzzyLookup(lexeme, maxDistance, (identifier, distance) ->
+                found.put(dictionary.lexeme(identifier), distance));
+
+        return found;
+    }
+
+    private static int editDistance(String first, String second) {
+        var previous = new int[second.length() + 1];
+        var current = new int[second.length() + 1];
+        for (int index = 0; index <= second.length(); index++) {
+            previous[index] = index;
+        }
+
+        for (int row = 1; row <= first.length(); row++) {
+            current[0] = row;
+            for (int column = 1; column <= second.length(); column++) {
+                int cost = first.charAt(row - 1) == second.charAt(column - 1) ? 0 : 1;
+                current[column] = Math.min(previous[column - 1] + cost,
+                        Math.min(previous[column], current[column - 1]) + 1);
+            }
+
+            var swap = previous;
+            previous = current;
+            current = swap;
+        }
+
+        return previous[second.length()];
+    }
+
+    private static void assertAgreesWithEditDistance(LexemeDictionary dictionary, String query, int maxDistance) {
+        var expected = new HashMap<String, Integer>();
+        for (int identifier = 0; identifier < dictionary.size(); identifier++) {
+            var lexeme = dictionary.lexeme(identifier);
+            int distance = editDistance(query, lexeme);
+            if (distance <= maxDistance) {
+                expected.put(lexeme, distance);
+            }
+        }
+
+        assertEquals(expected, fuzzyLookup(dictionary, query, maxDistance), query + " within " + maxDistance);
+    }
+
+    @Test
+    public void fuzzyLookup_FindsLexemesWithinDistance() {
+        var dictionary = new LexemeDictionary();
+        for (var lexeme : new String[] {"girder", "girders", "gilder", "garden", "steel", "steal", "stool"}) {
+            dictionary.intern(lexeme);
+        }
+
+        assertEquals(Map.of("girder", 0, "girders", 1, "gilder", 1), fuzzyLookup(dictionary, "girder", 1));
+        assertEquals(Map.of("steel", 1, "steal", 1), fuzzyLookup(dictionary, "stel", 1));
+        assertEquals(Map.of("steel", 1, "steal", 2), fuzzyLookup(dictionary, "steeel", 2));
+    }
+
+    @Test
+    public void fuzzyLookup_SeesLexemesInternedAfterPreviousLookup() {
+        var dictionary = new LexemeDictionary();
+        dictionary.intern("steel");
+        fuzzyLookup(dictionary, "steel", 1);
+        dictionary.intern("steer");
+
+        assertEquals(Map.of("steel", 1, "steer", 0), fuzzyLookup(dictionary, "steer", 1));
+    }
+
+    @Test
+    public void fuzzyLookup_AgreesWithEditDistance() {
+        var random = new Random(42);
+        var dictionary = new LexemeDictionary();
+
+        for (int index = 0; index < 2000; index++) {
+            var lexeme = new StringBuilder();
+            for (int length = 1 + random.nextInt(8); length > 0; length--) {
+                lexeme.append((char) ('a' + random.nextInt(4)));
+            }
+
+            dictionary.intern(lexeme.toString());
+        }
+
+        for (var query : new String[] {"abcd", "aabbccdd", "d", "cabbage", "dadab"}) {
+            for (int maxDistance = 0; maxDistance <= 2; maxDistance++) {
+                assertAgreesWithEditDistance(dictionary, query, maxDistance);
+            }
+        }
+    }
+
+    @Test
+    public void fuzzyLookup_AgreesWithEditDistanceAsDictionaryGrows() {
+        var random = new Random(7);
+        var dictionary = new LexemeDictionary();
+
+        for (int index = 1; index <= 2000; index++) {
+            var lexeme = new StringBuilder();
+            for (int length = 1 + random.nextInt(8); length > 0; length--) {
+                lexeme.append((char) ('a' + random.nextInt(4)));
+            }
+
+            dictionary.intern(lexeme.toString());
+
+            if (index % 250 == 0) {
+                assertAgreesWithEditDistance(dictionary, "abcd", 2);
+            }
+        }
+    }
+}
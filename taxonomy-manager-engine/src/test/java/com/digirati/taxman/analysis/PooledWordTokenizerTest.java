@@ -0,0 +1,90 @@
+package com.digirati.taxman.analysis;
+
+import com.digirati.taxman.analysis.nlp.AnnotationType;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PooledWordTokenizerTest {
+
+    private static WordTokenizer tokenizer() {
+        return input -> List.of(new WordToken(Map.of(AnnotationType.TOKEN, input), 0, input.length()));
+    }
+
+    @Test
+    public void tokenize_ReusesReturnedTokenizers() {
+        var created = new AtomicInteger();
+        var pool = PooledWordTokenizer.create(4, () -> {
+            created.incrementAndGet();
+            return tokenizer();
+        });
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(1, pool.tokenize("steel").size());
+        }
+
+        assertEquals(1, created.get());
+        assertEquals(10, pool.getLeaseCount());
+        assertEquals(0, pool.getLeased());
+    }
+
+    @Test
+    public void tokenize_WaitsOnceThePoolIsExhausted() throws Exception {
+        var leased = new CountDownLatch(2);
+        var release = new CountDownLatch(1);
+        var pool = PooledWordTokenizer.create(2, () -> input -> {
+            leased.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return List.of();
+        });
+
+        var executor = Executors.newFixedThreadPool(3);
+        try {
+            Future<?> first = executor.submit(() -> pool.tokenize("a"));
+            Future<?> second = executor.submit(() -> pool.tokenize("b"));
+            leased.await();
+            Future<?> third = executor.submit(() -> pool.tokenize("c"));
+
+            assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+                while (pool.getWaiting() == 0) {
+                    Thread.sleep(1);
+                }
+            });
+
+            assertEquals(2, pool.getCreated());
+            assertEquals(2, pool.getLeased());
+
+            release.countDown();
+            first.get();
+            second.get();
+            third.get();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(2, pool.getCreated());
+        assertEquals(1, pool.getWaitCount());
+        assertTrue(pool.getWaitNanos() > 0);
+    }
+
+    @Test
+    public void create_RejectsEmptyPool() {
+        assertThrows(IllegalArgumentException.class,
+                () -> PooledWordTokenizer.create(0, PooledWordTokenizerTest::tokenizer));
+    }
+}
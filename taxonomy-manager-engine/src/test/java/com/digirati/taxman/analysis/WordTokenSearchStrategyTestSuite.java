@@ -1,4 +1,222 @@
 package com.digirati.taxman.analysis;
 
-public class WordTokenSearchStrategyTestSuite {
+import com.digirati.taxman.analysis.nlp.AnnotationType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public abstract class WordTokenSearchStrategyTestSuite {
+
+    protected abstract WordTokenSearchStrategy<String> create();
+
+    /**
+     * Create a list of tokens from a space delimited string, where each word may list alternative candidates
+     * separated by a {@code |}, e.g. {@code "was|be good"}.
+     */
+    protected static List<WordToken> tokens(String input) {
+        var words = input.split(" ");
+        var tokens = new ArrayList<WordToken>(words.length);
+        var position = 0;
+
+        for (var word : words) {
+            var candidates = word.split("\\|");
+            var lexemes = candidates.length == 1
+                    ? Map.of(AnnotationType.TOKEN, candidates[0])
+                    : Map.of(AnnotationType.TOKEN, candidates[0], AnnotationType.LEMMA, candidates[1]);
+
+            tokens.add(new WordToken(lexemes, position, position + candidates[0].length()));
+            position += candidates[0].length() + 1;
+        }
+
+        return tokens;
+    }
+
+    private static Set<String> matchedIds(Set<TermMatch<String>> matches) {
+        return matches.stream()
+                .map(TermMatch::getId)
+                .collect(Collectors.toSet());
+    }
+
+    private WordTokenSearchStrategy<String> createWith(String... terms) {
+        var strategy = create();
+
+        for (int index = 0; index < terms.length; index++) {
+            strategy.index(new WordTokenSearchEntry<>("id" + (index + 1), tokens(terms[index])));
+        }
+
+        return strategy;
+    }
+
+    @Test
+    public void match_FindsSingleTokenTerms() {
+        var strategy = createWith("steel");
+
+        assertEquals(Set.of("id1"), matchedIds(strategy.match(tokens("finished steel girder"))));
+    }
+
+    @Test
+    public void match_FindsMultiTokenTerms() {
+        var strategy = createWith("finished steel", "steel girder", "girder");
+
+        assertEquals(Set.of("id1", "id2", "id3"), matchedIds(strategy.match(tokens("finished steel girder"))));
+    }
+
+    @Test
+    public void match_RequiresEveryTokenToMatch() {
+        var strategy = createWith("finished steel", "steel beam");
+
+        assertEquals(Set.of("id1"), matchedIds(strategy.match(tokens("finished steel girder"))));
+    }
+
+    @Test
+    public void match_IgnoresTermsLongerThanTheRemainingInput() {
+        var strategy = createWith("steel girder");
+
+        assertEquals(Set.of(), matchedIds(strategy.match(tokens("finished steel"))));
+    }
+
+    @Test
+    public void match_MatchesOnAnyCandidate() {
+        var strategy = createWith("be good", "was|be");
+
+        assertEquals(Set.of("id1", "id2"), matchedIds(strategy.match(tokens("was|be good"))));
+    }
+
+    @Test
+    public void match_ReturnsTokenPositions() {
+        var strategy = createWith("steel girder");
+        var matches = strategy.match(tokens("finished steel girder"));
+
+        assertEquals(1, matches.size());
+
+        var match = matches.iterator().next();
+        assertEquals(9, match.getBeginPosition());
+        assertEquals(21, match.getEndPosition());
+        assertEquals(2, match.getTokens().size());
+    }
+
+    @Test
+    public void match_ReturnsEveryOccurrence() {
+        var strategy = createWith("steel");
+
+        assertEquals(2, strategy.match(tokens("steel and more steel")).size());
+    }
+
+    @Test
+    public void match_SupportsDuplicateTerms() {
+        var strategy = createWith("finished steel", "finished steel");
+
+        assertEquals(Set.of("id1", "id2"), matchedIds(strategy.match(tokens("finished steel"))));
+    }
+
+    @Test
+    public void indexAll_IndexesEveryEntry() {
+        var strategy = create();
+        strategy.indexAll(List.of(
+                new WordTokenSearchEntry<>("id1", tokens("finished steel")),
+                new WordTokenSearchEntry<>("id2", tokens("steel girder")),
+                new WordTokenSearchEntry<>("id3", tokens("steel"))));
+
+        assertEquals(Set.of("id1", "id2", "id3"), matchedIds(strategy.match(tokens("finished steel girder"))));
+    }
+
+    @Test
+    public void indexAll_KeepsExistingEntries() {
+        var strategy = createWith("steel");
+        strategy.indexAll(List.of(new WordTokenSearchEntry<>("id2", tokens("steel girder"))));
+
+        assertEquals(Set.of("id1", "id2"), matchedIds(strategy.match(tokens("steel girder"))));
+    }
+
+    @Test
+    public void unindex_RemovesBulkIndexedTerm() {
+        var strategy = create();
+        strategy.indexAll(List.of(
+                new WordTokenSearchEntry<>("id1", tokens("finished steel")),
+                new WordTokenSearchEntry<>("id2", tokens("steel"))));
+        strategy.unindex(new WordTokenSearchEntry<>("id1", tokens("finished steel")));
+
+        assertEquals(Set.of("id2"), matchedIds(strategy.match(tokens("finished steel"))));
+    }
+
+    @Test
+    public void unindex_RemovesTerm() {
+        var strategy = createWith("finished steel", "steel");
+        strategy.unindex(new WordTokenSearchEntry<>("id1", tokens("finished steel")));
+
+        assertEquals(Set.of("id2"), matchedIds(strategy.match(tokens("finished steel"))));
+    }
+
+    @Test
+    public void unindexAll_RemovesEveryTermOfIdentity() {
+        var strategy = createWith("finished steel", "steel girder");
+        strategy.index(new WordTokenSearchEntry<>("id1", tokens("girder")));
+        strategy.unindexAll(List.of("id1"));
+
+        assertEquals(Set.of("id2"), matchedIds(strategy.match(tokens("finished steel girder"))));
+    }
+
+    @Test
+    public void replaceAll_ReplacesTermsOfIdentity() {
+        var strategy = createWith("finished steel", "steel girder");
+        strategy.replaceAll(List.of("id1"), List.of(new WordTokenSearchEntry<>("id1", tokens("girder"))));
+
+        assertEquals(Set.of("id1", "id2"), matchedIds(strategy.match(tokens("steel girder"))));
+        assertEquals(Set.of(), matchedIds(strategy.match(tokens("finished"))));
+    }
+
+    @Test
+    public void unindex_IgnoresUnknownTerms() {
+        var strategy = createWith("steel");
+        strategy.unindex(new WordTokenSearchEntry<>("id2", tokens("steel")));
+
+        assertEquals(Set.of("id1"), matchedIds(strategy.match(tokens("steel"))));
+    }
+
+    @Test
+    public void match_RejectsEditDistanceUnlessFuzzyMatchingIsSupported() {
+        var strategy = createWith("steel");
+
+        if (strategy.supportsFuzzyMatching()) {
+            assertEquals(Set.of("id1"), matchedIds(strategy.match(tokens("steal"), 1)));
+        } else {
+            assertThrows(UnsupportedOperationException.class, () -> strategy.match(tokens("steal"), 1));
+        }
+    }
+
+    @Test
+    public void match_FindsTermsWithinEditDistance() {
+        assumeTrue(create().supportsFuzzyMatching());
+        var strategy = createWith("finished steel girder", "steel");
+
+        var matches = strategy.match(tokens("finnished steel girdr"), 1);
+
+        assertEquals(Set.of("id1", "id2"), matchedIds(matches));
+        assertEquals(Map.of("id1", 2, "id2", 0), matches.stream()
+                .collect(Collectors.toMap(TermMatch::getId, TermMatch::getDistance)));
+    }
+
+    @Test
+    public void match_MatchesShortWordsExactly() {
+        assumeTrue(create().supportsFuzzyMatching());
+        var strategy = createWith("tin", "iron ore");
+
+        assertEquals(Set.of(), matchedIds(strategy.match(tokens("ton of iron oar"), 2)));
+    }
+
+    @Test
+    public void match_LimitsEditDistanceOfMediumWords() {
+        assumeTrue(create().supportsFuzzyMatching());
+        var strategy = createWith("girder", "reinforced");
+
+        assertEquals(Set.of("id2"), matchedIds(strategy.match(tokens("grdr reinforsd"), 2)));
+    }
 }
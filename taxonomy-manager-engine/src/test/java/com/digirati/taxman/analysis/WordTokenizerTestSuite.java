@@ -52,4 +52,73 @@ public abstract class WordTokenizerTestSuite {
             assertEquals(Set.of("welding"), Set.copyOf(tokens.get(1).candidates()));
         }
     }
+
+    /**
+     * Tests for English tokenizers that emit stems rather than lemmas.
+     */
+    public static abstract class EnglishStems {
+        protected abstract WordTokenizer create();
+
+        private List<WordToken> tokenize(String input) {
+            return create().tokenize(input);
+        }
+
+        @Test
+        public void tokenize_AcronymsPreserveCase() {
+            var tokens = tokenize("CAN is an organization that we can not detect");
+
+            assertEquals(Set.of("CAN"), Set.copyOf(tokens.get(0).candidates()));
+            assertEquals(Set.of("can"), Set.copyOf(tokens.get(6).candidates()));
+        }
+
+        @Test
+        public void tokenize_WordsWithStems() {
+            var tokens = tokenize("welded girders");
+
+            assertEquals(2, tokens.size());
+            assertEquals(Set.of("welded", "weld"), Set.copyOf(tokens.get(0).candidates()));
+            assertEquals(Set.of("girders", "girder"), Set.copyOf(tokens.get(1).candidates()));
+        }
+
+        @Test
+        public void tokenize_SimpleWordsNoStems() {
+            var tokens = tokenize("metal steel");
+
+            assertEquals(2, tokens.size());
+            assertEquals(Set.of("metal"), Set.copyOf(tokens.get(0).candidates()));
+            assertEquals(Set.of("steel"), Set.copyOf(tokens.get(1).candidates()));
+        }
+
+        @Test
+        public void tokenize_StripsHyphenation() {
+            var tokens = tokenize("metal-welding");
+
+            assertEquals(2, tokens.size());
+            assertEquals(Set.of("metal"), Set.copyOf(tokens.get(0).candidates()));
+            assertEquals(Set.of("welding", "weld"), Set.copyOf(tokens.get(1).candidates()));
+        }
+
+        @Test
+        public void tokenize_StripsPunctuationAndTags() {
+            var tokens = tokenize("<p>Steel/iron, -10 beams.</p>");
+
+            assertEquals(4, tokens.size());
+            assertEquals(Set.of("steel"), Set.copyOf(tokens.get(0).candidates()));
+            assertEquals(Set.of("iron"), Set.copyOf(tokens.get(1).candidates()));
+            assertEquals(Set.of("10"), Set.copyOf(tokens.get(2).candidates()));
+            assertEquals(Set.of("beams", "beam"), Set.copyOf(tokens.get(3).candidates()));
+        }
+
+        @Test
+        public void tokenize_KeepsPositionsOfWords() {
+            var tokens = tokenize("<b>Café</b> naïve");
+
+            assertEquals(2, tokens.size());
+            assertEquals(Set.of("café"), Set.copyOf(tokens.get(0).candidates()));
+            assertEquals(3, tokens.get(0).getBeginPosition());
+            assertEquals(7, tokens.get(0).getEndPosition());
+            assertEquals(12, tokens.get(1).getBeginPosition());
+            assertEquals(17, tokens.get(1).getEndPosition());
+        }
+    }
 }
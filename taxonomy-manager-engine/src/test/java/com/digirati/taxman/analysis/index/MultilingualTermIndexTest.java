@@ -0,0 +1,66 @@
+package com.digirati.taxman.analysis.index;
+
+import com.digirati.taxman.analysis.nlp.rulebased.RuleBasedWordTokenizer;
+import com.digirati.taxman.analysis.search.NaiveSearchStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static com.digirati.taxman.analysis.index.TermIndexTest.assertTokenIdMatched;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class MultilingualTermIndexTest {
+    private static final UUID DUMMY_PROJECT_ID = UUID.fromString("3828f4e5-ad0d-402c-978a-e2b9939332c7");
+
+    private static MultilingualTermIndex<UUID, String> create() {
+        return new MultilingualTermIndex<>(
+                language -> new TermIndex<>(RuleBasedWordTokenizer.create(language), NaiveSearchStrategy::new));
+    }
+
+    @Test
+    public void match_OnlyProbesTheGivenLanguage() {
+        var index = create();
+        index.replaceAll(DUMMY_PROJECT_ID, Map.of(
+                "id1", Map.of("en", List.of(Term.of("Welding")), "fr", List.of(Term.of("Soudure")))));
+
+        assertTokenIdMatched(Set.of("id1"), index.match("fr", "La soudure des métaux"));
+        assertTokenIdMatched(Set.of(), index.match("en", "La soudure des métaux"));
+        assertTokenIdMatched(Set.of(), index.match("de", "Schweißen"));
+    }
+
+    @Test
+    public void forLanguage_CreatesIndexesLazily() {
+        var index = create();
+        index.replaceAll(DUMMY_PROJECT_ID, Map.of("id1", Map.of("en", List.of(Term.of("Welding")))));
+
+        assertEquals(Set.of("en"), index.languages());
+    }
+
+    @Test
+    public void replaceAll_RemovesLabelsOfDroppedLanguages() {
+        var index = create();
+        index.replaceAll(DUMMY_PROJECT_ID, Map.of(
+                "id1", Map.of("en", List.of(Term.of("Welding")), "fr", List.of(Term.of("Soudure")))));
+        index.replaceAll(DUMMY_PROJECT_ID, Map.of("id1", Map.of("en", List.of(Term.of("Welding")))));
+
+        assertTokenIdMatched(Set.of(), index.match("fr", "La soudure des métaux"));
+        assertTokenIdMatched(Set.of("id1"), index.match("en", "Welding of metals"));
+    }
+
+    @Test
+    public void replaceAllTokenized_RemovesIdentitiesWithoutEntries() {
+        var index = create();
+        index.replaceAll(DUMMY_PROJECT_ID, Map.of(
+                "id1", Map.of("en", List.of(Term.of("Welding")), "fr", List.of(Term.of("Soudure"))),
+                "id2", Map.of("en", List.of(Term.of("Metals")))));
+
+        var entries = index.tokenizeAll(DUMMY_PROJECT_ID, Map.of("id1", Map.of("en", List.of(Term.of("Welding")))));
+        index.replaceAllTokenized(DUMMY_PROJECT_ID, Set.of("id1", "id2"), entries);
+
+        assertTokenIdMatched(Set.of(), index.match("fr", "La soudure des métaux"));
+        assertTokenIdMatched(Set.of("id1"), index.match("en", "Welding of metals"));
+    }
+}
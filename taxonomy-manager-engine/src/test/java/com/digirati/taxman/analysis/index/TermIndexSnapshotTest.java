@@ -0,0 +1,191 @@
+package com.digirati.taxman.analysis.index;
+
+import com.digirati.taxman.analysis.LexemeDictionary;
+import com.digirati.taxman.analysis.nlp.rulebased.RuleBasedWordTokenizer;
+import com.digirati.taxman.analysis.search.InvertedIndexSearchStrategy;
+import com.digirati.taxman.analysis.search.NaiveSearchStrategy;
+import com.digirati.taxman.analysis.search.PhraseAutomatonSearchStrategy;
+import com.google.common.collect.ImmutableMultimap;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static com.digirati.taxman.analysis.index.TermIndexTest.assertTokenIdMatched;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TermIndexSnapshotTest {
+    private static final UUID DUMMY_PROJECT_ID = UUID.fromString("3828f4e5-ad0d-402c-978a-e2b9939332c7");
+    private static final UUID OTHER_PROJECT_ID = UUID.fromString("b0b7a5a6-9b44-4c64-9a0e-6a8d0b3c1f52");
+
+    private final TermIndexSnapshot<UUID, String> snapshot =
+            new TermIndexSnapshot<>(TermIndexSnapshot.Codec.uuids(), TermIndexSnapshot.Codec.strings());
+
+    private static TermIndex<UUID, String> createInvertedIndex() {
+        var dictionary = new LexemeDictionary();
+        return new TermIndex<>(RuleBasedWordTokenizer.create("en"),
+                () -> new InvertedIndexSearchStrategy<>(dictionary));
+    }
+
+    private static TermIndex<UUID, String> createPhraseAutomaton() {
+        var dictionary = new LexemeDictionary();
+        return new TermIndex<>(RuleBasedWordTokenizer.create("en"),
+                () -> new PhraseAutomatonSearchStrategy<>(dictionary));
+    }
+
+    private static TermIndex<UUID, String> populate(TermIndex<UUID, String> index) {
+        index.addAll(DUMMY_PROJECT_ID, ImmutableMultimap.of(
+                "id1", "finished steel",
+                "id1", "steel girders",
+                "id2", "girder"));
+        index.add(OTHER_PROJECT_ID, "id3", "rolling mills");
+
+        return index;
+    }
+
+    @Test
+    public void read_RestoresEveryScope(@TempDir Path directory) throws IOException {
+        var path = directory.resolve("index.bin");
+        snapshot.write(populate(createInvertedIndex()), 42, path);
+
+        var restored = createPhraseAutomaton();
+        assertEquals(42, snapshot.read(path, restored));
+
+        assertTokenIdMatched(Set.of("id1", "id2"), restored.match(DUMMY_PROJECT_ID, "a steel girder"));
+        assertTokenIdMatched(Set.of("id1"), restored.match(DUMMY_PROJECT_ID, "Finishing steels"));
+        assertTokenIdMatched(Set.of(), restored.match(DUMMY_PROJECT_ID, "the rolling mill"));
+        assertTokenIdMatched(Set.of("id3"), restored.match(OTHER_PROJECT_ID, "the rolling mill"));
+    }
+
+    @Test
+    public void read_AllowsChangesToTheRestoredIndex(@TempDir Path directory) throws IOException {
+        var path = directory.resolve("index.bin");
+        snapshot.write(populate(createPhraseAutomaton()), 1, path);
+
+        var restored = createInvertedIndex();
+        snapshot.read(path, restored);
+        restored.replace(OTHER_PROJECT_ID, "id1", List.of("blast furnace"));
+
+        assertTokenIdMatched(Set.of("id2"), restored.match("a steel girder"));
+        assertTokenIdMatched(Set.of("id1"), restored.match(OTHER_PROJECT_ID, "blast furnaces"));
+    }
+
+    @Test
+    public void read_RestoresWeights(@TempDir Path directory) throws IOException {
+        var path = directory.resolve("index.bin");
+        var index = createPhraseAutomaton();
+        index.replaceAllTerms(DUMMY_PROJECT_ID, Map.of("id1", List.of(new Term("girder", 2))));
+        snapshot.write(index, 1, path);
+
+        var restored = createInvertedIndex();
+        snapshot.read(path, restored);
+
+        assertEquals(2, restored.match("steel girders").iterator().next().getWeight());
+    }
+
+    @Test
+    public void read_InternsOnlyTheLexemesOfEachPartition(@TempDir Path directory) throws IOException {
+        var path = directory.resolve("index.bin");
+        snapshot.write(populate(createInvertedIndex()), 1, path);
+
+        var dictionaries = new ArrayList<LexemeDictionary>();
+        var restored = new TermIndex<UUID, String>(RuleBasedWordTokenizer.create("en"), () -> {
+            var dictionary = new LexemeDictionary();
+            dictionaries.add(dictionary);
+
+            return new InvertedIndexSearchStrategy<>(dictionary);
+        });
+        snapshot.read(path, restored);
+
+        var otherDictionary = ((InvertedIndexSearchStrategy<String>) restored.partition(OTHER_PROJECT_ID))
+                .getDictionary();
+
+        assertEquals(2, dictionaries.size());
+        assertEquals(LexemeDictionary.ABSENT, otherDictionary.lookup("steel"));
+        assertTokenIdMatched(Set.of("id3"), restored.match(OTHER_PROJECT_ID, "the rolling mill"));
+    }
+
+    @Test
+    public void write_ReplacesExistingSnapshot(@TempDir Path directory) throws IOException {
+        var path = directory.resolve("index.bin");
+        snapshot.write(populate(createInvertedIndex()), 1, path);
+
+        var index = createInvertedIndex();
+        index.add(DUMMY_PROJECT_ID, "id4", "ingot");
+        snapshot.write(index, 2, path);
+
+        var restored = createInvertedIndex();
+        assertEquals(2, snapshot.read(path, restored));
+        assertTokenIdMatched(Set.of("id4"), restored.match("steel ingots"));
+    }
+
+    @Test
+    public void write_RemovesIncompleteSnapshotOnFailure(@TempDir Path directory) throws IOException {
+        var path = directory.resolve("index.bin");
+        snapshot.write(populate(createInvertedIndex()), 1, path);
+
+        var failingCodec = new TermIndexSnapshot.Codec<String>() {
+            @Override
+            public byte[] encode(String value) {
+                throw new IllegalStateException("Cannot encode " + value);
+            }
+
+            @Override
+            public String decode(byte[] bytes) {
+                throw new UnsupportedOperationException();
+            }
+        };
+        var failing = new TermIndexSnapshot<>(TermIndexSnapshot.Codec.uuids(), failingCodec);
+
+        assertThrows(IllegalStateException.class, () -> failing.write(populate(createInvertedIndex()), 2, path));
+
+        try (var files = Files.list(directory)) {
+            assertEquals(List.of(path), files.collect(Collectors.toList()));
+        }
+
+        assertEquals(1, snapshot.read(path, createInvertedIndex()));
+    }
+
+    @Test
+    public void read_RejectsCorruptSnapshot(@TempDir Path directory) throws IOException {
+        var path = directory.resolve("index.bin");
+        snapshot.write(populate(createInvertedIndex()), 1, path);
+
+        var bytes = Files.readAllBytes(path);
+        bytes[bytes.length / 2] ^= 0x7f;
+        Files.write(path, bytes);
+
+        assertThrows(IOException.class, () -> snapshot.read(path, createInvertedIndex()));
+    }
+
+    @Test
+    public void read_RejectsSnapshotOfAnotherConfiguration(@TempDir Path directory) throws IOException {
+        var path = directory.resolve("index.bin");
+        snapshot.write(populate(createInvertedIndex()), 1, "tokenizer=rule-based", path);
+
+        var restored = createInvertedIndex();
+
+        assertThrows(IOException.class, () -> snapshot.read(path, "tokenizer=corenlp", restored));
+        assertThrows(IOException.class, () -> snapshot.read(path, restored));
+        assertEquals(Set.of(), restored.partitions().keySet());
+        assertEquals(1, snapshot.read(path, "tokenizer=rule-based", restored));
+    }
+
+    @Test
+    public void write_RejectsUnsupportedSearchStrategy(@TempDir Path directory) {
+        var index = new TermIndex<UUID, String>(RuleBasedWordTokenizer.create("en"), NaiveSearchStrategy::new);
+        index.add(DUMMY_PROJECT_ID, "id1", "steel");
+
+        assertThrows(UnsupportedOperationException.class,
+                () -> snapshot.write(index, 1, directory.resolve("index.bin")));
+    }
+}
@@ -3,8 +3,11 @@ package com.digirati.taxman.analysis.index;
 import com.digirati.taxman.analysis.TermMatch;
 import com.digirati.taxman.analysis.nlp.corenlp.CoreNlpWordTokenizer;
 import com.digirati.taxman.analysis.search.NaiveSearchStrategy;
+import com.google.common.collect.ImmutableMultimap;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.UUID;
@@ -13,9 +16,10 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 
 public class TermIndexTest {
     private static final UUID DUMMY_PROJECT_ID = UUID.fromString("3828f4e5-ad0d-402c-978a-e2b9939332c7");
+    private static final UUID OTHER_PROJECT_ID = UUID.fromString("b0b7a5a6-9b44-4c64-9a0e-6a8d0b3c1f52");
 
     protected TermIndex<UUID, String> create() {
-        return new TermIndex<>(CoreNlpWordTokenizer.create("en"), new NaiveSearchStrategy<>());
+        return new TermIndex<>(CoreNlpWordTokenizer.create("en"), NaiveSearchStrategy::new);
     }
 
     public static void assertTokenIdMatched(Set<String> expectedTokenIds, Set<TermMatch<String>> matches) {
@@ -60,6 +64,105 @@ public class TermIndexTest {
         assertTokenIdMatched(Set.of("id1", "id2"), index.match("Ammonium Nitrate/CAN"));
     }
 
+    @Test
+    public void addAll_IndexesEveryLabel() {
+        var index = create();
+        index.addAll(DUMMY_PROJECT_ID, ImmutableMultimap.of(
+                "id1", "finished steel",
+                "id1", "steel girder",
+                "id2", "girder"));
+
+        assertTokenIdMatched(Set.of("id1", "id2"), index.match("a steel girder"));
+        assertTokenIdMatched(Set.of("id1"), index.match(DUMMY_PROJECT_ID, "finished steel"));
+    }
+
+    @Test
+    public void addAllTokenized_IndexesEntriesTokenizedSeparately() {
+        var index = create();
+        var first = index.tokenize(DUMMY_PROJECT_ID, ImmutableMultimap.of("id1", "finished steel"));
+        var second = index.tokenize(DUMMY_PROJECT_ID, ImmutableMultimap.of("id2", "girder"));
+
+        assertTokenIdMatched(Set.of(), index.match("finished steel girder"));
+
+        index.addAllTokenized(DUMMY_PROJECT_ID, first);
+        index.addAllTokenized(DUMMY_PROJECT_ID, second);
+
+        assertTokenIdMatched(Set.of("id1", "id2"), index.match("finished steel girder"));
+    }
+
+    @Test
+    public void search_OnlyMatchesTermsInScope() {
+        var index = create();
+        index.add(DUMMY_PROJECT_ID, "id1", "finished steel");
+        index.add(OTHER_PROJECT_ID, "id2", "steel");
+
+        assertTokenIdMatched(Set.of("id1"), index.match(DUMMY_PROJECT_ID, "finished steel"));
+        assertTokenIdMatched(Set.of("id2"), index.match(OTHER_PROJECT_ID, "finished steel"));
+        assertTokenIdMatched(Set.of("id1", "id2"), index.match("finished steel"));
+    }
+
+    @Test
+    public void search_ReturnsNothingForUnknownScope() {
+        var index = create();
+        index.add(DUMMY_PROJECT_ID, "id1", "steel");
+
+        assertTokenIdMatched(Set.of(), index.match(OTHER_PROJECT_ID, "steel"));
+    }
+
+    @Test
+    public void remove_RemovesEveryTermOfId() {
+        var index = create();
+        index.add(DUMMY_PROJECT_ID, "id1", "steel");
+        index.add(DUMMY_PROJECT_ID, "id1", "girder");
+        index.add(DUMMY_PROJECT_ID, "id2", "beam");
+        index.remove("id1");
+
+        assertTokenIdMatched(Set.of("id2"), index.match(DUMMY_PROJECT_ID, "steel girder beam"));
+    }
+
+    @Test
+    public void replace_ReplacesEveryTermOfId() {
+        var index = create();
+        index.add(DUMMY_PROJECT_ID, "id1", "steel");
+        index.add(DUMMY_PROJECT_ID, "id1", "girder");
+        index.replace(DUMMY_PROJECT_ID, "id1", List.of("beam"));
+
+        assertTokenIdMatched(Set.of(), index.match(DUMMY_PROJECT_ID, "steel girder"));
+        assertTokenIdMatched(Set.of("id1"), index.match(DUMMY_PROJECT_ID, "beam"));
+    }
+
+    @Test
+    public void replace_MovesIdBetweenScopes() {
+        var index = create();
+        index.add(DUMMY_PROJECT_ID, "id1", "steel");
+        index.replace(OTHER_PROJECT_ID, "id1", List.of("steel"));
+
+        assertTokenIdMatched(Set.of(), index.match(DUMMY_PROJECT_ID, "steel"));
+        assertTokenIdMatched(Set.of("id1"), index.match(OTHER_PROJECT_ID, "steel"));
+    }
+
+    @Test
+    public void replace_WithNoTermsRemovesId() {
+        var index = create();
+        index.add(DUMMY_PROJECT_ID, "id1", "steel");
+        index.replace(DUMMY_PROJECT_ID, "id1", List.of());
+
+        assertTokenIdMatched(Set.of(), index.match("steel"));
+    }
+
+    @Test
+    public void replaceAllTerms_ReportsWeightOfMatchedTerm() {
+        var index = create();
+        index.replaceAllTerms(DUMMY_PROJECT_ID, Map.of(
+                "id1", List.of(new Term("steel girder", 3), new Term("beam", 1))));
+
+        var matches = index.match(DUMMY_PROJECT_ID, "a steel girder");
+
+        assertEquals(1, matches.size());
+        assertEquals(3, matches.iterator().next().getWeight());
+        assertEquals(2, matches.iterator().next().getTokenCount());
+    }
+
     @Test
     public void search_SupportsDuplicateValues() {
         var index = create();
@@ -0,0 +1,37 @@
+package com.digirati.taxman.analysis.nlp;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class StopwordLanguageDetectorTest {
+    private final StopwordLanguageDetector detector = new StopwordLanguageDetector();
+
+    @Test
+    public void detect_FindsLanguageWithMostStopwords() {
+        var languages = StopwordLanguageDetector.supportedLanguages();
+
+        assertEquals(Optional.of("en"), detector.detect("The welding of metals is covered by this standard",
+                languages));
+        assertEquals(Optional.of("fr"), detector.detect("Le soudage des métaux est décrit dans cette norme",
+                languages));
+        assertEquals(Optional.of("de"), detector.detect("Das Schweißen von Metallen wird in der Norm beschrieben",
+                languages));
+    }
+
+    @Test
+    public void detect_OnlyDetectsCandidates() {
+        assertEquals(Optional.empty(), detector.detect("Le soudage des métaux est décrit dans cette norme",
+                Set.of("en", "de")));
+    }
+
+    @Test
+    public void detect_NothingWithoutStopwords() {
+        var languages = StopwordLanguageDetector.supportedLanguages();
+
+        assertEquals(Optional.empty(), detector.detect("Ammonium nitrate", languages));
+    }
+}
@@ -0,0 +1,43 @@
+package com.digirati.taxman.analysis.nlp.rulebased;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class PorterStemmerTest {
+
+    @ParameterizedTest
+    @CsvSource({
+            "caresses, caress",
+            "ponies, poni",
+            "cats, cat",
+            "feed, feed",
+            "agreed, agre",
+            "plastered, plaster",
+            "motoring, motor",
+            "hopping, hop",
+            "falling, fall",
+            "filing, file",
+            "happy, happi",
+            "relational, relat",
+            "conditional, condit",
+            "digitizer, digit",
+            "operator, oper",
+            "hopefulness, hope",
+            "electrical, electr",
+            "adjustment, adjust",
+            "generalizations, gener",
+            "controlling, control",
+            "roll, roll",
+    })
+    public void stem_StripsSuffixes(String word, String stem) {
+        assertEquals(stem, PorterStemmer.stem(word));
+    }
+
+    @ParameterizedTest
+    @CsvSource({"is", "naïve", "Steel", "10"})
+    public void stem_LeavesUnsupportedWordsAlone(String word) {
+        assertEquals(word, PorterStemmer.stem(word));
+    }
+}
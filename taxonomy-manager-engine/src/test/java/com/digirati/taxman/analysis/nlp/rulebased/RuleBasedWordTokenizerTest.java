@@ -0,0 +1,32 @@
+package com.digirati.taxman.analysis.nlp.rulebased;
+
+import com.digirati.taxman.analysis.WordTokenizer;
+import com.digirati.taxman.analysis.WordTokenizerTestSuite;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class RuleBasedWordTokenizerTest {
+
+    @Nested
+    class English extends WordTokenizerTestSuite.EnglishStems {
+
+        @Override
+        protected WordTokenizer create() {
+            return RuleBasedWordTokenizer.create("en");
+        }
+
+    }
+
+    @Test
+    public void tokenize_OtherLanguagesAreNotStemmed() {
+        var tokens = RuleBasedWordTokenizer.create("fr").tokenize("Soudures métalliques");
+
+        assertEquals(2, tokens.size());
+        assertEquals(Set.of("soudures"), Set.copyOf(tokens.get(0).candidates()));
+        assertEquals(Set.of("métalliques"), Set.copyOf(tokens.get(1).candidates()));
+    }
+}
@@ -0,0 +1,48 @@
+package com.digirati.taxman.analysis.search;
+
+import com.digirati.taxman.analysis.WordTokenSearchEntry;
+import com.digirati.taxman.analysis.WordTokenSearchStrategy;
+import com.digirati.taxman.analysis.WordTokenSearchStrategyTestSuite;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class InvertedIndexSearchStrategyTest extends WordTokenSearchStrategyTestSuite {
+
+    @Override
+    protected WordTokenSearchStrategy<String> create() {
+        return new InvertedIndexSearchStrategy<>();
+    }
+
+    @Test
+    public void replaceAll_PublishesEveryReplacedEntryAtOnce() {
+        var strategy = new InvertedIndexSearchStrategy<String>();
+        var before = List.of(entry("id1", "finished"), entry("id1", "steel"));
+        var after = List.of(entry("id1", "steel girder"), entry("id1", "beam"));
+        strategy.indexAll(before);
+
+        var done = new AtomicBoolean();
+        var writer = CompletableFuture.runAsync(() -> {
+            for (int round = 0; round < 2000; round++) {
+                strategy.replaceAll(List.of("id1"), round % 2 == 0 ? after : before);
+            }
+
+            done.set(true);
+        });
+
+        var input = tokens("finished steel girder beam");
+        while (!done.get()) {
+            assertEquals(2, strategy.match(input).size());
+        }
+
+        writer.join();
+    }
+
+    private static WordTokenSearchEntry<String> entry(String id, String input) {
+        return new WordTokenSearchEntry<>(id, tokens(input));
+    }
+}
@@ -0,0 +1,12 @@
+package com.digirati.taxman.analysis.search;
+
+import com.digirati.taxman.analysis.WordTokenSearchStrategy;
+import com.digirati.taxman.analysis.WordTokenSearchStrategyTestSuite;
+
+public class NaiveSearchStrategyTest extends WordTokenSearchStrategyTestSuite {
+
+    @Override
+    protected WordTokenSearchStrategy<String> create() {
+        return new NaiveSearchStrategy<>();
+    }
+}
@@ -0,0 +1,209 @@
+package com.digirati.taxman.analysis.search;
+
+import com.digirati.taxman.analysis.EncodedSearchEntry;
+import com.digirati.taxman.analysis.LexemeDictionary;
+import com.digirati.taxman.analysis.TermMatch;
+import com.digirati.taxman.analysis.WordTokenSearchEntry;
+import com.digirati.taxman.analysis.WordTokenSearchStrategy;
+import com.digirati.taxman.analysis.WordTokenSearchStrategyTestSuite;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.AbstractCollection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PhraseAutomatonSearchStrategyTest extends WordTokenSearchStrategyTestSuite {
+
+    @Override
+    protected WordTokenSearchStrategy<String> create() {
+        return strategy(Integer.MAX_VALUE);
+    }
+
+    private static PhraseAutomatonSearchStrategy<String> strategy(int compileThreshold) {
+        return new PhraseAutomatonSearchStrategy<>(new LexemeDictionary(), Duration.ofMinutes(1), compileThreshold);
+    }
+
+    private static Set<String> matchedIds(WordTokenSearchStrategy<String> strategy, String input) {
+        return strategy.match(tokens(input)).stream()
+                .map(TermMatch::getId)
+                .collect(Collectors.toSet());
+    }
+
+    private static WordTokenSearchEntry<String> entry(String id, String input) {
+        return new WordTokenSearchEntry<>(id, tokens(input));
+    }
+
+    @Test
+    public void compile_KeepsUpdatesMadeSinceTheLastCompilation() {
+        var strategy = strategy(Integer.MAX_VALUE);
+        strategy.index(entry("id1", "finished steel"));
+        strategy.index(entry("id2", "steel girder"));
+        strategy.compile();
+
+        strategy.unindex(entry("id1", "finished steel"));
+        strategy.index(entry("id3", "girder"));
+
+        assertEquals(Set.of("id2", "id3"), matchedIds(strategy, "finished steel girder"));
+    }
+
+    @Test
+    public void indexAll_KeepsUpdatesMadeSinceTheLastCompilation() {
+        var strategy = strategy(Integer.MAX_VALUE);
+        strategy.index(entry("id1", "finished steel"));
+        strategy.compile();
+
+        strategy.unindex(entry("id1", "finished steel"));
+        strategy.index(entry("id2", "steel girder"));
+        strategy.indexAll(List.of(entry("id3", "girder")));
+
+        assertTrue(strategy.isCompiled());
+        assertEquals(Set.of("id2", "id3"), matchedIds(strategy, "finished steel girder"));
+    }
+
+    @Test
+    public void indexAllEncoded_AppliesRemovalsMadeWhileCompiling() {
+        var strategy = strategy(Integer.MAX_VALUE);
+        var encoded = EncodedSearchEntry.intern(entry("id1", "steel"), strategy.getDictionary());
+
+        // Removes the entry once the batch is iterated a second time, when it is merged for compiling.
+        var batch = new AbstractCollection<EncodedSearchEntry<String>>() {
+            private int iterations;
+
+            @Override
+            public Iterator<EncodedSearchEntry<String>> iterator() {
+                if (++iterations == 2) {
+                    strategy.unindexAll(List.of("id1"));
+                }
+
+                return List.of(encoded).iterator();
+            }
+
+            @Override
+            public int size() {
+                return 1;
+            }
+        };
+
+        strategy.indexAllEncoded(batch);
+
+        assertTrue(strategy.match(tokens("steel")).isEmpty());
+        assertTrue(strategy.getEntries().isEmpty());
+    }
+
+    @Test
+    public void unindex_RemovesOneOfManyDuplicateCompiledTerms() {
+        var strategy = strategy(Integer.MAX_VALUE);
+        strategy.index(entry("id1", "steel"));
+        strategy.index(entry("id1", "steel"));
+        strategy.compile();
+
+        strategy.unindex(entry("id1", "steel"));
+        assertEquals(1, strategy.match(tokens("steel")).size());
+
+        strategy.compile();
+        assertEquals(1, strategy.match(tokens("steel")).size());
+    }
+
+    @Test
+    public void index_RestoresRemovedCompiledTerm() {
+        var strategy = strategy(Integer.MAX_VALUE);
+        strategy.index(entry("id1", "steel"));
+        strategy.compile();
+
+        strategy.unindex(entry("id1", "steel"));
+        strategy.index(entry("id1", "steel"));
+
+        assertEquals(1, strategy.match(tokens("steel")).size());
+    }
+
+    @Test
+    public void index_KeepsEarlierUpdatesVisibleAsTheLogGrows() {
+        var strategy = strategy(Integer.MAX_VALUE);
+        var expected = new HashSet<String>();
+
+        for (int index = 0; index < 100; index++) {
+            strategy.index(entry("id" + index, "steel"));
+            expected.add("id" + index);
+
+            assertEquals(expected, matchedIds(strategy, "steel"));
+        }
+
+        for (int index = 0; index < 100; index += 2) {
+            strategy.unindex(entry("id" + index, "steel"));
+            expected.remove("id" + index);
+        }
+
+        assertEquals(expected, matchedIds(strategy, "steel"));
+
+        strategy.compile();
+        assertEquals(expected, matchedIds(strategy, "steel"));
+    }
+
+    @Test
+    public void index_CompilesInTheBackgroundOnceThresholdIsReached() {
+        var strategy = strategy(2);
+        strategy.index(entry("id1", "finished steel"));
+        strategy.index(entry("id2", "steel girder"));
+
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            while (!strategy.isCompiled()) {
+                Thread.sleep(10);
+            }
+        });
+
+        assertEquals(Set.of("id1", "id2"), matchedIds(strategy, "finished steel girder"));
+    }
+
+    @Test
+    public void index_DelaysTheBackgroundCompileUntilWritesAreIdle() throws InterruptedException {
+        var strategy = new PhraseAutomatonSearchStrategy<String>(new LexemeDictionary(), Duration.ofSeconds(1),
+                Integer.MAX_VALUE);
+        strategy.index(entry("id1", "finished steel"));
+        Thread.sleep(600);
+        strategy.index(entry("id2", "steel girder"));
+        Thread.sleep(600);
+
+        assertFalse(strategy.isCompiled());
+
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            while (!strategy.isCompiled()) {
+                Thread.sleep(10);
+            }
+        });
+
+        assertEquals(Set.of("id1", "id2"), matchedIds(strategy, "finished steel girder"));
+    }
+
+    @Nested
+    public class Compiled extends WordTokenSearchStrategyTestSuite {
+
+        @Override
+        protected WordTokenSearchStrategy<String> create() {
+            var dictionary = new LexemeDictionary();
+
+            return new PhraseAutomatonSearchStrategy<>(dictionary, Duration.ofMinutes(1), Integer.MAX_VALUE) {
+                @Override
+                public void index(WordTokenSearchEntry<String> entry) {
+                    super.index(entry);
+                    compile();
+                }
+
+                @Override
+                public void unindex(WordTokenSearchEntry<String> entry) {
+                    super.unindex(entry);
+                    compile();
+                }
+            };
+        }
+    }
+}
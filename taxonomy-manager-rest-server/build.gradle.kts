@@ -55,6 +55,7 @@ val quarkusExtensions = setOf(
         "resteasy-jsonb",
         "smallrye-jwt",
         "smallrye-health",
+        "smallrye-metrics",
         "smallrye-reactive-messaging",
         "smallrye-reactive-messaging-amqp"
 )
@@ -94,6 +95,7 @@ dependencies {
     implementation(project(":taxonomy-manager-engine"))
     implementation(project(":taxonomy-manager-rest"))
     implementation("com.google.guava", "guava", "27.1-jre")
+    implementation("com.github.ben-manes.caffeine", "caffeine")
 
     testImplementation("io.rest-assured:rest-assured:3.3.0")
     testImplementation("io.quarkus", "quarkus-junit5")
@@ -0,0 +1,191 @@
+package com.digirati.taxman.rest.server.infrastructure.event;
+
+import com.digirati.taxman.analysis.index.Term;
+import com.digirati.taxman.rest.server.analysis.ConceptIndexLabels;
+import com.digirati.taxman.rest.server.taxonomy.storage.ConceptDao;
+import com.digirati.taxman.rest.server.taxonomy.storage.ConceptDataSet;
+import com.digirati.taxman.rest.server.taxonomy.storage.ProjectDao;
+import com.digirati.taxman.rest.server.taxonomy.storage.ProjectDataSet;
+import com.digirati.taxman.rest.server.taxonomy.storage.record.ConceptRecord;
+import com.digirati.taxman.rest.server.taxonomy.storage.record.ProjectRecord;
+import com.digirati.taxman.rest.server.testing.DatabaseTestExtension;
+import com.digirati.taxman.rest.server.testing.annotation.TestDataSource;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import javax.sql.DataSource;
+import javax.transaction.Status;
+import javax.transaction.Transaction;
+import javax.transaction.TransactionManager;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@ExtendWith(DatabaseTestExtension.class)
+@Tag("integration")
+public class ConceptEventRelayTests {
+
+    private static final UUID STEEL = UUID.fromString("3828f4e5-ad0d-402c-978a-e2b9939332c7");
+
+    @TestDataSource
+    DataSource dataSource;
+
+    private final List<ConceptChangeBatch> published = new ArrayList<>();
+
+    private ConceptEventRelay relay;
+
+    private SavepointTransactionManager transactionManager;
+
+    private boolean failPublishing;
+
+    @BeforeEach
+    public void createRelay() throws SQLException {
+        new ProjectDao(dataSource).storeDataSet(new ProjectDataSet(new ProjectRecord("project-slug"), List.of()));
+
+        transactionManager = new SavepointTransactionManager(dataSource.getConnection());
+
+        relay = new ConceptEventRelay();
+        relay.transactionManager = transactionManager;
+        relay.conceptDao = new ConceptDao(dataSource);
+        relay.indexLabels = new ConceptIndexLabels() {
+            @Override
+            public Map<String, List<Term>> extract(ConceptRecord record) {
+                return Map.of("en", List.of(Term.of(record.getPreferredLabel().get("en").iterator().next())));
+            }
+        };
+        relay.eventListener = new ConceptEventListener() {
+            @Override
+            public void publish(ConceptChangeBatch batch) throws Exception {
+                if (failPublishing) {
+                    throw new IllegalStateException("cluster unavailable");
+                }
+
+                published.add(batch);
+            }
+        };
+    }
+
+    private void storeConcept() {
+        var record = new ConceptRecord(STEEL, "project-slug");
+        record.getPreferredLabel().put("en", "steel");
+
+        relay.conceptDao.storeDataSet(new ConceptDataSet(record));
+    }
+
+    @Test
+    public void relay_shouldPublishAndCommitClaimedChanges() throws Exception {
+        storeConcept();
+
+        var relayed = relay.relay();
+
+        Assertions.assertEquals(1, relayed.size());
+        Assertions.assertEquals(1, transactionManager.commits);
+        Assertions.assertEquals(1, published.size());
+        Assertions.assertEquals(Map.of(STEEL, Map.of("en", List.of(Term.of("steel")))),
+                published.get(0).getLabelsByProject().get("project-slug"));
+
+        Assertions.assertEquals(List.of(), relay.relay());
+        Assertions.assertEquals(1, published.size());
+    }
+
+    @Test
+    public void relay_shouldRollBackAndKeepChangesWhenPublishingFails() throws Exception {
+        storeConcept();
+        failPublishing = true;
+
+        Assertions.assertThrows(IllegalStateException.class, () -> relay.relay());
+        Assertions.assertEquals(0, transactionManager.commits);
+        Assertions.assertEquals(1, transactionManager.rollbacks);
+
+        failPublishing = false;
+
+        Assertions.assertEquals(1, relay.relay().size());
+        Assertions.assertEquals(1, published.size());
+    }
+
+    /**
+     * A transaction manager that runs every transaction in a savepoint of the test's own transaction, which the
+     * {@link DatabaseTestExtension} rolls back after the test.
+     */
+    private static class SavepointTransactionManager implements TransactionManager {
+        private final Connection connection;
+
+        private Savepoint savepoint;
+
+        int commits;
+
+        int rollbacks;
+
+        SavepointTransactionManager(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public void begin() {
+            try {
+                savepoint = connection.setSavepoint();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public void commit() {
+            try {
+                connection.releaseSavepoint(savepoint);
+                savepoint = null;
+                commits++;
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public void rollback() {
+            try {
+                connection.rollback(savepoint);
+                savepoint = null;
+                rollbacks++;
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public int getStatus() {
+            return savepoint == null ? Status.STATUS_NO_TRANSACTION : Status.STATUS_ACTIVE;
+        }
+
+        @Override
+        public Transaction getTransaction() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void resume(Transaction transaction) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void setRollbackOnly() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void setTransactionTimeout(int seconds) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Transaction suspend() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.digirati.taxman.rest.server.taxonomy.storage;
+
+import com.digirati.taxman.rest.server.taxonomy.storage.record.ConceptChangeRecord;
+import com.digirati.taxman.rest.server.taxonomy.storage.record.ConceptRecord;
+import com.digirati.taxman.rest.server.taxonomy.storage.record.ProjectRecord;
+import com.digirati.taxman.rest.server.testing.DatabaseTestExtension;
+import com.digirati.taxman.rest.server.testing.annotation.TestDataSource;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+@ExtendWith(DatabaseTestExtension.class)
+@Tag("integration")
+public class ConceptChangeLogTests {
+
+    private static final UUID STEEL = UUID.fromString("3828f4e5-ad0d-402c-978a-e2b9939332c7");
+    private static final UUID IRON = UUID.fromString("f0ea2717-1114-46f4-bc51-a25985571a01");
+
+    @TestDataSource
+    DataSource dataSource;
+
+    private ConceptDao dao;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void createProject() {
+        new ProjectDao(dataSource).storeDataSet(new ProjectDataSet(new ProjectRecord("project-slug"), List.of()));
+
+        dao = new ConceptDao(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    private static ConceptDataSet concept(UUID uuid, String label) {
+        var record = new ConceptRecord(uuid, "project-slug");
+        record.getPreferredLabel().put("en", label);
+
+        return new ConceptDataSet(record);
+    }
+
+    private static List<UUID> uuids(List<ConceptChangeRecord> changes) {
+        return changes.stream().map(change -> change.getRecord().getUuid()).collect(Collectors.toList());
+    }
+
+    private List<ConceptChangeRecord> changedSince(long sequence) {
+        try (var changes = dao.loadRecordsChangedSince(sequence)) {
+            return changes.collect(Collectors.toList());
+        }
+    }
+
+    private int countOutboxRows() {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM concept_event_outbox", Integer.class);
+    }
+
+    @Test
+    public void storeDataSet_shouldQueueExactlyOneClaimableOutboxRow() {
+        dao.storeDataSet(concept(STEEL, "steel"));
+
+        Assertions.assertEquals(1, countOutboxRows());
+
+        var claimed = dao.claimOutboxRecords(10);
+
+        Assertions.assertEquals(List.of(STEEL), uuids(claimed));
+        Assertions.assertFalse(claimed.get(0).isDeleted());
+        Assertions.assertEquals(List.of("steel"), claimed.get(0).getRecord().getPreferredLabel().get("en"));
+        Assertions.assertEquals(0, countOutboxRows());
+        Assertions.assertEquals(List.of(), dao.claimOutboxRecords(10));
+    }
+
+    @Test
+    public void claimOutboxRecords_shouldClaimNoMoreThanTheLimitInChangeOrder() {
+        dao.storeDataSet(concept(STEEL, "steel"));
+        dao.storeDataSet(concept(IRON, "iron"));
+
+        Assertions.assertEquals(List.of(STEEL), uuids(dao.claimOutboxRecords(1)));
+        Assertions.assertEquals(List.of(IRON), uuids(dao.claimOutboxRecords(1)));
+        Assertions.assertEquals(List.of(), dao.claimOutboxRecords(1));
+    }
+
+    @Test
+    public void deleteDataSet_shouldQueueADeletedOutboxRow() {
+        dao.storeDataSet(concept(STEEL, "steel"));
+        dao.claimOutboxRecords(10);
+
+        dao.deleteDataSet(STEEL);
+        var claimed = dao.claimOutboxRecords(10);
+
+        Assertions.assertEquals(List.of(STEEL), uuids(claimed));
+        Assertions.assertTrue(claimed.get(0).isDeleted());
+    }
+
+    @Test
+    public void importDataSets_shouldLogChangesWithoutQueueingOutboxRows() {
+        dao.importDataSets(List.of(concept(STEEL, "steel"), concept(IRON, "iron")), imported -> { });
+
+        Assertions.assertEquals(0, countOutboxRows());
+        Assertions.assertEquals(List.of(), dao.claimOutboxRecords(10));
+        Assertions.assertEquals(Set.of(STEEL, IRON), Set.copyOf(uuids(changedSince(0))));
+    }
+
+    @Test
+    public void importDataSets_shouldResetImportFlagWhenDone() {
+        dao.importDataSets(List.of(concept(STEEL, "steel")), imported -> { });
+        dao.storeDataSet(concept(IRON, "iron"));
+
+        Assertions.assertEquals(List.of(IRON), uuids(dao.claimOutboxRecords(10)));
+    }
+
+    @Test
+    public void storeDataSet_shouldNotQueueOutboxRowsWhileImportFlagIsSet() {
+        jdbcTemplate.queryForObject("SELECT set_config('taxman.concept_import', 'on', true)", String.class);
+
+        dao.storeDataSet(concept(STEEL, "steel"));
+
+        Assertions.assertEquals(0, countOutboxRows());
+        Assertions.assertEquals(List.of(STEEL), uuids(changedSince(0)));
+    }
+
+    @Test
+    public void loadLabelRecordsChangedSince_shouldStreamLabelsWithoutNotes() {
+        var dataSet = concept(STEEL, "steel");
+        dataSet.getRecord().getAltLabel().put("en", "carbon steel");
+        dataSet.getRecord().getNote().put("en", "An alloy of iron and carbon");
+        dao.storeDataSet(dataSet);
+        var sequence = changedSince(0).get(0).getSequence();
+        dao.storeDataSet(concept(IRON, "iron"));
+        dao.deleteDataSet(IRON);
+
+        List<ConceptChangeRecord> changes;
+        try (var stream = dao.loadLabelRecordsChangedSince(0)) {
+            changes = stream.collect(Collectors.toList());
+        }
+
+        var steel = changes.get(0).getRecord();
+
+        Assertions.assertEquals(List.of(STEEL, IRON), uuids(changes));
+        Assertions.assertEquals("project-slug", steel.getProjectId());
+        Assertions.assertEquals(List.of("carbon steel"), steel.getAltLabel().get("en"));
+        Assertions.assertTrue(steel.getNote().isEmpty());
+        Assertions.assertTrue(changes.get(1).isDeleted());
+
+        try (var stream = dao.loadLabelRecordsChangedSince(sequence)) {
+            Assertions.assertEquals(List.of(IRON), uuids(stream.collect(Collectors.toList())));
+        }
+    }
+
+    @Test
+    public void getSettledChangeSequence_shouldIgnoreChangesWithinTheSettleTime() {
+        Assertions.assertEquals(0, dao.getSettledChangeSequence(Duration.ofMinutes(1)));
+
+        long settled = jdbcTemplate.queryForObject(
+                "INSERT INTO concept_change_log (concept_uuid, changed_at) VALUES (?, now() - interval '1 hour') RETURNING seq",
+                Long.class, STEEL);
+        dao.storeDataSet(concept(IRON, "iron"));
+
+        Assertions.assertEquals(settled, dao.getSettledChangeSequence(Duration.ofMinutes(1)));
+        Assertions.assertTrue(dao.getSettledChangeSequence(Duration.ofHours(2)) < settled);
+    }
+
+    private long insertChange(UUID uuid, String age) {
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO concept_change_log (concept_uuid, changed_at) VALUES (?, now() - ?::interval) RETURNING seq",
+                Long.class, uuid, age);
+    }
+
+    @Test
+    public void pruneChangeLog_shouldDeleteChangesOlderThanTheRetention() {
+        long pruned = insertChange(STEEL, "2 hours");
+        dao.storeDataSet(concept(IRON, "iron"));
+
+        Assertions.assertEquals(pruned, dao.pruneChangeLog(Duration.ofHours(1)));
+        Assertions.assertEquals(pruned, dao.getPrunedChangeSequence());
+        Assertions.assertEquals(List.of(IRON), uuids(changedSince(0)));
+    }
+
+    @Test
+    public void pruneChangeLog_shouldNeverLowerThePrunedSequence() {
+        long pruned = insertChange(STEEL, "2 hours");
+        dao.pruneChangeLog(Duration.ofHours(1));
+
+        Assertions.assertEquals(pruned, dao.pruneChangeLog(Duration.ofHours(1)));
+        Assertions.assertEquals(pruned, dao.getPrunedChangeSequence());
+    }
+
+    @Test
+    public void getSettledChangeSequence_shouldNotFallBelowThePrunedSequence() {
+        long pruned = insertChange(STEEL, "2 hours");
+        dao.pruneChangeLog(Duration.ofHours(1));
+        dao.storeDataSet(concept(IRON, "iron"));
+
+        Assertions.assertEquals(pruned, dao.getSettledChangeSequence(Duration.ofMinutes(1)));
+    }
+}
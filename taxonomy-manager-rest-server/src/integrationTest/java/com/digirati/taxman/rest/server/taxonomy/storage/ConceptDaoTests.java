@@ -1,13 +1,16 @@
 package com.digirati.taxman.rest.server.taxonomy.storage;
 
 import com.digirati.taxman.common.taxonomy.ConceptRelationshipType;
+import com.digirati.taxman.rest.server.taxonomy.storage.record.ConceptChangeRecord;
 import com.digirati.taxman.rest.server.taxonomy.storage.record.ConceptRecord;
 import com.digirati.taxman.rest.server.taxonomy.storage.record.ConceptRelationshipRecord;
+import com.digirati.taxman.rest.server.taxonomy.storage.record.ProjectRecord;
 import com.digirati.taxman.rest.server.testing.DatabaseTestExtension;
 import com.digirati.taxman.rest.server.testing.annotation.TestDataSource;
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.Multimap;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -17,7 +20,9 @@ import org.junit.jupiter.params.provider.MethodSource;
 
 import javax.sql.DataSource;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 
@@ -28,6 +33,11 @@ public class ConceptDaoTests {
     @TestDataSource
     DataSource dataSource;
 
+    @BeforeEach
+    public void createProject() {
+        new ProjectDao(dataSource).storeDataSet(new ProjectDataSet(new ProjectRecord("project-slug"), List.of()));
+    }
+
     private static Arguments labelPropertiesArgs(String name, LabelSetter setter, LabelGetter getter) {
         return Arguments.of(name, setter, getter);
     }
@@ -106,6 +116,87 @@ public class ConceptDaoTests {
         Assertions.assertEquals(relationships, dao.loadDataSet(uuidA).orElseThrow().getRelationshipRecords());
     }
 
+    @Test
+    public void storeDataSet_shouldLogTheConceptStoredUnderAnExistingSource() {
+        var dao = new ConceptDao(dataSource);
+
+        var existing = new ConceptRecord(UUID.fromString("3828f4e5-ad0d-402c-978a-e2b9939332c7"), "project-slug");
+        existing.setSource("http://example.org/steel");
+        dao.storeDataSet(new ConceptDataSet(existing));
+        long sequence;
+        try (var changes = dao.loadRecordsChangedSince(0)) {
+            sequence = changes.findFirst().orElseThrow().getSequence();
+        }
+
+        var imported = new ConceptRecord(UUID.fromString("f0ea2717-1114-46f4-bc51-a25985571a01"), "project-slug");
+        imported.setSource("http://example.org/steel");
+        imported.getPreferredLabel().put("en", "steel");
+        dao.storeDataSet(new ConceptDataSet(imported));
+
+        List<ConceptChangeRecord> changes;
+        try (var stream = dao.loadRecordsChangedSince(sequence)) {
+            changes = stream.collect(Collectors.toList());
+        }
+
+        Assertions.assertEquals(1, changes.size());
+        Assertions.assertEquals(existing.getUuid(), changes.get(0).getRecord().getUuid());
+        Assertions.assertEquals(imported.getPreferredLabel(), changes.get(0).getRecord().getPreferredLabel());
+    }
+
+    @Test
+    public void loadDataSets_shouldLoadRecordsAndRelationshipsOfEveryConcept() {
+        var dao = new ConceptDao(dataSource);
+
+        var uuidA = UUID.fromString("3828f4e5-ad0d-402c-978a-e2b9939332c7");
+        var uuidB = UUID.fromString("f0ea2717-1114-46f4-bc51-a25985571a01");
+        var uuidC = UUID.fromString("5b6d3b8e-0a57-4a4b-9a52-6f9e8c2c1d3e");
+        var relationshipsA = List.of(new ConceptRelationshipRecord(uuidA, uuidB, null, ConceptRelationshipType.BROADER, false));
+        var relationshipsB = List.of(new ConceptRelationshipRecord(uuidB, uuidA, null, ConceptRelationshipType.NARROWER, false));
+
+        dao.storeDataSets(List.of(
+                new ConceptDataSet(new ConceptRecord(uuidB, "project-slug")),
+                new ConceptDataSet(new ConceptRecord(uuidA, "project-slug"), relationshipsA)));
+        dao.storeDataSet(new ConceptDataSet(new ConceptRecord(uuidB, "project-slug"), relationshipsB));
+
+        var dataSets = dao.loadDataSets(List.of(uuidA, uuidB, uuidC));
+
+        Assertions.assertEquals(Set.of(uuidA, uuidB), dataSets.keySet());
+        Assertions.assertEquals(relationshipsA, dataSets.get(uuidA).getRelationshipRecords());
+        Assertions.assertEquals(relationshipsB, dataSets.get(uuidB).getRelationshipRecords());
+    }
+
+    @Test
+    public void importDataSets_shouldMatchConceptsAndRelationshipTargetsBySource() {
+        var dao = new ConceptDao(dataSource);
+
+        var existing = new ConceptRecord(UUID.fromString("3828f4e5-ad0d-402c-978a-e2b9939332c7"), "project-slug");
+        existing.setSource("http://example.org/steel");
+        dao.storeDataSet(new ConceptDataSet(existing));
+
+        var steel = new ConceptRecord(UUID.randomUUID(), "project-slug");
+        steel.setSource("http://example.org/steel");
+        steel.getPreferredLabel().put("en", "steel \"grade\", rolled");
+
+        var metals = new ConceptRecord(UUID.randomUUID(), "project-slug");
+        metals.setSource("http://example.org/metals");
+        var broader = new ConceptRelationshipRecord(steel.getUuid(), UUID.randomUUID(), "http://example.org/metals",
+                ConceptRelationshipType.BROADER, false);
+
+        var records = dao.importDataSets(
+                List.of(new ConceptDataSet(steel, List.of(broader)), new ConceptDataSet(metals)), staged -> { });
+
+        Assertions.assertEquals(existing.getUuid(), records.get(0).getUuid());
+        Assertions.assertEquals(metals.getUuid(), records.get(1).getUuid());
+
+        var stored = dao.loadDataSets(List.of(existing.getUuid(), metals.getUuid()));
+        Assertions.assertEquals(steel.getPreferredLabel(), stored.get(existing.getUuid()).getRecord().getPreferredLabel());
+        Assertions.assertEquals(metals.getUuid(), stored.get(existing.getUuid()).getRelationshipRecords().get(0).getTarget());
+
+        var inverse = stored.get(metals.getUuid()).getRelationshipRecords().get(0);
+        Assertions.assertEquals(existing.getUuid(), inverse.getTarget());
+        Assertions.assertEquals(ConceptRelationshipType.NARROWER, inverse.getType());
+    }
+
     @Test
     public void search_ShouldRetrieveConceptsByPartialLabel() {
         var one = new ConceptRecord(UUID.randomUUID(), "project-slug");
@@ -2,12 +2,16 @@ package com.digirati.taxman.rest.server;
 
 import com.digirati.taxman.rest.analysis.TextAnalysisInput;
 import com.digirati.taxman.rest.analysis.TextAnalysisResource;
+import com.digirati.taxman.rest.server.analysis.TermIndexWarmup;
 import com.digirati.taxman.rest.server.analysis.TextAnalyzer;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 import javax.validation.Valid;
+import javax.ws.rs.ServiceUnavailableException;
 import javax.ws.rs.core.Response;
+import java.time.Duration;
 
 @ApplicationScoped
 public class ServerTextAnalysisResource implements TextAnalysisResource {
@@ -15,8 +19,18 @@ public class ServerTextAnalysisResource implements TextAnalysisResource {
     @Inject
     TextAnalyzer textAnalyzer;
 
+    @Inject
+    TermIndexWarmup indexWarmup;
+
+    @ConfigProperty(name = "taxman.analysis.warm-up.retry-after", defaultValue = "PT10S")
+    Duration retryAfter;
+
     @Override
     public Response analyze(@Valid TextAnalysisInput input) {
+        if (!indexWarmup.isReady()) {
+            throw new ServiceUnavailableException("The term index is still being built", retryAfter.toSeconds());
+        }
+
         return Response.ok(textAnalyzer.tagDocument(input)).build();
     }
 }
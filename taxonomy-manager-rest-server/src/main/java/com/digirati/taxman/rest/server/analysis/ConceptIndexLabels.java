@@ -0,0 +1,168 @@
+package com.digirati.taxman.rest.server.analysis;
+
+import com.digirati.taxman.analysis.index.Term;
+import com.digirati.taxman.common.taxonomy.ConceptLabelExtractor;
+import com.digirati.taxman.rest.server.taxonomy.storage.record.ConceptRecord;
+import org.eclipse.microprofile.config.Config;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.StreamSupport;
+
+/**
+ * Selects the labels a concept is indexed under in the term index.
+ *
+ * <p>Only the SKOS properties in the indexing profile of the concept's project are indexed. The profile is
+ * {@code taxman.analysis.indexed-properties}, unless the project has its own in
+ * {@code taxman.analysis.projects.<slug>.indexed-properties}. Both are lists of SKOS property names, and default to
+ * the lexical labels: notes and definitions are long, rarely quoted verbatim, and make up most of the size of an
+ * index that includes them.
+ *
+ * <p>Labels are indexed by language, under the primary subtag of their language tag, and labels without one under
+ * {@code taxman.analysis.default-lang.key}. Every language is indexed, unless {@code taxman.analysis.languages} lists
+ * the ones to index.
+ */
+@ApplicationScoped
+public class ConceptIndexLabels {
+
+    /**
+     * The lexical labels of a concept, which {@code ConceptDao.loadAllLabelRecords} reads without the other
+     * properties.
+     */
+    static final Set<String> LABEL_PROPERTIES = Set.of("prefLabel", "altLabel", "hiddenLabel");
+
+    /**
+     * The weight of the labels of each property, which ranks matches of preferred labels above alternative and
+     * hidden labels, and those above matches of notes.
+     */
+    static final Map<String, Integer> WEIGHTS = Map.of("prefLabel", 3, "altLabel", 2, "hiddenLabel", 1);
+
+    /**
+     * The weight of preferred labels, the highest of any label.
+     */
+    static final int PREFERRED_WEIGHT = WEIGHTS.get("prefLabel");
+
+    /**
+     * The name of every property {@link ConceptLabelExtractor} can extract.
+     */
+    static final Set<String> KNOWN_PROPERTIES;
+
+    private static final String PROJECT_PREFIX = "taxman.analysis.projects.";
+    private static final String PROFILE_SUFFIX = ".indexed-properties";
+
+    static {
+        var properties = new LinkedHashSet<String>();
+        new ConceptLabelExtractor(new ConceptRecord(null, null))
+                .extractTo((property, literal) -> properties.add(property.getLocalName()));
+
+        KNOWN_PROPERTIES = Set.copyOf(properties);
+    }
+
+    @ConfigProperty(name = "taxman.analysis.default-lang.key", defaultValue = "en")
+    String defaultLanguageKey;
+
+    @ConfigProperty(name = "taxman.analysis.indexed-properties", defaultValue = "prefLabel,altLabel,hiddenLabel")
+    List<String> indexedProperties;
+
+    @ConfigProperty(name = "taxman.analysis.languages")
+    Optional<List<String>> languages;
+
+    @Inject
+    Config config;
+
+    private final Map<String, Set<String>> profiles = new ConcurrentHashMap<>();
+
+    /**
+     * Get the labels to index a concept under, by language, weighted by the kind of label.
+     */
+    public Map<String, List<Term>> extract(ConceptRecord record) {
+        var labels = extract(record, profile(record.getProjectId()), defaultLanguageKey);
+        languages.ifPresent(indexed -> labels.keySet().retainAll(indexed));
+
+        return labels;
+    }
+
+    /**
+     * Check whether every project is indexed by its lexical labels alone, in which case the index can be built from
+     * a projection of the concepts that leaves out their notes.
+     */
+    public boolean isLabelsOnly() {
+        if (!LABEL_PROPERTIES.containsAll(parse("taxman.analysis.indexed-properties", indexedProperties))) {
+            return false;
+        }
+
+        return StreamSupport.stream(config.getPropertyNames().spliterator(), false)
+                .filter(name -> name.startsWith(PROJECT_PREFIX) && name.endsWith(PROFILE_SUFFIX))
+                .map(name -> parse(name, List.of(config.getValue(name, String[].class))))
+                .allMatch(LABEL_PROPERTIES::containsAll);
+    }
+
+    /**
+     * Get the names of the properties indexed in a project.
+     */
+    public Set<String> profile(String project) {
+        return profiles.computeIfAbsent(project, key -> {
+            var name = PROJECT_PREFIX + key + PROFILE_SUFFIX;
+
+            return config.getOptionalValue(name, String[].class)
+                    .map(properties -> parse(name, List.of(properties)))
+                    .orElseGet(() -> parse("taxman.analysis.indexed-properties", indexedProperties));
+        });
+    }
+
+    static Map<String, List<Term>> extract(ConceptRecord record, Set<String> profile, String defaultLanguage) {
+        var labels = new HashMap<String, List<Term>>();
+        var labelExtractor = new ConceptLabelExtractor(record);
+
+        labelExtractor.extractTo((property, literal) -> {
+            var name = property.getLocalName();
+            if (profile.contains(name)) {
+                var weight = WEIGHTS.getOrDefault(name, 0);
+                literal.forEach((languageTag, value) -> labels
+                        .computeIfAbsent(language(languageTag, defaultLanguage), key -> new ArrayList<>())
+                        .add(new Term(value, weight)));
+            }
+        });
+
+        return labels;
+    }
+
+    /**
+     * Get the language a label with the given tag is indexed under, e.g. "en" for "en-GB".
+     */
+    static String language(String languageTag, String defaultLanguage) {
+        if (languageTag == null || languageTag.isBlank()) {
+            return defaultLanguage;
+        }
+
+        int separator = languageTag.indexOf('-');
+        var primary = separator < 0 ? languageTag : languageTag.substring(0, separator);
+
+        return primary.toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> parse(String configName, List<String> properties) {
+        var profile = new LinkedHashSet<String>();
+
+        for (var property : properties) {
+            var name = property.trim();
+            if (!KNOWN_PROPERTIES.contains(name)) {
+                throw new IllegalArgumentException("Unknown SKOS property in " + configName + ": " + name);
+            }
+
+            profile.add(name);
+        }
+
+        return Set.copyOf(profile);
+    }
+}
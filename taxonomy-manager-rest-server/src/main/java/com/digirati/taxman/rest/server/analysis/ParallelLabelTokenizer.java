@@ -0,0 +1,129 @@
+package com.digirati.taxman.rest.server.analysis;
+
+import com.digirati.taxman.analysis.WordTokenSearchEntry;
+import com.digirati.taxman.analysis.index.MultilingualTermIndex;
+import com.digirati.taxman.analysis.index.Term;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.Multimap;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.IntConsumer;
+
+/**
+ * Tokenizes the labels of many concepts on an {@link ExecutorService}. Labels are collected as they are added into
+ * chunks of one project and language, and every full chunk is tokenized by a single task while the caller goes on
+ * reading, so tokenizing overlaps with reading the concepts from the database.
+ *
+ * <p>Not thread-safe: labels are added from a single thread.
+ */
+public final class ParallelLabelTokenizer {
+
+    /**
+     * The number of concepts tokenized by a single task. Large enough to make scheduling overhead negligible,
+     * small enough to keep every thread busy until the end.
+     */
+    private static final int CHUNK_SIZE = 256;
+
+    private final MultilingualTermIndex<String, UUID> termIndex;
+    private final ExecutorService executor;
+    private final IntConsumer progress;
+
+    private final Map<String, Map<String, List<Future<List<WordTokenSearchEntry<UUID>>>>>> pending = new HashMap<>();
+    private final Map<String, Map<String, Multimap<UUID, Term>>> chunks = new HashMap<>();
+
+    /**
+     * @param termIndex The index whose tokenizer of each language is used.
+     * @param executor The executor that tokenizes chunks of labels.
+     * @param progress Receives the number of labels in every chunk once it is tokenized.
+     */
+    public ParallelLabelTokenizer(MultilingualTermIndex<String, UUID> termIndex,
+                                  ExecutorService executor,
+                                  IntConsumer progress) {
+        this.termIndex = termIndex;
+        this.executor = executor;
+        this.progress = progress;
+    }
+
+    /**
+     * Add the labels of a concept by language, submitting the chunks they fill for tokenizing.
+     */
+    public void add(String project, UUID uuid, Map<String, List<Term>> labels) {
+        var projectChunks = chunks.computeIfAbsent(project, key -> new HashMap<>());
+
+        labels.forEach((language, languageLabels) -> {
+            var chunk = projectChunks.computeIfAbsent(language, key -> ArrayListMultimap.create());
+            chunk.putAll(uuid, languageLabels);
+
+            if (chunk.keySet().size() >= CHUNK_SIZE) {
+                submit(project, language, projectChunks.remove(language));
+            }
+        });
+    }
+
+    /**
+     * Tokenize the remaining chunks and wait for every chunk to be tokenized.
+     *
+     * @return The tokenized labels by project and language, for every project with any labels.
+     */
+    public Map<String, Map<String, List<WordTokenSearchEntry<UUID>>>> finish() {
+        chunks.forEach((project, projectChunks) -> projectChunks.forEach((language, chunk) ->
+                submit(project, language, chunk)));
+        chunks.clear();
+
+        var entriesByProject = new HashMap<String, Map<String, List<WordTokenSearchEntry<UUID>>>>();
+
+        for (var project : pending.entrySet()) {
+            var entriesByLanguage = new HashMap<String, List<WordTokenSearchEntry<UUID>>>();
+
+            for (var language : project.getValue().entrySet()) {
+                var entries = new ArrayList<WordTokenSearchEntry<UUID>>();
+                for (var future : language.getValue()) {
+                    entries.addAll(await(future));
+                }
+
+                entriesByLanguage.put(language.getKey(), entries);
+            }
+
+            entriesByProject.put(project.getKey(), entriesByLanguage);
+        }
+
+        pending.clear();
+        return entriesByProject;
+    }
+
+    private void submit(String project, String language, Multimap<UUID, Term> chunk) {
+        // The tokenizer of a language is created here, on the adding thread, the first time it has any labels.
+        var languageIndex = termIndex.forLanguage(language);
+
+        pending.computeIfAbsent(project, key -> new HashMap<>())
+                .computeIfAbsent(language, key -> new ArrayList<>())
+                .add(executor.submit(() -> {
+                    var entries = languageIndex.tokenizeTerms(project, chunk);
+                    progress.accept(chunk.size());
+
+                    return entries;
+                }));
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while tokenizing concept labels", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+
+            throw new IllegalStateException("Failed to tokenize concept labels", e.getCause());
+        }
+    }
+}
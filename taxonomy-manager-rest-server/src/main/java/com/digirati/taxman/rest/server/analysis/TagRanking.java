@@ -0,0 +1,115 @@
+package com.digirati.taxman.rest.server.analysis;
+
+import com.digirati.taxman.analysis.TermMatch;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+
+/**
+ * Ranks the concepts matched in a document by how well they describe it.
+ *
+ * <p>Every distinct occurrence of a concept adds to its score. An occurrence scores the number of tokens it spans,
+ * scaled by the kind of label that matched, from 1 for a preferred label down to 1/4 for a note, and by its position,
+ * from {@code 1 + POSITION_BONUS} at the start of the document down to 1 at the end, as titles and abstracts come
+ * first. Fuzzy matches are divided by one more than their edit distance, so a misspelling never outranks the label
+ * spelled correctly.
+ *
+ * <p>Only the best concepts are kept, on a heap bounded by the limit, so ranking many matches for a small limit
+ * only orders as many concepts as are returned.
+ */
+final class TagRanking {
+
+    static final double POSITION_BONUS = 0.5;
+
+    private static final Comparator<RankedConcept> BY_SCORE = Comparator
+            .comparingDouble(RankedConcept::getScore)
+            .thenComparing(RankedConcept::getUuid);
+
+    private TagRanking() {
+    }
+
+    /**
+     * Rank the concepts matched in a document.
+     *
+     * @param matches The matches of concept labels in the document.
+     * @param textLength The length of the document.
+     * @param limit The greatest number of concepts to return.
+     * @param minScore The lowest score of a concept to return.
+     * @return The best concepts, with the highest score first.
+     */
+    static List<RankedConcept> rank(Collection<TermMatch<UUID>> matches, int textLength, int limit, double minScore) {
+        // Several labels of a concept may match the same text, which only counts once, as the best scoring label.
+        var occurrencesByConcept = new HashMap<UUID, Map<Long, TermMatch<UUID>>>();
+        for (var match : matches) {
+            long span = ((long) match.getBeginPosition() << Integer.SIZE) | match.getEndPosition();
+
+            occurrencesByConcept.computeIfAbsent(match.getId(), uuid -> new HashMap<>())
+                    .merge(span, match, (first, second) ->
+                            score(first, textLength) >= score(second, textLength) ? first : second);
+        }
+
+        var best = new PriorityQueue<>(Math.max(1, Math.min(limit, occurrencesByConcept.size())), BY_SCORE);
+
+        occurrencesByConcept.forEach((uuid, occurrences) -> {
+            double score = 0;
+            for (var occurrence : occurrences.values()) {
+                score += score(occurrence, textLength);
+            }
+
+            if (score < minScore || (best.size() == limit && score <= best.peek().getScore())) {
+                return;
+            }
+
+            if (best.size() == limit) {
+                best.poll();
+            }
+
+            best.add(new RankedConcept(uuid, score, occurrences.values()));
+        });
+
+        var ranked = new ArrayList<>(best);
+        ranked.sort(BY_SCORE.reversed());
+
+        return ranked;
+    }
+
+    private static double score(TermMatch<UUID> occurrence, int textLength) {
+        double label = (1.0 + occurrence.getWeight()) / (1.0 + ConceptIndexLabels.PREFERRED_WEIGHT);
+        double position = textLength == 0 ? 0 : 1.0 - (double) occurrence.getBeginPosition() / textLength;
+
+        return occurrence.getTokenCount() * label * (1 + POSITION_BONUS * position) / (1 + occurrence.getDistance());
+    }
+
+    /**
+     * A concept matched in a document, with its score and every distinct occurrence.
+     */
+    static final class RankedConcept {
+        private final UUID uuid;
+        private final double score;
+        private final List<TermMatch<UUID>> occurrences;
+
+        RankedConcept(UUID uuid, double score, Collection<TermMatch<UUID>> occurrences) {
+            this.uuid = uuid;
+            this.score = score;
+            this.occurrences = List.copyOf(occurrences);
+        }
+
+        UUID getUuid() {
+            return uuid;
+        }
+
+        double getScore() {
+            return score;
+        }
+
+        List<TermMatch<UUID>> getOccurrences() {
+            return occurrences;
+        }
+    }
+}
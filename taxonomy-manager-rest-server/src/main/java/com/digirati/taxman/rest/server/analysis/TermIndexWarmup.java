@@ -0,0 +1,190 @@
+package com.digirati.taxman.rest.server.analysis;
+
+import com.digirati.taxman.analysis.WordTokenSearchEntry;
+import com.digirati.taxman.analysis.index.MultilingualTermIndex;
+import com.digirati.taxman.analysis.index.Term;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks the term index while it is built in the background, and holds back concept changes until it is complete.
+ *
+ * <p>A change received while the index is warming up may be overwritten by the older labels the warm-up read from
+ * the database or a snapshot, so changes are recorded instead of applied, and replayed once the warm-up completes.
+ * Every change carries the complete set of labels of a concept, so only the latest change of each concept is kept.
+ *
+ * <p>Changes received after a failed warm-up are dropped rather than held back until the next attempt, which reads
+ * them from the database anyway.
+ */
+@ApplicationScoped
+public class TermIndexWarmup {
+
+    public enum Status {
+        WARMING,
+        READY,
+        FAILED
+    }
+
+    @Inject
+    MultilingualTermIndex<String, UUID> termIndex;
+
+    private final AtomicInteger attempts = new AtomicInteger(1);
+    private final AtomicInteger projects = new AtomicInteger();
+    private final AtomicInteger projectsDone = new AtomicInteger();
+    private final AtomicLong labelsDone = new AtomicLong();
+
+    /**
+     * The latest project and tokenized labels by language of every concept changed during the warm-up, guarded by
+     * {@code this}.
+     */
+    private final Map<UUID, Map.Entry<String, Map<String, List<WordTokenSearchEntry<UUID>>>>> deferred =
+            new LinkedHashMap<>();
+
+    private volatile Status status = Status.WARMING;
+
+    private volatile Throwable failure;
+
+    /**
+     * Replace the labels by language of some concepts in a project, or hold them back until the warm-up completes.
+     * The labels are tokenized on the calling thread.
+     */
+    public void replaceAll(String project, Map<UUID, Map<String, List<Term>>> labels) {
+        replaceAllTokenized(project, labels.keySet(), termIndex.tokenizeAll(project, labels));
+    }
+
+    /**
+     * Replace the labels of some concepts in a project with labels already tokenized by language, or hold them back
+     * until the warm-up completes.
+     *
+     * @param uuids The concepts whose labels are replaced, including those that no longer have any.
+     * @param entries The tokenized labels of the concepts by language.
+     */
+    public void replaceAllTokenized(String project,
+                                    Set<UUID> uuids,
+                                    Map<String, List<WordTokenSearchEntry<UUID>>> entries) {
+        synchronized (this) {
+            if (status == Status.WARMING) {
+                for (var uuid : uuids) {
+                    deferred.put(uuid, Map.entry(project, new HashMap<>()));
+                }
+
+                entries.forEach((language, languageEntries) -> languageEntries.forEach(entry ->
+                        deferred.get(entry.getIdentity()).getValue()
+                                .computeIfAbsent(language, key -> new ArrayList<>())
+                                .add(entry)));
+                return;
+            }
+
+            if (status == Status.FAILED) {
+                return;
+            }
+        }
+
+        termIndex.replaceAllTokenized(project, uuids, entries);
+    }
+
+    /**
+     * Record the number of projects the warm-up will index.
+     */
+    public void setProjects(int count) {
+        projects.set(count);
+    }
+
+    /**
+     * Record that the labels of a project have been indexed.
+     */
+    public void projectDone() {
+        projectsDone.incrementAndGet();
+    }
+
+    /**
+     * Record that some labels have been tokenized.
+     */
+    public void labelsDone(int count) {
+        labelsDone.addAndGet(count);
+    }
+
+    /**
+     * Apply the changes that were held back during the warm-up and start applying changes as they arrive.
+     */
+    public synchronized void complete() {
+        var uuidsByProject = new HashMap<String, Set<UUID>>();
+        var entriesByProject = new HashMap<String, Map<String, List<WordTokenSearchEntry<UUID>>>>();
+
+        deferred.forEach((uuid, change) -> {
+            var project = change.getKey();
+            var projectEntries = entriesByProject.computeIfAbsent(project, key -> new HashMap<>());
+
+            uuidsByProject.computeIfAbsent(project, key -> new HashSet<>()).add(uuid);
+            change.getValue().forEach((language, entries) ->
+                    projectEntries.computeIfAbsent(language, key -> new ArrayList<>()).addAll(entries));
+        });
+
+        uuidsByProject.forEach((project, uuids) ->
+                termIndex.replaceAllTokenized(project, uuids, entriesByProject.get(project)));
+        deferred.clear();
+
+        status = Status.READY;
+    }
+
+    /**
+     * Record that the index could not be built. Changes are dropped until the next attempt starts, as the index is
+     * incomplete and the next attempt reads them from the database.
+     */
+    public synchronized void fail(Throwable cause) {
+        deferred.clear();
+        failure = cause;
+        status = Status.FAILED;
+    }
+
+    /**
+     * Record that the index is being built again after a failure, starting from an empty index.
+     */
+    public synchronized void retry() {
+        attempts.incrementAndGet();
+        projects.set(0);
+        projectsDone.set(0);
+        labelsDone.set(0);
+        failure = null;
+        status = Status.WARMING;
+    }
+
+    public boolean isReady() {
+        return status == Status.READY;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public Throwable getFailure() {
+        return failure;
+    }
+
+    public int getAttempts() {
+        return attempts.get();
+    }
+
+    public int getProjects() {
+        return projects.get();
+    }
+
+    public int getProjectsDone() {
+        return projectsDone.get();
+    }
+
+    public long getLabelsDone() {
+        return labelsDone.get();
+    }
+}
@@ -1,22 +1,27 @@
 package com.digirati.taxman.rest.server.analysis;
 
-import com.digirati.taxman.analysis.TermMatch;
-import com.digirati.taxman.analysis.index.TermIndex;
+import com.digirati.taxman.analysis.index.MultilingualTermIndex;
+import com.digirati.taxman.analysis.nlp.StopwordLanguageDetector;
 import com.digirati.taxman.common.rdf.RdfModelException;
 import com.digirati.taxman.common.rdf.RdfModelFactory;
 import com.digirati.taxman.common.taxonomy.CollectionModel;
 import com.digirati.taxman.common.taxonomy.ConceptModel;
 import com.digirati.taxman.rest.analysis.TextAnalysisInput;
+import com.digirati.taxman.rest.server.infrastructure.config.RdfConfig;
+import com.digirati.taxman.rest.server.infrastructure.config.TaxonomyIndexConfig;
 import com.digirati.taxman.rest.server.taxonomy.ConceptModelRepository;
 import org.apache.jena.vocabulary.DCTerms;
 import org.apache.jena.vocabulary.SKOS;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.logging.Logger;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
+import javax.ws.rs.BadRequestException;
 import javax.ws.rs.WebApplicationException;
 import java.net.URI;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @ApplicationScoped
@@ -24,8 +29,11 @@ public class TextAnalyzer {
 
     private static final Logger logger = Logger.getLogger(TextAnalyzer.class.getName());
 
+    @ConfigProperty(name = "taxman.analysis.default-lang.key", defaultValue = "en")
+    String defaultLanguageKey;
+
     @Inject
-    TermIndex<String, UUID> termIndex;
+    MultilingualTermIndex<String, UUID> termIndex;
 
     @Inject
     RdfModelFactory modelFactory;
@@ -33,40 +41,74 @@ public class TextAnalyzer {
     @Inject
     ConceptModelRepository concepts;
 
+    @Inject
+    TaxonomyIndexConfig indexConfig;
+
+    private final StopwordLanguageDetector languageDetector = new StopwordLanguageDetector();
+
     /**
-     * Run the auto-tagger implementation on the given {@code input} and return a collection of {@link ConceptModel}s that
-     * are found in the input.
+     * Run the auto-tagger implementation on the given {@code input} and return a collection of {@link ConceptModel}s
+     * that are found in the input. Only the labels in the language of the input are matched: the language given with
+     * the input, or otherwise the indexed language detected in the text, falling back to the default language.
+     * Concepts are ranked by {@link TagRanking}, and only the best {@code limit} concepts scoring at least
+     * {@code minScore} are returned. Labels are matched exactly unless the input allows a {@code maxEditDistance}.
      *
      * @param input The document to tag.
-     * @return A list of {@link ConceptModel}s appearing as tags.
+     * @return The {@link ConceptModel}s appearing as tags, added best first, each with its {@code cru:score} and the
+     *     {@code dcterms:extent} of every occurrence. Serializers may reorder the members, so clients rank by score.
+     * @throws BadRequestException if the input allows a {@code maxEditDistance} and the configured search strategy
+     *     can't match fuzzily.
      */
     public CollectionModel tagDocument(TextAnalysisInput input) {
+        int maxEditDistance = input.getMaxEditDistance().orElse(0);
+        if (maxEditDistance > 0 && !indexConfig.isFuzzyMatchingSupported()) {
+            throw new BadRequestException("maxEditDistance is not supported by the configured search strategy");
+        }
+
         String text = input.getText();
         logger.debug(text);
 
+        var language = input.getLanguage()
+                .map(tag -> ConceptIndexLabels.language(tag, defaultLanguageKey))
+                .or(() -> languageDetector.detect(text, termIndex.languages()))
+                .orElse(defaultLanguageKey);
+
         var matches = input.getProjectId()
-                .map(id -> termIndex.match(id, text))
-                .orElseGet(() -> termIndex.match(text))
-                .stream()
-                .collect(Collectors.groupingBy(TermMatch::getId));
+                .map(id -> termIndex.match(language, id, text, maxEditDistance))
+                .orElseGet(() -> termIndex.match(language, text, maxEditDistance));
+
+        var ranked = TagRanking.rank(matches, text.length(), input.getLimit().orElse(Integer.MAX_VALUE),
+                input.getMinScore().orElse(0.0));
 
         try {
             var builder = modelFactory.createBuilder(CollectionModel.class);
             builder.setUri(URI.create("urn:collection"));
 
-            var matchedConcepts = concepts.findAll(matches.keySet());
-            matchedConcepts.forEach(concept -> {
-                matches.get(concept.getUuid()).forEach(occurence ->
-                    concept.getResource().addProperty(DCTerms.extent,
-                            String.format(
-                                    "%d:%d",
-                                    occurence.getBeginPosition(),
-                                    occurence.getEndPosition()
-                            )
-                    )
+            // Only the concepts that made the cut are loaded, in no particular order, so they are added by rank.
+            var uuids = ranked.stream().map(TagRanking.RankedConcept::getUuid).collect(Collectors.toList());
+            var matchedConcepts = concepts.findAll(uuids).stream()
+                    .collect(Collectors.toMap(ConceptModel::getUuid, Function.identity()));
+
+            for (var rankedConcept : ranked) {
+                // A concept deleted since it was indexed is left out.
+                var concept = matchedConcepts.get(rankedConcept.getUuid());
+                if (concept == null) {
+                    continue;
+                }
+
+                var resource = concept.getResource();
+                resource.addLiteral(RdfConfig.score, rankedConcept.getScore());
+                rankedConcept.getOccurrences().forEach(occurrence ->
+                        resource.addProperty(DCTerms.extent,
+                                String.format(
+                                        "%d:%d",
+                                        occurrence.getBeginPosition(),
+                                        occurrence.getEndPosition()
+                                )
+                        )
                 );
                 builder.addEmbeddedModel(SKOS.member, concept);
-            });
+            }
 
             return builder.build();
         } catch (RdfModelException ex) {
@@ -59,6 +59,11 @@ public class RdfConfig {
     public static final Property isTopicGroup = m.createProperty(uri + "isTopicGroup");
     public static final Property inRegionGroup = m.createProperty(uri + "inRegionGroup");
     public static final Property isRegionGroup = m.createProperty(uri + "isRegionGroup");
+
+    /**
+     * The score a concept was ranked by when tagging a document.
+     */
+    public static final Property score = m.createProperty(uri + "score");
     public static final Set<String> ADDITIONAL_REGION_GROUPS = Set.of("cf28b330-7a1f-46ac-8c6b-dcb2eeccc7dc");
     private static final Map<String, String> CONCEPT_TO_REGION_GROUP = Map.ofEntries(
             Map.entry("b6dffb2d-3bd8-49b3-9c38-08314e7049f8", "69b1198a-95dc-46fc-8879-52fb9a7d8095"),
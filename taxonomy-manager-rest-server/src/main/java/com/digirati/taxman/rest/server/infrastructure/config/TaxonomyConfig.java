@@ -10,14 +10,26 @@ import com.digirati.taxman.rest.server.taxonomy.mapper.ProjectMapper;
 import com.digirati.taxman.rest.server.taxonomy.mapper.SearchResultsMapper;
 import com.digirati.taxman.rest.server.taxonomy.mapper.ConceptMapper;
 import com.digirati.taxman.rest.server.taxonomy.mapper.ConceptSchemeMapper;
+import com.digirati.taxman.rest.server.taxonomy.storage.ConceptDataSetCache;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.metrics.Gauge;
+import org.eclipse.microprofile.metrics.Metadata;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.MetricType;
+import org.eclipse.microprofile.metrics.MetricUnits;
+import org.eclipse.microprofile.metrics.annotation.RegistryType;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.enterprise.inject.Produces;
 import javax.inject.Inject;
+import javax.inject.Singleton;
 
 @ApplicationScoped
 public class TaxonomyConfig {
 
+    @ConfigProperty(name = "taxman.concepts.cache.max-weight", defaultValue = "50000000")
+    long conceptCacheMaxWeight;
+
     @Inject
     RdfModelFactory modelFactory;
 
@@ -33,6 +45,10 @@ public class TaxonomyConfig {
     @Inject
     ProjectIdResolver projectIdResolver;
 
+    @Inject
+    @RegistryType(type = MetricRegistry.Type.APPLICATION)
+    MetricRegistry metrics;
+
     @Produces
     ConceptMapper conceptMapper() {
         return new ConceptMapper(conceptIdResolver, modelFactory);
@@ -57,4 +73,28 @@ public class TaxonomyConfig {
     ProjectListingMapper projectListingMapper() {
         return new ProjectListingMapper(projectIdResolver, collectionUriResolver, modelFactory);
     }
+
+    @Produces
+    @Singleton
+    ConceptDataSetCache conceptDataSetCache() {
+        var cache = new ConceptDataSetCache(conceptCacheMaxWeight);
+
+        registerGauge("hits", "Number of concept reads served from the cache", cache::getHitCount);
+        registerGauge("misses", "Number of concept reads that went to the database", cache::getMissCount);
+        registerGauge("evictions", "Number of concepts evicted from the cache", cache::getEvictionCount);
+        registerGauge("size", "Number of concepts in the cache", cache::getSize);
+
+        return cache;
+    }
+
+    private void registerGauge(String name, String description, Gauge<? extends Number> gauge) {
+        var metadata = Metadata.builder()
+                .withName("taxman.concepts.cache." + name)
+                .withDescription(description)
+                .withType(MetricType.GAUGE)
+                .withUnit(MetricUnits.NONE)
+                .build();
+
+        metrics.register(metadata, gauge);
+    }
 }
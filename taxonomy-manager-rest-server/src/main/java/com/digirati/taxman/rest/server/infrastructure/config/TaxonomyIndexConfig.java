@@ -1,23 +1,134 @@
 package com.digirati.taxman.rest.server.infrastructure.config;
 
+import com.digirati.taxman.analysis.LexemeDictionary;
+import com.digirati.taxman.analysis.PooledWordTokenizer;
+import com.digirati.taxman.analysis.WordTokenSearchStrategy;
+import com.digirati.taxman.analysis.WordTokenizer;
 import com.digirati.taxman.analysis.nlp.corenlp.CoreNlpWordTokenizer;
+import com.digirati.taxman.analysis.nlp.rulebased.RuleBasedWordTokenizer;
+import com.digirati.taxman.analysis.index.MultilingualTermIndex;
 import com.digirati.taxman.analysis.index.TermIndex;
+import com.digirati.taxman.analysis.search.InvertedIndexSearchStrategy;
 import com.digirati.taxman.analysis.search.NaiveSearchStrategy;
+import com.digirati.taxman.analysis.search.PhraseAutomatonSearchStrategy;
+import org.eclipse.microprofile.config.Config;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.metrics.Gauge;
+import org.eclipse.microprofile.metrics.Metadata;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.MetricType;
+import org.eclipse.microprofile.metrics.MetricUnits;
+import org.eclipse.microprofile.metrics.Tag;
+import org.eclipse.microprofile.metrics.annotation.RegistryType;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.enterprise.inject.Produces;
+import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 @ApplicationScoped
 public class TaxonomyIndexConfig {
     @ConfigProperty(name = "taxman.analysis.default-lang.key", defaultValue = "en")
     String languageKey;
 
+    @ConfigProperty(name = "taxman.analysis.tokenizer", defaultValue = "corenlp")
+    String tokenizer;
+
+    @ConfigProperty(name = "taxman.analysis.search-strategy", defaultValue = "phrase-automaton")
+    String searchStrategy;
+
+    @ConfigProperty(name = "taxman.analysis.thread-pool-size", defaultValue = "16")
+    int threadPoolSize;
+
+    @Inject
+    Config config;
+
+    @Inject
+    @RegistryType(type = MetricRegistry.Type.APPLICATION)
+    MetricRegistry metrics;
+
     @Produces
     @Singleton
-    public TermIndex<String, UUID> termIndex() {
-        return new TermIndex<String, UUID>(CoreNlpWordTokenizer.create(languageKey), new NaiveSearchStrategy<>());
+    public MultilingualTermIndex<String, UUID> termIndex() {
+        // Every project gets its own search strategy, but the projects of a language share its dictionary of
+        // lexemes, as languages share few of them.
+        return new MultilingualTermIndex<>(language -> {
+            var dictionary = new LexemeDictionary();
+
+            return new TermIndex<>(wordTokenizer(language), searchStrategyFactory(dictionary));
+        });
+    }
+
+    /**
+     * Create the tokenizer of a language, which is {@code taxman.analysis.lang.<key>.tokenizer} if set. Otherwise the
+     * default language uses {@code taxman.analysis.tokenizer}, and other languages the rule-based tokenizer, as only
+     * the English CoreNLP models are bundled.
+     */
+    private WordTokenizer wordTokenizer(String language) {
+        var name = "taxman.analysis.lang." + language + ".tokenizer";
+        var languageTokenizer = config.getOptionalValue(name, String.class)
+                .orElse(language.equals(languageKey) ? tokenizer : "rule-based");
+
+        switch (languageTokenizer) {
+            case "corenlp":
+                // A CoreNLP pipeline keeps mutable state per instance, so every concurrent caller leases its own.
+                // The models themselves are cached by CoreNLP and shared between the pipelines.
+                var pool = PooledWordTokenizer.create(threadPoolSize, () -> CoreNlpWordTokenizer.create(language));
+                registerPoolMetrics(language, pool);
+                return pool;
+            case "rule-based":
+                return RuleBasedWordTokenizer.create(language);
+            default:
+                throw new IllegalArgumentException("Unknown " + name + ": " + languageTokenizer);
+        }
+    }
+
+    /**
+     * Check whether the configured search strategy can match labels within an edit distance of the input.
+     */
+    public boolean isFuzzyMatchingSupported() {
+        return searchStrategyFactory(new LexemeDictionary()).get().supportsFuzzyMatching();
+    }
+
+    private Supplier<WordTokenSearchStrategy<UUID>> searchStrategyFactory(LexemeDictionary dictionary) {
+        switch (searchStrategy) {
+            case "naive":
+                return NaiveSearchStrategy::new;
+            case "inverted-index":
+                return () -> new InvertedIndexSearchStrategy<>(dictionary);
+            case "phrase-automaton":
+                return () -> new PhraseAutomatonSearchStrategy<>(dictionary);
+            default:
+                throw new IllegalArgumentException("Unknown taxman.analysis.search-strategy: " + searchStrategy);
+        }
+    }
+
+    private void registerPoolMetrics(String language, PooledWordTokenizer pool) {
+        var tag = new Tag("language", language);
+
+        registerGauge("size", "Maximum number of tokenizers in the pool", MetricUnits.NONE, pool::getSize, tag);
+        registerGauge("created", "Number of tokenizers created", MetricUnits.NONE, pool::getCreated, tag);
+        registerGauge("leased", "Number of tokenizers currently in use", MetricUnits.NONE, pool::getLeased, tag);
+        registerGauge("waiting", "Number of callers waiting for a tokenizer", MetricUnits.NONE, pool::getWaiting,
+                tag);
+        registerGauge("leases", "Total number of tokenizer leases", MetricUnits.NONE, pool::getLeaseCount, tag);
+        registerGauge("waits", "Total number of leases that waited for a tokenizer", MetricUnits.NONE,
+                pool::getWaitCount, tag);
+        registerGauge("wait-time", "Total time spent waiting for a tokenizer", MetricUnits.NANOSECONDS,
+                pool::getWaitNanos, tag);
+    }
+
+    private void registerGauge(String name, String description, String unit, Gauge<? extends Number> gauge,
+                               Tag tag) {
+        var metadata = Metadata.builder()
+                .withName("taxman.analysis.tokenizer-pool." + name)
+                .withDescription(description)
+                .withType(MetricType.GAUGE)
+                .withUnit(unit)
+                .build();
+
+        metrics.register(metadata, gauge, tag);
     }
 }
@@ -29,7 +29,8 @@ public final class Rfc7807WebApplicationExceptionMapper
                         .add("status", type.getStatusCode())
                         .build();
 
-        return Response.status(type.getStatusCode())
+        // Keep headers such as Retry-After that tell the client how to recover.
+        return Response.fromResponse(response)
                 .type("application/problem+json")
                 .entity(problemJson)
                 .build();
@@ -0,0 +1,67 @@
+package com.digirati.taxman.rest.server.infrastructure.event;
+
+import com.digirati.taxman.analysis.index.Term;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * The labels by language a number of concepts should be indexed under after a bulk change, grouped by project so
+ * that a receiver can update the index of every project in one go, and so that project identifiers are only sent
+ * once.
+ *
+ * <p>A bulk import changes too many concepts to send their labels, so it only names the projects it imported into,
+ * and receivers read the changes from the change log instead.
+ *
+ * @see ConceptChangeCodec
+ */
+public class ConceptChangeBatch {
+    private final Map<String, Map<UUID, Map<String, List<Term>>>> labelsByProject;
+    private final Set<String> importedProjects;
+
+    public ConceptChangeBatch(Iterable<ConceptChangeEvent> events) {
+        labelsByProject = new HashMap<>();
+        importedProjects = Set.of();
+
+        for (var event : events) {
+            labelsByProject.computeIfAbsent(event.getProjectId(), project -> new HashMap<>())
+                    .put(event.getUuid(), event.getLabels());
+        }
+    }
+
+    public ConceptChangeBatch(Map<String, Map<UUID, Map<String, List<Term>>>> labelsByProject) {
+        this.labelsByProject = labelsByProject;
+        this.importedProjects = Set.of();
+    }
+
+    private ConceptChangeBatch(Set<String> importedProjects) {
+        this.labelsByProject = Map.of();
+        this.importedProjects = importedProjects;
+    }
+
+    /**
+     * Create a batch announcing a bulk import into some projects.
+     */
+    public static ConceptChangeBatch imported(Collection<String> projects) {
+        return new ConceptChangeBatch(Set.copyOf(projects));
+    }
+
+    public Map<String, Map<UUID, Map<String, List<Term>>>> getLabelsByProject() {
+        return labelsByProject;
+    }
+
+    /**
+     * Get the projects concepts were imported into in bulk, whose changes must be read from the change log.
+     */
+    public Set<String> getImportedProjects() {
+        return importedProjects;
+    }
+
+    public int size() {
+        return labelsByProject.values().stream().mapToInt(Map::size).sum();
+    }
+}
@@ -0,0 +1,294 @@
+package com.digirati.taxman.rest.server.infrastructure.event;
+
+import com.digirati.taxman.analysis.index.Term;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Encodes {@link ConceptChangeBatch}es as the payload of cluster messages.
+ *
+ * <p>A message starts with a format version and a flags byte, followed by the body: the number of projects, and for
+ * every project its slug and the number of concepts, each written as its UUID and the number of languages it has
+ * labels in, followed by the code and labels of every language, each label written as its text and weight. Counts
+ * and weights are unsigned varints, UUIDs are two longs, and strings are length-prefixed UTF-8. Bodies of
+ * {@link #COMPRESSION_THRESHOLD} bytes or more are deflated if that makes them smaller, in which case the body is
+ * preceded by its inflated length.
+ *
+ * <p>The body of a bulk import, flagged as such, is only the number of projects imported into and their slugs.
+ */
+final class ConceptChangeCodec {
+
+    static final byte VERSION = 4;
+
+    /**
+     * The body size from which compression is attempted. Label sets of a handful of concepts rarely compress well
+     * enough to be worth the time.
+     */
+    static final int COMPRESSION_THRESHOLD = 1024;
+
+    private static final int MAX_DEFLATE_RATIO = 1032;
+
+    private static final int FLAG_DEFLATED = 1;
+
+    private static final int FLAG_IMPORTED = 2;
+
+    private ConceptChangeCodec() {
+    }
+
+    static byte[] encode(ConceptChangeBatch batch) {
+        var importedProjects = batch.getImportedProjects();
+        if (!importedProjects.isEmpty()) {
+            var message = new Output();
+            message.write(VERSION);
+            message.write(FLAG_IMPORTED);
+            message.writeVarInt(importedProjects.size());
+            importedProjects.forEach(message::writeString);
+
+            return message.toByteArray();
+        }
+
+        var body = new Output();
+        var labelsByProject = batch.getLabelsByProject();
+
+        body.writeVarInt(labelsByProject.size());
+        labelsByProject.forEach((project, labelsByConcept) -> {
+            body.writeString(project);
+            body.writeVarInt(labelsByConcept.size());
+
+            labelsByConcept.forEach((uuid, labelsByLanguage) -> {
+                body.writeLong(uuid.getMostSignificantBits());
+                body.writeLong(uuid.getLeastSignificantBits());
+                body.writeVarInt(labelsByLanguage.size());
+
+                labelsByLanguage.forEach((language, labels) -> {
+                    body.writeString(language);
+                    body.writeVarInt(labels.size());
+                    labels.forEach(label -> {
+                        body.writeString(label.getText());
+                        body.writeVarInt(label.getWeight());
+                    });
+                });
+            });
+        });
+
+        var message = new Output();
+        message.write(VERSION);
+
+        if (body.size() >= COMPRESSION_THRESHOLD) {
+            var deflated = deflate(body.toByteArray());
+            if (deflated.length < body.size()) {
+                message.write(FLAG_DEFLATED);
+                message.writeVarInt(body.size());
+                message.write(deflated, 0, deflated.length);
+
+                return message.toByteArray();
+            }
+        }
+
+        message.write(0);
+        message.append(body);
+
+        return message.toByteArray();
+    }
+
+    /**
+     * Decode a message.
+     *
+     * @throws IllegalArgumentException if the message is malformed or of an unsupported version.
+     */
+    static ConceptChangeBatch decode(byte[] buffer, int offset, int length) {
+        try {
+            var message = ByteBuffer.wrap(buffer, offset, length);
+            var version = message.get();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported concept change message version: " + version);
+            }
+
+            var flags = message.get();
+            if ((flags & FLAG_IMPORTED) != 0) {
+                return decodeImported(message);
+            }
+
+            var body = (flags & FLAG_DEFLATED) != 0 ? inflate(message, readVarInt(message)) : message;
+
+            int projectCount = readVarInt(body);
+            var labelsByProject = new HashMap<String, Map<UUID, Map<String, List<Term>>>>(capacity(projectCount));
+
+            for (int project = 0; project < projectCount; project++) {
+                var slug = readString(body);
+                int conceptCount = readVarInt(body);
+                var labelsByConcept = new HashMap<UUID, Map<String, List<Term>>>(capacity(conceptCount));
+
+                for (int concept = 0; concept < conceptCount; concept++) {
+                    var uuid = new UUID(body.getLong(), body.getLong());
+                    int languageCount = readVarInt(body);
+                    var labelsByLanguage = new HashMap<String, List<Term>>(capacity(languageCount));
+
+                    for (int language = 0; language < languageCount; language++) {
+                        var code = readString(body);
+                        int labelCount = readVarInt(body);
+                        var labels = new ArrayList<Term>(Math.min(labelCount, body.remaining()));
+
+                        for (int label = 0; label < labelCount; label++) {
+                            labels.add(new Term(readString(body), readVarInt(body)));
+                        }
+
+                        labelsByLanguage.put(code, labels);
+                    }
+
+                    labelsByConcept.put(uuid, labelsByLanguage);
+                }
+
+                labelsByProject.put(slug, labelsByConcept);
+            }
+
+            return new ConceptChangeBatch(labelsByProject);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Truncated concept change message", e);
+        }
+    }
+
+    private static ConceptChangeBatch decodeImported(ByteBuffer body) {
+        int projectCount = readVarInt(body);
+        var projects = new ArrayList<String>(Math.min(projectCount, body.remaining()));
+
+        for (int project = 0; project < projectCount; project++) {
+            projects.add(readString(body));
+        }
+
+        return ConceptChangeBatch.imported(projects);
+    }
+
+    private static byte[] deflate(byte[] body) {
+        var deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(body);
+            deflater.finish();
+
+            var output = new Output();
+            var chunk = new byte[Math.max(64, body.length / 2)];
+            while (!deflater.finished()) {
+                output.write(chunk, 0, deflater.deflate(chunk));
+            }
+
+            return output.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Inflate a body into a buffer that grows as it is filled, so that a malformed length cannot exhaust the heap.
+     */
+    private static ByteBuffer inflate(ByteBuffer message, int length) {
+        // Deflate cannot compress by more than about 1032:1, so no valid body claims a greater length.
+        if (length > (long) message.remaining() * MAX_DEFLATE_RATIO) {
+            throw new IllegalArgumentException("Corrupt concept change message");
+        }
+
+        var inflater = new Inflater();
+        try {
+            inflater.setInput(message.array(), message.arrayOffset() + message.position(), message.remaining());
+
+            var body = new Output();
+            var chunk = new byte[Math.min(length, Math.max(64, message.remaining() * 4))];
+            while (body.size() < length && !inflater.finished()) {
+                int inflated = inflater.inflate(chunk, 0, Math.min(chunk.length, length - body.size()));
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+
+                body.write(chunk, 0, inflated);
+            }
+
+            if (body.size() != length || !inflater.finished()) {
+                throw new IllegalArgumentException("Corrupt concept change message");
+            }
+
+            return ByteBuffer.wrap(body.toByteArray());
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Corrupt concept change message", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static int readVarInt(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; shift < Integer.SIZE; shift += 7) {
+            byte next = buffer.get();
+            value |= (next & 0x7f) << shift;
+
+            if (next >= 0 && value >= 0) {
+                return value;
+            } else if (next >= 0) {
+                break;
+            }
+        }
+
+        throw new IllegalArgumentException("Malformed length in concept change message");
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = readVarInt(buffer);
+        var offset = buffer.arrayOffset() + buffer.position();
+        var value = new String(buffer.array(), offset, length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+
+        return value;
+    }
+
+    /**
+     * The initial capacity of a hash map of a given size, bounded so that a malformed count cannot exhaust the heap.
+     */
+    private static int capacity(int size) {
+        return (int) Math.min(1 << 16, size / 0.75f + 1);
+    }
+
+    /**
+     * A byte array output stream with the primitive writes needed by the format, without the checked exceptions of
+     * a {@code DataOutputStream}.
+     */
+    private static final class Output extends ByteArrayOutputStream {
+
+        Output() {
+            super(256);
+        }
+
+        void writeVarInt(int value) {
+            while ((value & ~0x7f) != 0) {
+                write((value & 0x7f) | 0x80);
+                value >>>= 7;
+            }
+
+            write(value);
+        }
+
+        void writeLong(long value) {
+            for (int shift = Long.SIZE - Byte.SIZE; shift >= 0; shift -= Byte.SIZE) {
+                write((int) (value >>> shift));
+            }
+        }
+
+        void writeString(String value) {
+            var bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(bytes.length);
+            write(bytes, 0, bytes.length);
+        }
+
+        void append(Output other) {
+            write(other.buf, 0, other.count);
+        }
+    }
+}
@@ -1,20 +1,25 @@
 package com.digirati.taxman.rest.server.infrastructure.event;
 
+import com.digirati.taxman.analysis.index.Term;
+
 import java.io.Serializable;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
+/**
+ * The labels a concept should be indexed under after a change, by language. A concept with no labels, e.g. because
+ * it was deleted, is removed from the index.
+ */
 public class ConceptChangeEvent implements Serializable {
     private final UUID uuid;
     private final String projectId;
-    private final List<String> added;
-    private final List<String> removed;
+    private final Map<String, List<Term>> labels;
 
-    public ConceptChangeEvent(UUID uuid, String projectId, List<String> added, List<String> removed) {
+    public ConceptChangeEvent(UUID uuid, String projectId, Map<String, List<Term>> labels) {
         this.uuid = uuid;
         this.projectId = projectId;
-        this.added = added;
-        this.removed = removed;
+        this.labels = labels;
     }
 
     public UUID getUuid() {
@@ -25,11 +30,7 @@ public class ConceptChangeEvent implements Serializable {
         return projectId;
     }
 
-    public List<String> getAdded() {
-        return added;
-    }
-
-    public List<String> getRemoved() {
-        return removed;
+    public Map<String, List<Term>> getLabels() {
+        return labels;
     }
 }
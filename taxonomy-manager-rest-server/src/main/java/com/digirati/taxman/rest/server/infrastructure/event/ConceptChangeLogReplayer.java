@@ -0,0 +1,277 @@
+package com.digirati.taxman.rest.server.infrastructure.event;
+
+import com.digirati.taxman.analysis.WordTokenSearchEntry;
+import com.digirati.taxman.analysis.index.MultilingualTermIndex;
+import com.digirati.taxman.rest.server.analysis.ConceptIndexLabels;
+import com.digirati.taxman.rest.server.analysis.ParallelLabelTokenizer;
+import com.digirati.taxman.rest.server.analysis.TermIndexWarmup;
+import com.digirati.taxman.rest.server.taxonomy.graph.ConceptGraphService;
+import com.digirati.taxman.rest.server.taxonomy.storage.ConceptDao;
+import com.digirati.taxman.rest.server.taxonomy.storage.ConceptDataSetCache;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies the concept change log to the term index, concept cache and concept graph, so that a node converges on the
+ * stored concepts even if it missed some change events, e.g. while it was restarting or cut off from the cluster.
+ *
+ * <p>The log is replayed from the last sequence number applied: once when the index has been built, after every
+ * change of cluster view, and periodically. A replay applies the current labels of every concept changed since, so
+ * applying a change twice is harmless. Sequence numbers are taken before a change is committed, so the sequence
+ * number only advances past changes older than the settle time, and more recent ones are replayed again.
+ *
+ * <p>The changed concepts are streamed from the database, with only their labels unless some project indexes other
+ * properties, and their labels are tokenized in parallel as they are read, like when the index is built. A replay
+ * of many changes, e.g. after restoring an old snapshot, is not bound to a single thread.
+ *
+ * <p>Changes older than {@code taxman.analysis.change-log.retention} are pruned from the log every
+ * {@code taxman.analysis.change-log.prune-interval}. An index up to date with a sequence number older than the
+ * pruned changes can't catch up by replaying the log, see {@link #isReplayableFrom(long)}.
+ */
+@ApplicationScoped
+public class ConceptChangeLogReplayer {
+    private static final Logger logger = LoggerFactory.getLogger(ConceptChangeLogReplayer.class);
+
+    @ConfigProperty(name = "taxman.analysis.change-log.replay-interval", defaultValue = "PT1M")
+    Duration replayInterval;
+
+    @ConfigProperty(name = "taxman.analysis.change-log.settle-time", defaultValue = "PT1M")
+    Duration settleTime;
+
+    @ConfigProperty(name = "taxman.analysis.change-log.retention", defaultValue = "P7D")
+    Duration retention;
+
+    @ConfigProperty(name = "taxman.analysis.change-log.prune-interval", defaultValue = "PT1H")
+    Duration pruneInterval;
+
+    @ConfigProperty(name = "taxman.analysis.snapshot.interval", defaultValue = "PT5M")
+    Duration snapshotInterval;
+
+    @ConfigProperty(name = "taxman.analysis.thread-pool-size", defaultValue = "16")
+    int threadPoolSize;
+
+    @Inject
+    MultilingualTermIndex<String, UUID> termIndex;
+
+    @Inject
+    ConceptDao conceptDao;
+
+    @Inject
+    TermIndexWarmup indexWarmup;
+
+    @Inject
+    ConceptIndexLabels indexLabels;
+
+    @Inject
+    ConceptGraphService conceptGraph;
+
+    @Inject
+    ConceptDataSetCache cache;
+
+    private ScheduledExecutorService executor;
+
+    /**
+     * Tokenizes the labels of replayed changes. Its threads are started by the first replay with labels to tokenize
+     * and stop when idle, as most replays have none.
+     */
+    private ThreadPoolExecutor tokenizerExecutor;
+
+    /**
+     * Held while replaying, instead of {@code this}, so {@link #replayLater()} never waits for a replay.
+     */
+    private final Object replayLock = new Object();
+
+    /**
+     * The sequence number up to which every change has been applied, or -1 before replaying starts.
+     */
+    private volatile long appliedSequence = -1;
+
+    @PostConstruct
+    void createTokenizerExecutor() {
+        tokenizerExecutor = new ThreadPoolExecutor(threadPoolSize, threadPoolSize, 1, TimeUnit.MINUTES,
+                new LinkedBlockingQueue<>(), new ThreadFactoryBuilder()
+                        .setDaemon(true)
+                        .setNameFormat("concept-change-log-tokenizer-%d")
+                        .build());
+        tokenizerExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    synchronized void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+
+        tokenizerExecutor.shutdownNow();
+    }
+
+    /**
+     * Get the greatest sequence number in the change log that changes are known to be committed up to, to record
+     * before building the term index from every concept.
+     */
+    public long getSettledSequence() {
+        return conceptDao.getSettledChangeSequence(settleTime);
+    }
+
+    /**
+     * Get the sequence number up to which every change has been applied to the term index.
+     */
+    public long getAppliedSequence() {
+        return appliedSequence;
+    }
+
+    /**
+     * Check whether an index up to date with the given sequence number can catch up by replaying the change log, or
+     * has to be rebuilt because changes after it have been pruned.
+     */
+    public boolean isReplayableFrom(long sequence) {
+        return sequence >= conceptDao.getPrunedChangeSequence();
+    }
+
+    /**
+     * Get the period changes are kept in the log for. A running node applies changes once they are older than the
+     * settle time, at most a replay interval later, and its snapshot lags by up to a snapshot interval, so a shorter
+     * configured retention is extended to cover all three.
+     */
+    Duration getRetention() {
+        var minimum = settleTime.plus(replayInterval).plus(snapshotInterval);
+        return retention.compareTo(minimum) < 0 ? minimum : retention;
+    }
+
+    /**
+     * Replay the changes made since the term index was built or saved, then keep replaying periodically.
+     *
+     * @param sequence The sequence number the term index is up to date with.
+     */
+    public synchronized void start(long sequence) {
+        if (executor != null) {
+            return;
+        }
+
+        appliedSequence = sequence;
+        replay();
+
+        executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("concept-change-log-replayer-%d")
+                .build());
+
+        var millis = replayInterval.toMillis();
+        executor.scheduleWithFixedDelay(this::replayLogged, millis, millis, TimeUnit.MILLISECONDS);
+
+        var pruneMillis = pruneInterval.toMillis();
+        executor.scheduleWithFixedDelay(this::pruneLogged, pruneMillis, pruneMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Replay the change log in the background, if replaying has started.
+     */
+    public synchronized void replayLater() {
+        if (executor != null) {
+            executor.execute(this::replayLogged);
+        }
+    }
+
+    /**
+     * Apply every change made since the last replay.
+     */
+    public void replay() {
+        synchronized (replayLock) {
+            long start = appliedSequence;
+            if (start < 0) {
+                return;
+            }
+
+            // Sample the settled sequence number before reading the changes, so nothing before it can be missed.
+            var settled = conceptDao.getSettledChangeSequence(settleTime);
+            var uuidsByProject = new HashMap<String, Set<UUID>>();
+            var entriesByProject = tokenizeChangesSince(start, uuidsByProject);
+
+            uuidsByProject.forEach((project, uuids) -> {
+                indexWarmup.replaceAllTokenized(project, uuids, entriesByProject.getOrDefault(project, Map.of()));
+                cache.invalidateAll(uuids);
+                conceptGraph.refreshLater(uuids);
+            });
+            appliedSequence = Math.max(start, settled);
+
+            int changes = uuidsByProject.values().stream().mapToInt(Set::size).sum();
+            if (changes > 0) {
+                logger.info("Replayed {} concept changes after sequence number {}", changes, start);
+            }
+        }
+    }
+
+    /**
+     * Stream the concepts changed after a sequence number from the database and tokenize their labels on
+     * {@code taxman.analysis.thread-pool-size} threads, as they are read.
+     *
+     * @param uuidsByProject Receives the identity of every changed concept by project, including deleted ones.
+     * @return The tokenized labels of the concepts that are not deleted, by project and language.
+     */
+    private Map<String, Map<String, List<WordTokenSearchEntry<UUID>>>> tokenizeChangesSince(
+            long sequence, Map<String, Set<UUID>> uuidsByProject) {
+        var tokenizer = new ParallelLabelTokenizer(termIndex, tokenizerExecutor, labels -> { });
+
+        // Notes are only read if some project indexes them, as they make up most of the size of a concept.
+        var changes = indexLabels.isLabelsOnly()
+                ? conceptDao.loadLabelRecordsChangedSince(sequence)
+                : conceptDao.loadRecordsChangedSince(sequence);
+
+        try (var conceptChanges = changes) {
+            conceptChanges.forEach(change -> {
+                var record = change.getRecord();
+                uuidsByProject.computeIfAbsent(record.getProjectId(), project -> new LinkedHashSet<>())
+                        .add(record.getUuid());
+
+                if (!change.isDeleted()) {
+                    tokenizer.add(record.getProjectId(), record.getUuid(), indexLabels.extract(record));
+                }
+            });
+        }
+
+        return tokenizer.finish();
+    }
+
+    /**
+     * Delete the changes older than the retention period from the change log.
+     */
+    public void prune() {
+        var pruned = conceptDao.pruneChangeLog(getRetention());
+        logger.debug("Pruned the concept change log up to sequence number {}", pruned);
+    }
+
+    private void pruneLogged() {
+        try {
+            prune();
+        } catch (RuntimeException e) {
+            logger.warn("Unable to prune the concept change log", e);
+        }
+    }
+
+    private void replayLogged() {
+        try {
+            replay();
+        } catch (RuntimeException e) {
+            logger.warn("Unable to replay the concept change log", e);
+        }
+    }
+}
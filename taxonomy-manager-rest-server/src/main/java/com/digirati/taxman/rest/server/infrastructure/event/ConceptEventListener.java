@@ -1,104 +1,137 @@
 package com.digirati.taxman.rest.server.infrastructure.event;
 
-import com.digirati.taxman.analysis.index.TermIndex;
-import com.digirati.taxman.common.taxonomy.ConceptLabelExtractor;
-import com.digirati.taxman.common.taxonomy.ConceptModel;
+import com.digirati.taxman.analysis.index.Term;
+import com.digirati.taxman.rest.server.analysis.TermIndexWarmup;
+import com.digirati.taxman.rest.server.taxonomy.graph.ConceptGraphService;
+import com.digirati.taxman.rest.server.taxonomy.storage.ConceptDataSetCache;
 import io.quarkus.runtime.StartupEvent;
-import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jgroups.JChannel;
 import org.jgroups.Message;
 import org.jgroups.ReceiverAdapter;
+import org.jgroups.View;
 import org.jgroups.util.MessageBatch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.enterprise.event.Observes;
 import javax.inject.Inject;
-import java.util.ArrayList;
-import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
-import java.util.function.Consumer;
 
 /**
  * Listener to respond to changes in the state of a concept.
+ *
+ * <p>Changes are published to every member of the cluster by the {@link ConceptEventRelay} once they have been
+ * committed, as byte arrays encoded by {@link ConceptChangeCodec}. Bulk imports publish one event per project
+ * themselves, which is applied by replaying the {@link ConceptChangeLogReplayer change log}.
  */
 @ApplicationScoped
 public class ConceptEventListener extends ReceiverAdapter {
+    private static final Logger logger = LoggerFactory.getLogger(ConceptEventListener.class);
+
     @Inject
     JChannel channel;
 
-    @ConfigProperty(name = "taxman.analysis.default-lang.key", defaultValue = "en")
-    String defaultLanguageKey;
+    @Inject
+    TermIndexWarmup indexWarmup;
+
+    @Inject
+    ConceptChangeLogReplayer changeLogReplayer;
+
+    @Inject
+    ConceptGraphService conceptGraph;
 
     @Inject
-    TermIndex<String, UUID> index;
+    ConceptDataSetCache cache;
 
     protected void init(@Observes StartupEvent evt) throws Exception {
         channel.setReceiver(this);
     }
 
+    /**
+     * Catch up with the change log whenever the cluster view changes, as this node may have been cut off from the
+     * members that sent events in the meantime.
+     */
     @Override
-    public void receive(Message msg) {
-        handle(msg.getObject());
+    public void viewAccepted(View view) {
+        changeLogReplayer.replayLater();
     }
 
-    public void receive(MessageBatch batch) {
-        for (Message msg : batch) {
-            handle(msg.getObject(ConceptChangeEvent.class.getClassLoader()));
-        }
-    }
+    @Override
+    public void receive(Message msg) {
+        decode(msg).ifPresent(batch -> {
+            if (!batch.getImportedProjects().isEmpty()) {
+                logImport(batch);
+                changeLogReplayer.replayLater();
+            }
 
-    public void notify(ConceptEvent event)  {
-        ConceptModel previous = event.getPrevious();
-        List<String> removed = new ArrayList<>();
-        UUID uuid = null;
-        String project = null;
+            batch.getLabelsByProject().forEach(indexWarmup::replaceAll);
+            batch.getLabelsByProject().values().forEach(labels -> {
+                cache.invalidateAll(labels.keySet());
+                conceptGraph.refreshLater(labels.keySet());
+            });
+        });
+    }
 
-        if (previous != null) {
-            project = previous.getProjectId();
-            uuid = previous.getUuid();
-            consumeLabels(previous, removed::add);
-        }
+    /**
+     * Apply a batch of messages. Each change carries the complete set of labels for a concept, so only the
+     * last change of every concept needs to be applied, and the index is updated once per project. The changed
+     * concepts are evicted from the {@link ConceptDataSetCache}, and their relations read again for the
+     * {@link ConceptGraphService}. Bulk imports only name their projects, so the change log is replayed instead,
+     * once for the whole batch.
+     */
+    public void receive(MessageBatch batch) {
+        Map<String, Map<UUID, Map<String, List<Term>>>> labelsByProject = new HashMap<>();
+        boolean imported = false;
 
-        List<String> added = new ArrayList<>();
-        ConceptModel current = event.getConcept();
+        for (Message msg : batch) {
+            var changes = decode(msg);
+            if (changes.isEmpty()) {
+                continue;
+            }
 
-        if (current != null) {
-            if (project == null) {
-                project = current.getProjectId();
+            if (!changes.get().getImportedProjects().isEmpty()) {
+                logImport(changes.get());
+                imported = true;
             }
 
-            uuid = current.getUuid();
-            consumeLabels(current, added::add);
+            changes.get().getLabelsByProject().forEach((project, labels) ->
+                    labelsByProject.computeIfAbsent(project, key -> new LinkedHashMap<>()).putAll(labels));
         }
 
-        ConceptChangeEvent changeEvent = new ConceptChangeEvent(uuid, project, added, removed);
-        try {
-            channel.send(new Message(/* null = all in the cluster */ null, changeEvent));
-        } catch (Exception ex) {
-            throw new RuntimeException(ex);
+        if (imported) {
+            changeLogReplayer.replayLater();
         }
-    }
 
-    public void handle(ConceptChangeEvent event) {
-        var uuid = event.getUuid();
-        String projectId = event.getProjectId();
-
-        for (String added : event.getAdded()) {
-            index.add(projectId, uuid, added);
-        }
+        labelsByProject.forEach((projectId, labels) -> {
+            indexWarmup.replaceAll(projectId, labels);
+            cache.invalidateAll(labels.keySet());
+            conceptGraph.refreshLater(labels.keySet());
+        });
+    }
 
-        for (String removed : event.getRemoved()) {
-            index.remove(uuid, removed);
-        }
+    private void logImport(ConceptChangeBatch batch) {
+        logger.info("Replaying the concept change log after an import into {}", batch.getImportedProjects());
     }
 
-    private void consumeLabels(ConceptModel concept, Consumer<String> consumer) {
-        var labelExtractor = new ConceptLabelExtractor(concept);
+    /**
+     * Send a batch of changes to every member of the cluster, including this one.
+     */
+    public void publish(ConceptChangeBatch batch) throws Exception {
+        channel.send(new Message(/* null = all in the cluster */ null, ConceptChangeCodec.encode(batch)));
+    }
 
-        labelExtractor.extractTo((property, literal) -> {
-            Collection<String> values = literal.get(defaultLanguageKey);
-            values.forEach(consumer::accept);
-        });
+    private Optional<ConceptChangeBatch> decode(Message msg) {
+        try {
+            return Optional.of(ConceptChangeCodec.decode(msg.getRawBuffer(), msg.getOffset(), msg.getLength()));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Ignoring malformed concept change message from {}", msg.getSrc(), e);
+            return Optional.empty();
+        }
     }
 }
@@ -0,0 +1,210 @@
+package com.digirati.taxman.rest.server.infrastructure.event;
+
+import com.digirati.taxman.analysis.index.Term;
+import com.digirati.taxman.rest.server.analysis.ConceptIndexLabels;
+import com.digirati.taxman.rest.server.taxonomy.storage.ConceptDao;
+import com.digirati.taxman.rest.server.taxonomy.storage.record.ConceptChangeRecord;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.agroal.api.AgroalDataSource;
+import io.quarkus.runtime.ShutdownEvent;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.metrics.Histogram;
+import org.eclipse.microprofile.metrics.Metadata;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.MetricType;
+import org.eclipse.microprofile.metrics.MetricUnits;
+import org.eclipse.microprofile.metrics.annotation.RegistryType;
+import org.postgresql.PGConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+import javax.transaction.Status;
+import javax.transaction.TransactionManager;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Publishes the concept changes queued in the {@code concept_event_outbox} table to the cluster.
+ *
+ * <p>Changes are queued in the same transaction as the change itself, so requests never wait for the cluster, and
+ * events are never sent for changes that are rolled back. The relay waits for a notification on the
+ * {@code concept_event_outbox} channel, sent when a transaction that queued changes commits, and polls the outbox
+ * regardless every {@code taxman.events.relay.poll-interval}, in case a notification was missed. Every node runs a
+ * relay: entries are claimed in a transaction that only commits once they have been sent, so each is published by
+ * one node, at least once.
+ */
+@ApplicationScoped
+public class ConceptEventRelay {
+    private static final Logger logger = LoggerFactory.getLogger(ConceptEventRelay.class);
+
+    /**
+     * The greatest number of outbox entries published in one message, to keep messages of large imports a
+     * manageable size.
+     */
+    static final int BATCH_SIZE = 1000;
+
+    private static final String CHANNEL = "concept_event_outbox";
+
+    @ConfigProperty(name = "taxman.events.relay.poll-interval", defaultValue = "PT5S")
+    Duration pollInterval;
+
+    @Inject
+    AgroalDataSource dataSource;
+
+    @Inject
+    TransactionManager transactionManager;
+
+    @Inject
+    ConceptDao conceptDao;
+
+    @Inject
+    ConceptEventListener eventListener;
+
+    @Inject
+    ConceptIndexLabels indexLabels;
+
+    @Inject
+    @RegistryType(type = MetricRegistry.Type.APPLICATION)
+    MetricRegistry metrics;
+
+    private Histogram propagationTime;
+
+    private Thread thread;
+
+    private volatile boolean running;
+
+    /**
+     * Start publishing the outbox in the background.
+     */
+    public synchronized void start() {
+        if (thread != null) {
+            return;
+        }
+
+        propagationTime = metrics.histogram(Metadata.builder()
+                .withName("taxman.events.propagation-time")
+                .withDescription("Time from a concept change to its publication to the cluster")
+                .withType(MetricType.HISTOGRAM)
+                .withUnit(MetricUnits.MILLISECONDS)
+                .build());
+
+        running = true;
+        thread = new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("concept-event-relay-%d")
+                .build()
+                .newThread(this::run);
+
+        thread.start();
+    }
+
+    void onShutdown(@Observes ShutdownEvent event) {
+        synchronized (this) {
+            if (thread == null) {
+                return;
+            }
+
+            running = false;
+            thread.interrupt();
+            thread = null;
+        }
+    }
+
+    private void run() {
+        while (running) {
+            try (var connection = dataSource.getConnection()) {
+                try (var statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+
+                var notifications = connection.unwrap(PGConnection.class);
+                while (running) {
+                    relayAll();
+                    notifications.getNotifications(Math.toIntExact(pollInterval.toMillis()));
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+
+                logger.warn("Unable to relay concept events, retrying in {}", pollInterval, e);
+                sleep();
+            }
+        }
+    }
+
+    /**
+     * Publish outbox entries until it is empty, or until publishing fails, leaving the entries for the next attempt.
+     */
+    private void relayAll() {
+        try {
+            List<ConceptChangeRecord> relayed;
+            do {
+                relayed = relay();
+
+                var now = Instant.now();
+                for (var change : relayed) {
+                    propagationTime.update(Duration.between(change.getChangedAt(), now).toMillis());
+                }
+            } while (running && !relayed.isEmpty());
+        } catch (Exception e) {
+            logger.warn("Unable to publish concept events, retrying in {}", pollInterval, e);
+        }
+    }
+
+    /**
+     * Claim a batch of outbox entries and publish them, committing the claim once they have been sent.
+     *
+     * @return the published changes, or an empty list if the outbox was empty
+     */
+    List<ConceptChangeRecord> relay() throws Exception {
+        List<ConceptChangeRecord> changes;
+
+        transactionManager.begin();
+        try {
+            changes = conceptDao.claimOutboxRecords(BATCH_SIZE);
+            if (!changes.isEmpty()) {
+                eventListener.publish(toBatch(changes));
+            }
+
+            transactionManager.commit();
+        } catch (Exception e) {
+            if (transactionManager.getStatus() != Status.STATUS_NO_TRANSACTION) {
+                transactionManager.rollback();
+            }
+
+            throw e;
+        }
+
+        return changes;
+    }
+
+    private ConceptChangeBatch toBatch(List<ConceptChangeRecord> changes) {
+        var events = new ArrayList<ConceptChangeEvent>(changes.size());
+
+        for (var change : changes) {
+            var record = change.getRecord();
+            var labels = change.isDeleted() ? Map.<String, List<Term>>of() : indexLabels.extract(record);
+
+            events.add(new ConceptChangeEvent(record.getUuid(), record.getProjectId(), labels));
+        }
+
+        return new ConceptChangeBatch(events);
+    }
+
+    private void sleep() {
+        try {
+            Thread.sleep(pollInterval.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.digirati.taxman.rest.server.infrastructure.health;
+
+import com.digirati.taxman.rest.server.analysis.TermIndexWarmup;
+import org.eclipse.microprofile.health.HealthCheck;
+import org.eclipse.microprofile.health.HealthCheckResponse;
+import org.eclipse.microprofile.health.Readiness;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+/**
+ * Reports the progress of the term index build.
+ *
+ * <p>The check is always up: only text analysis needs the term index, and it answers 503 with a Retry-After header
+ * until the index is built. Everything else can serve requests while the index is warming up, so the warm-up must
+ * not keep the server out of service, or get it restarted by a liveness probe.
+ */
+@Readiness
+@ApplicationScoped
+public class TermIndexReadinessCheck implements HealthCheck {
+
+    @Inject
+    TermIndexWarmup indexWarmup;
+
+    @Override
+    public HealthCheckResponse call() {
+        var response = HealthCheckResponse.named("term-index")
+                .up()
+                .withData("status", indexWarmup.getStatus().name().toLowerCase())
+                .withData("attempts", indexWarmup.getAttempts())
+                .withData("projects", indexWarmup.getProjects())
+                .withData("projectsDone", indexWarmup.getProjectsDone())
+                .withData("labelsDone", indexWarmup.getLabelsDone());
+
+        var failure = indexWarmup.getFailure();
+        if (failure != null) {
+            response.withData("error", String.valueOf(failure.getMessage()));
+        }
+
+        return response.build();
+    }
+}
@@ -1,10 +1,14 @@
 package com.digirati.taxman.rest.server.infrastructure.lifecycle;
 
-import com.digirati.taxman.analysis.index.TermIndex;
-import com.digirati.taxman.common.taxonomy.ConceptLabelExtractor;
+import com.digirati.taxman.analysis.index.MultilingualTermIndex;
+import com.digirati.taxman.rest.server.analysis.ConceptIndexLabels;
+import com.digirati.taxman.rest.server.analysis.TermIndexWarmup;
 import com.digirati.taxman.rest.server.infrastructure.config.TaxonomyIndexConfig;
+import com.digirati.taxman.rest.server.infrastructure.event.ConceptChangeLogReplayer;
+import com.digirati.taxman.rest.server.infrastructure.event.ConceptEventRelay;
+import com.digirati.taxman.rest.server.taxonomy.graph.ConceptGraphService;
 import com.digirati.taxman.rest.server.taxonomy.storage.ConceptDao;
-import com.digirati.taxman.rest.server.taxonomy.storage.record.ConceptRecord;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import io.quarkus.runtime.StartupEvent;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.flywaydb.core.Flyway;
@@ -14,51 +18,130 @@ import org.slf4j.LoggerFactory;
 import javax.enterprise.context.ApplicationScoped;
 import javax.enterprise.event.Observes;
 import javax.inject.Inject;
-import java.util.Collection;
-import java.util.HashMap;
+import java.time.Duration;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 @ApplicationScoped
 public class AppInitListener {
     private static final Logger logger = LoggerFactory.getLogger(TaxonomyIndexConfig.class);
 
-    @ConfigProperty(name = "taxman.analysis.default-lang.key", defaultValue = "en")
-    String defaultLanguageKey;
-
     @ConfigProperty(name = "taxman.analysis.default-lang.name", defaultValue = "english")
     String defaultLanguageName;
 
+    @ConfigProperty(name = "taxman.analysis.thread-pool-size", defaultValue = "16")
+    int threadPoolSize;
+
+    @ConfigProperty(name = "taxman.analysis.warm-up.retry-delay", defaultValue = "PT10S")
+    Duration retryDelay;
+
+    @ConfigProperty(name = "taxman.analysis.warm-up.max-retry-delay", defaultValue = "PT5M")
+    Duration maxRetryDelay;
+
     @Inject
     ConceptDao conceptDao;
 
     @Inject
-    TermIndex<String, UUID> termIndex;
+    MultilingualTermIndex<String, UUID> termIndex;
 
     @Inject
     Flyway flyway;
 
+    @Inject
+    TermIndexSnapshotScheduler snapshotScheduler;
+
+    @Inject
+    TermIndexWarmup indexWarmup;
+
+    @Inject
+    ConceptIndexLabels indexLabels;
+
+    @Inject
+    ConceptChangeLogReplayer changeLogReplayer;
+
+    @Inject
+    ConceptEventRelay eventRelay;
+
+    @Inject
+    ConceptGraphService conceptGraph;
+
     void onStartup(@Observes StartupEvent event) {
         flyway.baseline();
         flyway.migrate();
+        eventRelay.start();
+
+        // Only analysis needs the term index, so build it in the background and let everything else start serving.
+        var threadFactory = new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("term-index-warmup-%d")
+                .build();
+
+        threadFactory.newThread(this::warmUp).start();
+        threadFactory.newThread(this::loadConceptGraph).start();
+    }
+
+    private void loadConceptGraph() {
+        try {
+            conceptGraph.load();
+        } catch (RuntimeException e) {
+            logger.error("Failed to load concept graph, relationships will be queried from the database", e);
+        }
+    }
+
+    /**
+     * Build or restore the term index, retrying with an exponential backoff until it succeeds.
+     */
+    private void warmUp() {
+        var delay = retryDelay;
+
+        while (true) {
+            try {
+                var restored = snapshotScheduler.restore();
+                var sequence = restored.isPresent() ? restored.getAsLong() : buildIndex();
+
+                // Changes made since the index was saved or built are replayed before the warm-up completes.
+                changeLogReplayer.start(sequence);
+                indexWarmup.complete();
+                snapshotScheduler.start();
+                return;
+            } catch (RuntimeException e) {
+                logger.error("Failed to build term index, retrying in {}", delay, e);
+                indexWarmup.fail(e);
+            }
+
+            try {
+                Thread.sleep(delay.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            // Drop whatever the failed attempt indexed, so the next one doesn't index it twice.
+            termIndex.clear();
+            indexWarmup.retry();
+            var doubled = delay.multipliedBy(2);
+            delay = doubled.compareTo(maxRetryDelay) < 0 ? doubled : maxRetryDelay;
+        }
+    }
+
+    /**
+     * Build the term index from every concept.
+     *
+     * @return The concept change log sequence number the index is up to date with.
+     */
+    private long buildIndex() {
+        // Read the sequence number first: anything that changes while the index is built is replayed from it.
+        var sequence = changeLogReplayer.getSettledSequence();
 
         logger.info("Searching for terms");
-        try (var conceptRecords = conceptDao.loadAllRecords()) {
-            var projectConceptRecords = conceptRecords.collect(Collectors.groupingBy(ConceptRecord::getProjectId));
-
-            projectConceptRecords.forEach((project, records) -> {
-                records.forEach(record -> {
-                    var uuid = record.getUuid();
-                    var labelExtractor = new ConceptLabelExtractor(record);
-
-                    labelExtractor.extractTo((property, literal) -> {
-                        Collection<String> values = literal.get(defaultLanguageKey);
-                        values.forEach(value -> termIndex.add(project, uuid, value));
-                    });
-                });
-            });
+        var builder = new ParallelTermIndexBuilder(termIndex, threadPoolSize, indexLabels::extract, indexWarmup);
+
+        // Notes are only read if some project indexes them, as they make up most of the size of a concept.
+        var records = indexLabels.isLabelsOnly() ? conceptDao.loadAllLabelRecords() : conceptDao.loadAllRecords();
+        try (var conceptRecords = records) {
+            builder.build(conceptRecords);
         }
 
         logger.info("Finished building term index");
+        return sequence;
     }
 }
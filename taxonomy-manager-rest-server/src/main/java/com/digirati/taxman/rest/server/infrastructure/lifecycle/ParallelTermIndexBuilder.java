@@ -0,0 +1,104 @@
+package com.digirati.taxman.rest.server.infrastructure.lifecycle;
+
+import com.digirati.taxman.analysis.index.MultilingualTermIndex;
+import com.digirati.taxman.analysis.index.Term;
+import com.digirati.taxman.rest.server.analysis.ParallelLabelTokenizer;
+import com.digirati.taxman.rest.server.analysis.TermIndexWarmup;
+import com.digirati.taxman.rest.server.taxonomy.storage.record.ConceptRecord;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Builds a {@link MultilingualTermIndex} from concept records in three phases: labels are extracted from the records
+ * as they are read, tokenized in chunks of one language on a fixed number of threads by a
+ * {@link ParallelLabelTokenizer}, and the tokenized entries of every project and language are indexed in one batch
+ * once all chunks are done. Progress is reported to a {@link TermIndexWarmup}.
+ */
+final class ParallelTermIndexBuilder {
+    private static final Logger logger = LoggerFactory.getLogger(ParallelTermIndexBuilder.class);
+
+    private final MultilingualTermIndex<String, UUID> termIndex;
+    private final int threads;
+    private final Function<ConceptRecord, Map<String, List<Term>>> labelExtractor;
+    private final TermIndexWarmup progress;
+
+    ParallelTermIndexBuilder(MultilingualTermIndex<String, UUID> termIndex,
+                             int threads,
+                             Function<ConceptRecord, Map<String, List<Term>>> labelExtractor,
+                             TermIndexWarmup progress) {
+        this.termIndex = termIndex;
+        this.threads = threads;
+        this.labelExtractor = labelExtractor;
+        this.progress = progress;
+    }
+
+    void build(Stream<ConceptRecord> records) {
+        ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("term-index-builder-%d")
+                .build());
+
+        try {
+            build(records, executor);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void build(Stream<ConceptRecord> records, ExecutorService executor) {
+        long start = System.nanoTime();
+        var tokenizer = new ParallelLabelTokenizer(termIndex, executor, progress::labelsDone);
+        var concepts = new int[1];
+        var projects = new HashSet<String>();
+
+        // The project count grows as records stream in, so readiness reports it while the labels are tokenized.
+        records.forEach(record -> {
+            if (projects.add(record.getProjectId())) {
+                progress.setProjects(projects.size());
+            }
+
+            tokenizer.add(record.getProjectId(), record.getUuid(), labelExtractor.apply(record));
+            concepts[0]++;
+        });
+
+        long read = System.nanoTime();
+
+        // Only the projects with any labels are indexed, and reported done.
+        var entriesByProject = tokenizer.finish();
+        progress.setProjects(entriesByProject.size());
+        int entryCount = entriesByProject.values().stream()
+                .flatMap(entriesByLanguage -> entriesByLanguage.values().stream())
+                .mapToInt(List::size)
+                .sum();
+
+        long tokenized = System.nanoTime();
+
+        entriesByProject.forEach((project, entriesByLanguage) -> {
+            entriesByLanguage.forEach((language, entries) ->
+                    termIndex.forLanguage(language).addAllTokenized(project, entries));
+            progress.projectDone();
+        });
+
+        long published = System.nanoTime();
+
+        logger.info("Built term index of {} labels in {} languages from {} concepts in {} projects on {} threads "
+                        + "in {} ms (read {} ms, tokenize {} ms, publish {} ms)",
+                entryCount, termIndex.languages().size(), concepts[0], entriesByProject.size(), threads,
+                millis(start, published), millis(start, read), millis(read, tokenized), millis(tokenized, published));
+    }
+
+    private static long millis(long from, long to) {
+        return TimeUnit.NANOSECONDS.toMillis(to - from);
+    }
+}
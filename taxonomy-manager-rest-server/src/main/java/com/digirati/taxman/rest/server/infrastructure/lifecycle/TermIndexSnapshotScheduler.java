@@ -0,0 +1,256 @@
+package com.digirati.taxman.rest.server.infrastructure.lifecycle;
+
+import com.digirati.taxman.analysis.index.MultilingualTermIndex;
+import com.digirati.taxman.analysis.index.TermIndexSnapshot;
+import com.digirati.taxman.rest.server.infrastructure.event.ConceptChangeLogReplayer;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.quarkus.runtime.ShutdownEvent;
+import org.eclipse.microprofile.config.Config;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Saves the term index to disk periodically and on shutdown, and restores it on startup, so that a restarted server
+ * only has to tokenize the concepts that changed while it was down.
+ *
+ * <p>Every snapshot records the concept change log sequence number that the index is known to be up to date with,
+ * as tracked by the {@link ConceptChangeLogReplayer}. The index may also contain later changes received as cluster
+ * events, which are harmlessly replayed again after a restore. A snapshot older than the changes pruned from the log
+ * is not restored, and the index is rebuilt instead.
+ *
+ * <p>Every snapshot also records a fingerprint of the configuration that decides which terms are indexed and how they
+ * are tokenized: the indexed properties of every project, the indexed languages and the tokenizer of every language.
+ * Snapshots written with another configuration are not restored, and the index is rebuilt instead.
+ *
+ * <p>The index of every language is saved to its own file, named after {@code taxman.analysis.snapshot.path} with
+ * the language code appended, e.g. {@code term-index.bin.fr}.
+ */
+@ApplicationScoped
+public class TermIndexSnapshotScheduler {
+    private static final Logger logger = LoggerFactory.getLogger(TermIndexSnapshotScheduler.class);
+
+    @ConfigProperty(name = "taxman.analysis.snapshot.path")
+    Optional<String> path;
+
+    @ConfigProperty(name = "taxman.analysis.snapshot.interval", defaultValue = "PT5M")
+    Duration interval;
+
+    @ConfigProperty(name = "taxman.analysis.default-lang.key", defaultValue = "en")
+    String defaultLanguageKey;
+
+    @ConfigProperty(name = "taxman.analysis.indexed-properties", defaultValue = "prefLabel,altLabel,hiddenLabel")
+    List<String> indexedProperties;
+
+    @ConfigProperty(name = "taxman.analysis.languages")
+    Optional<List<String>> languages;
+
+    @ConfigProperty(name = "taxman.analysis.tokenizer", defaultValue = "corenlp")
+    String tokenizer;
+
+    @Inject
+    Config config;
+
+    @Inject
+    ConceptChangeLogReplayer changeLogReplayer;
+
+    @Inject
+    MultilingualTermIndex<String, UUID> termIndex;
+
+    private final TermIndexSnapshot<String, UUID> snapshot =
+            new TermIndexSnapshot<>(TermIndexSnapshot.Codec.strings(), TermIndexSnapshot.Codec.uuids());
+
+    private ScheduledExecutorService executor;
+
+    /**
+     * Restore the term index from the last snapshot, if there is one.
+     *
+     * @return The change log sequence number the restored index is up to date with, or nothing if the index was not
+     *     restored.
+     */
+    public OptionalLong restore() {
+        if (path.isEmpty()) {
+            return OptionalLong.empty();
+        }
+
+        try {
+            var snapshots = snapshotPaths();
+            if (snapshots.isEmpty()) {
+                return OptionalLong.empty();
+            }
+
+            // The index is only as recent as its oldest language.
+            long restored = Long.MAX_VALUE;
+            for (var language : snapshots.entrySet()) {
+                var index = termIndex.forLanguage(language.getKey());
+                restored = Math.min(restored, snapshot.read(language.getValue(), configuration(), index));
+            }
+
+            if (!changeLogReplayer.isReplayableFrom(restored)) {
+                logger.warn("Term index snapshot at sequence number {} is older than the concept change log retains, "
+                        + "rebuilding it", restored);
+
+                termIndex.clear();
+                return OptionalLong.empty();
+            }
+
+            logger.info("Restored term index of {} languages from {} at sequence number {}", snapshots.size(),
+                    snapshotPath(), restored);
+
+            return OptionalLong.of(restored);
+        } catch (IOException | UnsupportedOperationException e) {
+            logger.warn("Unable to restore term index from {}, rebuilding it", snapshotPath(), e);
+
+            // Drop the languages that were restored, so the rebuild doesn't index their terms twice.
+            termIndex.clear();
+            return OptionalLong.empty();
+        }
+    }
+
+    /**
+     * Start writing snapshots of the index.
+     */
+    public synchronized void start() {
+        if (path.isEmpty() || executor != null) {
+            return;
+        }
+
+        executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("term-index-snapshot-%d")
+                .build());
+
+        var millis = interval.toMillis();
+        executor.scheduleWithFixedDelay(this::write, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    void onShutdown(@Observes ShutdownEvent event) {
+        synchronized (this) {
+            if (executor == null) {
+                return;
+            }
+
+            executor.shutdownNow();
+            executor = null;
+        }
+
+        write();
+    }
+
+    private synchronized void write() {
+        // Read the sequence number before the index, so the index is at least as recent as the sequence number.
+        var sequence = changeLogReplayer.getAppliedSequence();
+
+        try {
+            var languages = termIndex.languages();
+            for (var language : languages) {
+                var index = termIndex.forLanguage(language);
+                snapshot.write(index, sequence, configuration(), snapshotPath(language));
+            }
+
+            // Remove the snapshots of languages that are no longer indexed, so they are not restored.
+            for (var stale : snapshotPaths().entrySet()) {
+                if (!languages.contains(stale.getKey())) {
+                    Files.deleteIfExists(stale.getValue());
+                }
+            }
+
+            logger.debug("Wrote term index snapshot of {} languages at sequence number {}", languages.size(),
+                    sequence);
+        } catch (IOException | RuntimeException e) {
+            logger.error("Unable to write term index snapshot to {}", snapshotPath(), e);
+        }
+    }
+
+    /**
+     * Get a fingerprint of the configuration the term index is built with.
+     */
+    String configuration() {
+        var settings = new TreeMap<String, String>();
+        settings.put("taxman.analysis.default-lang.key", defaultLanguageKey);
+        settings.put("taxman.analysis.indexed-properties", normalize(indexedProperties));
+        settings.put("taxman.analysis.languages", languages.map(TermIndexSnapshotScheduler::normalize).orElse(""));
+        settings.put("taxman.analysis.tokenizer", tokenizer);
+
+        for (var name : config.getPropertyNames()) {
+            if (isPerProjectProfile(name)) {
+                settings.put(name, normalize(List.of(config.getValue(name, String[].class))));
+            } else if (isPerLanguageTokenizer(name)) {
+                settings.put(name, config.getValue(name, String.class));
+            }
+        }
+
+        var description = new StringBuilder();
+        settings.forEach((name, value) -> description.append(name).append('=').append(value).append('\n'));
+
+        // A name-based UUID is an MD5 hash of the description, short enough to read in the logs.
+        return UUID.nameUUIDFromBytes(description.toString().getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    private static boolean isPerProjectProfile(String name) {
+        return name.startsWith("taxman.analysis.projects.") && name.endsWith(".indexed-properties");
+    }
+
+    private static boolean isPerLanguageTokenizer(String name) {
+        return name.startsWith("taxman.analysis.lang.") && name.endsWith(".tokenizer");
+    }
+
+    private static String normalize(List<String> values) {
+        return values.stream().map(String::trim).sorted().collect(Collectors.joining(","));
+    }
+
+    private Path snapshotPath() {
+        return Paths.get(path.orElseThrow());
+    }
+
+    private Path snapshotPath(String language) {
+        return snapshotPath().resolveSibling(snapshotPath().getFileName() + "." + language);
+    }
+
+    /**
+     * Find the snapshot of every language, skipping the temporary files of snapshots being written.
+     */
+    private Map<String, Path> snapshotPaths() throws IOException {
+        var directory = snapshotPath().toAbsolutePath().getParent();
+        var prefix = snapshotPath().getFileName() + ".";
+        var snapshots = new HashMap<String, Path>();
+
+        if (directory == null || !Files.isDirectory(directory)) {
+            return snapshots;
+        }
+
+        try (var files = Files.newDirectoryStream(directory)) {
+            for (var file : files) {
+                var name = file.getFileName().toString();
+                var language = name.substring(Math.min(prefix.length(), name.length()));
+
+                if (name.startsWith(prefix) && !language.isEmpty() && language.indexOf('.') < 0) {
+                    snapshots.put(language, file);
+                }
+            }
+        }
+
+        return snapshots;
+    }
+}
@@ -6,7 +6,6 @@ import com.digirati.taxman.common.taxonomy.ConceptModel;
 import com.digirati.taxman.common.taxonomy.ConceptSchemeModel;
 import com.digirati.taxman.common.taxonomy.ProjectModel;
 import com.digirati.taxman.rest.server.infrastructure.exception.ProjectAlreadyExistsException;
-import com.digirati.taxman.rest.server.taxonomy.ConceptModelRepository;
 import com.digirati.taxman.rest.server.taxonomy.ConceptSchemeImporter;
 import com.digirati.taxman.rest.server.taxonomy.ConceptSchemeModelRepository;
 import com.digirati.taxman.rest.server.taxonomy.mapper.ProjectListingMapper;
@@ -18,7 +17,6 @@ import org.apache.jena.vocabulary.DCTerms;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 import javax.transaction.Transactional;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -35,9 +33,6 @@ public class ProjectModelRepository {
     @Inject
     ConceptSchemeModelRepository conceptSchemeModelRepository;
 
-    @Inject
-    ConceptModelRepository conceptRepository;
-
     @Inject
     ProjectDao projectDao;
 
@@ -99,19 +94,10 @@ public class ProjectModelRepository {
         // hack to propagate this context through RdfModelFactory
         project.getContext().getAdditionalAttributes().put(X_PROJECT_SLUG, slug);
 
-        var uuids = new HashMap<String, UUID>();
         var conceptModels = project.getAllResources(ConceptModel.class).collect(Collectors.toUnmodifiableList());
-        conceptModels.forEach(concept -> {
-            if (concept.isNew()) {
-                UUID uuid = UUID.randomUUID();
+        conceptModels.forEach(concept -> concept.setProjectId(slug));
 
-                uuids.put(concept.getSource(), uuid);
-                concept.setUuid(uuid);
-            }
-
-            concept.setProjectId(slug);
-            conceptRepository.update(concept);
-        });
+        var uuids = importer.importConcepts(conceptModels);
 
         var conceptSchemes = project.getAllResources(ConceptSchemeModel.class);
         conceptSchemes.forEach(scheme -> {
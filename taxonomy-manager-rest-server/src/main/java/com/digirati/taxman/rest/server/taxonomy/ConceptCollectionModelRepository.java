@@ -4,9 +4,11 @@ import com.digirati.taxman.common.rdf.RdfModelException;
 import com.digirati.taxman.common.rdf.RdfModelFactory;
 import com.digirati.taxman.common.taxonomy.CollectionModel;
 import com.digirati.taxman.common.taxonomy.ConceptRelationshipType;
+import com.digirati.taxman.rest.server.taxonomy.graph.ConceptGraphService;
 import com.digirati.taxman.rest.server.taxonomy.mapper.ConceptMapper;
 import com.digirati.taxman.rest.server.taxonomy.storage.ConceptDao;
 import com.digirati.taxman.rest.server.taxonomy.storage.ConceptDataSet;
+import com.digirati.taxman.rest.server.taxonomy.storage.record.ConceptRecord;
 import org.apache.jena.vocabulary.SKOS;
 
 import javax.enterprise.context.ApplicationScoped;
@@ -14,6 +16,9 @@ import javax.inject.Inject;
 import javax.transaction.Transactional;
 import javax.ws.rs.WebApplicationException;
 import java.net.URI;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
 import java.util.UUID;
 
 @ApplicationScoped
@@ -28,13 +33,21 @@ public class ConceptCollectionModelRepository {
     @Inject
     RdfModelFactory modelFactory;
 
+    @Inject
+    ConceptGraphService conceptGraph;
+
     /**
      * Find all relationships to the concept identified by {@code uuid} with a relationship of the given
      * {@code type}.
      *
+     * <p>Relationships are followed in the in-memory {@link ConceptGraphService}, nearest concepts first, and only
+     * the records of the concepts found are read from the database. Until the graph has loaded, the relationships
+     * are followed by a recursive query instead.
+     *
      * @param uuid The identifier of the concept to find relationships for.
      * @param type The type of relationship to find.
-     * @param depth The maximum depth of relationships to return.
+     * @param depth The maximum depth of relationships to return: 0 for the direct relationships, and every level
+     *     above that follows one more relationship.
      */
     @Transactional(Transactional.TxType.REQUIRED)
     public CollectionModel findRelated(UUID uuid, ConceptRelationshipType type, int depth) {
@@ -42,8 +55,11 @@ public class ConceptCollectionModelRepository {
             var model = modelFactory.createBuilder(CollectionModel.class);
             model.setUri(URI.create("urn:generated"));
 
-            conceptDao.findRelatedRecords(uuid, type, depth)
-                    .stream()
+            var records = conceptGraph.traverse(uuid, type, Math.max(1, depth + 1))
+                    .map(this::findAllInOrder)
+                    .orElseGet(() -> conceptDao.findRelatedRecords(uuid, type, depth));
+
+            records.stream()
                     .map(record -> conceptMapper.map(new ConceptDataSet(record)))
                     .forEach(concept -> model.addEmbeddedModel(SKOS.member, concept));
 
@@ -52,4 +68,20 @@ public class ConceptCollectionModelRepository {
             throw new WebApplicationException("RDF graph for related concept is invalid", ex);
         }
     }
+
+    private List<ConceptRecord> findAllInOrder(List<UUID> uuids) {
+        if (uuids.isEmpty()) {
+            return List.of();
+        }
+
+        var order = new HashMap<UUID, Integer>();
+        for (int index = 0; index < uuids.size(); index++) {
+            order.put(uuids.get(index), index);
+        }
+
+        var records = conceptDao.findAllRecords(uuids);
+        records.sort(Comparator.comparing(record -> order.get(record.getUuid())));
+
+        return records;
+    }
 }
@@ -3,13 +3,12 @@ package com.digirati.taxman.rest.server.taxonomy;
 import com.digirati.taxman.common.taxonomy.CollectionModel;
 import com.digirati.taxman.common.taxonomy.ConceptModel;
 import com.digirati.taxman.common.taxonomy.ConceptRelationshipType;
-import com.digirati.taxman.rest.server.infrastructure.event.ConceptEvent;
-import com.digirati.taxman.rest.server.infrastructure.event.ConceptEventListener;
 import com.digirati.taxman.rest.server.taxonomy.identity.ConceptIdResolver;
 import com.digirati.taxman.rest.server.taxonomy.mapper.ConceptMapper;
 import com.digirati.taxman.rest.server.taxonomy.mapper.SearchResultsMapper;
 import com.digirati.taxman.rest.server.taxonomy.storage.ConceptDao;
 import com.digirati.taxman.rest.server.taxonomy.storage.ConceptDataSet;
+import com.digirati.taxman.rest.server.taxonomy.storage.ConceptDataSetCache;
 import com.digirati.taxman.rest.server.taxonomy.storage.record.ConceptRecord;
 import com.digirati.taxman.rest.server.taxonomy.storage.record.ConceptRelationshipRecord;
 import org.apache.commons.lang3.StringUtils;
@@ -17,13 +16,17 @@ import org.apache.jena.vocabulary.DCTerms;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
 import javax.transaction.Transactional;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
-import java.util.function.BiConsumer;
+import java.util.function.IntConsumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -49,10 +52,13 @@ public class ConceptModelRepository {
     ConceptDao conceptDao;
 
     @Inject
-    ConceptEventListener eventPublisher;
+    ConceptIdResolver idResolver;
 
     @Inject
-    ConceptIdResolver idResolver;
+    ConceptDataSetCache cache;
+
+    @Inject
+    TransactionSynchronizationRegistry transactionRegistry;
 
     /**
      * Find an RDF model representation of a concept given an identifier.
@@ -62,7 +68,7 @@ public class ConceptModelRepository {
      */
     @Transactional(Transactional.TxType.REQUIRED)
     public Optional<ConceptModel> find(UUID uuid) {
-        var dataset = conceptDao.loadDataSet(uuid);
+        var dataset = cache.get(uuid, conceptDao::loadDataSet);
 
         return dataset.isEmpty() ? Optional.empty() : Optional.of(conceptMapper.map(dataset.get()));
     }
@@ -87,7 +93,7 @@ public class ConceptModelRepository {
      */
     @Transactional(Transactional.TxType.REQUIRED)
     public List<ConceptModel> findAll(Collection<UUID> uuid) {
-        return conceptDao.findAllRecords(uuid)
+        return cache.getAllRecords(uuid, conceptDao::findAllRecords)
                 .stream()
                 .map(record -> conceptMapper.map(new ConceptDataSet(record)))
                 .collect(Collectors.toList());
@@ -109,9 +115,37 @@ public class ConceptModelRepository {
         }
 
         conceptDao.storeDataSet(conceptMapper.map(model));
+        invalidateOnCompletion(List.of(model.getUuid()));
         applySymmetricRelationChanges(model, existing);
+    }
 
-        eventPublisher.notify(ConceptEvent.updated(model, existing));
+    /**
+     * Create or update many {@link ConceptModel}s at once, along with the inverse of their new broader and narrower
+     * relationships, in a fixed number of statements. Concepts are matched to stored concepts by source first, so
+     * the identity a concept is stored under may differ from that of its model.
+     *
+     * <p>Unlike {@link #update(ConceptModel)}, no event is published for every concept, so callers must announce the
+     * import to the cluster once it has committed.
+     *
+     * @param models The models to import.
+     * @param progress Called with the number of concepts sent to the database so far, as they are sent.
+     * @return The identity, project and source every concept was stored under, in the order of {@code models}.
+     */
+    @Transactional(Transactional.TxType.REQUIRED)
+    public List<ConceptRecord> importAll(Collection<ConceptModel> models, IntConsumer progress) {
+        var dataSets = new ArrayList<ConceptDataSet>(models.size());
+        for (var model : models) {
+            if (model.isNew()) {
+                model.setUuid(UUID.randomUUID());
+            }
+
+            dataSets.add(conceptMapper.map(model));
+        }
+
+        var records = conceptDao.importDataSets(dataSets, progress);
+        invalidateOnCompletion(records.stream().map(ConceptRecord::getUuid).collect(Collectors.toList()));
+
+        return records;
     }
 
     /**
@@ -174,9 +208,10 @@ public class ConceptModelRepository {
         var uuid = model.getUuid();
         var dataset = conceptMapper.map(model);
         conceptDao.storeDataSet(dataset);
-        eventPublisher.notify(ConceptEvent.created(model));
+        invalidateOnCompletion(List.of(uuid));
 
-        return find(uuid).orElseThrow();
+        // Read past the cache, which must not hold the concept before the transaction commits.
+        return conceptDao.loadDataSet(uuid).map(conceptMapper::map).orElseThrow();
     }
 
     /**
@@ -186,35 +221,36 @@ public class ConceptModelRepository {
      * @param existing (Can be null) The current version of the Concept, if one exists
      */
     public void applySymmetricRelationChanges(ConceptModel model, ConceptModel existing) {
-
-        BiConsumer<UUID, ConceptRelationshipType> createRelationshipToModel = (relatedUuid, relationshipType) -> {
-            var conceptDataSetOptional = conceptDao.loadDataSet(relatedUuid);
-            if (conceptDataSetOptional.isEmpty()) {
-                // Can't do anything for a non-existent item
-                return;
-            }
-            ConceptDataSet conceptDataSet = conceptDataSetOptional.get();
-            conceptDataSet.addRelationshipRecord(
-                    new ConceptRelationshipRecord(
-                            relatedUuid,
-                            model.getUuid(),
-                            model.getSource(),
-                            relationshipType,
-                            USE_TRANSITIVE_RELATIONSHIPS
-                    )
-            );
-
-            conceptDao.storeDataSet(conceptDataSet);
-            eventPublisher.notify(ConceptEvent.updated(conceptMapper.map(conceptDataSet), existing));
-        };
-
         // For each broader, create a narrower relationship to this
         // For each narrower, create a broader relationship to this
+        var inverseTypes = new LinkedHashMap<UUID, List<ConceptRelationshipType>>();
         for (var type : Set.of(ConceptRelationshipType.BROADER, ConceptRelationshipType.NARROWER)) {
-            getNewRelationships(model, type, existing)
-                    .forEach(relatedUuid
-                        -> createRelationshipToModel.accept(relatedUuid, type.inverse()));
+            getNewRelationships(model, type, existing).forEach(relatedUuid ->
+                    inverseTypes.computeIfAbsent(relatedUuid, key -> new ArrayList<>()).add(type.inverse()));
+        }
+
+        if (inverseTypes.isEmpty()) {
+            return;
         }
+
+        // Related concepts that don't exist are left alone.
+        var relatedDataSets = conceptDao.loadDataSets(inverseTypes.keySet());
+        relatedDataSets.forEach((relatedUuid, conceptDataSet) -> {
+            for (var relationshipType : inverseTypes.get(relatedUuid)) {
+                conceptDataSet.addRelationshipRecord(
+                        new ConceptRelationshipRecord(
+                                relatedUuid,
+                                model.getUuid(),
+                                model.getSource(),
+                                relationshipType,
+                                USE_TRANSITIVE_RELATIONSHIPS
+                        )
+                );
+            }
+        });
+
+        conceptDao.storeDataSets(relatedDataSets.values());
+        invalidateOnCompletion(relatedDataSets.keySet());
     }
 
     /**
@@ -229,7 +265,30 @@ public class ConceptModelRepository {
         }
 
         conceptDao.deleteDataSet(uuid);
+        invalidateOnCompletion(List.of(uuid));
+    }
 
-        eventPublisher.notify(ConceptEvent.deleted(concept.get()));
+    /**
+     * Invalidate cached concepts once the current transaction has completed, or straight away outside of one. Until
+     * the transaction commits, other readers still load the previous state of the concepts from the database, and
+     * would cache it again after an earlier invalidation.
+     */
+    private void invalidateOnCompletion(Collection<UUID> uuids) {
+        if (transactionRegistry.getTransactionKey() == null) {
+            cache.invalidateAll(uuids);
+            return;
+        }
+
+        var invalidated = List.copyOf(uuids);
+        transactionRegistry.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                cache.invalidateAll(invalidated);
+            }
+        });
     }
 }
@@ -2,14 +2,27 @@ package com.digirati.taxman.rest.server.taxonomy;
 
 import com.digirati.taxman.common.taxonomy.ConceptModel;
 import com.digirati.taxman.common.taxonomy.ConceptSchemeModel;
+import com.digirati.taxman.rest.server.infrastructure.event.ConceptChangeBatch;
+import com.digirati.taxman.rest.server.infrastructure.event.ConceptEventListener;
+import com.digirati.taxman.rest.server.taxonomy.storage.record.ConceptRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 import javax.transaction.Transactional;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 @ApplicationScoped
 public class ConceptSchemeImporter {
+    private static final Logger logger = LoggerFactory.getLogger(ConceptSchemeImporter.class);
 
     @Inject
     ConceptModelRepository conceptRepository;
@@ -17,21 +30,83 @@ public class ConceptSchemeImporter {
     @Inject
     ConceptSchemeModelRepository conceptSchemeRepository;
 
+    @Inject
+    ConceptEventListener eventListener;
+
     /**
      * Import the entire dataset associated with a {@link ConceptSchemeModel} into the system.
      *
      * @param model A concept scheme model, including any nested concepts or relations.
      * @return The transformed concept scheme after import into the system.
      */
+    @Transactional(Transactional.TxType.NEVER)
     public ConceptSchemeModel importScheme(ConceptSchemeModel model) {
-        var conceptModels = model.getAllResources(ConceptModel.class);
-        conceptModels.forEach(concept -> {
-            if (concept.isNew()) {
-                concept.setUuid(UUID.randomUUID());
-            }
-            conceptRepository.update(concept);
-        });
+        importConcepts(model.getAllResources(ConceptModel.class).collect(Collectors.toList()));
 
         return conceptSchemeRepository.create(model);
     }
+
+    /**
+     * Import many concepts in one transaction, through {@link ConceptModelRepository#importAll}, then announce the
+     * import to the cluster with one event per project, so that every node reads the changes from the change log.
+     * Progress and throughput are logged as the import runs.
+     *
+     * <p>Models are given the identity their concept was stored under, which differs from their own if a concept
+     * with the same source already existed.
+     *
+     * @param models The concepts to import.
+     * @return The identity every concept was stored under, by source. Concepts without a source are left out.
+     */
+    @Transactional(Transactional.TxType.NEVER)
+    public Map<String, UUID> importConcepts(Collection<ConceptModel> models) {
+        long start = System.nanoTime();
+        logger.info("Importing {} concepts", models.size());
+
+        var records = conceptRepository.importAll(models, staged ->
+                logger.info("Staged {} of {} concepts ({} concepts/s)", staged, models.size(), rate(staged, start)));
+
+        var uuids = new HashMap<String, UUID>();
+        var projects = new LinkedHashSet<String>();
+        for (ConceptRecord record : records) {
+            if (record.getSource() != null) {
+                uuids.put(record.getSource(), record.getUuid());
+            }
+
+            projects.add(record.getProjectId());
+        }
+
+        for (var model : models) {
+            var uuid = uuids.get(model.getSource());
+            if (uuid != null) {
+                model.setUuid(uuid);
+            }
+        }
+
+        for (var project : projects) {
+            publish(project);
+        }
+
+        logger.info("Imported {} concepts into {} in {} ms ({} concepts/s)", records.size(), projects,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), rate(records.size(), start));
+
+        return uuids;
+    }
+
+    /**
+     * Announce an import into a project. If the event can't be sent, other nodes still pick the changes up the
+     * next time they replay the change log.
+     */
+    private void publish(String project) {
+        try {
+            eventListener.publish(ConceptChangeBatch.imported(List.of(project)));
+        } catch (Exception e) {
+            logger.warn("Unable to publish the import into {}, it will be applied by the change log replay",
+                    project, e);
+        }
+    }
+
+    private static long rate(long count, long start) {
+        long elapsed = Math.max(1, System.nanoTime() - start);
+        return count * TimeUnit.SECONDS.toNanos(1) / elapsed;
+    }
 }
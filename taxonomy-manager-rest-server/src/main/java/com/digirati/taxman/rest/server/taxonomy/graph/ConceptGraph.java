@@ -0,0 +1,373 @@
+package com.digirati.taxman.rest.server.taxonomy.graph;
+
+import com.digirati.taxman.common.taxonomy.ConceptRelationshipType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The semantic relations between concepts, held in memory so that relationships can be followed without a recursive
+ * query.
+ *
+ * <p>Every concept is given a dense {@code int} identifier, and the relations of each type are stored in compressed
+ * sparse row form: the targets of concept {@code i} are {@code targets[offsets[i]]} (inclusive) to
+ * {@code targets[offsets[i + 1]]} (exclusive). Replacing the relations of a concept puts them in a small overlay
+ * that is consulted before the arrays, and the overlay is folded into new arrays once it holds more than
+ * {@code compactThreshold} concepts.
+ *
+ * <p>The arrays and overlay of every type are published together as an immutable snapshot through a volatile field,
+ * so readers never block. Identifiers are never reclaimed.
+ */
+public final class ConceptGraph {
+
+    private static final int DEFAULT_COMPACT_THRESHOLD = 1024;
+
+    private static final int[] NO_TARGETS = new int[0];
+
+    private final ConcurrentMap<UUID, Integer> identifiers = new ConcurrentHashMap<>();
+
+    private final int compactThreshold;
+
+    private volatile UUID[] uuids = new UUID[64];
+
+    private volatile Map<ConceptRelationshipType, Adjacency> adjacency = emptyAdjacency();
+
+    /**
+     * The number of identifiers assigned, guarded by {@code this}.
+     */
+    private int size;
+
+    public ConceptGraph() {
+        this(DEFAULT_COMPACT_THRESHOLD);
+    }
+
+    public ConceptGraph(int compactThreshold) {
+        this.compactThreshold = compactThreshold;
+    }
+
+    /**
+     * Create a graph from every relation, given as a record per source, target and type.
+     */
+    public static ConceptGraph of(Iterable<Relation> relations) {
+        var graph = new ConceptGraph();
+        var edges = new EnumMap<ConceptRelationshipType, IntPairs>(ConceptRelationshipType.class);
+
+        for (var relation : relations) {
+            int source = graph.intern(relation.source);
+            int target = graph.intern(relation.target);
+
+            edges.computeIfAbsent(relation.type, type -> new IntPairs()).add(source, target);
+        }
+
+        var adjacency = emptyAdjacency();
+        edges.forEach((type, pairs) -> adjacency.put(type, Adjacency.compile(pairs, graph.size)));
+        graph.adjacency = Map.copyOf(adjacency);
+
+        return graph;
+    }
+
+    /**
+     * Replace the outgoing relations of some concepts. A concept missing from {@code relations}, e.g. because it was
+     * deleted, is left with no outgoing relations.
+     *
+     * @param sources The concepts whose relations are replaced.
+     * @param relations The new relations of those concepts.
+     */
+    public synchronized void replaceAll(Collection<UUID> sources, Collection<Relation> relations) {
+        var replaced = new EnumMap<ConceptRelationshipType, Map<Integer, IntList>>(ConceptRelationshipType.class);
+        for (var type : ConceptRelationshipType.values()) {
+            var targets = new HashMap<Integer, IntList>();
+            for (var source : sources) {
+                var identifier = identifiers.get(source);
+                if (identifier != null) {
+                    targets.put(identifier, new IntList());
+                }
+            }
+
+            replaced.put(type, targets);
+        }
+
+        for (var relation : relations) {
+            int source = intern(relation.source);
+            int target = intern(relation.target);
+
+            replaced.get(relation.type).computeIfAbsent(source, key -> new IntList()).add(target);
+        }
+
+        var next = new EnumMap<ConceptRelationshipType, Adjacency>(ConceptRelationshipType.class);
+        adjacency.forEach((type, current) -> {
+            var updated = current.replace(replaced.get(type));
+            next.put(type, updated.overlay.size() > compactThreshold ? updated.compact(size) : updated);
+        });
+
+        adjacency = Map.copyOf(next);
+    }
+
+    /**
+     * Find every concept that can be reached from a concept by following relations of one type, nearest first.
+     *
+     * @param uuid The concept to start from, which is never part of the result.
+     * @param type The type of relation to follow.
+     * @param levels The greatest number of relations to follow from the start.
+     * @return The concepts found, in breadth-first order.
+     */
+    public List<UUID> traverse(UUID uuid, ConceptRelationshipType type, int levels) {
+        var start = identifiers.get(uuid);
+        if (start == null || levels < 1) {
+            return List.of();
+        }
+
+        var relations = adjacency.get(type);
+        var snapshot = uuids;
+        var visited = new BitSet();
+        var queue = new IntList();
+        var found = new ArrayList<UUID>();
+
+        visited.set(start);
+        queue.add(start);
+
+        int levelStart = 0;
+        for (int level = 0; level < levels && levelStart < queue.size(); level++) {
+            int levelEnd = queue.size();
+
+            for (int index = levelStart; index < levelEnd; index++) {
+                var targets = relations.targets(queue.get(index));
+                int from = relations.targetsStart(queue.get(index), targets);
+                int to = relations.targetsEnd(queue.get(index), targets);
+
+                for (int target = from; target < to; target++) {
+                    int concept = targets[target];
+                    if (!visited.get(concept)) {
+                        visited.set(concept);
+                        queue.add(concept);
+                        found.add(snapshot[concept]);
+                    }
+                }
+            }
+
+            levelStart = levelEnd;
+        }
+
+        return found;
+    }
+
+    /**
+     * Get the number of concepts in the graph, including those only known as the target of a relation.
+     */
+    public int size() {
+        return identifiers.size();
+    }
+
+    private synchronized int intern(UUID uuid) {
+        var identifier = identifiers.get(uuid);
+        if (identifier != null) {
+            return identifier;
+        }
+
+        if (size == uuids.length) {
+            uuids = Arrays.copyOf(uuids, size * 2);
+        }
+
+        // Store the reverse mapping first, so any thread that can see the identifier can also resolve it.
+        uuids[size] = uuid;
+        identifiers.put(uuid, size);
+
+        return size++;
+    }
+
+    private static EnumMap<ConceptRelationshipType, Adjacency> emptyAdjacency() {
+        var adjacency = new EnumMap<ConceptRelationshipType, Adjacency>(ConceptRelationshipType.class);
+        for (var type : ConceptRelationshipType.values()) {
+            adjacency.put(type, Adjacency.EMPTY);
+        }
+
+        return adjacency;
+    }
+
+    /**
+     * A relation from one concept to another.
+     */
+    public static final class Relation {
+        private final UUID source;
+        private final UUID target;
+        private final ConceptRelationshipType type;
+
+        public Relation(UUID source, UUID target, ConceptRelationshipType type) {
+            this.source = source;
+            this.target = target;
+            this.type = type;
+        }
+    }
+
+    /**
+     * The relations of one type: compressed rows, and the replaced rows of concepts changed since they were built.
+     */
+    private static final class Adjacency {
+        static final Adjacency EMPTY = new Adjacency(new int[1], NO_TARGETS, Map.of());
+
+        private final int[] offsets;
+        private final int[] targets;
+        private final Map<Integer, int[]> overlay;
+
+        Adjacency(int[] offsets, int[] targets, Map<Integer, int[]> overlay) {
+            this.offsets = offsets;
+            this.targets = targets;
+            this.overlay = overlay;
+        }
+
+        /**
+         * Build compressed rows from (source, target) pairs with a counting sort by source.
+         */
+        static Adjacency compile(IntPairs pairs, int nodes) {
+            var offsets = new int[nodes + 1];
+            for (int index = 0; index < pairs.size(); index++) {
+                offsets[pairs.first(index) + 1]++;
+            }
+
+            for (int node = 0; node < nodes; node++) {
+                offsets[node + 1] += offsets[node];
+            }
+
+            var targets = new int[pairs.size()];
+            var next = Arrays.copyOf(offsets, nodes);
+            for (int index = 0; index < pairs.size(); index++) {
+                targets[next[pairs.first(index)]++] = pairs.second(index);
+            }
+
+            return distinct(offsets, targets);
+        }
+
+        /**
+         * The targets of a concept are either its overlay row or the shared target array.
+         */
+        int[] targets(int node) {
+            var replaced = overlay.get(node);
+            return replaced != null ? replaced : targets;
+        }
+
+        int targetsStart(int node, int[] row) {
+            if (row != targets) {
+                return 0;
+            }
+
+            return node < offsets.length - 1 ? offsets[node] : 0;
+        }
+
+        int targetsEnd(int node, int[] row) {
+            if (row != targets) {
+                return row.length;
+            }
+
+            return node < offsets.length - 1 ? offsets[node + 1] : 0;
+        }
+
+        Adjacency replace(Map<Integer, IntList> rows) {
+            if (rows.isEmpty()) {
+                return this;
+            }
+
+            var next = new HashMap<>(overlay);
+            rows.forEach((node, row) -> next.put(node, row.toSortedDistinctArray()));
+
+            return new Adjacency(offsets, targets, Map.copyOf(next));
+        }
+
+        /**
+         * Fold the overlay into new compressed rows.
+         */
+        Adjacency compact(int nodes) {
+            var pairs = new IntPairs();
+            for (int node = 0; node < nodes; node++) {
+                var row = targets(node);
+                int to = targetsEnd(node, row);
+                for (int index = targetsStart(node, row); index < to; index++) {
+                    pairs.add(node, row[index]);
+                }
+            }
+
+            return compile(pairs, nodes);
+        }
+
+        /**
+         * Sort every row and remove repeated targets, e.g. of a relation stored both as transitive and not.
+         */
+        private static Adjacency distinct(int[] offsets, int[] targets) {
+            int size = 0;
+            int start = 0;
+
+            for (int node = 0; node < offsets.length - 1; node++) {
+                int end = offsets[node + 1];
+                Arrays.sort(targets, start, end);
+
+                offsets[node] = size;
+                for (int index = start; index < end; index++) {
+                    if (index == start || targets[index] != targets[index - 1]) {
+                        targets[size++] = targets[index];
+                    }
+                }
+
+                start = end;
+            }
+
+            offsets[offsets.length - 1] = size;
+            return new Adjacency(offsets, size == targets.length ? targets : Arrays.copyOf(targets, size), Map.of());
+        }
+    }
+
+    private static class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+
+            values[size++] = value;
+        }
+
+        int get(int index) {
+            return values[index];
+        }
+
+        int size() {
+            return size;
+        }
+
+        int[] toSortedDistinctArray() {
+            var sorted = Arrays.copyOf(values, size);
+            Arrays.sort(sorted);
+
+            return Arrays.stream(sorted).distinct().toArray();
+        }
+    }
+
+    private static final class IntPairs extends IntList {
+        void add(int first, int second) {
+            add(first);
+            add(second);
+        }
+
+        int first(int pair) {
+            return get(pair * 2);
+        }
+
+        int second(int pair) {
+            return get(pair * 2 + 1);
+        }
+
+        @Override
+        int size() {
+            return super.size() / 2;
+        }
+    }
+}
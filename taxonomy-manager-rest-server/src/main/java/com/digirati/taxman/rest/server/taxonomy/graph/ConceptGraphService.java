@@ -0,0 +1,147 @@
+package com.digirati.taxman.rest.server.taxonomy.graph;
+
+import com.digirati.taxman.common.taxonomy.ConceptRelationshipType;
+import com.digirati.taxman.rest.server.taxonomy.storage.ConceptDao;
+import com.digirati.taxman.rest.server.taxonomy.storage.record.ConceptRelationshipRecord;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * Holds the {@link ConceptGraph} of this node, loaded from the database at startup and kept current by concept
+ * change events.
+ *
+ * <p>Change events only say which concepts changed, so the relations of changed concepts are read again, in one
+ * query per batch, on a background thread. Concepts that change while the graph is loading are read once it has
+ * loaded, as the load may have read their relations before the change. Until the graph has loaded, callers fall
+ * back to querying the database.
+ */
+@ApplicationScoped
+public class ConceptGraphService {
+    private static final Logger logger = LoggerFactory.getLogger(ConceptGraphService.class);
+
+    @Inject
+    ConceptDao conceptDao;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+            .setDaemon(true)
+            .setNameFormat("concept-graph-refresh-%d")
+            .build());
+
+    /**
+     * Held while relations are read and applied, so an older read never overwrites a newer one.
+     */
+    private final Object refreshLock = new Object();
+
+    private volatile ConceptGraph graph;
+
+    /**
+     * The concepts changed since their relations were last read, guarded by {@code this}.
+     */
+    private final Set<UUID> pending = new LinkedHashSet<>();
+
+    /**
+     * Whether a refresh of the pending concepts has been scheduled, guarded by {@code this}.
+     */
+    private boolean scheduled;
+
+    /**
+     * Load the relations of every concept, then those of any concept that changed meanwhile.
+     */
+    public void load() {
+        logger.info("Loading concept graph");
+
+        ConceptGraph loaded;
+        try (var edges = conceptDao.loadAllRelationshipEdges()) {
+            Iterable<ConceptGraph.Relation> relations = edges.map(ConceptGraphService::toRelation)::iterator;
+            loaded = ConceptGraph.of(relations);
+        }
+
+        synchronized (this) {
+            graph = loaded;
+        }
+
+        refreshLogged();
+        logger.info("Finished loading concept graph of {} concepts", loaded.size());
+    }
+
+    /**
+     * Read the relations of some changed concepts again, in the background.
+     */
+    public synchronized void refreshLater(Collection<UUID> uuids) {
+        pending.addAll(uuids);
+
+        if (graph != null && !scheduled && !pending.isEmpty()) {
+            scheduled = true;
+            executor.execute(this::refreshLogged);
+        }
+    }
+
+    /**
+     * Find every concept that can be reached from a concept by following relations of one type, nearest first.
+     *
+     * @return The concepts found, or nothing if the graph has not loaded yet.
+     */
+    public Optional<List<UUID>> traverse(UUID uuid, ConceptRelationshipType type, int levels) {
+        var current = graph;
+        if (current == null) {
+            return Optional.empty();
+        }
+
+        return Optional.of(current.traverse(uuid, type, levels));
+    }
+
+    private void refresh() {
+        synchronized (refreshLock) {
+            List<UUID> uuids;
+            synchronized (this) {
+                uuids = List.copyOf(pending);
+                pending.clear();
+                scheduled = false;
+            }
+
+            if (uuids.isEmpty()) {
+                return;
+            }
+
+            try {
+                var relations = conceptDao.findRelationshipEdges(uuids).stream()
+                        .map(ConceptGraphService::toRelation)
+                        .collect(Collectors.toList());
+
+                graph.replaceAll(uuids, relations);
+            } catch (RuntimeException e) {
+                // Keep the concepts for the next refresh, which the next change or change log replay schedules.
+                synchronized (this) {
+                    pending.addAll(uuids);
+                }
+
+                throw e;
+            }
+        }
+    }
+
+    private void refreshLogged() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            logger.warn("Unable to refresh the concept graph", e);
+        }
+    }
+
+    private static ConceptGraph.Relation toRelation(ConceptRelationshipRecord record) {
+        return new ConceptGraph.Relation(record.getSource(), record.getTarget(), record.getType());
+    }
+}
@@ -1,15 +1,26 @@
 package com.digirati.taxman.rest.server.taxonomy.storage;
 
 import com.digirati.taxman.common.taxonomy.ConceptRelationshipType;
+import com.digirati.taxman.rest.server.taxonomy.storage.record.ConceptChangeRecord;
 import com.digirati.taxman.rest.server.taxonomy.storage.record.ConceptRecord;
+import com.digirati.taxman.rest.server.taxonomy.storage.record.ConceptRelationshipRecord;
+import com.digirati.taxman.rest.server.taxonomy.storage.record.mapper.ConceptChangeRecordMapper;
+import com.digirati.taxman.rest.server.taxonomy.storage.record.mapper.ConceptImportRecordMapper;
+import com.digirati.taxman.rest.server.taxonomy.storage.record.mapper.ConceptLabelRecordMapper;
 import com.digirati.taxman.rest.server.taxonomy.storage.record.mapper.ConceptRecordMapper;
+import com.digirati.taxman.rest.server.taxonomy.storage.record.mapper.ConceptRelationshipEdgeMapper;
 import com.digirati.taxman.rest.server.taxonomy.storage.record.mapper.ConceptRelationshipRecordMapper;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.springframework.jdbc.core.ConnectionCallback;
 
 import javax.sql.DataSource;
 import java.sql.Array;
 import java.sql.SQLException;
 import java.sql.Types;
+import java.time.Duration;
 import java.util.*;
+import java.util.function.IntConsumer;
 import java.util.stream.Stream;
 
 /**
@@ -17,16 +28,157 @@ import java.util.stream.Stream;
  * PostgreSQL database.
  */
 public class ConceptDao {
+    /**
+     * The number of rows fetched at a time when streaming every concept.
+     */
+    private static final int STREAM_FETCH_SIZE = 1000;
+
+    private static final String UPDATE_CONCEPT = "CALL update_concept(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final int[] RECORD_TYPES = createRecordTypes();
+
+    private static final String UPDATE_RELATIONS = "CALL update_concept_semantic_relations(?, ?, ?)";
+    private static final int[] RELATION_TYPES = {Types.OTHER, Types.VARCHAR, Types.OTHER};
+
+    /**
+     * The number of concepts staged by an import between reports of its progress.
+     */
+    public static final int IMPORT_PROGRESS_INTERVAL = 5000;
+
+    private static final String COPY_IMPORTED_CONCEPTS = "COPY concept_import (uuid, original_uuid, project_slug, "
+            + "source, preferred_label, alt_label, hidden_label, note, change_note, editorial_note, example, "
+            + "history_note, scope_note, definition) FROM STDIN (FORMAT csv)";
+
+    private static final String COPY_IMPORTED_RELATIONS = "COPY concept_relation_import (source_uuid, target_uuid, "
+            + "target_source, relation, transitive) FROM STDIN (FORMAT csv)";
+
     private final JdbcTemplateEx jdbcTemplate;
     private final ConceptRecordMapper recordMapper = new ConceptRecordMapper();
+    private final ConceptLabelRecordMapper labelRecordMapper = new ConceptLabelRecordMapper();
     private final ConceptRelationshipRecordMapper relationshipRecordMapper = new ConceptRelationshipRecordMapper();
+    private final ConceptRelationshipEdgeMapper relationshipEdgeMapper = new ConceptRelationshipEdgeMapper();
+    private final ConceptChangeRecordMapper changeRecordMapper = new ConceptChangeRecordMapper();
+    private final ConceptChangeRecordMapper labelChangeRecordMapper = new ConceptChangeRecordMapper(labelRecordMapper);
+    private final ConceptImportRecordMapper importRecordMapper = new ConceptImportRecordMapper();
 
     public ConceptDao(DataSource dataSource) {
         this.jdbcTemplate = new JdbcTemplateEx(dataSource);
     }
 
+    /**
+     * Stream every concept record from the database, fetching rows as the stream is consumed. The stream holds a
+     * database connection and must be closed.
+     */
     public Stream<ConceptRecord> loadAllRecords() {
-        return jdbcTemplate.query("SELECT * FROM get_all_concepts()", recordMapper).stream();
+        return jdbcTemplate.queryForStream(
+                "SELECT * FROM get_all_concepts()", new Object[0], new int[0], recordMapper, STREAM_FETCH_SIZE);
+    }
+
+    /**
+     * Stream the identity, project and labels of every concept, leaving the other properties of the records empty.
+     * The stream holds a database connection and must be closed.
+     */
+    public Stream<ConceptRecord> loadAllLabelRecords() {
+        return jdbcTemplate.queryForStream(
+                "SELECT * FROM get_all_concept_labels()", new Object[0], new int[0], labelRecordMapper,
+                STREAM_FETCH_SIZE);
+    }
+
+    /**
+     * Stream the source, target and type of the relationships of every concept, fetching rows as the stream is
+     * consumed. The stream holds a database connection and must be closed.
+     */
+    public Stream<ConceptRelationshipRecord> loadAllRelationshipEdges() {
+        return jdbcTemplate.queryForStream(
+                "SELECT * FROM get_all_concept_semantic_relations()", new Object[0], new int[0],
+                relationshipEdgeMapper, STREAM_FETCH_SIZE);
+    }
+
+    /**
+     * Find the source, target and type of the relationships of some concepts. Deleted concepts have none.
+     *
+     * @param uuids The identities of the source concepts.
+     */
+    public List<ConceptRelationshipRecord> findRelationshipEdges(Collection<UUID> uuids) {
+        Object[] args = {createUuidArray(uuids)};
+        int[] types = {Types.ARRAY};
+
+        return jdbcTemplate.query("SELECT * FROM get_concepts_semantic_relations(?)", args, types,
+                relationshipEdgeMapper);
+    }
+
+    /**
+     * Get the greatest sequence number in the concept change log up to which every change is known to be
+     * committed.
+     *
+     * @param settleTime The time after which a change is assumed to be committed.
+     */
+    public long getSettledChangeSequence(Duration settleTime) {
+        Object[] args = {Math.toIntExact(settleTime.toSeconds())};
+        int[] types = {Types.INTEGER};
+
+        return jdbcTemplate.queryForObject("SELECT get_settled_concept_change_seq(?)", args, types, Long.class);
+    }
+
+    /**
+     * Delete the entries of the concept change log made longer ago than the retention period.
+     *
+     * @return The sequence number up to which entries may have been deleted, as returned by
+     *     {@link #getPrunedChangeSequence()}.
+     */
+    public long pruneChangeLog(Duration retention) {
+        Object[] args = {Math.toIntExact(retention.toSeconds())};
+        int[] types = {Types.INTEGER};
+
+        return jdbcTemplate.queryForObject("SELECT prune_concept_change_log(?)", args, types, Long.class);
+    }
+
+    /**
+     * Get the sequence number up to which entries may have been pruned from the concept change log. Only an index
+     * that is up to date with this sequence number or a later one can catch up by replaying the log.
+     */
+    public long getPrunedChangeSequence() {
+        return jdbcTemplate.queryForObject("SELECT get_pruned_concept_change_seq()", Long.class);
+    }
+
+    /**
+     * Stream every concept, deleted or not, with an entry in the concept change log after the given sequence number,
+     * in the order of their latest change, fetching rows as the stream is consumed. The stream holds a database
+     * connection and must be closed.
+     *
+     * @param sequence A sequence number previously returned by {@link #getSettledChangeSequence(Duration)}.
+     */
+    public Stream<ConceptChangeRecord> loadRecordsChangedSince(long sequence) {
+        Object[] args = {sequence};
+        int[] types = {Types.BIGINT};
+
+        return jdbcTemplate.queryForStream(
+                "SELECT * FROM get_concepts_changed_since(?)", args, types, changeRecordMapper, STREAM_FETCH_SIZE);
+    }
+
+    /**
+     * Stream the identity, project and labels of every concept changed after the given sequence number, like
+     * {@link #loadRecordsChangedSince(long)}, leaving the other properties of the records empty. The stream holds a
+     * database connection and must be closed.
+     */
+    public Stream<ConceptChangeRecord> loadLabelRecordsChangedSince(long sequence) {
+        Object[] args = {sequence};
+        int[] types = {Types.BIGINT};
+
+        return jdbcTemplate.queryForStream(
+                "SELECT * FROM get_concept_labels_changed_since(?)", args, types, labelChangeRecordMapper,
+                STREAM_FETCH_SIZE);
+    }
+
+    /**
+     * Remove up to {@code limit} of the oldest entries from the concept event outbox, skipping any claimed by other
+     * transactions, and find the concepts they refer to, deleted or not. Must be called in a transaction, which
+     * puts the entries back if it rolls back.
+     */
+    public List<ConceptChangeRecord> claimOutboxRecords(int limit) {
+        Object[] args = {limit};
+        int[] types = {Types.INTEGER};
+
+        return jdbcTemplate.query("SELECT * FROM claim_concept_event_outbox(?)", args, types, changeRecordMapper);
     }
 
     public Collection<ConceptRecord> getConceptsByPartialLabel(String label, String languageKey) {
@@ -40,15 +192,7 @@ public class ConceptDao {
      * @param uuids A collection of UUIDs representing {@link ConceptRecord}s.
      */
     public List<ConceptRecord> findAllRecords(Collection<UUID> uuids) {
-        Array uuidArray;
-
-        try (var conn = jdbcTemplate.getDataSource().getConnection()) {
-            uuidArray = conn.createArrayOf("uuid", uuids.toArray(UUID[]::new));
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
-        }
-
-        Object[] conceptArgs = {uuidArray};
+        Object[] conceptArgs = {createUuidArray(uuids)};
         int[] conceptTypes = {Types.ARRAY};
 
         return jdbcTemplate.query(
@@ -100,6 +244,41 @@ public class ConceptDao {
         return Optional.of(new ConceptDataSet(record.get(), relationshipRecords));
     }
 
+    /**
+     * Look up many concepts and all of their associated relationships at once, in one query for the records and
+     * one for the relationships, however many concepts are given.
+     *
+     * @param uuids The identities of the concepts to be looked up.
+     * @return A complete {@link ConceptDataSet} of every concept found, by identity.
+     */
+    public Map<UUID, ConceptDataSet> loadDataSets(Collection<UUID> uuids) {
+        if (uuids.isEmpty()) {
+            return Map.of();
+        }
+
+        Object[] args = {createUuidArray(uuids)};
+        int[] types = {Types.ARRAY};
+
+        var dataSets = new LinkedHashMap<UUID, ConceptDataSet>();
+        for (var record : jdbcTemplate.query("SELECT * FROM get_concepts_by_uuids(?)", args, types, recordMapper)) {
+            dataSets.put(record.getUuid(), new ConceptDataSet(record));
+        }
+
+        if (!dataSets.isEmpty()) {
+            var relationshipRecords = jdbcTemplate.query(
+                    "SELECT * FROM get_concepts_relationships(?)", args, types, relationshipRecordMapper);
+
+            for (var relationship : relationshipRecords) {
+                var dataSet = dataSets.get(relationship.getSource());
+                if (dataSet != null) {
+                    dataSet.addRelationshipRecord(relationship);
+                }
+            }
+        }
+
+        return dataSets;
+    }
+
     /**
      * Store a {@link ConceptDataSet}, updating or creating the underlying concept record and
      * removing/creating any relationships that were removed/added to the concept.
@@ -107,9 +286,140 @@ public class ConceptDao {
      * @param dataset The {@code ConceptDataSet} to store.
      */
     public void storeDataSet(ConceptDataSet dataset) {
+        // @FIXME gtierney: 12 positional parameters is garbage. Fix this sometime.
+        jdbcTemplate.update(UPDATE_CONCEPT, createRecordArgs(dataset), RECORD_TYPES);
+        jdbcTemplate.update(UPDATE_RELATIONS, createRelationArgs(dataset), RELATION_TYPES);
+    }
+
+    /**
+     * Store many {@link ConceptDataSet}s as {@link #storeDataSet(ConceptDataSet)} does, sending the records and
+     * the relationships to the database in one batch each.
+     *
+     * @param datasets The {@code ConceptDataSet}s to store.
+     */
+    public void storeDataSets(Collection<ConceptDataSet> datasets) {
+        if (datasets.isEmpty()) {
+            return;
+        }
+
+        var recordArgs = new ArrayList<Object[]>(datasets.size());
+        var relationArgs = new ArrayList<Object[]>(datasets.size());
+        for (var dataset : datasets) {
+            recordArgs.add(createRecordArgs(dataset));
+            relationArgs.add(createRelationArgs(dataset));
+        }
+
+        jdbcTemplate.batchUpdate(UPDATE_CONCEPT, recordArgs, RECORD_TYPES);
+        jdbcTemplate.batchUpdate(UPDATE_RELATIONS, relationArgs, RELATION_TYPES);
+    }
+
+    /**
+     * Import many {@link ConceptDataSet}s at once: their records and relationships are staged in temporary tables
+     * with {@code COPY}, then merged with set-based SQL, in a fixed number of statements however many there are.
+     * Must be called in a transaction, as the staging tables are dropped when it ends.
+     *
+     * <p>Concepts are matched to stored concepts by source before identity, and the targets of relationships are
+     * resolved by source, as {@link #storeDataSet(ConceptDataSet)} does. New broader and narrower relationships get
+     * their inverse. Changes are logged, but no events are queued for them, so the caller must publish the import
+     * once it has committed.
+     *
+     * @param datasets The {@code ConceptDataSet}s to import.
+     * @param progress Called with the number of concepts staged so far, every {@link #IMPORT_PROGRESS_INTERVAL}
+     *     concepts and once all have been.
+     * @return The identity, project and source every concept was stored under, in the order of {@code datasets}.
+     */
+    public List<ConceptRecord> importDataSets(Collection<ConceptDataSet> datasets, IntConsumer progress) {
+        return jdbcTemplate.execute((ConnectionCallback<List<ConceptRecord>>) connection -> {
+            try (var statement = connection.createStatement()) {
+                statement.execute("CALL create_concept_import_tables()");
+            }
+
+            var copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+            copyImportedConcepts(copyManager, datasets, progress);
+            copyImportedRelations(copyManager, datasets);
+
+            var records = new ArrayList<ConceptRecord>(datasets.size());
+            try (var statement = connection.createStatement();
+                 var resultSet = statement.executeQuery("SELECT * FROM merge_concept_import()")) {
+                while (resultSet.next()) {
+                    records.add(importRecordMapper.mapRow(resultSet, records.size()));
+                }
+            }
+
+            return records;
+        });
+    }
+
+    public void deleteDataSet(UUID uuid) {
+        Object[] recordArgs = {uuid};
+        int[] recordTypes = {Types.OTHER};
+
+        jdbcTemplate.update("CALL delete_concept(?)", recordArgs, recordTypes);
+    }
+
+    private static void copyImportedConcepts(CopyManager copyManager, Collection<ConceptDataSet> datasets,
+                                             IntConsumer progress) throws SQLException {
+        var writer = new CsvCopyWriter(copyManager.copyIn(COPY_IMPORTED_CONCEPTS));
+        try {
+            int staged = 0;
+            for (var dataset : datasets) {
+                var record = dataset.getRecord();
+
+                writer.value(record.getUuid())
+                        .value(record.getUuid())
+                        .value(record.getProjectId())
+                        .value(record.getSource())
+                        .value(DaoUtils.createRdfPlainLiteral(record.getPreferredLabel()))
+                        .value(DaoUtils.createRdfPlainLiteral(record.getAltLabel()))
+                        .value(DaoUtils.createRdfPlainLiteral(record.getHiddenLabel()))
+                        .value(DaoUtils.createRdfPlainLiteral(record.getNote()))
+                        .value(DaoUtils.createRdfPlainLiteral(record.getChangeNote()))
+                        .value(DaoUtils.createRdfPlainLiteral(record.getEditorialNote()))
+                        .value(DaoUtils.createRdfPlainLiteral(record.getExample()))
+                        .value(DaoUtils.createRdfPlainLiteral(record.getHistoryNote()))
+                        .value(DaoUtils.createRdfPlainLiteral(record.getScopeNote()))
+                        .value(DaoUtils.createRdfPlainLiteral(record.getDefinition()))
+                        .endRow();
+
+                if (++staged % IMPORT_PROGRESS_INTERVAL == 0) {
+                    progress.accept(staged);
+                }
+            }
+
+            writer.finish();
+            progress.accept(staged);
+        } catch (SQLException | RuntimeException e) {
+            writer.cancel();
+            throw e;
+        }
+    }
+
+    private static void copyImportedRelations(CopyManager copyManager, Collection<ConceptDataSet> datasets)
+            throws SQLException {
+        var writer = new CsvCopyWriter(copyManager.copyIn(COPY_IMPORTED_RELATIONS));
+        try {
+            for (var dataset : datasets) {
+                for (var relationship : dataset.getRelationshipRecords()) {
+                    writer.value(relationship.getSource())
+                            .value(relationship.getTarget())
+                            .value(relationship.getTargetSource())
+                            .value(relationship.getType().toString().toLowerCase())
+                            .value(relationship.isTransitive())
+                            .endRow();
+                }
+            }
+
+            writer.finish();
+        } catch (SQLException | RuntimeException e) {
+            writer.cancel();
+            throw e;
+        }
+    }
+
+    private static Object[] createRecordArgs(ConceptDataSet dataset) {
         var record = dataset.getRecord();
 
-        Object[] recordArgs = {
+        return new Object[] {
             record.getUuid(),
             record.getProjectId(),
             record.getSource(),
@@ -124,24 +434,26 @@ public class ConceptDao {
             DaoUtils.createRdfPlainLiteral(record.getScopeNote()),
             DaoUtils.createRdfPlainLiteral(record.getDefinition()),
         };
+    }
+
+    private static Object[] createRelationArgs(ConceptDataSet dataset) {
+        var record = dataset.getRecord();
+        return new Object[] {record.getUuid(), record.getSource(), dataset.getRelationshipRecordsJson()};
+    }
 
-        int[] recordTypes = new int[recordArgs.length];
+    private static int[] createRecordTypes() {
+        int[] recordTypes = new int[13];
         Arrays.fill(recordTypes, Types.OTHER);
         recordTypes[1] = Types.VARCHAR;
 
-        // @FIXME gtierney: 12 positional parameters is garbage. Fix this sometime.
-        jdbcTemplate.update("CALL update_concept(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", recordArgs, recordTypes);
-
-        int[] relationTypes = {Types.OTHER, Types.VARCHAR, Types.OTHER};
-        Object[] relationArgs = {record.getUuid(), record.getSource(), dataset.getRelationshipRecordsJson()};
-
-        jdbcTemplate.update("CALL update_concept_semantic_relations(?, ?, ?)", relationArgs, relationTypes);
+        return recordTypes;
     }
 
-    public void deleteDataSet(UUID uuid) {
-        Object[] recordArgs = {uuid};
-        int[] recordTypes = {Types.OTHER};
-
-        jdbcTemplate.update("CALL delete_concept(?)", recordArgs, recordTypes);
+    private Array createUuidArray(Collection<UUID> uuids) {
+        try (var conn = jdbcTemplate.getDataSource().getConnection()) {
+            return conn.createArrayOf("uuid", uuids.toArray(UUID[]::new));
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
     }
 }
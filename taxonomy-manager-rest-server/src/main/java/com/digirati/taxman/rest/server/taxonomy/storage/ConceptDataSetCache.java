@@ -0,0 +1,255 @@
+package com.digirati.taxman.rest.server.taxonomy.storage;
+
+import com.digirati.taxman.common.taxonomy.ConceptLabelExtractor;
+import com.digirati.taxman.rest.server.taxonomy.storage.record.ConceptRecord;
+import com.digirati.taxman.rest.server.taxonomy.storage.record.ConceptRelationshipRecord;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * A read-through cache of {@link ConceptDataSet}s, bounded by the approximate size of the cached concepts.
+ *
+ * <p>Concepts are evicted by Caffeine's W-TinyLFU policy, which only admits a newly read concept over the one it
+ * would evict if the new one has been read more often recently. A one-off sweep over many concepts, such as a crawl
+ * of the concept API or an export, therefore can't flush the concepts most requests use, as it would under LRU.
+ *
+ * <p>A cached data set includes the preferred labels of the concepts it is related to, so invalidating a concept
+ * also invalidates every cached concept with a relationship to it. Concepts read without their relationships, e.g.
+ * to tag a document, are cached as records alone, and only serve reads that do not need relationships.
+ *
+ * <p>A data set read while its concept is being invalidated may already be out of date, so it is only cached if no
+ * invalidation happened during the read. Writes are rare, so skipping the odd unrelated data set costs little.
+ *
+ * <p>Cached data sets are shared between readers and must not be modified.
+ */
+public class ConceptDataSetCache {
+
+    /**
+     * The weight of a concept before its labels are counted, roughly the size of its objects in characters.
+     */
+    static final int BASE_WEIGHT = 128;
+
+    /**
+     * The weight of every relationship of a concept.
+     */
+    static final int RELATIONSHIP_WEIGHT = 64;
+
+    private final Cache<UUID, Entry> cache;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * The cached concepts with a relationship to each concept.
+     */
+    private final ConcurrentMap<UUID, Set<UUID>> dependents = new ConcurrentHashMap<>();
+
+    /**
+     * The number of invalidations so far, guarded by {@code this}.
+     */
+    private long generation;
+
+    /**
+     * Create a cache.
+     *
+     * @param maxWeight The greatest total weight of the cached concepts, about the number of characters in their
+     *     labels, notes and relationships.
+     */
+    public ConceptDataSetCache(long maxWeight) {
+        cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((UUID uuid, Entry entry) -> entry.weight)
+                // Evict and notify on the writing thread, so the dependents never refer to long gone concepts.
+                .executor(Runnable::run)
+                .removalListener(this::onRemoval)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Get the complete data set of a concept, reading it with {@code loader} if it is not cached.
+     */
+    public Optional<ConceptDataSet> get(UUID uuid, Function<UUID, Optional<ConceptDataSet>> loader) {
+        var cached = lookup(uuid, true);
+        if (cached != null) {
+            return Optional.of(cached.dataSet);
+        }
+
+        var start = generation();
+        var dataSet = loader.apply(uuid);
+        dataSet.ifPresent(loaded -> put(start, new Entry(loaded, true)));
+
+        return dataSet;
+    }
+
+    /**
+     * Get the records of some concepts, reading those that are not cached with {@code loader} in one go.
+     *
+     * @return The records found, in the order of {@code uuids}.
+     */
+    public List<ConceptRecord> getAllRecords(Collection<UUID> uuids,
+                                             Function<Collection<UUID>, List<ConceptRecord>> loader) {
+        var records = new LinkedHashMap<UUID, ConceptRecord>();
+        var missing = new ArrayList<UUID>();
+
+        for (var uuid : uuids) {
+            var cached = lookup(uuid, false);
+            records.put(uuid, cached == null ? null : cached.dataSet.getRecord());
+            if (cached == null) {
+                missing.add(uuid);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            var start = generation();
+            for (var record : loader.apply(missing)) {
+                records.put(record.getUuid(), record);
+                put(start, new Entry(new ConceptDataSet(record, List.of()), false));
+            }
+        }
+
+        records.values().removeIf(Objects::isNull);
+        return new ArrayList<>(records.values());
+    }
+
+    /**
+     * Invalidate some concepts and every cached concept with a relationship to one of them.
+     */
+    public synchronized void invalidateAll(Collection<UUID> uuids) {
+        generation++;
+
+        for (var uuid : uuids) {
+            cache.invalidate(uuid);
+
+            var related = dependents.remove(uuid);
+            if (related != null) {
+                cache.invalidateAll(related);
+            }
+        }
+    }
+
+    /**
+     * Get the number of reads served from the cache.
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Get the number of reads that had to go to the database.
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Get the number of concepts evicted to keep the cache within its size.
+     */
+    public long getEvictionCount() {
+        cache.cleanUp();
+        return cache.stats().evictionCount();
+    }
+
+    /**
+     * Get the number of cached concepts.
+     */
+    public long getSize() {
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+
+    /**
+     * Look up a cached concept, without counting it as a use of the cache, which only knows whether an entry was
+     * found and not whether it served the read.
+     */
+    private Entry lookup(UUID uuid, boolean complete) {
+        var cached = cache.asMap().get(uuid);
+        if (cached == null || (complete && !cached.complete)) {
+            misses.increment();
+            return null;
+        }
+
+        hits.increment();
+        return cached;
+    }
+
+    private synchronized long generation() {
+        return generation;
+    }
+
+    private synchronized void put(long start, Entry entry) {
+        if (generation != start) {
+            return;
+        }
+
+        var uuid = entry.dataSet.getRecord().getUuid();
+
+        // A complete data set is never replaced by a record alone.
+        var existing = cache.getIfPresent(uuid);
+        if (existing != null && existing.complete && !entry.complete) {
+            return;
+        }
+
+        for (var relationship : entry.dataSet.getRelationshipRecords()) {
+            dependents.computeIfAbsent(relationship.getTarget(), target -> ConcurrentHashMap.newKeySet()).add(uuid);
+        }
+
+        cache.put(uuid, entry);
+    }
+
+    private void onRemoval(UUID uuid, Entry entry, RemovalCause cause) {
+        if (entry == null || cause == RemovalCause.REPLACED) {
+            return;
+        }
+
+        for (var relationship : entry.dataSet.getRelationshipRecords()) {
+            dependents.computeIfPresent(relationship.getTarget(), (target, related) -> {
+                related.remove(uuid);
+                return related.isEmpty() ? null : related;
+            });
+        }
+    }
+
+    private static int weigh(ConceptDataSet dataSet) {
+        var weight = new long[] {BASE_WEIGHT};
+
+        new ConceptLabelExtractor(dataSet.getRecord()).extractTo((property, literal) ->
+                literal.values().forEach(value -> weight[0] += value.length()));
+
+        for (ConceptRelationshipRecord relationship : dataSet.getRelationshipRecords()) {
+            weight[0] += RELATIONSHIP_WEIGHT;
+            for (var label : relationship.getTargetPreferredLabel().values()) {
+                weight[0] += label.length();
+            }
+        }
+
+        return (int) Math.min(weight[0], Integer.MAX_VALUE);
+    }
+
+    private static final class Entry {
+        private final ConceptDataSet dataSet;
+        private final boolean complete;
+        private final int weight;
+
+        Entry(ConceptDataSet dataSet, boolean complete) {
+            this.dataSet = dataSet;
+            this.complete = complete;
+            this.weight = weigh(dataSet);
+        }
+    }
+}
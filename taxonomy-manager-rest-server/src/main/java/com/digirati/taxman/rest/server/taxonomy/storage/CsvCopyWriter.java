@@ -0,0 +1,96 @@
+package com.digirati.taxman.rest.server.taxonomy.storage;
+
+import org.postgresql.copy.CopyIn;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+
+/**
+ * Writes rows to a PostgreSQL {@code COPY ... FROM STDIN (FORMAT csv)} operation, sending them in chunks rather than
+ * building the whole input in memory.
+ *
+ * <p>Every value but {@code null} is quoted, so that empty strings are told apart from {@code null}, which is
+ * written as nothing.
+ */
+final class CsvCopyWriter {
+
+    private static final int CHUNK_SIZE = 1 << 16;
+
+    private final CopyIn copy;
+    private final StringBuilder chunk = new StringBuilder(CHUNK_SIZE + 1024);
+
+    private boolean rowStarted;
+
+    CsvCopyWriter(CopyIn copy) {
+        this.copy = copy;
+    }
+
+    /**
+     * Write the next value of the current row, as its string form.
+     */
+    CsvCopyWriter value(Object value) {
+        if (rowStarted) {
+            chunk.append(',');
+        }
+
+        rowStarted = true;
+        if (value == null) {
+            return this;
+        }
+
+        var text = value.toString();
+        chunk.append('"');
+        for (int index = 0; index < text.length(); index++) {
+            char character = text.charAt(index);
+            if (character == '"') {
+                chunk.append('"');
+            }
+
+            chunk.append(character);
+        }
+
+        chunk.append('"');
+        return this;
+    }
+
+    /**
+     * End the current row, sending the rows written so far once they fill a chunk.
+     */
+    void endRow() throws SQLException {
+        chunk.append('\n');
+        rowStarted = false;
+
+        if (chunk.length() >= CHUNK_SIZE) {
+            flush();
+        }
+    }
+
+    /**
+     * Send the remaining rows and complete the operation.
+     *
+     * @return The number of rows copied.
+     */
+    long finish() throws SQLException {
+        flush();
+        return copy.endCopy();
+    }
+
+    /**
+     * Abandon the operation, if it is still in progress, e.g. after a row could not be written.
+     */
+    void cancel() throws SQLException {
+        if (copy.isActive()) {
+            copy.cancelCopy();
+        }
+    }
+
+    private void flush() throws SQLException {
+        if (chunk.length() == 0) {
+            return;
+        }
+
+        var bytes = chunk.toString().getBytes(StandardCharsets.UTF_8);
+        copy.writeToCopy(bytes, 0, bytes.length);
+        chunk.setLength(0);
+    }
+}
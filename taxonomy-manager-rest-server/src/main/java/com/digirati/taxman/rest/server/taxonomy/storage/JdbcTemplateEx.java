@@ -2,21 +2,33 @@ package com.digirati.taxman.rest.server.taxonomy.storage;
 
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.jdbc.core.ArgumentTypePreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.RowMapperResultSetExtractor;
+import org.springframework.jdbc.support.JdbcUtils;
 import org.springframework.lang.NonNull;
 import org.springframework.lang.Nullable;
 import org.springframework.util.CollectionUtils;
 
 import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * An extension of JdbcTemplate that provides a queryForOptional, as a variant
- * of queryForObject that doesn't throw if the queried object is not found.
+ * of queryForObject that doesn't throw if the queried object is not found, and
+ * a queryForStream that maps rows as they are fetched.
  */
 public class JdbcTemplateEx extends JdbcTemplate {
 
@@ -84,4 +96,114 @@ public class JdbcTemplateEx extends JdbcTemplate {
     public <T> Optional<T> queryForOptional(String sql, Class<T> requiredType, @Nullable Object... args) throws DataAccessException {
         return queryForOptional(sql, args, getSingleColumnRowMapper(requiredType));
     }
+
+    /**
+     * Run a query and map its rows as the returned stream is consumed, rather than reading every row into memory
+     * first. The PostgreSQL driver only fetches rows in batches from a cursor, which needs autocommit to be off, so
+     * the query runs in its own read-only transaction on a dedicated connection, unless the connection is already in
+     * a transaction, which the query then joins and leaves open.
+     *
+     * <p>The connection is held until the stream is closed, so callers must close it, e.g. with
+     * try-with-resources.
+     *
+     * @param fetchSize the number of rows fetched from the database at a time
+     */
+    @NonNull
+    public <T> Stream<T> queryForStream(String sql, Object[] args, int[] argTypes, RowMapper<T> rowMapper,
+                                        int fetchSize) throws DataAccessException {
+        Connection connection = null;
+        PreparedStatement statement = null;
+        boolean ownTransaction = false;
+
+        try {
+            connection = getDataSource().getConnection();
+            ownTransaction = connection.getAutoCommit();
+            if (ownTransaction) {
+                connection.setAutoCommit(false);
+                connection.setReadOnly(true);
+            }
+
+            statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            new ArgumentTypePreparedStatementSetter(args, argTypes).setValues(statement);
+
+            var cursor = new Cursor<>(sql, connection, ownTransaction, statement, statement.executeQuery(), rowMapper);
+            return StreamSupport.stream(cursor, false).onClose(cursor::close);
+        } catch (SQLException e) {
+            JdbcUtils.closeStatement(statement);
+            release(connection, ownTransaction);
+            throw translateException("queryForStream", sql, e);
+        }
+    }
+
+    private void release(@Nullable Connection connection, boolean ownTransaction) {
+        if (connection == null) {
+            return;
+        }
+
+        if (!ownTransaction) {
+            JdbcUtils.closeConnection(connection);
+            return;
+        }
+
+        try {
+            connection.rollback();
+            connection.setReadOnly(false);
+            connection.setAutoCommit(true);
+        } catch (SQLException e) {
+            logger.debug("Could not reset JDBC connection after streaming query", e);
+        }
+
+        JdbcUtils.closeConnection(connection);
+    }
+
+    /**
+     * The rows of an open result set, mapped one at a time.
+     */
+    private final class Cursor<T> extends Spliterators.AbstractSpliterator<T> {
+        private final String sql;
+        private final Connection connection;
+        private final boolean ownTransaction;
+        private final PreparedStatement statement;
+        private final ResultSet resultSet;
+        private final RowMapper<T> rowMapper;
+        private int rowNum;
+        private boolean closed;
+
+        Cursor(String sql, Connection connection, boolean ownTransaction, PreparedStatement statement,
+               ResultSet resultSet, RowMapper<T> rowMapper) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.sql = sql;
+            this.connection = connection;
+            this.ownTransaction = ownTransaction;
+            this.statement = statement;
+            this.resultSet = resultSet;
+            this.rowMapper = rowMapper;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            try {
+                if (closed || !resultSet.next()) {
+                    return false;
+                }
+
+                action.accept(rowMapper.mapRow(resultSet, rowNum++));
+                return true;
+            } catch (SQLException e) {
+                throw translateException("queryForStream", sql, e);
+            }
+        }
+
+        void close() {
+            if (closed) {
+                return;
+            }
+
+            closed = true;
+            JdbcUtils.closeResultSet(resultSet);
+            JdbcUtils.closeStatement(statement);
+            release(connection, ownTransaction);
+        }
+    }
 }
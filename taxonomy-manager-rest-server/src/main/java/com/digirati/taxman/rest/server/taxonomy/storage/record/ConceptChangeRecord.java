@@ -0,0 +1,37 @@
+package com.digirati.taxman.rest.server.taxonomy.storage.record;
+
+import java.time.Instant;
+
+/**
+ * An entry of the `concept_change_log` or `concept_event_outbox` table: the current state of a {@link ConceptRecord}
+ * that has changed, which may have been deleted, and the sequence number and time of its change.
+ */
+public class ConceptChangeRecord {
+    private final ConceptRecord record;
+    private final boolean deleted;
+    private final long sequence;
+    private final Instant changedAt;
+
+    public ConceptChangeRecord(ConceptRecord record, boolean deleted, long sequence, Instant changedAt) {
+        this.record = record;
+        this.deleted = deleted;
+        this.sequence = sequence;
+        this.changedAt = changedAt;
+    }
+
+    public ConceptRecord getRecord() {
+        return record;
+    }
+
+    public boolean isDeleted() {
+        return deleted;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public Instant getChangedAt() {
+        return changedAt;
+    }
+}
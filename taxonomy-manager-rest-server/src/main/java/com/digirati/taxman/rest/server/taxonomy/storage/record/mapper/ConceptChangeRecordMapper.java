@@ -0,0 +1,33 @@
+package com.digirati.taxman.rest.server.taxonomy.storage.record.mapper;
+
+import com.digirati.taxman.rest.server.taxonomy.storage.record.ConceptChangeRecord;
+import com.digirati.taxman.rest.server.taxonomy.storage.record.ConceptRecord;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+public class ConceptChangeRecordMapper implements RowMapper<ConceptChangeRecord> {
+    private final RowMapper<ConceptRecord> recordMapper;
+
+    public ConceptChangeRecordMapper() {
+        this(new ConceptRecordMapper());
+    }
+
+    /**
+     * Create a mapper that maps the concept of each change with {@code recordMapper}, e.g. a
+     * {@link ConceptLabelRecordMapper} for changes of a projection of the concepts.
+     */
+    public ConceptChangeRecordMapper(RowMapper<ConceptRecord> recordMapper) {
+        this.recordMapper = recordMapper;
+    }
+
+    @Override
+    public ConceptChangeRecord mapRow(ResultSet rs, int rowNum) throws SQLException {
+        return new ConceptChangeRecord(
+                recordMapper.mapRow(rs, rowNum),
+                rs.getBoolean("deleted"),
+                rs.getLong("seq"),
+                rs.getTimestamp("changed_at").toInstant());
+    }
+}
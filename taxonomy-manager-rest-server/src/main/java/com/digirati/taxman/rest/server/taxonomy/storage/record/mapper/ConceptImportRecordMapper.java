@@ -0,0 +1,25 @@
+package com.digirati.taxman.rest.server.taxonomy.storage.record.mapper;
+
+import com.digirati.taxman.rest.server.taxonomy.storage.record.ConceptRecord;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.UUID;
+
+/**
+ * Maps the identity a concept was stored under by a bulk import, with its project and source. The other properties
+ * of the record are left empty.
+ */
+public class ConceptImportRecordMapper implements RowMapper<ConceptRecord> {
+    @Override
+    public ConceptRecord mapRow(ResultSet rs, int rowNum) throws SQLException {
+        var uuid = rs.getObject("uuid", UUID.class);
+        var projectSlug = rs.getString("project_slug");
+
+        var record = new ConceptRecord(uuid, projectSlug);
+        record.setSource(rs.getString("source"));
+
+        return record;
+    }
+}
@@ -0,0 +1,27 @@
+package com.digirati.taxman.rest.server.taxonomy.storage.record.mapper;
+
+import com.digirati.taxman.rest.server.taxonomy.storage.record.ConceptRecord;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.UUID;
+
+/**
+ * Maps a projection of a concept that has only its identity and labels. Every other property of the record is
+ * left empty.
+ */
+public class ConceptLabelRecordMapper implements RowMapper<ConceptRecord> {
+    @Override
+    public ConceptRecord mapRow(ResultSet rs, int rowNum) throws SQLException {
+        ConceptRecord record = new ConceptRecord(
+                rs.getObject("uuid", UUID.class),
+                rs.getString("project_slug")
+        );
+
+        record.setPreferredLabel(ResultSetUtils.getPlainLiteralMap(rs, "preferred_label"));
+        record.setAltLabel(ResultSetUtils.getPlainLiteralMap(rs, "alt_label"));
+        record.setHiddenLabel(ResultSetUtils.getPlainLiteralMap(rs, "hidden_label"));
+        return record;
+    }
+}
@@ -0,0 +1,24 @@
+package com.digirati.taxman.rest.server.taxonomy.storage.record.mapper;
+
+import com.digirati.taxman.common.taxonomy.ConceptRelationshipType;
+import com.digirati.taxman.rest.server.taxonomy.storage.record.ConceptRelationshipRecord;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.UUID;
+
+/**
+ * Maps a projection of a relationship that has only its source, target and type. The relationship is not
+ * transitive, and has no target source or preferred label.
+ */
+public class ConceptRelationshipEdgeMapper implements RowMapper<ConceptRelationshipRecord> {
+    @Override
+    public ConceptRelationshipRecord mapRow(ResultSet rs, int rowNum) throws SQLException {
+        var source = rs.getObject("source_uuid", UUID.class);
+        var target = rs.getObject("target_uuid", UUID.class);
+        var type = ConceptRelationshipType.valueOf(rs.getString("relation").toUpperCase());
+
+        return new ConceptRelationshipRecord(source, target, null, type, false);
+    }
+}
@@ -0,0 +1,11 @@
+-- Every change to a concept made through update_concept or delete_concept is appended to this log, so that nodes
+-- that missed a change event can catch up by replaying the log from the last sequence number they applied.
+create table concept_change_log
+(
+    seq          bigserial primary key,
+    concept_uuid uuid                                   not null,
+    changed_at   timestamp with time zone default now() not null
+);
+
+create index concept_change_log_changed_at
+    on concept_change_log (changed_at);
@@ -0,0 +1,27 @@
+-- Concept changes waiting to be published to the cluster. Rows are added in the same transaction as the change, by a
+-- trigger on the change log, and removed by the node that publishes them, so that events are only sent for
+-- committed changes and are not lost if a node stops before sending them.
+create table concept_event_outbox
+(
+    seq          bigserial primary key,
+    concept_uuid uuid                                   not null,
+    changed_at   timestamp with time zone default now() not null
+);
+
+create function concept_change_log_to_outbox() returns trigger as
+$$
+begin
+    insert into concept_event_outbox (concept_uuid, changed_at) values (new.concept_uuid, new.changed_at);
+
+    -- Notifications are delivered on commit, and repeated ones within a transaction are only delivered once.
+    perform pg_notify('concept_event_outbox', '');
+
+    return null;
+end;
+$$ language plpgsql;
+
+create trigger concept_change_log_to_outbox
+    after insert
+    on concept_change_log
+    for each row
+execute procedure concept_change_log_to_outbox();
@@ -0,0 +1,17 @@
+-- Bulk imports log every concept they change, but publish one event per project once they commit rather than an
+-- event per concept, so the outbox is skipped while taxman.concept_import is set for the transaction.
+create or replace function concept_change_log_to_outbox() returns trigger as
+$$
+begin
+    if current_setting('taxman.concept_import', true) = 'on' then
+        return null;
+    end if;
+
+    insert into concept_event_outbox (concept_uuid, changed_at) values (new.concept_uuid, new.changed_at);
+
+    -- Notifications are delivered on commit, and repeated ones within a transaction are only delivered once.
+    perform pg_notify('concept_event_outbox', '');
+
+    return null;
+end;
+$$ language plpgsql;
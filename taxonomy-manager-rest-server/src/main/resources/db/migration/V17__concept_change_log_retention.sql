@@ -0,0 +1,10 @@
+-- Changes older than the retention period are pruned from the concept change log. Every change up to pruned_seq may
+-- have been pruned, so an index that is up to date with an older sequence number can't catch up by replaying the log
+-- and has to be rebuilt.
+create table concept_change_log_retention
+(
+    id         boolean primary key default true check (id),
+    pruned_seq bigint not null     default 0
+);
+
+insert into concept_change_log_retention default values;
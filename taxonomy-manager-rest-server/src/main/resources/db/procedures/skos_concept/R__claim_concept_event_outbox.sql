@@ -0,0 +1,60 @@
+DROP FUNCTION IF EXISTS claim_concept_event_outbox;
+CREATE OR REPLACE FUNCTION claim_concept_event_outbox(_limit integer)
+    RETURNS TABLE
+            (
+                uuid            uuid,
+                project_slug    varchar,
+                source          varchar,
+                preferred_label rdf_plain_literal,
+                alt_label       rdf_plain_literal,
+                hidden_label    rdf_plain_literal,
+                note            rdf_plain_literal,
+                change_note     rdf_plain_literal,
+                editorial_note  rdf_plain_literal,
+                example         rdf_plain_literal,
+                history_note    rdf_plain_literal,
+                scope_note      rdf_plain_literal,
+                definition      rdf_plain_literal,
+                deleted         boolean,
+                seq             bigint,
+                changed_at      timestamp with time zone
+            )
+AS
+$$
+BEGIN
+    -- Remove the oldest entries of the outbox and return the current state of their concepts, with the latest
+    -- sequence number and the earliest change time of each. Entries claimed by another transaction are skipped, so
+    -- that every entry is published by one node, and put back if the claiming transaction rolls back.
+    RETURN QUERY
+        WITH claimed AS (
+            DELETE FROM concept_event_outbox outbox
+                WHERE outbox.seq IN (SELECT pending.seq
+                                     FROM concept_event_outbox pending
+                                     ORDER BY pending.seq
+                                     LIMIT _limit FOR UPDATE SKIP LOCKED)
+                RETURNING outbox.concept_uuid, outbox.seq, outbox.changed_at
+        )
+        SELECT c.uuid,
+               p.slug::varchar,
+               c.source,
+               c.preferred_label,
+               c.alt_label,
+               c.hidden_label,
+               c.note,
+               c.change_note,
+               c.editorial_note,
+               c.example,
+               c.history_note,
+               c.scope_note,
+               c.definition,
+               c.deleted,
+               changes.seq,
+               changes.changed_at
+        FROM (SELECT claimed.concept_uuid, max(claimed.seq) AS seq, min(claimed.changed_at) AS changed_at
+              FROM claimed
+              GROUP BY claimed.concept_uuid) changes
+                 INNER JOIN skos_concept c ON c.uuid = changes.concept_uuid
+                 INNER JOIN project p ON p.id = c.project_id
+        ORDER BY changes.seq;
+END;
+$$ LANGUAGE plpgsql;
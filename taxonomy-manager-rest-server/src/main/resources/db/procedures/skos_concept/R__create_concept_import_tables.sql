@@ -0,0 +1,37 @@
+DROP PROCEDURE IF EXISTS create_concept_import_tables;
+CREATE OR REPLACE PROCEDURE create_concept_import_tables()
+    LANGUAGE plpgsql
+AS
+$$
+BEGIN
+    -- Staging tables filled with COPY by a bulk import and merged by merge_concept_import. They are dropped when
+    -- the importing transaction ends.
+    CREATE TEMPORARY TABLE concept_import
+    (
+        seq             bigserial,
+        uuid            uuid  NOT NULL,
+        original_uuid   uuid  NOT NULL,
+        project_slug    varchar,
+        source          varchar,
+        preferred_label jsonb NOT NULL,
+        alt_label       jsonb NOT NULL,
+        hidden_label    jsonb NOT NULL,
+        note            jsonb NOT NULL,
+        change_note     jsonb NOT NULL,
+        editorial_note  jsonb NOT NULL,
+        example         jsonb NOT NULL,
+        history_note    jsonb NOT NULL,
+        scope_note      jsonb NOT NULL,
+        definition      jsonb NOT NULL
+    ) ON COMMIT DROP;
+
+    CREATE TEMPORARY TABLE concept_relation_import
+    (
+        source_uuid   uuid                        NOT NULL,
+        target_uuid   uuid                        NOT NULL,
+        target_source varchar,
+        relation      skos_semantic_relation_type NOT NULL,
+        transitive    boolean                     NOT NULL
+    ) ON COMMIT DROP;
+END;
+$$;
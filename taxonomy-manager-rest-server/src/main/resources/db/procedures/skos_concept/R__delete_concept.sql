@@ -7,5 +7,6 @@ AS
 $$
 BEGIN
     UPDATE skos_concept concept SET deleted = true WHERE concept.uuid = _uuid;
+    INSERT INTO concept_change_log (concept_uuid) VALUES (_uuid);
 END;
 $$;
@@ -0,0 +1,22 @@
+DROP FUNCTION IF EXISTS get_all_concept_labels;
+CREATE OR REPLACE FUNCTION get_all_concept_labels()
+    RETURNS TABLE
+            (
+                uuid            uuid,
+                project_slug    varchar,
+                preferred_label rdf_plain_literal,
+                alt_label       rdf_plain_literal,
+                hidden_label    rdf_plain_literal
+            )
+AS
+$$
+BEGIN
+    RETURN QUERY
+        SELECT concept.uuid,
+               concept.project_slug::varchar,
+               concept.preferred_label,
+               concept.alt_label,
+               concept.hidden_label
+        FROM skos_concept_ex concept;
+END;
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,36 @@
+DROP FUNCTION IF EXISTS get_concept_labels_changed_since;
+CREATE OR REPLACE FUNCTION get_concept_labels_changed_since(_seq bigint)
+    RETURNS TABLE
+            (
+                uuid            uuid,
+                project_slug    varchar,
+                preferred_label rdf_plain_literal,
+                alt_label       rdf_plain_literal,
+                hidden_label    rdf_plain_literal,
+                deleted         boolean,
+                seq             bigint,
+                changed_at      timestamp with time zone
+            )
+AS
+$$
+BEGIN
+    -- The identity, project and labels of every concept in the change log after the given sequence number, as
+    -- returned by get_concepts_changed_since, without the notes that make up most of the size of a concept.
+    RETURN QUERY
+        SELECT c.uuid,
+               p.slug::varchar,
+               c.preferred_label,
+               c.alt_label,
+               c.hidden_label,
+               c.deleted,
+               changes.seq,
+               changes.changed_at
+        FROM (SELECT log.concept_uuid, max(log.seq) AS seq, max(log.changed_at) AS changed_at
+              FROM concept_change_log log
+              WHERE log.seq > _seq
+              GROUP BY log.concept_uuid) changes
+                 INNER JOIN skos_concept c ON c.uuid = changes.concept_uuid
+                 INNER JOIN project p ON p.id = c.project_id
+        ORDER BY changes.seq;
+END;
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,53 @@
+DROP FUNCTION IF EXISTS get_concepts_changed_since;
+CREATE OR REPLACE FUNCTION get_concepts_changed_since(_seq bigint)
+    RETURNS TABLE
+            (
+                uuid            uuid,
+                project_slug    varchar,
+                source          varchar,
+                preferred_label rdf_plain_literal,
+                alt_label       rdf_plain_literal,
+                hidden_label    rdf_plain_literal,
+                note            rdf_plain_literal,
+                change_note     rdf_plain_literal,
+                editorial_note  rdf_plain_literal,
+                example         rdf_plain_literal,
+                history_note    rdf_plain_literal,
+                scope_note      rdf_plain_literal,
+                definition      rdf_plain_literal,
+                deleted         boolean,
+                seq             bigint,
+                changed_at      timestamp with time zone
+            )
+AS
+$$
+BEGIN
+    -- Every concept in the change log after the given sequence number, in its current state and with the sequence
+    -- number and time of its latest change. Soft deleted concepts are included, so callers can drop them from
+    -- anything derived from the concepts.
+    RETURN QUERY
+        SELECT c.uuid,
+               p.slug::varchar,
+               c.source,
+               c.preferred_label,
+               c.alt_label,
+               c.hidden_label,
+               c.note,
+               c.change_note,
+               c.editorial_note,
+               c.example,
+               c.history_note,
+               c.scope_note,
+               c.definition,
+               c.deleted,
+               changes.seq,
+               changes.changed_at
+        FROM (SELECT log.concept_uuid, max(log.seq) AS seq, max(log.changed_at) AS changed_at
+              FROM concept_change_log log
+              WHERE log.seq > _seq
+              GROUP BY log.concept_uuid) changes
+                 INNER JOIN skos_concept c ON c.uuid = changes.concept_uuid
+                 INNER JOIN project p ON p.id = c.project_id
+        ORDER BY changes.seq;
+END;
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,8 @@
+DROP FUNCTION IF EXISTS get_pruned_concept_change_seq;
+CREATE OR REPLACE FUNCTION get_pruned_concept_change_seq() RETURNS bigint AS
+$$
+BEGIN
+    -- Every change up to this sequence number may have been pruned from the concept change log.
+    RETURN (SELECT retention.pruned_seq FROM concept_change_log_retention retention);
+END;
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,13 @@
+DROP FUNCTION IF EXISTS get_settled_concept_change_seq;
+CREATE OR REPLACE FUNCTION get_settled_concept_change_seq(_settle_seconds integer) RETURNS bigint AS
+$$
+BEGIN
+    -- Sequence numbers are taken before a change is committed, so a change may become visible after changes with
+    -- greater sequence numbers. Changes made longer ago than the settle time are assumed to be committed, and so are
+    -- the changes pruned from the log, which are older still.
+    RETURN greatest((SELECT coalesce(max(log.seq), 0)
+                     FROM concept_change_log log
+                     WHERE log.changed_at < now() - make_interval(secs => _settle_seconds)),
+                    get_pruned_concept_change_seq());
+END;
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,182 @@
+DROP FUNCTION IF EXISTS merge_concept_import;
+CREATE OR REPLACE FUNCTION merge_concept_import()
+    RETURNS TABLE
+            (
+                uuid         uuid,
+                project_slug varchar,
+                source       varchar
+            )
+AS
+$$
+#variable_conflict use_column
+BEGIN
+    -- Merge the concepts and relations staged by a bulk import, in a fixed number of statements however many there
+    -- are, and return the identity every concept was stored under.
+
+    -- Temporary tables are never analyzed automatically, and the plans below depend on their size.
+    ANALYZE concept_import;
+    ANALYZE concept_relation_import;
+
+    -- Keep the last row staged for every concept.
+    DELETE FROM concept_import i
+        USING concept_import later
+    WHERE later.source = i.source
+      AND later.seq > i.seq;
+
+    -- Concepts are matched by source before identity, as update_concept does, so that importing a file again
+    -- updates the concepts it created the first time.
+    UPDATE concept_import i
+    SET uuid = c.uuid
+    FROM skos_concept c
+    WHERE c.source = i.source
+      AND c.uuid <> i.uuid;
+
+    DELETE FROM concept_import i
+        USING concept_import later
+    WHERE later.uuid = i.uuid
+      AND later.seq > i.seq;
+
+    INSERT INTO skos_concept AS c (uuid,
+                                   project_id,
+                                   source,
+                                   preferred_label,
+                                   alt_label,
+                                   hidden_label,
+                                   note,
+                                   change_note,
+                                   editorial_note,
+                                   example,
+                                   history_note,
+                                   scope_note,
+                                   definition)
+    SELECT i.uuid,
+           coalesce(p.id, existing.project_id),
+           i.source,
+           i.preferred_label,
+           i.alt_label,
+           i.hidden_label,
+           i.note,
+           i.change_note,
+           i.editorial_note,
+           i.example,
+           i.history_note,
+           i.scope_note,
+           i.definition
+    FROM concept_import i
+             LEFT JOIN project p ON p.slug = i.project_slug
+             LEFT JOIN skos_concept existing ON existing.uuid = i.uuid
+    ON CONFLICT (uuid) DO UPDATE
+        SET source          = excluded.source,
+            preferred_label = excluded.preferred_label,
+            alt_label       = excluded.alt_label,
+            hidden_label    = excluded.hidden_label,
+            note            = excluded.note,
+            change_note     = excluded.change_note,
+            editorial_note  = excluded.editorial_note,
+            example         = excluded.example,
+            history_note    = excluded.history_note,
+            scope_note      = excluded.scope_note,
+            definition      = excluded.definition;
+
+    -- Create the targets of relations that don't exist yet, in the project of the concept referring to them.
+    INSERT INTO skos_concept (uuid, source, project_id)
+    SELECT DISTINCT ON (coalesce(r.target_source, r.target_uuid::varchar)) r.target_uuid,
+                                                                           r.target_source,
+                                                                           sc.project_id
+    FROM concept_relation_import r
+             INNER JOIN concept_import i ON i.original_uuid = r.source_uuid
+             INNER JOIN skos_concept sc ON sc.uuid = i.uuid
+    WHERE NOT EXISTS(SELECT 1 FROM skos_concept t WHERE t.source = r.target_source)
+      AND NOT EXISTS(SELECT 1 FROM skos_concept t WHERE t.uuid = r.target_uuid)
+    ON CONFLICT DO NOTHING;
+
+    -- Resolve every relation in one pass, preferring the target with the given source, as the identities of
+    -- targets outside of this system are made up by the importer.
+    CREATE TEMPORARY TABLE concept_relation_merge ON COMMIT DROP AS
+    SELECT DISTINCT sc.id                  AS source_id,
+                    coalesce(ts.id, tu.id) AS target_id,
+                    r.relation,
+                    r.transitive
+    FROM concept_relation_import r
+             INNER JOIN concept_import i ON i.original_uuid = r.source_uuid
+             INNER JOIN skos_concept sc ON sc.uuid = i.uuid
+             LEFT JOIN skos_concept_ex ts ON ts.source = r.target_source
+             LEFT JOIN skos_concept_ex tu ON tu.uuid = r.target_uuid
+    WHERE coalesce(ts.id, tu.id) IS NOT NULL;
+
+    ANALYZE concept_relation_merge;
+
+    DELETE
+    FROM skos_concept_semantic_relation relation
+        USING concept_import i
+            INNER JOIN skos_concept sc ON sc.uuid = i.uuid
+    WHERE relation.source_id = sc.id
+      AND NOT EXISTS(SELECT 1
+                     FROM concept_relation_merge m
+                     WHERE m.source_id = relation.source_id
+                       AND m.target_id = relation.target_id
+                       AND m.relation = relation.relation
+                       AND m.transitive = relation.transitive);
+
+    CREATE TEMPORARY TABLE concept_relation_added
+    (
+        source_id  bigint,
+        target_id  bigint,
+        relation   skos_semantic_relation_type,
+        transitive boolean
+    ) ON COMMIT DROP;
+
+    WITH added AS (
+        INSERT INTO skos_concept_semantic_relation (relation, transitive, source_id, target_id)
+            SELECT m.relation, m.transitive, m.source_id, m.target_id
+            FROM concept_relation_merge m
+            ON CONFLICT DO NOTHING
+            RETURNING source_id, target_id, relation, transitive
+    )
+    INSERT INTO concept_relation_added
+    SELECT * FROM added;
+
+    -- Log the changes without queueing an event per concept, as the importer publishes one per project. The time
+    -- of the merge is logged rather than the start of the transaction, which may have spent a while staging rows,
+    -- so that the settle time of the change log replay counts from here.
+    PERFORM set_config('taxman.concept_import', 'on', true);
+
+    -- Every new broader or narrower relation gets its inverse, as ConceptModelRepository does for a single concept.
+    -- The concepts given an inverse relation have changed too.
+    WITH inverse AS (
+        INSERT INTO skos_concept_semantic_relation (relation, transitive, source_id, target_id)
+            SELECT CASE a.relation
+                       WHEN 'broader' THEN 'narrower'::skos_semantic_relation_type
+                       ELSE 'broader'::skos_semantic_relation_type
+                       END,
+                   false,
+                   a.target_id,
+                   a.source_id
+            FROM concept_relation_added a
+            WHERE a.relation IN ('broader', 'narrower')
+              AND NOT a.transitive
+            ON CONFLICT DO NOTHING
+            RETURNING source_id
+    )
+    INSERT INTO concept_change_log (concept_uuid, changed_at)
+    SELECT related.uuid, clock_timestamp()
+    FROM (SELECT DISTINCT c.uuid
+          FROM inverse
+                   INNER JOIN skos_concept c ON c.id = inverse.source_id
+          WHERE NOT EXISTS(SELECT 1 FROM concept_import i WHERE i.uuid = c.uuid)) related;
+
+    INSERT INTO concept_change_log (concept_uuid, changed_at)
+    SELECT i.uuid, clock_timestamp()
+    FROM concept_import i
+    ORDER BY i.seq;
+
+    PERFORM set_config('taxman.concept_import', 'off', true);
+
+    RETURN QUERY
+        SELECT i.uuid, p.slug::varchar, i.source
+        FROM concept_import i
+                 INNER JOIN skos_concept c ON c.uuid = i.uuid
+                 INNER JOIN project p ON p.id = c.project_id
+        ORDER BY i.seq;
+END;
+$$ LANGUAGE plpgsql;
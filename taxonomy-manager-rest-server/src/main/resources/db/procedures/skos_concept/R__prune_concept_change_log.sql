@@ -0,0 +1,22 @@
+DROP FUNCTION IF EXISTS prune_concept_change_log;
+CREATE OR REPLACE FUNCTION prune_concept_change_log(_retention_seconds integer) RETURNS bigint AS
+$$
+DECLARE
+    _pruned_seq bigint;
+BEGIN
+    -- Delete the changes made longer ago than the retention period, and record the greatest sequence number deleted.
+    -- The row lock on concept_change_log_retention serializes nodes pruning at the same time.
+    SELECT retention.pruned_seq INTO _pruned_seq FROM concept_change_log_retention retention FOR UPDATE;
+
+    WITH pruned AS (
+        DELETE FROM concept_change_log log
+            WHERE log.changed_at < now() - make_interval(secs => _retention_seconds)
+            RETURNING log.seq
+    )
+    SELECT greatest(_pruned_seq, coalesce(max(pruned.seq), 0)) INTO _pruned_seq FROM pruned;
+
+    UPDATE concept_change_log_retention SET pruned_seq = _pruned_seq;
+
+    RETURN _pruned_seq;
+END;
+$$ LANGUAGE plpgsql;
@@ -17,6 +17,9 @@ CREATE OR REPLACE PROCEDURE update_concept(_uuid uuid,
     LANGUAGE plpgsql
 AS
 $$
+DECLARE
+    -- The upserts can update a concept with the same source but another uuid, which is the one that changed.
+    _stored_uuid uuid;
 BEGIN
     LOOP
         UPDATE skos_concept c
@@ -34,6 +37,7 @@ BEGIN
         WHERE source = _source
           AND uuid = _uuid;
         IF found THEN
+            INSERT INTO concept_change_log (concept_uuid) VALUES (_uuid);
             RETURN;
         END IF;
 
@@ -81,7 +85,9 @@ BEGIN
                     example         = _example,
                     history_note    = _history_note,
                     scope_note      = _scope_note,
-                    definition      = _definition;
+                    definition      = _definition
+            RETURNING c.uuid INTO _stored_uuid;
+            INSERT INTO concept_change_log (concept_uuid) VALUES (_stored_uuid);
             RETURN;
         EXCEPTION
             WHEN unique_violation THEN
@@ -125,7 +131,9 @@ BEGIN
                             example         = _example,
                             history_note    = _history_note,
                             scope_note      = _scope_note,
-                            definition      = _definition;
+                            definition      = _definition
+                    RETURNING c.uuid INTO _stored_uuid;
+                    INSERT INTO concept_change_log (concept_uuid) VALUES (_stored_uuid);
                     RETURN;
                 EXCEPTION
                     WHEN unique_violation THEN
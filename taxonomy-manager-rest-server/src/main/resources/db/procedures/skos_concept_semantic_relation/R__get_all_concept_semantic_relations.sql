@@ -0,0 +1,23 @@
+DROP FUNCTION IF EXISTS get_all_concept_semantic_relations;
+CREATE OR REPLACE FUNCTION get_all_concept_semantic_relations()
+RETURNS TABLE (
+    source_uuid uuid,
+    target_uuid uuid,
+    relation    skos_semantic_relation_type
+)
+AS
+$$
+BEGIN
+    -- Relations to deleted concepts are kept, as get_concept_semantic_relations_recursive follows them, but
+    -- relations of deleted concepts are not.
+    RETURN QUERY
+        SELECT DISTINCT sc.uuid AS source_uuid,
+                        tc.uuid AS target_uuid,
+                        sr.relation
+        FROM skos_concept_semantic_relation sr
+                 INNER JOIN skos_concept_ex sc
+                            ON sc.id = sr.source_id
+                 INNER JOIN skos_concept tc
+                            ON tc.id = sr.target_id;
+END;
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,22 @@
+DROP FUNCTION IF EXISTS get_concepts_semantic_relations;
+CREATE OR REPLACE FUNCTION get_concepts_semantic_relations(_uuids uuid[])
+RETURNS TABLE (
+    source_uuid uuid,
+    target_uuid uuid,
+    relation    skos_semantic_relation_type
+)
+AS
+$$
+BEGIN
+    RETURN QUERY
+        SELECT DISTINCT sc.uuid AS source_uuid,
+                        tc.uuid AS target_uuid,
+                        sr.relation
+        FROM skos_concept_ex sc
+                 INNER JOIN skos_concept_semantic_relation sr
+                            ON sr.source_id = sc.id
+                 INNER JOIN skos_concept tc
+                            ON tc.id = sr.target_id
+        WHERE sc.uuid = ANY (_uuids);
+END;
+$$ LANGUAGE plpgsql;
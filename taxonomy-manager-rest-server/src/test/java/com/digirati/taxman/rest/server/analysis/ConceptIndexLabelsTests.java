@@ -0,0 +1,57 @@
+package com.digirati.taxman.rest.server.analysis;
+
+import com.digirati.taxman.analysis.index.Term;
+import com.digirati.taxman.rest.server.taxonomy.storage.record.ConceptRecord;
+import com.google.common.collect.ImmutableListMultimap;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ConceptIndexLabelsTests {
+    private static ConceptRecord createRecord() {
+        var record = new ConceptRecord(UUID.randomUUID(), "project");
+        record.setPreferredLabel(ImmutableListMultimap.of("en", "steel girder", "de", "Stahlträger"));
+        record.setHiddenLabel(ImmutableListMultimap.of("en", "girders"));
+        record.setDefinition(ImmutableListMultimap.of("en", "A large iron or steel beam used in building."));
+
+        return record;
+    }
+
+    @Test
+    void extract_IndexesOnlyLabelsByDefault() {
+        var labels = ConceptIndexLabels.extract(createRecord(), ConceptIndexLabels.LABEL_PROPERTIES, "en");
+
+        assertEquals(List.of(new Term("steel girder", 3), new Term("girders", 1)), labels.get("en"));
+    }
+
+    @Test
+    void extract_IndexesPropertiesInProfile() {
+        var labels = ConceptIndexLabels.extract(createRecord(), Set.of("prefLabel", "definition"), "en");
+
+        assertEquals(List.of(new Term("steel girder", 3), Term.of("A large iron or steel beam used in building.")),
+                labels.get("en"));
+    }
+
+    @Test
+    void extract_GroupsLabelsByLanguage() {
+        var record = createRecord();
+        record.setAltLabel(ImmutableListMultimap.of("en-GB", "steel beam", "", "RSJ"));
+
+        var labels = ConceptIndexLabels.extract(record, ConceptIndexLabels.LABEL_PROPERTIES, "en");
+
+        assertEquals(Map.of(
+                "en", List.of(new Term("steel girder", 3), new Term("steel beam", 2), new Term("RSJ", 2),
+                        new Term("girders", 1)),
+                "de", List.of(new Term("Stahlträger", 3))), labels);
+    }
+
+    @Test
+    void knownProperties_IncludeEveryExtractedProperty() {
+        assertEquals(10, ConceptIndexLabels.KNOWN_PROPERTIES.size());
+    }
+}
@@ -0,0 +1,97 @@
+package com.digirati.taxman.rest.server.analysis;
+
+import com.digirati.taxman.analysis.TermMatch;
+import com.digirati.taxman.analysis.WordToken;
+import com.digirati.taxman.analysis.nlp.AnnotationType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TagRankingTests {
+    private static final UUID GIRDER = UUID.fromString("3828f4e5-ad0d-402c-978a-e2b9939332c7");
+    private static final UUID BEAM = UUID.fromString("b0b7a5a6-9b44-4c64-9a0e-6a8d0b3c1f52");
+    private static final UUID STEEL = UUID.fromString("5d0a7c64-2f3b-4f6e-8a4d-7c1e9b2d3f40");
+
+    private static TermMatch<UUID> match(UUID uuid, int begin, int tokens, int weight) {
+        return match(uuid, begin, tokens, weight, 0);
+    }
+
+    private static TermMatch<UUID> match(UUID uuid, int begin, int tokens, int weight, int distance) {
+        var matched = new ArrayList<WordToken>();
+        for (int token = 0; token < tokens; token++) {
+            int start = begin + token * 6;
+            matched.add(new WordToken(Map.of(AnnotationType.TOKEN, "token"), start, start + 5));
+        }
+
+        return new TermMatch<>(uuid, matched, weight, distance);
+    }
+
+    private static List<UUID> uuids(List<TagRanking.RankedConcept> ranked) {
+        return ranked.stream().map(TagRanking.RankedConcept::getUuid).collect(Collectors.toList());
+    }
+
+    @Test
+    void rank_PrefersPreferredLabels() {
+        var ranked = TagRanking.rank(List.of(match(GIRDER, 500, 1, 1), match(BEAM, 500, 1, 3)), 1000,
+                Integer.MAX_VALUE, 0);
+
+        assertEquals(List.of(BEAM, GIRDER), uuids(ranked));
+    }
+
+    @Test
+    void rank_PrefersEarlierAndLongerOccurrences() {
+        var matches = List.of(match(GIRDER, 900, 1, 3), match(BEAM, 0, 1, 3), match(STEEL, 900, 2, 3));
+        var ranked = TagRanking.rank(matches, 1000, Integer.MAX_VALUE, 0);
+
+        assertEquals(List.of(STEEL, BEAM, GIRDER), uuids(ranked));
+    }
+
+    @Test
+    void rank_KeepsBestConceptsUpToLimit() {
+        var ranked = TagRanking.rank(List.of(
+                match(GIRDER, 0, 1, 3),
+                match(BEAM, 0, 1, 3), match(BEAM, 100, 1, 3),
+                match(STEEL, 0, 1, 3), match(STEEL, 100, 1, 3), match(STEEL, 200, 1, 3)), 1000, 2, 0);
+
+        assertEquals(List.of(STEEL, BEAM), uuids(ranked));
+    }
+
+    @Test
+    void rank_SkipsConceptsBelowMinScore() {
+        var ranked = TagRanking.rank(List.of(match(GIRDER, 0, 2, 3), match(BEAM, 999, 1, 0)), 1000,
+                Integer.MAX_VALUE, 1.0);
+
+        assertEquals(List.of(GIRDER), uuids(ranked));
+    }
+
+    @Test
+    void rank_CountsOccurrenceMatchedByManyLabelsOnce() {
+        var ranked = TagRanking.rank(List.of(match(GIRDER, 0, 1, 1), match(GIRDER, 0, 1, 3)), 1000,
+                Integer.MAX_VALUE, 0);
+
+        assertEquals(1, ranked.get(0).getOccurrences().size());
+        assertEquals(1.0 + TagRanking.POSITION_BONUS, ranked.get(0).getScore());
+    }
+
+    @Test
+    void rank_PrefersExactMatches() {
+        var ranked = TagRanking.rank(List.of(match(GIRDER, 0, 1, 3, 1), match(BEAM, 500, 1, 3)), 1000,
+                Integer.MAX_VALUE, 0);
+
+        assertEquals(List.of(BEAM, GIRDER), uuids(ranked));
+    }
+
+    @Test
+    void rank_CountsExactLabelOverFuzzyLabelAtSameOccurrence() {
+        var ranked = TagRanking.rank(List.of(match(GIRDER, 0, 1, 3, 2), match(GIRDER, 0, 1, 1)), 1000,
+                Integer.MAX_VALUE, 0);
+
+        assertEquals(0, ranked.get(0).getOccurrences().get(0).getDistance());
+    }
+}
@@ -0,0 +1,103 @@
+package com.digirati.taxman.rest.server.analysis;
+
+import com.digirati.taxman.analysis.WordTokenSearchEntry;
+import com.digirati.taxman.analysis.index.MultilingualTermIndex;
+import com.digirati.taxman.analysis.index.Term;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class TermIndexWarmupTests {
+    private static final UUID STEEL = new UUID(0, 1);
+    private static final UUID IRON = new UUID(0, 2);
+
+    private final List<UUID> replaced = new ArrayList<>();
+
+    private final List<Map<String, ? extends Collection<WordTokenSearchEntry<UUID>>>> replacedEntries =
+            new ArrayList<>();
+
+    private TermIndexWarmup warmup;
+
+    private static Map<UUID, Map<String, List<Term>>> labels(UUID uuid) {
+        return Map.of(uuid, Map.of("en", List.of(Term.of(uuid.toString()))));
+    }
+
+    @BeforeEach
+    void createWarmup() {
+        warmup = new TermIndexWarmup();
+        warmup.termIndex = new MultilingualTermIndex<>(language -> null) {
+            @Override
+            public Map<String, List<WordTokenSearchEntry<UUID>>> tokenizeAll(
+                    String scope, Map<UUID, ? extends Map<String, ? extends Collection<Term>>> terms) {
+                return Map.of();
+            }
+
+            @Override
+            public synchronized void replaceAllTokenized(String scope, Set<UUID> ids,
+                    Map<String, ? extends Collection<WordTokenSearchEntry<UUID>>> entries) {
+                replaced.addAll(ids);
+                replacedEntries.add(entries);
+            }
+        };
+    }
+
+    @Test
+    void complete_AppliesChangesHeldBackDuringWarmup() {
+        warmup.replaceAll("project", labels(STEEL));
+        assertEquals(List.of(), replaced);
+
+        warmup.complete();
+        warmup.replaceAll("project", labels(IRON));
+
+        assertEquals(List.of(STEEL, IRON), replaced);
+    }
+
+    @Test
+    void complete_AppliesLatestTokenizedChangeOfEveryConcept() {
+        var steel = new WordTokenSearchEntry<>(STEEL, List.of(), 3);
+        var iron = new WordTokenSearchEntry<>(IRON, List.of(), 3);
+
+        warmup.replaceAllTokenized("project", Set.of(STEEL, IRON), Map.of("en", List.of(steel, iron)));
+        warmup.replaceAllTokenized("project", Set.of(STEEL), Map.of());
+        warmup.complete();
+
+        assertEquals(Set.of(STEEL, IRON), Set.copyOf(replaced));
+        assertEquals(List.of(Map.of("en", List.of(iron))), replacedEntries);
+    }
+
+    @Test
+    void fail_DropsChangesUntilRetried() {
+        warmup.replaceAll("project", labels(STEEL));
+        warmup.fail(new IllegalStateException("database unavailable"));
+        warmup.replaceAll("project", labels(IRON));
+
+        warmup.retry();
+        warmup.complete();
+
+        assertEquals(List.of(), replaced);
+    }
+
+    @Test
+    void retry_ResetsProgressAndHoldsBackChanges() {
+        warmup.labelsDone(10);
+        warmup.fail(new IllegalStateException("database unavailable"));
+
+        warmup.retry();
+        warmup.replaceAll("project", labels(STEEL));
+        warmup.complete();
+
+        assertEquals(2, warmup.getAttempts());
+        assertEquals(0, warmup.getLabelsDone());
+        assertNull(warmup.getFailure());
+        assertEquals(List.of(STEEL), replaced);
+    }
+}
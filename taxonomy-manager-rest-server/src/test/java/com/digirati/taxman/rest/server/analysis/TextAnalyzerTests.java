@@ -0,0 +1,103 @@
+package com.digirati.taxman.rest.server.analysis;
+
+import com.digirati.taxman.analysis.index.MultilingualTermIndex;
+import com.digirati.taxman.analysis.index.TermIndex;
+import com.digirati.taxman.analysis.nlp.rulebased.RuleBasedWordTokenizer;
+import com.digirati.taxman.analysis.search.NaiveSearchStrategy;
+import com.digirati.taxman.common.rdf.RdfModelException;
+import com.digirati.taxman.common.rdf.RdfModelFactory;
+import com.digirati.taxman.common.taxonomy.ConceptModel;
+import com.digirati.taxman.rest.analysis.TextAnalysisInput;
+import com.digirati.taxman.rest.server.infrastructure.config.RdfConfig;
+import com.digirati.taxman.rest.server.infrastructure.config.TaxonomyIndexConfig;
+import com.digirati.taxman.rest.server.taxonomy.ConceptModelRepository;
+import org.apache.jena.vocabulary.DCTerms;
+import org.apache.jena.vocabulary.SKOS;
+import org.junit.jupiter.api.Test;
+
+import javax.ws.rs.BadRequestException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TextAnalyzerTests {
+    private static final UUID STEEL = new UUID(0, 1);
+    private static final UUID GIRDER = new UUID(0, 2);
+
+    @Test
+    void tagDocument_RejectsEditDistanceUnlessFuzzyMatchingIsSupported() {
+        var analyzer = new TextAnalyzer();
+        analyzer.indexConfig = new TaxonomyIndexConfig() {
+            @Override
+            public boolean isFuzzyMatchingSupported() {
+                return false;
+            }
+        };
+
+        var input = new TextAnalysisInput();
+        input.setText("finnished steel girdr");
+        input.setMaxEditDistance(1);
+
+        assertThrows(BadRequestException.class, () -> analyzer.tagDocument(input));
+    }
+
+    @Test
+    void tagDocument_ScoresEveryMember() {
+        var modelFactory = new RdfModelFactory();
+        var analyzer = new TextAnalyzer();
+        analyzer.defaultLanguageKey = "en";
+        analyzer.modelFactory = modelFactory;
+        analyzer.termIndex = new MultilingualTermIndex<>(language ->
+                new TermIndex<>(RuleBasedWordTokenizer.create(language), NaiveSearchStrategy::new));
+        analyzer.termIndex.forLanguage("en").addAll("project", Map.of(STEEL, "steel", GIRDER, "steel girder"));
+
+        // The concepts are loaded in the opposite order to their rank.
+        analyzer.concepts = new ConceptModelRepository() {
+            @Override
+            public List<ConceptModel> findAll(Collection<UUID> uuids) {
+                var models = new ArrayList<ConceptModel>();
+                for (var uuid : uuids) {
+                    models.add(0, concept(modelFactory, uuid));
+                }
+
+                return models;
+            }
+        };
+
+        var input = new TextAnalysisInput();
+        input.setText("steel girder");
+        input.setLanguage("en");
+
+        var scores = new HashMap<String, Double>();
+        var extents = new HashMap<String, String>();
+        analyzer.tagDocument(input).getResource().listProperties(SKOS.member).forEachRemaining(member -> {
+            var concept = member.getResource();
+            scores.put(concept.getURI(), concept.getProperty(RdfConfig.score).getDouble());
+            extents.put(concept.getURI(), concept.getProperty(DCTerms.extent).getString());
+        });
+
+        assertEquals(Map.of("urn:" + STEEL, "0:5", "urn:" + GIRDER, "0:12"), extents);
+        assertTrue(scores.get("urn:" + GIRDER) > scores.get("urn:" + STEEL));
+    }
+
+    private static ConceptModel concept(RdfModelFactory modelFactory, UUID uuid) {
+        try {
+            var concept = modelFactory.createBuilder(ConceptModel.class)
+                    .setUri(URI.create("urn:" + uuid))
+                    .build();
+            concept.setUuid(uuid);
+
+            return concept;
+        } catch (RdfModelException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
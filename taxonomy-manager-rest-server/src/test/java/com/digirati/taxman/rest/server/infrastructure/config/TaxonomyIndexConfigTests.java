@@ -0,0 +1,23 @@
+package com.digirati.taxman.rest.server.infrastructure.config;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TaxonomyIndexConfigTests {
+
+    private static TaxonomyIndexConfig config(String searchStrategy) {
+        var config = new TaxonomyIndexConfig();
+        config.searchStrategy = searchStrategy;
+
+        return config;
+    }
+
+    @Test
+    void isFuzzyMatchingSupported_DependsOnSearchStrategy() {
+        assertTrue(config("phrase-automaton").isFuzzyMatchingSupported());
+        assertTrue(config("inverted-index").isFuzzyMatchingSupported());
+        assertFalse(config("naive").isFuzzyMatchingSupported());
+    }
+}
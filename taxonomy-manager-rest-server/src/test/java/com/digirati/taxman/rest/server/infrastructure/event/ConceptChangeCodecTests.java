@@ -0,0 +1,127 @@
+package com.digirati.taxman.rest.server.infrastructure.event;
+
+import com.digirati.taxman.analysis.index.Term;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConceptChangeCodecTests {
+    private static final UUID FIRST_CONCEPT = UUID.fromString("3828f4e5-ad0d-402c-978a-e2b9939332c7");
+    private static final UUID SECOND_CONCEPT = UUID.fromString("b0b7a5a6-9b44-4c64-9a0e-6a8d0b3c1f52");
+
+    private static ConceptChangeBatch roundTrip(ConceptChangeBatch batch) {
+        var message = ConceptChangeCodec.encode(batch);
+        var padded = new byte[message.length + 8];
+        System.arraycopy(message, 0, padded, 3, message.length);
+
+        return ConceptChangeCodec.decode(padded, 3, message.length);
+    }
+
+    @Test
+    void decode_ReturnsEncodedChanges() {
+        var batch = new ConceptChangeBatch(List.of(
+                new ConceptChangeEvent(FIRST_CONCEPT, "project",
+                        Map.of("en", List.of(new Term("steel girders", 3), new Term("girders", 1)),
+                                "de", List.of(new Term("Stahlträger", 3)))),
+                new ConceptChangeEvent(SECOND_CONCEPT, "project", Map.of()),
+                new ConceptChangeEvent(FIRST_CONCEPT, "other-project",
+                        Map.of("en", List.of(Term.of("rolling mills"))))));
+
+        assertEquals(batch.getLabelsByProject(), roundTrip(batch).getLabelsByProject());
+    }
+
+    @Test
+    void encode_CompressesLargeBatches() {
+        var events = new ArrayList<ConceptChangeEvent>();
+        for (int index = 0; index < 100; index++) {
+            var labels = Map.of("en", List.of(Term.of("label " + index)));
+            events.add(new ConceptChangeEvent(new UUID(0, index), "project", labels));
+        }
+
+        var batch = new ConceptChangeBatch(events);
+        var message = ConceptChangeCodec.encode(batch);
+
+        assertTrue(message.length < 100 * 16, "message should be smaller than its UUIDs");
+        assertEquals(batch.getLabelsByProject(), roundTrip(batch).getLabelsByProject());
+    }
+
+    @Test
+    void decode_ReturnsImportedProjects() {
+        var batch = ConceptChangeBatch.imported(List.of("project", "other-project"));
+        var decoded = roundTrip(batch);
+
+        assertEquals(Set.of("project", "other-project"), decoded.getImportedProjects());
+        assertTrue(decoded.getLabelsByProject().isEmpty());
+    }
+
+    @Test
+    void decode_RejectsTruncatedMessage() {
+        var message = ConceptChangeCodec.encode(new ConceptChangeBatch(List.of(
+                new ConceptChangeEvent(FIRST_CONCEPT, "project", Map.of("en", List.of(Term.of("steel girders")))))));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> ConceptChangeCodec.decode(Arrays.copyOf(message, message.length - 4), 0, message.length - 4));
+    }
+
+    @Test
+    void decode_RejectsDeflatedLengthBeyondTheBody() {
+        var message = new byte[] {ConceptChangeCodec.VERSION, 1, (byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff,
+                0x07, 0x78, (byte) 0x9c, 0x03, 0x00};
+
+        assertThrows(IllegalArgumentException.class, () -> ConceptChangeCodec.decode(message, 0, message.length));
+    }
+
+    @Test
+    void decode_RejectsOverstatedDeflatedLength() {
+        var events = new ArrayList<ConceptChangeEvent>();
+        for (int index = 0; index < 100; index++) {
+            events.add(new ConceptChangeEvent(new UUID(0, index), "project", Map.of("en", List.of(Term.of("label")))));
+        }
+
+        var message = ConceptChangeCodec.encode(new ConceptChangeBatch(events));
+
+        // Rewrite the inflated length that follows the version and flags, adding a kilobyte to it.
+        int length = 0;
+        int offset = 2;
+        for (int shift = 0; ; shift += 7) {
+            length |= (message[offset] & 0x7f) << shift;
+            if (message[offset++] >= 0) {
+                break;
+            }
+        }
+
+        var overstated = new ByteArrayOutputStream();
+        overstated.write(message, 0, 2);
+        for (int value = length + 1024; ; value >>>= 7) {
+            if ((value & ~0x7f) == 0) {
+                overstated.write(value);
+                break;
+            }
+
+            overstated.write((value & 0x7f) | 0x80);
+        }
+
+        overstated.write(message, offset, message.length - offset);
+        var rewritten = overstated.toByteArray();
+
+        assertThrows(IllegalArgumentException.class, () -> ConceptChangeCodec.decode(rewritten, 0, rewritten.length));
+    }
+
+    @Test
+    void decode_RejectsUnknownVersion() {
+        var message = ConceptChangeCodec.encode(new ConceptChangeBatch(Map.of()));
+        message[0] = ConceptChangeCodec.VERSION + 1;
+
+        assertThrows(IllegalArgumentException.class, () -> ConceptChangeCodec.decode(message, 0, message.length));
+    }
+}
@@ -0,0 +1,35 @@
+package com.digirati.taxman.rest.server.infrastructure.event;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ConceptChangeLogReplayerTests {
+
+    private ConceptChangeLogReplayer replayer;
+
+    @BeforeEach
+    void createReplayer() {
+        replayer = new ConceptChangeLogReplayer();
+        replayer.settleTime = Duration.ofMinutes(1);
+        replayer.replayInterval = Duration.ofMinutes(1);
+        replayer.snapshotInterval = Duration.ofMinutes(5);
+    }
+
+    @Test
+    void getRetention_KeepsConfiguredRetention() {
+        replayer.retention = Duration.ofDays(7);
+
+        assertEquals(Duration.ofDays(7), replayer.getRetention());
+    }
+
+    @Test
+    void getRetention_CoversSettleTimeAndIntervals() {
+        replayer.retention = Duration.ofMinutes(2);
+
+        assertEquals(Duration.ofMinutes(7), replayer.getRetention());
+    }
+}
@@ -0,0 +1,42 @@
+package com.digirati.taxman.rest.server.infrastructure.lifecycle;
+
+import com.digirati.taxman.analysis.index.MultilingualTermIndex;
+import com.digirati.taxman.analysis.index.Term;
+import com.digirati.taxman.analysis.index.TermIndex;
+import com.digirati.taxman.analysis.nlp.rulebased.RuleBasedWordTokenizer;
+import com.digirati.taxman.analysis.search.NaiveSearchStrategy;
+import com.digirati.taxman.rest.server.analysis.TermIndexWarmup;
+import com.digirati.taxman.rest.server.taxonomy.storage.record.ConceptRecord;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ParallelTermIndexBuilderTests {
+
+    @Test
+    void build_ReportsProjectsAsRecordsAreRead() {
+        var termIndex = new MultilingualTermIndex<String, UUID>(language ->
+                new TermIndex<>(RuleBasedWordTokenizer.create(language), NaiveSearchStrategy::new));
+        var progress = new TermIndexWarmup();
+        var builder = new ParallelTermIndexBuilder(termIndex, 2,
+                record -> Map.of("en", List.of(Term.of("steel"))), progress);
+
+        // The project count is sampled as every record is read, before any project is indexed.
+        var projects = new ArrayList<Integer>();
+        var records = Stream.of("project1", "project1", "project2")
+                .map(project -> new ConceptRecord(UUID.randomUUID(), project))
+                .peek(record -> projects.add(progress.getProjects()));
+
+        builder.build(records);
+
+        assertEquals(List.of(0, 1, 1), projects);
+        assertEquals(2, progress.getProjects());
+        assertEquals(2, progress.getProjectsDone());
+    }
+}
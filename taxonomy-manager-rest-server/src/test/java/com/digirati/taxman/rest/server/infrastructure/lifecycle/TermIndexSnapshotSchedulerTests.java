@@ -0,0 +1,93 @@
+package com.digirati.taxman.rest.server.infrastructure.lifecycle;
+
+import org.eclipse.microprofile.config.Config;
+import org.eclipse.microprofile.config.spi.ConfigSource;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class TermIndexSnapshotSchedulerTests {
+
+    private static TermIndexSnapshotScheduler scheduler(Map<String, String> properties) {
+        var scheduler = new TermIndexSnapshotScheduler();
+        scheduler.defaultLanguageKey = "en";
+        scheduler.indexedProperties = List.of("prefLabel", "altLabel", "hiddenLabel");
+        scheduler.languages = Optional.empty();
+        scheduler.tokenizer = "corenlp";
+        scheduler.config = new Config() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> T getValue(String name, Class<T> type) {
+                var value = properties.get(name);
+                return type == String[].class ? (T) value.split(",") : type.cast(value);
+            }
+
+            @Override
+            public <T> Optional<T> getOptionalValue(String name, Class<T> type) {
+                return Optional.ofNullable(properties.get(name)).map(value -> getValue(name, type));
+            }
+
+            @Override
+            public Iterable<String> getPropertyNames() {
+                return properties.keySet();
+            }
+
+            @Override
+            public Iterable<ConfigSource> getConfigSources() {
+                return List.of();
+            }
+        };
+
+        return scheduler;
+    }
+
+    @Test
+    void configuration_IgnoresOrderOfIndexedProperties() {
+        var original = scheduler(Map.of("taxman.analysis.projects.steel.indexed-properties", "prefLabel,note"));
+        var reordered = scheduler(Map.of("taxman.analysis.projects.steel.indexed-properties", "note, prefLabel"));
+        reordered.indexedProperties = List.of("hiddenLabel", "prefLabel", "altLabel");
+
+        assertEquals(original.configuration(), reordered.configuration());
+    }
+
+    @Test
+    void configuration_ChangesWithProjectProfile() {
+        var original = scheduler(Map.of());
+        var changed = scheduler(Map.of("taxman.analysis.projects.steel.indexed-properties", "prefLabel,note"));
+
+        assertNotEquals(original.configuration(), changed.configuration());
+    }
+
+    @Test
+    void configuration_ChangesWithLanguages() {
+        var original = scheduler(Map.of());
+        var changed = scheduler(Map.of());
+        changed.languages = Optional.of(List.of("en", "fr"));
+
+        assertNotEquals(original.configuration(), changed.configuration());
+    }
+
+    @Test
+    void configuration_ChangesWithTokenizerOfAnyLanguage() {
+        var original = scheduler(Map.of("taxman.analysis.lang.fr.tokenizer", "rule-based"));
+        var changed = scheduler(Map.of("taxman.analysis.lang.fr.tokenizer", "corenlp"));
+        var defaultChanged = scheduler(Map.of("taxman.analysis.lang.fr.tokenizer", "rule-based"));
+        defaultChanged.tokenizer = "rule-based";
+
+        assertNotEquals(original.configuration(), changed.configuration());
+        assertNotEquals(original.configuration(), defaultChanged.configuration());
+    }
+
+    @Test
+    void configuration_IgnoresUnrelatedProperties() {
+        var original = scheduler(Map.of());
+        var unrelated = scheduler(Map.of("taxman.analysis.snapshot.interval", "PT1M"));
+
+        assertEquals(original.configuration(), unrelated.configuration());
+    }
+}
@@ -0,0 +1,99 @@
+package com.digirati.taxman.rest.server.taxonomy;
+
+import com.digirati.taxman.rest.server.taxonomy.storage.ConceptDao;
+import com.digirati.taxman.rest.server.taxonomy.storage.ConceptDataSet;
+import com.digirati.taxman.rest.server.taxonomy.storage.ConceptDataSetCache;
+import com.digirati.taxman.rest.server.taxonomy.storage.record.ConceptRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ConceptModelRepositoryTests {
+    private static final UUID STEEL = new UUID(0, 1);
+
+    private final List<Synchronization> synchronizations = new ArrayList<>();
+
+    private ConceptModelRepository repository;
+
+    private Object transaction;
+
+    @BeforeEach
+    void createRepository() {
+        repository = new ConceptModelRepository();
+        repository.cache = new ConceptDataSetCache(1_000_000);
+        repository.cache.get(STEEL, uuid -> Optional.of(new ConceptDataSet(new ConceptRecord(uuid, "default"))));
+        repository.conceptDao = new ConceptDao(new DriverManagerDataSource()) {
+            @Override
+            public List<ConceptRecord> importDataSets(Collection<ConceptDataSet> datasets, IntConsumer progress) {
+                return List.of(new ConceptRecord(STEEL, "default"));
+            }
+        };
+        repository.transactionRegistry = new TransactionSynchronizationRegistry() {
+            @Override
+            public Object getTransactionKey() {
+                return transaction;
+            }
+
+            @Override
+            public void registerInterposedSynchronization(Synchronization synchronization) {
+                synchronizations.add(synchronization);
+            }
+
+            @Override
+            public int getTransactionStatus() {
+                return transaction == null ? Status.STATUS_NO_TRANSACTION : Status.STATUS_ACTIVE;
+            }
+
+            @Override
+            public void putResource(Object key, Object value) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public Object getResource(Object key) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void setRollbackOnly() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public boolean getRollbackOnly() {
+                return false;
+            }
+        };
+    }
+
+    @Test
+    void importAll_InvalidatesCacheOnceTransactionCompletes() {
+        transaction = new Object();
+
+        repository.importAll(List.of(), imported -> { });
+        assertEquals(1, repository.cache.getSize());
+
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(Status.STATUS_COMMITTED));
+        assertEquals(0, repository.cache.getSize());
+    }
+
+    @Test
+    void importAll_InvalidatesCacheImmediatelyOutsideTransaction() {
+        repository.importAll(List.of(), imported -> { });
+
+        assertEquals(0, repository.cache.getSize());
+        assertEquals(List.of(), synchronizations);
+    }
+}
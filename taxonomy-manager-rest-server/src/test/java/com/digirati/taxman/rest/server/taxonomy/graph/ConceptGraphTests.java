@@ -0,0 +1,100 @@
+package com.digirati.taxman.rest.server.taxonomy.graph;
+
+import com.digirati.taxman.common.taxonomy.ConceptRelationshipType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static com.digirati.taxman.common.taxonomy.ConceptRelationshipType.BROADER;
+import static com.digirati.taxman.common.taxonomy.ConceptRelationshipType.NARROWER;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ConceptGraphTests {
+    private static final UUID METALS = new UUID(0, 1);
+    private static final UUID STEEL = new UUID(0, 2);
+    private static final UUID STAINLESS_STEEL = new UUID(0, 3);
+    private static final UUID IRON = new UUID(0, 4);
+    private static final UUID MATERIALS = new UUID(0, 5);
+
+    private static ConceptGraph.Relation relation(UUID source, UUID target, ConceptRelationshipType type) {
+        return new ConceptGraph.Relation(source, target, type);
+    }
+
+    private static ConceptGraph hierarchy() {
+        return ConceptGraph.of(List.of(
+                relation(METALS, STEEL, NARROWER),
+                relation(METALS, IRON, NARROWER),
+                relation(STEEL, STAINLESS_STEEL, NARROWER),
+                relation(STAINLESS_STEEL, STEEL, BROADER),
+                relation(STEEL, METALS, BROADER),
+                relation(METALS, MATERIALS, BROADER)));
+    }
+
+    @Test
+    void traverse_FollowsRelationsOfTypeUpToLevels() {
+        var graph = hierarchy();
+
+        assertEquals(List.of(STEEL, IRON), graph.traverse(METALS, NARROWER, 1));
+        assertEquals(List.of(STEEL, IRON, STAINLESS_STEEL), graph.traverse(METALS, NARROWER, 2));
+        assertEquals(List.of(STEEL, METALS, MATERIALS), graph.traverse(STAINLESS_STEEL, BROADER, 5));
+    }
+
+    @Test
+    void traverse_VisitsEveryConceptOnce() {
+        var graph = ConceptGraph.of(List.of(
+                relation(METALS, STEEL, ConceptRelationshipType.RELATED),
+                relation(METALS, STEEL, ConceptRelationshipType.RELATED),
+                relation(STEEL, METALS, ConceptRelationshipType.RELATED),
+                relation(STEEL, IRON, ConceptRelationshipType.RELATED),
+                relation(IRON, METALS, ConceptRelationshipType.RELATED)));
+
+        assertEquals(List.of(STEEL, IRON), graph.traverse(METALS, ConceptRelationshipType.RELATED, 10));
+    }
+
+    @Test
+    void traverse_ReturnsNothingForUnknownConcept() {
+        assertEquals(List.of(), hierarchy().traverse(new UUID(1, 1), NARROWER, 3));
+    }
+
+    @Test
+    void replaceAll_ReplacesRelationsOfConcepts() {
+        var graph = hierarchy();
+        graph.replaceAll(List.of(METALS, IRON), List.of(
+                relation(METALS, IRON, NARROWER),
+                relation(IRON, STEEL, NARROWER)));
+
+        assertEquals(List.of(IRON, STEEL, STAINLESS_STEEL), graph.traverse(METALS, NARROWER, 3));
+        assertEquals(List.of(STEEL, METALS), graph.traverse(STAINLESS_STEEL, BROADER, 5));
+    }
+
+    @Test
+    void replaceAll_RemovesRelationsOfMissingConcepts() {
+        var graph = hierarchy();
+        graph.replaceAll(List.of(STEEL), List.of());
+
+        assertEquals(List.of(STEEL, IRON), graph.traverse(METALS, NARROWER, 3));
+    }
+
+    @Test
+    void replaceAll_AddsNewConcepts() {
+        var graph = new ConceptGraph();
+        graph.replaceAll(List.of(METALS), List.of(relation(METALS, STEEL, NARROWER)));
+        graph.replaceAll(List.of(STEEL), List.of(relation(STEEL, STAINLESS_STEEL, NARROWER)));
+
+        assertEquals(List.of(STEEL, STAINLESS_STEEL), graph.traverse(METALS, NARROWER, 2));
+        assertEquals(3, graph.size());
+    }
+
+    @Test
+    void replaceAll_CompactsOverlay() {
+        var graph = new ConceptGraph(1);
+        graph.replaceAll(List.of(METALS), List.of(relation(METALS, STEEL, NARROWER)));
+        graph.replaceAll(List.of(STEEL), List.of(relation(STEEL, STAINLESS_STEEL, NARROWER)));
+        graph.replaceAll(List.of(STAINLESS_STEEL), List.of(relation(STAINLESS_STEEL, IRON, NARROWER)));
+        graph.replaceAll(List.of(STEEL), List.of(relation(STEEL, IRON, NARROWER)));
+
+        assertEquals(List.of(STEEL, IRON), graph.traverse(METALS, NARROWER, 3));
+        assertEquals(List.of(IRON), graph.traverse(STAINLESS_STEEL, NARROWER, 3));
+    }
+}
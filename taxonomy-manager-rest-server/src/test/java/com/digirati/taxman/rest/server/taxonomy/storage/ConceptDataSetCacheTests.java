@@ -0,0 +1,158 @@
+package com.digirati.taxman.rest.server.taxonomy.storage;
+
+import com.digirati.taxman.common.taxonomy.ConceptRelationshipType;
+import com.digirati.taxman.rest.server.taxonomy.storage.record.ConceptRecord;
+import com.digirati.taxman.rest.server.taxonomy.storage.record.ConceptRelationshipRecord;
+import com.google.common.collect.ArrayListMultimap;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConceptDataSetCacheTests {
+    private static final UUID METALS = new UUID(0, 1);
+    private static final UUID STEEL = new UUID(0, 2);
+    private static final UUID IRON = new UUID(0, 3);
+
+    private final List<UUID> loaded = new ArrayList<>();
+
+    private static ConceptRecord record(UUID uuid, String label) {
+        var record = new ConceptRecord(uuid, "default");
+        var preferredLabel = ArrayListMultimap.<String, String>create();
+        preferredLabel.put("en", label);
+        record.setPreferredLabel(preferredLabel);
+
+        return record;
+    }
+
+    private static ConceptDataSet dataSet(UUID uuid, UUID... narrower) {
+        var relationships = new ArrayList<ConceptRelationshipRecord>();
+        for (var target : narrower) {
+            relationships.add(new ConceptRelationshipRecord(uuid, target, null, ConceptRelationshipType.NARROWER,
+                    false));
+        }
+
+        return new ConceptDataSet(record(uuid, uuid.toString()), relationships);
+    }
+
+    private Optional<ConceptDataSet> load(UUID uuid) {
+        loaded.add(uuid);
+        return Optional.of(dataSet(uuid, METALS.equals(uuid) ? new UUID[] {STEEL} : new UUID[0]));
+    }
+
+    private List<ConceptRecord> loadRecords(Collection<UUID> uuids) {
+        loaded.addAll(uuids);
+        return uuids.stream().map(uuid -> record(uuid, uuid.toString())).collect(Collectors.toList());
+    }
+
+    @Test
+    void get_ReadsThroughOnce() {
+        var cache = new ConceptDataSetCache(1_000_000);
+
+        var first = cache.get(METALS, this::load).orElseThrow();
+        var second = cache.get(METALS, this::load).orElseThrow();
+
+        assertSame(first, second);
+        assertEquals(List.of(METALS), loaded);
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    void get_DoesNotCacheMissingConcepts() {
+        var cache = new ConceptDataSetCache(1_000_000);
+
+        assertTrue(cache.get(METALS, uuid -> Optional.empty()).isEmpty());
+        assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    void invalidateAll_EvictsConceptsRelatedToInvalidated() {
+        var cache = new ConceptDataSetCache(1_000_000);
+        cache.get(METALS, this::load);
+        cache.get(IRON, this::load);
+
+        // Metals holds the label of steel, its narrower concept, which has just changed.
+        cache.invalidateAll(List.of(STEEL));
+        cache.get(METALS, this::load);
+        cache.get(IRON, this::load);
+
+        assertEquals(List.of(METALS, IRON, METALS), loaded);
+    }
+
+    @Test
+    void getAllRecords_ReadsOnlyMissingRecordsInOrder() {
+        var cache = new ConceptDataSetCache(1_000_000);
+        cache.get(STEEL, this::load);
+
+        var records = cache.getAllRecords(List.of(IRON, STEEL, METALS), this::loadRecords);
+
+        assertEquals(List.of(IRON, STEEL, METALS),
+                records.stream().map(ConceptRecord::getUuid).collect(Collectors.toList()));
+        assertEquals(List.of(STEEL, IRON, METALS), loaded);
+    }
+
+    @Test
+    void get_DoesNotServeRecordsWithoutRelationships() {
+        var cache = new ConceptDataSetCache(1_000_000);
+        cache.getAllRecords(List.of(METALS), this::loadRecords);
+
+        var dataSet = cache.get(METALS, this::load).orElseThrow();
+
+        assertEquals(1, dataSet.getRelationshipRecords().size());
+        assertEquals(List.of(METALS, METALS), loaded);
+    }
+
+    @Test
+    void get_DoesNotCacheReadRacingInvalidation() {
+        var cache = new ConceptDataSetCache(1_000_000);
+
+        cache.get(METALS, uuid -> {
+            cache.invalidateAll(List.of(uuid));
+            return load(uuid);
+        });
+        cache.get(METALS, this::load);
+
+        assertEquals(List.of(METALS, METALS), loaded);
+    }
+
+    @Test
+    void get_EvictsToStayWithinWeight() {
+        var cache = new ConceptDataSetCache(ConceptDataSetCache.BASE_WEIGHT * 4);
+
+        for (int index = 0; index < 100; index++) {
+            cache.get(new UUID(1, index), this::load);
+        }
+
+        assertTrue(cache.getSize() < 100);
+        assertEquals(100 - cache.getSize(), cache.getEvictionCount());
+    }
+
+    @Test
+    void get_KeepsFrequentlyReadConceptsDuringSweep() {
+        var cache = new ConceptDataSetCache(ConceptDataSetCache.BASE_WEIGHT * 8);
+        for (int index = 0; index < 8; index++) {
+            cache.get(new UUID(1, index), this::load);
+        }
+
+        for (int read = 0; read < 10; read++) {
+            cache.get(STEEL, this::load);
+        }
+
+        for (int index = 0; index < 100; index++) {
+            cache.get(new UUID(2, index), this::load);
+        }
+
+        cache.get(STEEL, this::load);
+
+        assertEquals(1, loaded.stream().filter(STEEL::equals).count());
+    }
+}
@@ -1,10 +1,24 @@
 package com.digirati.taxman.rest.analysis;
 
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
 import java.util.Optional;
 
 public class TextAnalysisInput {
     private String text;
     private String projectId;
+    private String language;
+
+    @Positive
+    private Integer limit;
+
+    @PositiveOrZero
+    private Double minScore;
+
+    @PositiveOrZero
+    @Max(2)
+    private Integer maxEditDistance;
 
     public String getText() {
         return text;
@@ -21,4 +35,50 @@ public class TextAnalysisInput {
     public void setProjectId(String projectId) {
         this.projectId = projectId;
     }
+
+    /**
+     * The language code of the text, e.g. "fr". The language is detected if not given.
+     */
+    public Optional<String> getLanguage() {
+        return Optional.ofNullable(language);
+    }
+
+    public void setLanguage(String language) {
+        this.language = language;
+    }
+
+    /**
+     * The greatest number of concepts to tag the text with, keeping those with the highest scores.
+     */
+    public Optional<Integer> getLimit() {
+        return Optional.ofNullable(limit);
+    }
+
+    public void setLimit(Integer limit) {
+        this.limit = limit;
+    }
+
+    /**
+     * The lowest score of a concept to tag the text with.
+     */
+    public Optional<Double> getMinScore() {
+        return Optional.ofNullable(minScore);
+    }
+
+    public void setMinScore(Double minScore) {
+        this.minScore = minScore;
+    }
+
+    /**
+     * The number of typing or OCR errors to allow in every word of a label, from 0 (the default) to 2. Short words
+     * are always matched exactly. Requests with a distance above 0 are rejected if the server's search strategy
+     * can't match fuzzily.
+     */
+    public Optional<Integer> getMaxEditDistance() {
+        return Optional.ofNullable(maxEditDistance);
+    }
+
+    public void setMaxEditDistance(Integer maxEditDistance) {
+        this.maxEditDistance = maxEditDistance;
+    }
 }